@@ -0,0 +1,10 @@
+package nl.mvdr.game.benchmark;
+
+/**
+ * Input values used in the benchmarks, modelled after a typical gamepad.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public enum BenchmarkInput {
+    LEFT, RIGHT, UP, DOWN, A, B, X, Y, L, R, SELECT, START
+}
@@ -0,0 +1,49 @@
+package nl.mvdr.game.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for running the benchmarks.
+ * 
+ * Accepts the same command line arguments as JMH's own main class, but by default also measures allocation per
+ * operation (through the GC profiler) and writes the results as JSON to {@value #DEFAULT_RESULT_FILE}. JSON results
+ * from different releases can be compared side by side, for example using a JMH visualizer, or simply diffed.
+ * 
+ * Usage: {@code java -jar target/benchmarks.jar [JMH options] [benchmark regexp]}
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class BenchmarkRunner {
+    /** Name of the result file, unless overridden using the -rff command line option. */
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    /**
+     * Main method.
+     * 
+     * @param args JMH command line arguments
+     * @throws CommandLineOptionException in case of invalid command line arguments
+     * @throws RunnerException in case the benchmarks could not be run
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .parent(commandLineOptions)
+            .addProfiler(GCProfiler.class);
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(DEFAULT_RESULT_FILE);
+        }
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,64 @@
+package nl.mvdr.game.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.mvdr.game.gui.CompositeRenderer;
+import nl.mvdr.game.gui.GameRenderer;
+import nl.mvdr.game.state.GameState;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for {@link CompositeRenderer#render(GameState)} with a varying number of child renderers.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CompositeRendererBenchmark {
+    /** Number of child renderers. */
+    @Param({ "1", "4", "16" })
+    private int rendererCount;
+    
+    /** Game state to be rendered. */
+    private final GameState state = () -> false;
+    /** Renderer. */
+    private CompositeRenderer<GameState> renderer;
+    
+    /**
+     * Sets up the renderer.
+     * 
+     * @param blackhole blackhole, which consumes the rendered states
+     */
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        List<GameRenderer<GameState>> renderers = new ArrayList<>();
+        for (int i = 0; i != rendererCount; i++) {
+            renderers.add(blackhole::consume);
+        }
+        renderer = new CompositeRenderer<>(renderers);
+    }
+    
+    /** Benchmark for {@link CompositeRenderer#render(GameState)}. */
+    @Benchmark
+    public void render() {
+        renderer.render(state);
+    }
+}
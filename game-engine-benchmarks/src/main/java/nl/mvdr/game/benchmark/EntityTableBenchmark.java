@@ -0,0 +1,182 @@
+package nl.mvdr.game.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import nl.mvdr.game.ecs.DoubleBufferedEntityTable;
+import nl.mvdr.game.ecs.EntityTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing struct-of-arrays entity storage ({@link EntityTable}) with an object-per-entity baseline, for a
+ * simple movement system: each entity's velocity is added to its position.
+ * 
+ * The in-place benchmarks update a single state. The next-state benchmarks follow the {@link
+ * nl.mvdr.game.engine.GameEngine} contract of computing a new state from the previous one: the baseline clones every
+ * entity object, while the entity table uses a {@link DoubleBufferedEntityTable}. The baseline's entities are shuffled
+ * once, so that they are not laid out in memory in iteration order, as happens in a real game once entities have come
+ * and gone.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EntityTableBenchmark {
+    /** Column number of the x coordinate. */
+    private static final int X = 0;
+    /** Column number of the y coordinate. */
+    private static final int Y = 1;
+    /** Column number of the x velocity. */
+    private static final int DX = 2;
+    /** Column number of the y velocity. */
+    private static final int DY = 3;
+
+    /** Number of entities. */
+    @Param({ "1000", "100000" })
+    private int entityCount;
+
+    /** Object-per-entity baseline. */
+    private List<EntityObject> objects;
+    /** Struct-of-arrays entity storage. */
+    private DoubleBufferedEntityTable tables;
+
+    /** Sets up the entities. */
+    @Setup
+    public void setUp() {
+        Random random = new Random(0L);
+        objects = new ArrayList<>(entityCount);
+        tables = new DoubleBufferedEntityTable(entityCount, 4, 0);
+        EntityTable table = tables.getFront();
+        for (int i = 0; i != entityCount; i++) {
+            float x = random.nextFloat();
+            float y = random.nextFloat();
+            float dx = random.nextFloat() - .5f;
+            float dy = random.nextFloat() - .5f;
+
+            objects.add(new EntityObject(x, y, dx, dy));
+
+            int entity = table.create();
+            table.setFloat(entity, X, x);
+            table.setFloat(entity, Y, y);
+            table.setFloat(entity, DX, dx);
+            table.setFloat(entity, DY, dy);
+        }
+        Collections.shuffle(objects, random);
+    }
+
+    /**
+     * Baseline: moves all entity objects in place.
+     * 
+     * @return entities
+     */
+    @Benchmark
+    public List<EntityObject> moveObjectsInPlace() {
+        for (EntityObject object : objects) {
+            object.x += object.dx;
+            object.y += object.dy;
+        }
+        return objects;
+    }
+
+    /**
+     * Moves all entities in the table in place.
+     * 
+     * @return entities
+     */
+    @Benchmark
+    public EntityTable moveTableInPlace() {
+        EntityTable table = tables.getFront();
+        move(table);
+        return table;
+    }
+
+    /**
+     * Baseline: computes the next state by cloning and moving all entity objects.
+     * 
+     * @return next state
+     */
+    @Benchmark
+    public List<EntityObject> nextStateObjects() {
+        List<EntityObject> next = new ArrayList<>(objects.size());
+        for (EntityObject object : objects) {
+            next.add(new EntityObject(object.x + object.dx, object.y + object.dy, object.dx, object.dy));
+        }
+        objects = next;
+        return next;
+    }
+
+    /**
+     * Computes the next state using the double-buffered entity table.
+     * 
+     * @return next state
+     */
+    @Benchmark
+    public EntityTable nextStateTable() {
+        move(tables.beginUpdate(tables.getFront(), tables.getVersion()));
+        tables.commit();
+        return tables.getFront();
+    }
+
+    /**
+     * Movement system for the entity table.
+     * 
+     * @param table table
+     */
+    private static void move(EntityTable table) {
+        float[] x = table.floatColumn(X);
+        float[] y = table.floatColumn(Y);
+        float[] dx = table.floatColumn(DX);
+        float[] dy = table.floatColumn(DY);
+        int size = table.size();
+        for (int i = 0; i != size; i++) {
+            x[i] += dx[i];
+            y[i] += dy[i];
+        }
+    }
+
+    /** Entity in the object-per-entity baseline. */
+    private static class EntityObject {
+        /** X coordinate. */
+        private float x;
+        /** Y coordinate. */
+        private float y;
+        /** X velocity. */
+        private final float dx;
+        /** Y velocity. */
+        private final float dy;
+
+        /**
+         * Constructor.
+         * 
+         * @param x x coordinate
+         * @param y y coordinate
+         * @param dx x velocity
+         * @param dy y velocity
+         */
+        private EntityObject(float x, float y, float dx, float dy) {
+            super();
+            this.x = x;
+            this.y = y;
+            this.dx = dx;
+            this.dy = dy;
+        }
+    }
+}
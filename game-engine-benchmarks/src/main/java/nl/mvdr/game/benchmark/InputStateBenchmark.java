@@ -0,0 +1,78 @@
+package nl.mvdr.game.benchmark;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.input.InputStateImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link InputState#isPressed(Enum)}, comparing {@link InputStateImpl} to {@link BitmaskInputState}.
+ * 
+ * Each operation checks all of the inputs, as a game engine typically would once per update.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InputStateBenchmark {
+    /** All inputs. */
+    private final BenchmarkInput[] inputs = BenchmarkInput.values();
+    /** Input state based on an enum set. */
+    private final InputState<BenchmarkInput> inputStateImpl = new InputStateImpl<>(
+            EnumSet.of(BenchmarkInput.LEFT, BenchmarkInput.A, BenchmarkInput.START));
+    /** Input state based on a bitmask. */
+    private final InputState<BenchmarkInput> bitmaskInputState = BitmaskInputState.of(BenchmarkInput.class,
+            EnumSet.of(BenchmarkInput.LEFT, BenchmarkInput.A, BenchmarkInput.START));
+    
+    /**
+     * Benchmark for {@link InputStateImpl#isPressed(Enum)}.
+     * 
+     * @return number of pressed inputs
+     */
+    @Benchmark
+    public int inputStateImpl() {
+        return countPressed(inputStateImpl);
+    }
+    
+    /**
+     * Benchmark for {@link BitmaskInputState#isPressed(Enum)}.
+     * 
+     * @return number of pressed inputs
+     */
+    @Benchmark
+    public int bitmaskInputState() {
+        return countPressed(bitmaskInputState);
+    }
+    
+    /**
+     * Counts the number of pressed inputs.
+     * 
+     * @param inputState input state
+     * @return number of pressed inputs
+     */
+    private int countPressed(InputState<BenchmarkInput> inputState) {
+        int result = 0;
+        for (BenchmarkInput input : inputs) {
+            if (inputState.isPressed(input)) {
+                result++;
+            }
+        }
+        return result;
+    }
+}
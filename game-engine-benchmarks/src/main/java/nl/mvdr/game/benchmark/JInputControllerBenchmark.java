@@ -0,0 +1,83 @@
+package nl.mvdr.game.benchmark;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier.Button;
+import net.java.games.input.Controller;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.jinput.InputMapping;
+import nl.mvdr.game.jinput.JInputController;
+import nl.mvdr.game.jinput.JInputControllerConfiguration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for {@link JInputController#getInputState()}, using stub controllers and components.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JInputControllerBenchmark {
+    /** Number of controllers; every input is mapped to a button on each of them. */
+    @Param({ "1", "4" })
+    private int controllerCount;
+    
+    /** Components; the first few of these are pressed. */
+    private List<StubComponent> components;
+    /** Input controller. */
+    private JInputController<BenchmarkInput> inputController;
+    
+    /** Sets up the input controller. */
+    @Setup
+    public void setUp() {
+        components = new ArrayList<>();
+        Map<BenchmarkInput, Set<InputMapping>> mapping = new EnumMap<>(BenchmarkInput.class);
+        Set<Controller> controllers = new HashSet<>();
+        for (int i = 0; i != controllerCount; i++) {
+            List<Component> controllerComponents = new ArrayList<>();
+            for (BenchmarkInput input : BenchmarkInput.values()) {
+                StubComponent component = new StubComponent(new Button(input.name() + i));
+                // press a few of the inputs
+                component.setPollData(input.ordinal() % 3 == 0 ? 1f : 0f);
+                components.add(component);
+                controllerComponents.add(component);
+                mapping.computeIfAbsent(input, key -> new HashSet<>()).add(new InputMapping(component, 1f));
+            }
+            controllers.add(new StubController(controllerComponents.toArray(new Component[controllerComponents.size()])));
+        }
+        inputController = new JInputController<>(BenchmarkInput.class,
+                new JInputControllerConfiguration<>(mapping, controllers));
+    }
+    
+    /**
+     * Benchmark for {@link JInputController#getInputState()}.
+     * 
+     * @return input state
+     */
+    @Benchmark
+    public InputState<BenchmarkInput> getInputState() {
+        return inputController.getInputState();
+    }
+}
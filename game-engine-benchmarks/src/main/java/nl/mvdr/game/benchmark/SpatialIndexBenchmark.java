@@ -0,0 +1,192 @@
+package nl.mvdr.game.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import nl.mvdr.game.spatial.LooseQuadtree;
+import nl.mvdr.game.spatial.PairConsumer;
+import nl.mvdr.game.spatial.SortAndSweep;
+import nl.mvdr.game.spatial.SpatialIndex;
+import nl.mvdr.game.spatial.UniformGrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing the {@link SpatialIndex} implementations with a varying number of entities.
+ * 
+ * The entities are small boxes spread uniformly over a square world, which grows with the number of entities so that
+ * the density stays the same. Each tick, every entity moves a little and the index is updated, after which all
+ * overlapping pairs are found; this is a typical broad phase. Range and nearest queries are measured separately, as
+ * batches of {@value #QUERY_COUNT} queries.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SpatialIndexBenchmark {
+    /** Number of queries per batch. */
+    private static final int QUERY_COUNT = 1000;
+    /** Maximum width and height of an entity. */
+    private static final float ENTITY_SIZE = 4f;
+    /** Width and height of a range query. */
+    private static final float QUERY_SIZE = 20f;
+
+    /** Number of entities. */
+    @Param({ "1000", "10000", "100000" })
+    private int entityCount;
+    /** Index implementation. */
+    @Param({ "grid", "quadtree", "sweep" })
+    private String indexType;
+
+    /** Index. */
+    private SpatialIndex index;
+    /** Width and height of the world. */
+    private float worldSize;
+    /** Minimum x coordinate of each entity. */
+    private float[] x;
+    /** Minimum y coordinate of each entity. */
+    private float[] y;
+    /** Size of each entity. */
+    private float[] size;
+    /** Velocity of each entity along the x axis. */
+    private float[] dx;
+    /** Velocity of each entity along the y axis. */
+    private float[] dy;
+    /** Query coordinates. */
+    private float[] queryX;
+    /** Query coordinates. */
+    private float[] queryY;
+    /** Counts the results of a query. */
+    private final Counter counter = new Counter();
+
+    /** Sets up the index and the entities. */
+    @Setup
+    public void setUp() {
+        Random random = new Random(0L);
+        worldSize = 10f * (float) Math.sqrt(entityCount);
+        index = createIndex();
+        x = new float[entityCount];
+        y = new float[entityCount];
+        size = new float[entityCount];
+        dx = new float[entityCount];
+        dy = new float[entityCount];
+        for (int i = 0; i != entityCount; i++) {
+            x[i] = random.nextFloat() * worldSize;
+            y[i] = random.nextFloat() * worldSize;
+            size[i] = random.nextFloat() * ENTITY_SIZE;
+            dx[i] = random.nextFloat() - .5f;
+            dy[i] = random.nextFloat() - .5f;
+            index.insert(i, x[i], y[i], x[i] + size[i], y[i] + size[i]);
+        }
+        queryX = new float[QUERY_COUNT];
+        queryY = new float[QUERY_COUNT];
+        for (int i = 0; i != QUERY_COUNT; i++) {
+            queryX[i] = random.nextFloat() * worldSize;
+            queryY[i] = random.nextFloat() * worldSize;
+        }
+    }
+
+    /** @return new, empty index of the configured type */
+    private SpatialIndex createIndex() {
+        SpatialIndex result;
+        if ("grid".equals(indexType)) {
+            int cells = (int) Math.ceil(worldSize / (2f * ENTITY_SIZE));
+            result = new UniformGrid(entityCount, 0f, 0f, 2f * ENTITY_SIZE, cells, cells);
+        } else if ("quadtree".equals(indexType)) {
+            int depth = 0;
+            while (depth < 12 && 2f * ENTITY_SIZE < worldSize / (1 << depth)) {
+                depth++;
+            }
+            result = new LooseQuadtree(entityCount, 0f, 0f, worldSize, depth);
+        } else if ("sweep".equals(indexType)) {
+            result = new SortAndSweep(entityCount);
+        } else {
+            throw new IllegalStateException("Unknown index type: " + indexType);
+        }
+        return result;
+    }
+
+    /**
+     * Moves every entity, updates the index, and finds all overlapping pairs.
+     * 
+     * @return number of overlapping pairs
+     */
+    @Benchmark
+    public long updateAndQueryPairs() {
+        for (int i = 0; i != entityCount; i++) {
+            x[i] += dx[i];
+            y[i] += dy[i];
+            if (x[i] < 0f || worldSize < x[i]) {
+                dx[i] = -dx[i];
+            }
+            if (y[i] < 0f || worldSize < y[i]) {
+                dy[i] = -dy[i];
+            }
+            index.update(i, x[i], y[i], x[i] + size[i], y[i] + size[i]);
+        }
+        counter.count = 0L;
+        index.queryPairs(counter);
+        return counter.count;
+    }
+
+    /**
+     * Performs a batch of range queries.
+     * 
+     * @return total number of results
+     */
+    @Benchmark
+    public long queryRange() {
+        counter.count = 0L;
+        for (int i = 0; i != QUERY_COUNT; i++) {
+            index.queryRange(queryX[i], queryY[i], queryX[i] + QUERY_SIZE, queryY[i] + QUERY_SIZE, counter);
+        }
+        return counter.count;
+    }
+
+    /**
+     * Performs a batch of nearest queries.
+     * 
+     * @return sum of the results
+     */
+    @Benchmark
+    public long queryNearest() {
+        long result = 0L;
+        for (int i = 0; i != QUERY_COUNT; i++) {
+            result += index.queryNearest(queryX[i], queryY[i], QUERY_SIZE);
+        }
+        return result;
+    }
+
+    /** Query callback which counts the results. */
+    private static class Counter implements PairConsumer, IntConsumer {
+        /** Number of results. */
+        private long count;
+
+        /** {@inheritDoc} */
+        @Override
+        public void accept(int value) {
+            count++;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void accept(int first, int second) {
+            count++;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package nl.mvdr.game.benchmark;
+
+import net.java.games.input.Component;
+
+/**
+ * Stub implementation of {@link Component}, whose poll data can be changed at will.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class StubComponent implements Component {
+    /** Identifier. */
+    private final Identifier identifier;
+    /** Current poll data. */
+    private float pollData;
+    
+    /**
+     * Constructor.
+     * 
+     * @param identifier identifier
+     */
+    public StubComponent(Identifier identifier) {
+        super();
+        this.identifier = identifier;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public Identifier getIdentifier() {
+        return identifier;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isRelative() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isAnalog() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public float getDeadZone() {
+        return 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public float getPollData() {
+        return pollData;
+    }
+    
+    /** @param pollData new poll data */
+    public void setPollData(float pollData) {
+        this.pollData = pollData;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getName() {
+        return identifier.getName();
+    }
+}
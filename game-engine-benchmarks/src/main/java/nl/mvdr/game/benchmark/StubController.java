@@ -0,0 +1,99 @@
+package nl.mvdr.game.benchmark;
+
+import java.util.stream.Stream;
+
+import net.java.games.input.Component;
+import net.java.games.input.Controller;
+import net.java.games.input.EventQueue;
+import net.java.games.input.Rumbler;
+
+/**
+ * Stub implementation of {@link Controller}, which does not require any native libraries or actual hardware.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class StubController implements Controller {
+    /** Components. */
+    private final Component[] components;
+    /** Event queue. Always empty. */
+    private final EventQueue eventQueue = new EventQueue(1);
+    
+    /**
+     * Constructor.
+     * 
+     * @param components components
+     */
+    public StubController(Component... components) {
+        super();
+        this.components = components;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Controller[] getControllers() {
+        return new Controller[0];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Type getType() {
+        return Type.GAMEPAD;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Component[] getComponents() {
+        return components;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Component getComponent(Component.Identifier id) {
+        return Stream.of(components)
+            .filter(component -> component.getIdentifier() == id)
+            .findFirst()
+            .orElse(null);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Rumbler[] getRumblers() {
+        return new Rumbler[0];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean poll() {
+        return true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void setEventQueueSize(int size) {
+        // not supported, ignore
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public EventQueue getEventQueue() {
+        return eventQueue;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PortType getPortType() {
+        return PortType.UNKNOWN;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getPortNumber() {
+        return 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getName() {
+        return "Stub controller";
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Package containing JMH benchmarks for the hot paths of the game engine.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.game.benchmark;
@@ -0,0 +1,120 @@
+package nl.mvdr.game.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.mvdr.game.benchmark.BenchmarkInput;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.state.GameState;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the processing of a single tick of the {@link GameLoop}: retrieving the inputs for all players and
+ * computing the next game state.
+ * 
+ * Note that this benchmark lives in the same package as {@link GameLoop}, in order to access its package-private
+ * update method.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GameLoopBenchmark {
+    /** Number of players. */
+    @Param({ "1", "4" })
+    private int playerCount;
+    
+    /** Game loop. */
+    private GameLoop<CounterState, BenchmarkInput> gameLoop;
+    /** Current game state. */
+    private CounterState state;
+    
+    /** Sets up the game loop. */
+    @Setup
+    public void setUp() {
+        InputState<BenchmarkInput> inputState = BitmaskInputState.valueOf(BenchmarkInput.class, 0b1001L);
+        List<InputController<BenchmarkInput>> inputControllers = new ArrayList<>();
+        for (int i = 0; i != playerCount; i++) {
+            inputControllers.add(() -> inputState);
+        }
+        gameLoop = new GameLoop<>(inputControllers, new CounterEngine(), gameState -> {});
+        state = new CounterState(0);
+    }
+    
+    /**
+     * Benchmark for a single update.
+     * 
+     * @return new state
+     */
+    @Benchmark
+    public CounterState update() {
+        state = gameLoop.update(state);
+        return state;
+    }
+    
+    /** Game state, which counts the number of pressed inputs. */
+    private static class CounterState implements GameState {
+        /** Number of pressed inputs so far. */
+        private final long count;
+        
+        /**
+         * Constructor.
+         * 
+         * @param count number of pressed inputs so far
+         */
+        private CounterState(long count) {
+            super();
+            this.count = count;
+        }
+        
+        /** {@inheritDoc} */
+        @Override
+        public boolean isGameOver() {
+            return false;
+        }
+    }
+    
+    /** Game engine, which counts the number of pressed inputs. */
+    private static class CounterEngine implements GameEngine<CounterState, BenchmarkInput> {
+        /** All inputs. */
+        private final BenchmarkInput[] inputs = BenchmarkInput.values();
+        
+        /** {@inheritDoc} */
+        @Override
+        public CounterState initGameState() {
+            return new CounterState(0);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public CounterState computeNextState(CounterState previousState, List<InputState<BenchmarkInput>> inputStates) {
+            long count = previousState.count;
+            for (int i = 0; i != inputStates.size(); i++) {
+                for (BenchmarkInput input : inputs) {
+                    if (inputStates.get(i).isPressed(input)) {
+                        count++;
+                    }
+                }
+            }
+            return new CounterState(count);
+        }
+    }
+}
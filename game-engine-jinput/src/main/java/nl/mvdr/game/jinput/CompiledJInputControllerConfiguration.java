@@ -0,0 +1,137 @@
+package nl.mvdr.game.jinput;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import net.java.games.input.Component;
+import net.java.games.input.Controller;
+import nl.mvdr.game.input.BitmaskInputState;
+
+/**
+ * Compiled form of a {@link JInputControllerConfiguration}, optimised for being evaluated on every update.
+ *
+ * The input mapping is flattened into parallel arrays of component indices, pressed values and target inputs, sorted by
+ * component. Components which are mapped to multiple inputs are only stored once, so that evaluating the mapping reads
+ * each component's poll data exactly once.
+ *
+ * Instances are immutable and can be shared between threads. Note however that the underlying JInput controllers are
+ * not necessarily thread-safe.
+ *
+ * @param <S> enum type containing all possible inputs from the user
+ *
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "inputType", "components" })
+public class CompiledJInputControllerConfiguration<S extends Enum<S>> {
+    /** Actual enum type for input values. */
+    private final Class<S> inputType;
+    /** All relevant controllers. */
+    @Getter(AccessLevel.PACKAGE)
+    private final Controller[] controllers;
+    /** All mapped components, without duplicates. */
+    @Getter(AccessLevel.PACKAGE)
+    private final Component[] components;
+    /** For each mapping entry: index of the component in {@link #components}. Sorted in ascending order. */
+    @Getter(AccessLevel.PACKAGE)
+    private final int[] componentIndices;
+    /** For each mapping entry: the value the component must have in order to count as pressed. */
+    @Getter(AccessLevel.PACKAGE)
+    private final float[] pressedValues;
+    /** For each mapping entry: ordinal of the input which is pressed. */
+    @Getter(AccessLevel.PACKAGE)
+    private final int[] inputOrdinals;
+
+    /**
+     * Constructor.
+     *
+     * @param inputType actual enum type for input values
+     * @param configuration configuration to be compiled
+     */
+    public CompiledJInputControllerConfiguration(@NonNull Class<S> inputType,
+            @NonNull JInputControllerConfiguration<S> configuration) {
+        super();
+        this.inputType = inputType;
+        this.controllers = configuration.getControllers().toArray(new Controller[configuration.getControllers().size()]);
+
+        Map<Component, Integer> componentIndexMap = new LinkedHashMap<>();
+        List<int[]> entries = new ArrayList<>();
+        List<Float> values = new ArrayList<>();
+        for (S input : inputType.getEnumConstants()) {
+            Set<InputMapping> mappings = configuration.getMapping().getOrDefault(input, Collections.emptySet());
+            for (InputMapping mapping : mappings) {
+                Integer componentIndex = componentIndexMap.computeIfAbsent(mapping.getComponent(),
+                        component -> Integer.valueOf(componentIndexMap.size()));
+                entries.add(new int[] { componentIndex.intValue(), input.ordinal(), values.size() });
+                values.add(Float.valueOf(mapping.getPressedValue()));
+            }
+        }
+        entries.sort(Comparator.comparingInt(entry -> entry[0]));
+
+        this.components = componentIndexMap.keySet().toArray(new Component[componentIndexMap.size()]);
+        this.componentIndices = new int[entries.size()];
+        this.pressedValues = new float[entries.size()];
+        this.inputOrdinals = new int[entries.size()];
+        for (int i = 0; i != entries.size(); i++) {
+            int[] entry = entries.get(i);
+            componentIndices[i] = entry[0];
+            inputOrdinals[i] = entry[1];
+            pressedValues[i] = values.get(entry[2]).floatValue();
+        }
+    }
+
+    /** @return actual enum type for input values */
+    public Class<S> getInputType() {
+        return inputType;
+    }
+
+    /** @return number of distinct components in the mapping */
+    public int getComponentCount() {
+        return components.length;
+    }
+
+    /** @return number of entries in the mapping */
+    public int getEntryCount() {
+        return componentIndices.length;
+    }
+
+    /** Polls all of the relevant controllers. */
+    public void pollControllers() {
+        for (Controller controller : controllers) {
+            controller.poll();
+        }
+    }
+
+    /**
+     * Determines which inputs are pressed, based on the components' current poll data. Does not poll the controllers.
+     *
+     * @param words bitmask to be filled in, where bit {@code i % 64} of {@code words[i / 64]} is set if the input with
+     *            ordinal {@code i} is pressed; must contain at least {@link BitmaskInputState#wordCount(Class)} words
+     */
+    public void evaluate(long[] words) {
+        for (int i = 0; i != words.length; i++) {
+            words[i] = 0L;
+        }
+
+        int componentIndex = -1;
+        float pollData = 0f;
+        for (int i = 0; i != componentIndices.length; i++) {
+            if (componentIndices[i] != componentIndex) {
+                componentIndex = componentIndices[i];
+                pollData = components[componentIndex].getPollData();
+            }
+            if (pollData == pressedValues[i]) {
+                int ordinal = inputOrdinals[i];
+                words[ordinal / Long.SIZE] |= 1L << ordinal;
+            }
+        }
+    }
+}
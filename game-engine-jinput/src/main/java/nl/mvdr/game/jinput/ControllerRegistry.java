@@ -0,0 +1,233 @@
+package nl.mvdr.game.jinput;
+
+import java.io.Closeable;
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import net.java.games.input.Controller;
+import net.java.games.input.ControllerEnvironment;
+
+/**
+ * Registry of the available JInput controllers.
+ * 
+ * Enumerating controllers through JInput's native plugins is slow, so the registry does this in the background: an
+ * initial scan is started as soon as the registry is started, and the controllers are rescanned periodically on a
+ * low-priority thread in order to detect devices being plugged in or removed. The results are published as immutable
+ * {@link ControllerSnapshot}s; a new snapshot is only published when the set of devices actually changes. Use
+ * {@link JInputControllerConfiguration#rebind(ControllerSnapshot)} to update a configuration to a new snapshot.
+ * 
+ * Note that JInput's default environment only enumerates the controllers once. In order to detect changes, a new
+ * environment would have to be created for every scan. On Linux, each environment opens every event device and
+ * registers a shutdown hook, and JInput offers no way to release them again. The convenience constructor therefore
+ * does not rescan periodically: it uses the default environment for the initial scan, and only creates a new
+ * environment when a rescan is explicitly requested through {@link #requestRescan()}; if that is not possible, the
+ * controllers never change.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "snapshot", "rescanInterval" })
+public class ControllerRegistry implements Closeable {
+    /** Enumerates the controllers, for the initial and periodic scans. */
+    private final Supplier<Controller[]> scanner;
+    /** Enumerates the controllers, for scans requested through {@link #requestRescan()}. */
+    private final Supplier<Controller[]> rescanner;
+    /** Time between scans, in milliseconds; 0 for no periodic scans. */
+    private final long rescanInterval;
+    /** Listeners, to be notified whenever a new snapshot is published. */
+    private final List<Consumer<ControllerSnapshot>> listeners = new CopyOnWriteArrayList<>();
+    /** Counted down once the initial scan has completed. */
+    private final CountDownLatch initialScan = new CountDownLatch(1);
+    /** Executor for the scans. */
+    private final ScheduledExecutorService executor;
+
+    /** Latest snapshot. */
+    private volatile ControllerSnapshot snapshot = ControllerSnapshot.EMPTY;
+
+    /**
+     * Convenience constructor, which uses JInput's native plugins to enumerate the controllers. There are no periodic
+     * rescans; devices which are plugged in or removed are only detected when {@link #requestRescan()} is called.
+     */
+    public ControllerRegistry() {
+        this(() -> ControllerEnvironment.getDefaultEnvironment().getControllers(),
+                ControllerRegistry::scanControllers, 0L);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param scanner enumerates the controllers; called on the registry thread
+     * @param rescanInterval time between scans
+     * @param unit unit of the rescan interval
+     */
+    public ControllerRegistry(@NonNull Supplier<Controller[]> scanner, long rescanInterval, @NonNull TimeUnit unit) {
+        this(scanner, scanner, checkRescanInterval(rescanInterval, unit));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param scanner enumerates the controllers for the initial and periodic scans; called on the registry thread
+     * @param rescanner enumerates the controllers for requested scans; called on the registry thread
+     * @param rescanInterval time between scans, in milliseconds; 0 for no periodic scans
+     */
+    private ControllerRegistry(Supplier<Controller[]> scanner, Supplier<Controller[]> rescanner,
+            long rescanInterval) {
+        super();
+        this.scanner = scanner;
+        this.rescanner = rescanner;
+        this.rescanInterval = rescanInterval;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Controller registry");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the initial scan, followed by periodic rescans, in the background.
+     * 
+     * @return this registry
+     */
+    public ControllerRegistry start() {
+        if (rescanInterval == 0L) {
+            executor.execute(() -> scan(scanner));
+        } else {
+            executor.scheduleWithFixedDelay(() -> scan(scanner), 0L, rescanInterval, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /** Requests an additional scan as soon as possible, for instance when the user opens a settings screen. */
+    public void requestRescan() {
+        executor.execute(() -> scan(rescanner));
+    }
+
+    /**
+     * Enumerates the controllers and publishes a new snapshot if they have changed.
+     * 
+     * @param controllerScanner enumerates the controllers
+     */
+    private void scan(Supplier<Controller[]> controllerScanner) {
+        try {
+            Controller[] controllers = controllerScanner.get();
+            ControllerSnapshot current = snapshot;
+            if (current.getVersion() == 0L || !current.hasSameDevices(controllers)) {
+                ControllerSnapshot newSnapshot = new ControllerSnapshot(current.getVersion() + 1, controllers);
+                snapshot = newSnapshot;
+                log.info("Controllers changed: {}", newSnapshot);
+                listeners.forEach(listener -> listener.accept(newSnapshot));
+            }
+        } catch (RuntimeException e) {
+            log.error("Unable to scan controllers.", e);
+        } finally {
+            initialScan.countDown();
+        }
+    }
+
+    /** @return the latest snapshot; this is an empty snapshot (with version 0) until the initial scan has completed */
+    public ControllerSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Waits until the initial scan has completed.
+     * 
+     * @return latest snapshot
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public ControllerSnapshot awaitSnapshot() throws InterruptedException {
+        initialScan.await();
+        return snapshot;
+    }
+
+    /**
+     * Waits until the initial scan has completed, for at most the given amount of time.
+     * 
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return latest snapshot
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     * @throws TimeoutException if the initial scan did not complete in time
+     */
+    public ControllerSnapshot awaitSnapshot(long timeout, @NonNull TimeUnit unit) throws InterruptedException,
+            TimeoutException {
+        if (!initialScan.await(timeout, unit)) {
+            throw new TimeoutException("Initial controller scan did not complete in time.");
+        }
+        return snapshot;
+    }
+
+    /**
+     * Adds a listener, which is notified on the registry thread whenever a new snapshot is published.
+     * 
+     * @param listener listener
+     */
+    public void addListener(@NonNull Consumer<ControllerSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener.
+     * 
+     * @param listener listener
+     */
+    public void removeListener(Consumer<ControllerSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    /** Stops scanning. */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Checks the given rescan interval.
+     * 
+     * @param rescanInterval time between scans
+     * @param unit unit of the rescan interval
+     * @return rescan interval, in milliseconds
+     */
+    private static long checkRescanInterval(long rescanInterval, TimeUnit unit) {
+        if (rescanInterval <= 0) {
+            throw new IllegalArgumentException("Rescan interval must be positive, was: " + rescanInterval);
+        }
+        return unit.toMillis(rescanInterval);
+    }
+
+    /**
+     * Enumerates the controllers using a fresh JInput environment, so that changes are picked up. Since the
+     * environment cannot be released again, this is only done on request.
+     * 
+     * @return controllers
+     */
+    private static Controller[] scanControllers() {
+        Controller[] result;
+        try {
+            // JInput's default environment caches its controllers forever; its implementation class is not public.
+            Constructor<? extends ControllerEnvironment> constructor = Class
+                .forName("net.java.games.input.DefaultControllerEnvironment")
+                .asSubclass(ControllerEnvironment.class)
+                .getDeclaredConstructor();
+            constructor.setAccessible(true);
+            result = constructor.newInstance().getControllers();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Unable to create a new controller environment; using the default environment.", e);
+            result = ControllerEnvironment.getDefaultEnvironment().getControllers();
+        }
+        return result;
+    }
+}
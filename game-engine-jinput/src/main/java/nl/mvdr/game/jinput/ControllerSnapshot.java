@@ -0,0 +1,148 @@
+package nl.mvdr.game.jinput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.WeakHashMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import net.java.games.input.Controller;
+
+/**
+ * Immutable snapshot of the controllers which were available at a given moment, as published by a
+ * {@link ControllerRegistry}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Getter
+@ToString(of = { "version", "controllers" })
+public class ControllerSnapshot {
+    /** Snapshot without any controllers. */
+    static final ControllerSnapshot EMPTY = new ControllerSnapshot(0L, new Controller[0]);
+
+    /**
+     * For each controller which has been part of a snapshot: the device key it was assigned there. Weak keys, so that
+     * controllers from old snapshots can still be garbage collected.
+     */
+    private static final Map<Controller, String> ASSIGNED_DEVICE_KEYS = Collections
+        .synchronizedMap(new WeakHashMap<>());
+
+    /** Version number; increases by one every time the set of available controllers changes. */
+    private final long version;
+    /** Available controllers. */
+    private final List<Controller> controllers;
+    /** For each controller: key identifying the physical device. */
+    private final List<String> deviceKeys;
+
+    /**
+     * Constructor.
+     * 
+     * @param version version number
+     * @param controllers available controllers
+     */
+    ControllerSnapshot(long version, @NonNull Controller[] controllers) {
+        super();
+        this.version = version;
+        this.controllers = Collections.unmodifiableList(Arrays.asList(controllers.clone()));
+        this.deviceKeys = Collections.unmodifiableList(deviceKeys(controllers));
+        for (int i = 0; i != controllers.length; i++) {
+            ASSIGNED_DEVICE_KEYS.put(controllers[i], deviceKeys.get(i));
+        }
+    }
+
+    /**
+     * Determines keys identifying the physical devices behind the given controllers. Since JInput creates new
+     * controller instances whenever the devices are enumerated again, these keys are used to recognise a device across
+     * scans.
+     * 
+     * JInput reports the same port type and number for most devices, so identical devices (for instance two pads of
+     * the same make) cannot be told apart by their attributes alone. Each key therefore also contains the occurrence
+     * index of the controller among the controllers with the same attributes, in enumeration order, and the number of
+     * such controllers. The occurrence index is only meaningful as long as that number stays the same: once one of the
+     * identical devices is unplugged, the remaining ones shift. Including the number in the key means that none of the
+     * identical devices is recognised in that case, rather than one being mistaken for another.
+     * 
+     * @param controllers controllers
+     * @return device keys, in the same order as the controllers
+     */
+    static List<String> deviceKeys(Controller[] controllers) {
+        String[] attributes = new String[controllers.length];
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i != controllers.length; i++) {
+            attributes[i] = deviceAttributes(controllers[i]);
+            counts.merge(attributes[i], Integer.valueOf(1), Integer::sum);
+        }
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<String> result = new ArrayList<>(controllers.length);
+        for (String controllerAttributes : attributes) {
+            int occurrence = occurrences.merge(controllerAttributes, Integer.valueOf(1), Integer::sum).intValue() - 1;
+            result.add(controllerAttributes + "#" + occurrence + "/" + counts.get(controllerAttributes));
+        }
+        return result;
+    }
+
+    /**
+     * Determines the key of the given controller, as assigned by the snapshot it was most recently part of. A
+     * controller which has never been part of a snapshot is treated as the only device with its attributes.
+     * 
+     * @param controller controller
+     * @return device key
+     */
+    private static String deviceKey(Controller controller) {
+        String result = ASSIGNED_DEVICE_KEYS.get(controller);
+        if (result == null) {
+            result = deviceAttributes(controller) + "#0/1";
+        }
+        return result;
+    }
+
+    /**
+     * Determines the attributes of the device behind the given controller.
+     * 
+     * @param controller controller
+     * @return attributes, as a string
+     */
+    private static String deviceAttributes(Controller controller) {
+        return controller.getType() + "|" + controller.getName() + "|" + controller.getPortType() + "|"
+                + controller.getPortNumber();
+    }
+
+    /**
+     * Determines whether this snapshot contains the same devices as the given controllers.
+     * 
+     * @param otherControllers controllers
+     * @return whether the devices are the same, disregarding order
+     */
+    boolean hasSameDevices(Controller[] otherControllers) {
+        List<String> otherKeys = deviceKeys(otherControllers);
+        Collections.sort(otherKeys);
+        List<String> keys = new ArrayList<>(deviceKeys);
+        Collections.sort(keys);
+        return keys.equals(otherKeys);
+    }
+
+    /**
+     * Looks up the controller in this snapshot for the same device as the given controller, which may be from an
+     * older snapshot.
+     * 
+     * @param controller controller
+     * @return controller for the same device, if it is still available; empty if the number of identical devices has
+     *         changed, since it is unknown which of them is still available
+     */
+    public Optional<Controller> findSameDevice(@NonNull Controller controller) {
+        Optional<Controller> result;
+        if (controllers.contains(controller)) {
+            result = Optional.of(controller);
+        } else {
+            int index = deviceKeys.indexOf(deviceKey(controller));
+            result = index < 0 ? Optional.empty() : Optional.of(controllers.get(index));
+        }
+        return result;
+    }
+}
@@ -20,6 +20,7 @@ public class InputMapping {
     @NonNull
     private final Component component;
     /** The value the component must have in order to count as pressed.. */
+    @Getter(AccessLevel.PACKAGE)
     private final float pressedValue;
     
     /** @return whether the input is pressed */
@@ -0,0 +1,22 @@
+package nl.mvdr.game.jinput;
+
+/**
+ * Listener for input transitions detected by a {@link JInputSampler}.
+ * 
+ * @param <S> enum type containing all possible inputs from the user
+ * 
+ * @author Martijn van de Rijdt
+ */
+@FunctionalInterface
+public interface InputTransitionListener<S extends Enum<S>> {
+    /**
+     * Called when an input is pressed or released. Called on the sampler thread, so implementations should return
+     * quickly.
+     * 
+     * @param player index of the player
+     * @param input input
+     * @param pressed whether the input was pressed (true) or released (false)
+     * @param timestamp moment the transition was detected, in terms of {@link System#nanoTime()}
+     */
+    void inputTransition(int player, S input, boolean pressed, long timestamp);
+}
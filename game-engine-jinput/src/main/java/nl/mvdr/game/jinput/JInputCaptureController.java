@@ -1,13 +1,20 @@
 package nl.mvdr.game.jinput;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
-import lombok.RequiredArgsConstructor;
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import net.java.games.input.Component;
 import net.java.games.input.Component.Identifier.Axis;
@@ -21,69 +28,271 @@ import net.java.games.input.ControllerEnvironment;
  * Controller for capturing user input. Can be used to let the user define their input configuration (as input for
  * {@link JInputController}) by pressing each of their preferred buttons in turn.
  * 
+ * The controllers and their supported components are looked up once, on the first capture, and reused for subsequent
+ * captures. While waiting, the controllers are polled every couple of milliseconds, so that a press is picked up almost
+ * immediately.
+ * 
+ * A capture can be cancelled by interrupting the thread running it, through {@link #cancel()}, or by cancelling the
+ * future returned by {@link #submit(Executor)}. Each capture (or sequence of captures) has its own cancellation flag,
+ * so cancelling a capture which has already finished, or has not started yet, does not affect later captures. Captures
+ * should not be run concurrently on the same instance.
+ * 
  * @author Martijn van de Rijdt
  */
 @Slf4j
-@RequiredArgsConstructor
 public class JInputCaptureController implements Callable<Optional<ControllerAndInputMapping>> {
+    /** Time between polls, in nanoseconds. */
+    private static final long POLL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(2);
+
     /** Callback which is invoked as the call is about to complete. */
     private final Runnable callback;
-    
-    /** {@inheritDoc} */
+    /** Supplies all available controllers; only used if {@link #registry} is null. */
+    private final Supplier<Controller[]> controllerSupplier;
+    /** Registry from which the controllers are taken; null to use {@link #controllerSupplier} instead. */
+    private final ControllerRegistry registry;
+    /** Cancellation flag of the capture which is currently running; null if none. */
+    private final AtomicReference<AtomicBoolean> currentCapture = new AtomicReference<>();
+
+    /** Relevant controllers; null until the first capture. */
+    private Controller[] controllers;
+    /** For each of the {@link #controllers}: its supported components. */
+    private Component[][] components;
+    /** Version of the registry snapshot from which the {@link #controllers} were taken. */
+    private long snapshotVersion;
+
+    /**
+     * Constructor.
+     * 
+     * @param callback callback which is invoked as each call is about to complete
+     */
+    public JInputCaptureController(Runnable callback) {
+        this(callback, () -> ControllerEnvironment.getDefaultEnvironment().getControllers());
+    }
+
+    /**
+     * Constructor, which takes the controllers from the given registry instead of enumerating them on the first
+     * capture. If the registry's initial scan has not completed yet, the first capture waits for it. Whenever the
+     * registry publishes a new snapshot, the next capture picks up the new controllers.
+     * 
+     * @param callback callback which is invoked as each call is about to complete
+     * @param registry controller registry
+     */
+    public JInputCaptureController(@NonNull Runnable callback, @NonNull ControllerRegistry registry) {
+        super();
+        this.callback = callback;
+        this.controllerSupplier = null;
+        this.registry = registry;
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param callback callback which is invoked as each call is about to complete
+     * @param controllerSupplier supplies all available controllers
+     */
+    // default visibility for testing purposes
+    JInputCaptureController(@NonNull Runnable callback, @NonNull Supplier<Controller[]> controllerSupplier) {
+        super();
+        this.callback = callback;
+        this.controllerSupplier = controllerSupplier;
+        this.registry = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Waits until the user presses a component, and then until they release it again.
+     * 
+     * @return the pressed component and its controller; empty if the capture was cancelled
+     */
     @Override
     public Optional<ControllerAndInputMapping> call() {
-        Optional<ControllerAndInputMapping> result = waitForComponentAction();
-        result.ifPresent(r -> waitUntilReleased(r.getMapping().getComponent(), r.getController()));
+        return capture(new AtomicBoolean());
+    }
+
+    /**
+     * Captures the given number of bindings in sequence, for instance to let the user map all inputs in one go.
+     * 
+     * @param count number of bindings to capture
+     * @return captured bindings, in order; if the capture was cancelled, this list contains fewer elements
+     */
+    public List<ControllerAndInputMapping> captureSequence(int count) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        currentCapture.set(cancelled);
+        List<ControllerAndInputMapping> result = new ArrayList<>(count);
+        try {
+            boolean done = false;
+            while (!done && result.size() < count) {
+                Optional<ControllerAndInputMapping> binding = capture(cancelled);
+                binding.ifPresent(result::add);
+                done = !binding.isPresent();
+            }
+        } finally {
+            currentCapture.compareAndSet(cancelled, null);
+        }
+        return result;
+    }
+
+    /**
+     * Starts a capture on the given executor.
+     * 
+     * Cancelling the returned future stops the capture, even if the executor's threads do not respond to interruption.
+     * 
+     * @param executor executor
+     * @return future result of the capture
+     */
+    public Future<Optional<ControllerAndInputMapping>> submit(@NonNull Executor executor) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        FutureTask<Optional<ControllerAndInputMapping>> result = new FutureTask<Optional<ControllerAndInputMapping>>(
+                () -> capture(cancelled)) {
+            /** {@inheritDoc} */
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                boolean taskCancelled = super.cancel(mayInterruptIfRunning);
+                if (taskCancelled) {
+                    // Only affects this task's capture; if it has not started yet, it never will.
+                    cancelled.set(true);
+                }
+                return taskCancelled;
+            }
+        };
+        executor.execute(result);
+        return result;
+    }
+
+    /** Cancels the capture (or sequence of captures) which is currently running. Does nothing if none is running. */
+    public void cancel() {
+        log.info("Cancelling capture.");
+        AtomicBoolean cancelled = currentCapture.get();
+        if (cancelled != null) {
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * Performs a single capture.
+     * 
+     * @param cancelled cancellation flag for this capture
+     * @return the pressed component and its controller; empty if the capture was cancelled
+     */
+    private Optional<ControllerAndInputMapping> capture(AtomicBoolean cancelled) {
+        boolean outermost = currentCapture.compareAndSet(null, cancelled);
+        Optional<ControllerAndInputMapping> result;
+        try {
+            result = waitForComponentAction(cancelled);
+            result.ifPresent(r -> waitUntilReleased(r.getMapping().getComponent(), r.getController(), cancelled));
+        } finally {
+            if (outermost) {
+                currentCapture.compareAndSet(cancelled, null);
+            }
+        }
         callback.run();
         return result;
     }
-    
+
+    /**
+     * Waits for the registry's initial scan.
+     * 
+     * @return current snapshot; possibly empty if the thread was interrupted while waiting
+     */
+    private ControllerSnapshot awaitSnapshot() {
+        ControllerSnapshot result;
+        try {
+            result = registry.awaitSnapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = registry.getSnapshot();
+        }
+        return result;
+    }
+
+    /**
+     * Looks up the relevant controllers and components, unless this has already been done and the registry (if any)
+     * has not published a new snapshot since.
+     */
+    private void initControllers() {
+        if (controllers != null && registry != null && registry.getSnapshot().getVersion() != snapshotVersion) {
+            log.info("Available controllers have changed.");
+            controllers = null;
+        }
+        if (controllers == null) {
+            Controller[] available;
+            if (registry == null) {
+                available = controllerSupplier.get();
+            } else {
+                ControllerSnapshot snapshot = awaitSnapshot();
+                snapshotVersion = snapshot.getVersion();
+                available = snapshot.getControllers().toArray(new Controller[snapshot.getControllers().size()]);
+            }
+            controllers = Stream.of(available)
+                .filter(controller -> controller.getType() == Type.KEYBOARD || controller.getType() == Type.GAMEPAD)
+                .toArray(Controller[]::new);
+            components = Stream.of(controllers)
+                .map(controller -> Stream.of(controller.getComponents())
+                    .filter(JInputCaptureController::isSupported)
+                    .toArray(Component[]::new))
+                .toArray(Component[][]::new);
+            log.info("Using controllers: {}", (Object) controllers);
+        }
+    }
+
     /**
      * Periodically polls for user input. As soon as the user activates a JInput component, this method returns that
      * component as well as its corresponding controller.
      * 
-     * @return input mapping and its corresponding controller
+     * @param cancelled cancellation flag for the current capture
+     * @return input mapping and its corresponding controller; empty if cancelled
      */
-    // default visibility for integration test
-    Optional<ControllerAndInputMapping> waitForComponentAction() {
+    private Optional<ControllerAndInputMapping> waitForComponentAction(AtomicBoolean cancelled) {
         log.info("Waiting for component action.");
-        List<Controller> controllers = Stream.of(ControllerEnvironment.getDefaultEnvironment().getControllers())
-                .filter(controller -> controller.getType() == Type.KEYBOARD || controller.getType() == Type.GAMEPAD)
-                .collect(Collectors.toList());
-        log.info("Using controllers: " + controllers);
+        initControllers();
 
         Optional<ControllerAndInputMapping> result = Optional.empty();
-        while (!result.isPresent() && sleep()) {
-            Function<Controller, Stream<ControllerAndInputMapping>> toControllerAndInputMappingStream = 
-                controller -> Stream.of(controller.getComponents())
-                    .map(component -> new ControllerAndInputMapping(controller, new InputMapping(component, component.getPollData())));
-            result = controllers.stream()
-                .peek(Controller::poll)
-                .flatMap(toControllerAndInputMappingStream)
-                .filter(controllerAndInputMapping -> isPressed(controllerAndInputMapping.getMapping().getComponent()))
-                .findFirst();
+        while (!result.isPresent() && pause(cancelled)) {
+            for (int i = 0; !result.isPresent() && i != controllers.length; i++) {
+                controllers[i].poll();
+                for (Component component : components[i]) {
+                    if (!result.isPresent() && isPressed(component)) {
+                        result = Optional.of(new ControllerAndInputMapping(controllers[i],
+                                new InputMapping(component, component.getPollData())));
+                    }
+                }
+            }
         }
-        
+
         log.info("Result: " + result.map(ControllerAndInputMapping::toString).orElse("not available"));
 
         return result;
     }
-    
+
     /**
      * Waits until the given component is released.
      * 
      * @param component component to be checked
      * @param controller corresponding controller
+     * @param cancelled cancellation flag for the current capture
      */
-    private void waitUntilReleased(Component component, Controller controller) {
+    private void waitUntilReleased(Component component, Controller controller, AtomicBoolean cancelled) {
         log.info("Waiting for component {} of controller {} to be released.", component, controller);
-        
+
         controller.poll();
-        while(isPressed(component) && sleep()) {
+        while(isPressed(component) && pause(cancelled)) {
             controller.poll();
         }
     }
 
+    /**
+     * Checks whether the given component is one of the components supported by the JInputController.
+     * 
+     * @param component
+     *            component
+     * @return whether the component is supported
+     */
+    private static boolean isSupported(Component component) {
+        return component.getIdentifier() instanceof Button || component.getIdentifier() instanceof Key
+                || component.getIdentifier() instanceof Axis && !component.isRelative();
+    }
+
     /**
      * Checks whether the given component is currently pressed (and is also one of the components supported by the
      * JInputController).
@@ -92,9 +301,9 @@ public class JInputCaptureController implements Callable<Optional<ControllerAndI
      *            component
      * @return whether the component is pressed
      */
-    private boolean isPressed(Component component) {
+    private static boolean isPressed(Component component) {
         boolean result;
-        
+
         if (component.getIdentifier() instanceof Button || component.getIdentifier() instanceof Key) {
             result = component.getPollData() == 1.0f;
         } else if (component.getIdentifier() == Axis.POV) {
@@ -105,23 +314,24 @@ public class JInputCaptureController implements Callable<Optional<ControllerAndI
             // unsupported
             result = false;
         }
-        
+
         return result;
     }
-    
-    /** 
-     * Lets the thread sleep for a brief while (through {@link Thread#sleep(long)}).
+
+    /**
+     * Lets the thread wait until the next poll is due.
      * 
-     * @return true if the sleep operation terminated normally, false if it was interrupted
+     * @param cancelled cancellation flag for the current capture
+     * @return true if the wait terminated normally, false if the capture was cancelled or the thread was interrupted
      */
-    private boolean sleep() {
+    private boolean pause(AtomicBoolean cancelled) {
+        LockSupport.parkNanos(this, POLL_INTERVAL);
         boolean result;
-        try {
-            Thread.sleep(100);
-            result = true;
-        } catch (InterruptedException e) {
-            log.info("Interrupted.", e);
+        if (Thread.interrupted()) {
+            log.info("Interrupted.");
             result = false;
+        } else {
+            result = !cancelled.get();
         }
         return result;
     }
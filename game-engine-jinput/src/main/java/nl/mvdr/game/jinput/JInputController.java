@@ -1,56 +1,52 @@
 package nl.mvdr.game.jinput;
 
-import java.util.EnumSet;
-import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.ToString;
-import net.java.games.input.Controller;
+import nl.mvdr.game.input.BitmaskInputState;
 import nl.mvdr.game.input.InputController;
 import nl.mvdr.game.input.InputState;
-import nl.mvdr.game.input.InputStateImpl;
 
 /**
  * Implementation of InputController that uses JInput to determine the current input state.
  * 
+ * The configuration is compiled once, on construction (see {@link CompiledJInputControllerConfiguration}). Input states
+ * are represented as (cached) {@link BitmaskInputState}s, so that polling does not need to allocate a new object every
+ * time. Instances are not thread-safe; {@link #getInputState()} is meant to be called from the game loop.
+ * 
  * @param <S> enum type containing all possible inputs from the user
  * 
  * @author Martijn van de Rijdt
  */
-@RequiredArgsConstructor
-@ToString
+@ToString(exclude = { "compiledConfiguration", "words" })
 public class JInputController<S extends Enum<S>> implements InputController<S> {
     /** Actual enum type for input values. */
     private final Class<S> inputType;
     /** Configuration of this component. */
-    @NonNull
     private final JInputControllerConfiguration<S> configuration;
+    /** Compiled form of {@link #configuration}. */
+    private final CompiledJInputControllerConfiguration<S> compiledConfiguration;
+    /** Bitmask of pressed inputs. Reused for every call to {@link #getInputState()}. */
+    private final long[] words;
 
-    /** {@inheritDoc} */
-    @Override
-    public InputState<S> getInputState() {
-        configuration.getControllers().forEach(Controller::poll);
-        
-        Set<S> pressedInputs = Stream.of(inputType.getEnumConstants())
-            .filter(this::isPressed)
-            .collect(Collectors.toCollection(() -> EnumSet.noneOf(inputType)));
-        
-        return new InputStateImpl<>(pressedInputs);
-    }
-    
     /**
-     * Checks whether the given input is pressed.
+     * Constructor.
      * 
-     * @param input input
-     * @return whether the input is pressed
+     * @param inputType actual enum type for input values
+     * @param configuration configuration of this component
      */
-    private boolean isPressed(S input) {
-        return configuration.getMapping()
-            .get(input)
-            .stream()
-            .anyMatch(InputMapping::isPressed);
+    public JInputController(Class<S> inputType, @NonNull JInputControllerConfiguration<S> configuration) {
+        super();
+        this.inputType = inputType;
+        this.configuration = configuration;
+        this.compiledConfiguration = configuration.compile(inputType);
+        this.words = new long[BitmaskInputState.wordCount(inputType)];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputState<S> getInputState() {
+        compiledConfiguration.pollControllers();
+        compiledConfiguration.evaluate(words);
+        return BitmaskInputState.valueOf(inputType, words);
     }
 }
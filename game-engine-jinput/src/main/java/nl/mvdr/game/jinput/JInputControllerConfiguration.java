@@ -1,12 +1,17 @@
 package nl.mvdr.game.jinput;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
+import net.java.games.input.Component;
 import net.java.games.input.Controller;
 
 /**
@@ -30,4 +35,68 @@ public class JInputControllerConfiguration<S extends Enum<S>> {
     /** All relevant controllers. All of the components in {@link #mapping} must belong to one of these controllers. */
     @NonNull
     private final Set<Controller> controllers;
+
+    /**
+     * Compiles this configuration into a form which can be evaluated efficiently on every update.
+     *
+     * @param inputType actual enum type for input values
+     * @return compiled configuration
+     */
+    public CompiledJInputControllerConfiguration<S> compile(Class<S> inputType) {
+        return new CompiledJInputControllerConfiguration<>(inputType, this);
+    }
+
+    /**
+     * Creates a copy of this configuration, bound to the controllers in the given snapshot. Controllers and their
+     * components are matched by device and identifier, since JInput creates new instances whenever it enumerates the
+     * controllers again. Mappings for devices which are no longer available are dropped.
+     *
+     * @param snapshot controller snapshot, as published by a {@link ControllerRegistry}
+     * @return configuration for the controllers in the snapshot
+     */
+    public JInputControllerConfiguration<S> rebind(@NonNull ControllerSnapshot snapshot) {
+        Map<S, Set<InputMapping>> newMapping = new HashMap<>(mapping);
+        Set<Controller> newControllers = new HashSet<>();
+        for (Map.Entry<S, Set<InputMapping>> entry : newMapping.entrySet()) {
+            Set<InputMapping> mappings = new HashSet<>();
+            for (InputMapping inputMapping : entry.getValue()) {
+                findController(inputMapping.getComponent())
+                    .flatMap(snapshot::findSameDevice)
+                    .ifPresent(controller -> findComponent(controller, inputMapping.getComponent())
+                        .ifPresent(component -> {
+                            newControllers.add(controller);
+                            mappings.add(new InputMapping(component, inputMapping.getPressedValue()));
+                        }));
+            }
+            entry.setValue(mappings);
+        }
+        return new JInputControllerConfiguration<>(newMapping, newControllers);
+    }
+
+    /**
+     * Finds the controller the given component belongs to.
+     *
+     * @param component component
+     * @return controller
+     */
+    private Optional<Controller> findController(Component component) {
+        return controllers.stream()
+            .filter(controller -> Stream.of(controller.getComponents()).anyMatch(c -> c == component))
+            .findFirst();
+    }
+
+    /**
+     * Finds the component of the given controller corresponding to the given component of another instance of the
+     * same device.
+     *
+     * @param controller controller
+     * @param component component
+     * @return corresponding component
+     */
+    private static Optional<Component> findComponent(Controller controller, Component component) {
+        return Stream.of(controller.getComponents())
+            .filter(c -> c.getIdentifier().getName().equals(component.getIdentifier().getName()))
+            .filter(c -> c.getName().equals(component.getName()))
+            .findFirst();
+    }
 }
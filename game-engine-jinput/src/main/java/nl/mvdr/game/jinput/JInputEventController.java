@@ -0,0 +1,196 @@
+package nl.mvdr.game.jinput;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import net.java.games.input.AbstractController;
+import net.java.games.input.Component;
+import net.java.games.input.Controller;
+import net.java.games.input.Event;
+import net.java.games.input.EventQueue;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+
+/**
+ * Implementation of InputController that uses JInput's event queues to determine the current input state.
+ * 
+ * Unlike {@link JInputController}, which reads every mapped component on every call, this controller only processes the
+ * components which changed since the previous call. The cost of {@link #getInputState()} therefore scales with the
+ * number of input changes rather than with the number of components, which matters for devices with many components,
+ * such as keyboards. In addition, an input which is pressed and released again between two calls is still reported
+ * as pressed once.
+ * 
+ * Reading events consumes them. Each JInput controller's event queue should therefore be read by a single instance of
+ * this class; if several players share a device, use {@link JInputController} or {@link JInputSampler} instead.
+ * Instances are not thread-safe; {@link #getInputState()} is meant to be called from the game loop.
+ * 
+ * @param <S> enum type containing all possible inputs from the user
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "inputType", "configuration" })
+public class JInputEventController<S extends Enum<S>> implements InputController<S> {
+    /**
+     * Event queue size to be used for the controllers. If this many events arrive between two calls, some may have been
+     * lost, and all components are read instead.
+     */
+    private static final int EVENT_QUEUE_SIZE = 256;
+
+    /** Actual enum type for input values. */
+    private final Class<S> inputType;
+    /** Configuration of this component. */
+    private final JInputControllerConfiguration<S> configuration;
+    /** All relevant controllers. */
+    private final Controller[] controllers;
+    /** All mapped components, without duplicates. */
+    private final Component[] components;
+    /** Index of each mapped component in {@link #components}. */
+    private final Map<Component, Integer> componentIndexMap;
+    /**
+     * For each component: index of its first mapping entry in the compiled configuration. Has one additional element,
+     * containing the total number of entries.
+     */
+    private final int[] firstEntries;
+    /** For each mapping entry: the value the component must have in order to count as pressed. */
+    private final float[] pressedValues;
+    /** For each mapping entry: ordinal of the input which is pressed. */
+    private final int[] inputOrdinals;
+    /** For each mapping entry: whether it is currently pressed. */
+    private final boolean[] pressedEntries;
+    /** For each input: the number of mapping entries which are currently pressed. */
+    private final int[] pressedEntryCounts;
+    /** Bitmask of currently pressed inputs. */
+    private final long[] levels;
+    /** Bitmask of inputs pressed since the previous call to {@link #getInputState()}. */
+    private final long[] latched;
+    /** Bitmask of pressed inputs. Reused for every call to {@link #getInputState()}. */
+    private final long[] words;
+    /** Event, reused for every event. */
+    private final Event event = new Event();
+
+    /** Whether the state has been initialised from the components' current values. */
+    private boolean initialised;
+
+    /**
+     * Constructor.
+     * 
+     * @param inputType actual enum type for input values
+     * @param configuration configuration of this component
+     */
+    public JInputEventController(@NonNull Class<S> inputType, @NonNull JInputControllerConfiguration<S> configuration) {
+        super();
+        this.inputType = inputType;
+        this.configuration = configuration;
+        CompiledJInputControllerConfiguration<S> compiledConfiguration = configuration.compile(inputType);
+        this.controllers = compiledConfiguration.getControllers();
+        this.components = compiledConfiguration.getComponents();
+        this.pressedValues = compiledConfiguration.getPressedValues();
+        this.inputOrdinals = compiledConfiguration.getInputOrdinals();
+
+        this.componentIndexMap = new HashMap<>();
+        for (int i = 0; i != components.length; i++) {
+            componentIndexMap.put(components[i], Integer.valueOf(i));
+        }
+        // Entries in the compiled configuration are sorted by component.
+        int[] componentIndices = compiledConfiguration.getComponentIndices();
+        this.firstEntries = new int[components.length + 1];
+        for (int component = 0, entry = 0; component <= components.length; component++) {
+            while (entry != componentIndices.length && componentIndices[entry] < component) {
+                entry++;
+            }
+            firstEntries[component] = entry;
+        }
+
+        this.pressedEntries = new boolean[pressedValues.length];
+        this.pressedEntryCounts = new int[inputType.getEnumConstants().length];
+        int wordCount = BitmaskInputState.wordCount(inputType);
+        this.levels = new long[wordCount];
+        this.latched = new long[wordCount];
+        this.words = new long[wordCount];
+
+        for (Controller controller : controllers) {
+            if (controller instanceof AbstractController) {
+                ((AbstractController) controller).setEventQueueSize(EVENT_QUEUE_SIZE);
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputState<S> getInputState() {
+        boolean resynchronise = !initialised;
+        for (Controller controller : controllers) {
+            controller.poll();
+            resynchronise |= processEvents(controller.getEventQueue());
+        }
+        if (resynchronise) {
+            // Read all components.
+            for (int i = 0; i != components.length; i++) {
+                update(i, components[i].getPollData());
+            }
+            initialised = true;
+        }
+
+        for (int i = 0; i != words.length; i++) {
+            words[i] = levels[i] | latched[i];
+            latched[i] = 0L;
+        }
+        return BitmaskInputState.valueOf(inputType, words);
+    }
+
+    /**
+     * Applies all pending events in the given queue.
+     * 
+     * @param queue event queue
+     * @return whether events may have been lost because the queue was full
+     */
+    private boolean processEvents(EventQueue queue) {
+        int eventCount = 0;
+        while (queue.getNextEvent(event)) {
+            eventCount++;
+            Integer componentIndex = componentIndexMap.get(event.getComponent());
+            if (componentIndex != null) {
+                update(componentIndex.intValue(), event.getValue());
+            }
+        }
+        boolean result = EVENT_QUEUE_SIZE - 1 <= eventCount;
+        if (result) {
+            log.debug("Event queue may have overflowed; reading all components.");
+        }
+        return result;
+    }
+
+    /**
+     * Updates the state of all mapping entries for the given component.
+     * 
+     * @param componentIndex index of the component
+     * @param value new value of the component
+     */
+    private void update(int componentIndex, float value) {
+        for (int entry = firstEntries[componentIndex]; entry != firstEntries[componentIndex + 1]; entry++) {
+            boolean pressed = value == pressedValues[entry];
+            if (pressed != pressedEntries[entry]) {
+                pressedEntries[entry] = pressed;
+                int ordinal = inputOrdinals[entry];
+                int wordIndex = ordinal / Long.SIZE;
+                long bit = 1L << ordinal;
+                if (pressed) {
+                    pressedEntryCounts[ordinal]++;
+                    levels[wordIndex] |= bit;
+                    latched[wordIndex] |= bit;
+                } else {
+                    pressedEntryCounts[ordinal]--;
+                    if (pressedEntryCounts[ordinal] == 0) {
+                        // An input may be mapped to several components; it is only released once all of them are.
+                        levels[wordIndex] &= ~bit;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package nl.mvdr.game.jinput;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import net.java.games.input.Controller;
+import nl.mvdr.game.engine.Threads;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+
+/**
+ * Samples JInput devices on a dedicated thread, at a rate well above the game's update rate.
+ * 
+ * Every input which is pressed at any sample since the previous call to a player's
+ * {@link InputController#getInputState()} is reported as pressed, so that taps shorter than a single update are not
+ * lost. Reading the input state comes down to atomically swapping a bitmask per player; no device I/O takes place on the
+ * game loop thread. The moment of the last transition of each input is recorded, and transitions can be reported to a
+ * listener as well.
+ * 
+ * Once the sampler has been started, the JInput controllers must not be polled by any other thread.
+ * 
+ * @param <S> enum type containing all possible inputs from the user
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "inputType", "samplingPeriod" })
+public class JInputSampler<S extends Enum<S>> {
+    /** Maximum time to wait for the previous sampler thread when restarting, in seconds. */
+    private static final long TERMINATION_TIMEOUT = 5L;
+
+    /** Actual enum type for input values. */
+    private final Class<S> inputType;
+    /** All enum constants of the input type. */
+    private final S[] inputs;
+    /** Time between samples, in nanoseconds. */
+    private final long samplingPeriod;
+    /** All relevant controllers, for all players, without duplicates. */
+    private final Controller[] controllers;
+    /** Compiled configuration, per player. */
+    private final CompiledJInputControllerConfiguration<S>[] configurations;
+    /** Listener for transitions; null if none. */
+    private final InputTransitionListener<S> listener;
+    /** Number of words in each bitmask. */
+    private final int wordCount;
+
+    /** Per player: inputs pressed at any sample since they were last read. */
+    private final AtomicLongArray[] latched;
+    /** Per player: inputs pressed at the latest sample. */
+    private final AtomicLongArray[] levels;
+    /** Per player: moment of the last transition of each input, in terms of {@link System#nanoTime()}; 0 if none. */
+    private final AtomicLongArray[] transitionTimes;
+    /** Per player: inputs pressed at the latest sample. Only accessed while sampling. */
+    private final long[][] current;
+    /** Per player: inputs pressed at the previous sample. Only accessed while sampling. */
+    private final long[][] previous;
+
+    /** Number of samples taken. */
+    private volatile long sampleCount;
+    /** Sampler thread; null if not started. */
+    private Thread samplerThread;
+    /** Indicates whether the sampler thread should be running. */
+    private volatile boolean running;
+
+    /**
+     * Convenience constructor, without a transition listener.
+     * 
+     * @param inputType actual enum type for input values
+     * @param configurations input configuration, per player
+     * @param samplingRate number of samples per second
+     */
+    public JInputSampler(Class<S> inputType, List<JInputControllerConfiguration<S>> configurations, int samplingRate) {
+        this(inputType, configurations, samplingRate, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param inputType actual enum type for input values
+     * @param configurations input configuration, per player
+     * @param samplingRate number of samples per second, for instance 1000
+     * @param listener listener for input transitions; may be null
+     */
+    @SuppressWarnings("unchecked")
+    public JInputSampler(@NonNull Class<S> inputType, @NonNull List<JInputControllerConfiguration<S>> configurations,
+            int samplingRate, InputTransitionListener<S> listener) {
+        super();
+        if (samplingRate <= 0) {
+            throw new IllegalArgumentException("Sampling rate must be positive, was: " + samplingRate);
+        }
+        this.inputType = inputType;
+        this.inputs = inputType.getEnumConstants();
+        this.samplingPeriod = TimeUnit.SECONDS.toNanos(1) / samplingRate;
+        this.listener = listener;
+        this.wordCount = BitmaskInputState.wordCount(inputType);
+
+        int playerCount = configurations.size();
+        Set<Controller> controllerSet = new LinkedHashSet<>();
+        this.configurations = new CompiledJInputControllerConfiguration[playerCount];
+        this.latched = new AtomicLongArray[playerCount];
+        this.levels = new AtomicLongArray[playerCount];
+        this.transitionTimes = new AtomicLongArray[playerCount];
+        this.current = new long[playerCount][wordCount];
+        this.previous = new long[playerCount][wordCount];
+        for (int player = 0; player != playerCount; player++) {
+            JInputControllerConfiguration<S> configuration = configurations.get(player);
+            controllerSet.addAll(configuration.getControllers());
+            this.configurations[player] = configuration.compile(inputType);
+            this.latched[player] = new AtomicLongArray(wordCount);
+            this.levels[player] = new AtomicLongArray(wordCount);
+            this.transitionTimes[player] = new AtomicLongArray(inputs.length);
+        }
+        // Controllers shared between players (such as a keyboard) are only polled once per sample.
+        this.controllers = controllerSet.toArray(new Controller[controllerSet.size()]);
+    }
+
+    /**
+     * Starts the sampler thread. If the sampler has been stopped before, this waits until the previous sampler thread
+     * has exited, so that it cannot keep sampling alongside the new one or stop it on its way out.
+     * 
+     * @throws IllegalStateException if the sampler is already running, or if the previous sampler thread does not exit
+     *             in time
+     */
+    public void start() {
+        Thread previous;
+        synchronized (this) {
+            if (running) {
+                throw new IllegalStateException("Sampler already started.");
+            }
+            previous = samplerThread;
+        }
+        // Wait without holding the lock, so that other threads can still call stop() meanwhile.
+        if (!Threads.awaitTermination(previous, TERMINATION_TIMEOUT, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Previous sampler thread did not exit: " + previous);
+        }
+        synchronized (this) {
+            if (running || samplerThread != previous) {
+                throw new IllegalStateException("Sampler already started.");
+            }
+            running = true;
+            samplerThread = new Thread(this::samplerLoop, "JInput sampler");
+            samplerThread.setDaemon(true);
+            samplerThread.start();
+        }
+    }
+
+    /** Stops the sampler thread. */
+    public synchronized void stop() {
+        running = false;
+        if (samplerThread != null) {
+            LockSupport.unpark(samplerThread);
+        }
+    }
+
+    /** @return whether the sampler thread is running */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Sampler loop. Runs on the dedicated sampler thread. */
+    private void samplerLoop() {
+        log.info("Starting JInput sampler, period: {} ns.", Long.valueOf(samplingPeriod));
+        long deadline = System.nanoTime();
+        try {
+            while (running) {
+                sample();
+                deadline += samplingPeriod;
+                long now = System.nanoTime();
+                if (deadline - now < 0) {
+                    // Fell behind; do not try to catch up with a burst of samples.
+                    deadline = now;
+                } else {
+                    LockSupport.parkNanos(this, deadline - now);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Fatal exception encountered in JInput sampler.", e);
+        }
+        running = false;
+        log.info("Finished JInput sampler after {} samples.", Long.valueOf(sampleCount));
+    }
+
+    /** Polls all controllers once, and updates the bitmasks of all players. */
+    // default visibility for testing purposes
+    void sample() {
+        for (Controller controller : controllers) {
+            controller.poll();
+        }
+        long timestamp = System.nanoTime();
+        for (int player = 0; player != configurations.length; player++) {
+            long[] words = current[player];
+            configurations[player].evaluate(words);
+            for (int i = 0; i != wordCount; i++) {
+                long word = words[i];
+                levels[player].set(i, word);
+                if (word != 0L) {
+                    latch(latched[player], i, word);
+                }
+                long changed = word ^ previous[player][i];
+                if (changed != 0L) {
+                    recordTransitions(player, i, changed, word, timestamp);
+                    previous[player][i] = word;
+                }
+            }
+        }
+        sampleCount++;
+    }
+
+    /**
+     * Sets the given bits in a word of a latch.
+     * 
+     * @param latch latch
+     * @param index word index
+     * @param bits bits to set
+     */
+    private static void latch(AtomicLongArray latch, int index, long bits) {
+        long value = latch.get(index);
+        while ((value & bits) != bits && !latch.compareAndSet(index, value, value | bits)) {
+            value = latch.get(index);
+        }
+    }
+
+    /**
+     * Records the transitions in a single word of a player's bitmask.
+     * 
+     * @param player player index
+     * @param wordIndex word index
+     * @param changed bits which changed
+     * @param word new value of the word
+     * @param timestamp moment of the sample
+     */
+    private void recordTransitions(int player, int wordIndex, long changed, long word, long timestamp) {
+        long remaining = changed;
+        while (remaining != 0L) {
+            int bit = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            int ordinal = wordIndex * Long.SIZE + bit;
+            transitionTimes[player].set(ordinal, timestamp);
+            if (listener != null) {
+                listener.inputTransition(player, inputs[ordinal], (word & 1L << bit) != 0L, timestamp);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the moment the given input was last pressed or released.
+     * 
+     * @param player player index
+     * @param input input
+     * @return moment of the last transition, in terms of {@link System#nanoTime()}; 0 if the input has not changed yet
+     */
+    public long getTransitionTime(int player, @NonNull S input) {
+        return transitionTimes[player].get(input.ordinal());
+    }
+
+    /** @return number of samples taken so far */
+    public long getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Creates an input controller for the given player.
+     * 
+     * @param player player index
+     * @return input controller, which returns all inputs pressed at any sample since its previous call, as well as the
+     *         inputs which are currently pressed
+     */
+    public InputController<S> createInputController(int player) {
+        if (player < 0 || configurations.length <= player) {
+            throw new IllegalArgumentException("Invalid player index: " + player);
+        }
+        return new SampledInputController(player);
+    }
+
+    /** Input controller for a single player, which reads the latched inputs. */
+    @ToString(of = "player")
+    private class SampledInputController implements InputController<S> {
+        /** Player index. */
+        private final int player;
+        /** Bitmask of pressed inputs. Reused for every call to {@link #getInputState()}. */
+        private final long[] words = new long[wordCount];
+
+        /**
+         * Constructor.
+         * 
+         * @param player player index
+         */
+        private SampledInputController(int player) {
+            super();
+            this.player = player;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public InputState<S> getInputState() {
+            for (int i = 0; i != wordCount; i++) {
+                // Including the current level ensures that held inputs are reported even if no sample was taken since
+                // the previous call.
+                words[i] = latched[player].getAndSet(i, 0L) | levels[player].get(i);
+            }
+            return BitmaskInputState.valueOf(inputType, words);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package nl.mvdr.game.jinput;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.java.games.input.Component;
+import net.java.games.input.Component.POV;
+import net.java.games.input.Component.Identifier.Axis;
+import net.java.games.input.Component.Identifier.Button;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link CompiledJInputControllerConfiguration}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class CompiledJInputControllerConfigurationTest {
+    /** Tests compiling and evaluating an empty mapping. */
+    @Test
+    public void testEmptyMapping() {
+        CompiledJInputControllerConfiguration<DummyInput> compiled = new JInputControllerConfiguration<>(
+                createMapping(), Collections.emptySet()).compile(DummyInput.class);
+        long[] words = { -1L };
+
+        compiled.pollControllers();
+        compiled.evaluate(words);
+
+        Assert.assertEquals(0, compiled.getComponentCount());
+        Assert.assertEquals(0L, words[0]);
+    }
+
+    /** Tests evaluating a mapping where one of the inputs is pressed. */
+    @Test
+    public void testPressed() {
+        Component pressed = new DummyComponent(new Button("pressed"), false, false, 0, 1f, "Pressed");
+        Component released = new DummyComponent(new Button("released"), false, false, 0, 0f, "Released");
+        Map<DummyInput, Set<InputMapping>> mapping = createMapping();
+        mapping.put(DummyInput.A, Collections.singleton(new InputMapping(pressed, 1f)));
+        mapping.put(DummyInput.B, Collections.singleton(new InputMapping(released, 1f)));
+        CompiledJInputControllerConfiguration<DummyInput> compiled = new JInputControllerConfiguration<>(mapping,
+                Collections.emptySet()).compile(DummyInput.class);
+        long[] words = new long[1];
+
+        compiled.evaluate(words);
+
+        Assert.assertEquals(1L << DummyInput.A.ordinal(), words[0]);
+    }
+
+    /** Tests that a component which is shared between multiple inputs is only stored once. */
+    @Test
+    public void testSharedComponent() {
+        Component dPad = new DummyComponent(Axis.POV, false, false, 0, POV.LEFT, "D-pad");
+        Map<DummyInput, Set<InputMapping>> mapping = createMapping();
+        mapping.put(DummyInput.LEFT, Collections.singleton(new InputMapping(dPad, POV.LEFT)));
+        mapping.put(DummyInput.RIGHT, Collections.singleton(new InputMapping(dPad, POV.RIGHT)));
+        mapping.put(DummyInput.UP, Collections.singleton(new InputMapping(dPad, POV.UP)));
+        CompiledJInputControllerConfiguration<DummyInput> compiled = new JInputControllerConfiguration<>(mapping,
+                Collections.emptySet()).compile(DummyInput.class);
+        long[] words = new long[1];
+
+        compiled.evaluate(words);
+
+        Assert.assertEquals(1, compiled.getComponentCount());
+        Assert.assertEquals(3, compiled.getEntryCount());
+        Assert.assertEquals(1L << DummyInput.LEFT.ordinal(), words[0]);
+    }
+
+    /** Tests an input which is mapped to multiple components. */
+    @Test
+    public void testMultipleComponentsForOneInput() {
+        Component released = new DummyComponent(new Button("released"), false, false, 0, 0f, "Released");
+        Component pressed = new DummyComponent(new Button("pressed"), false, false, 0, 1f, "Pressed");
+        Map<DummyInput, Set<InputMapping>> mapping = createMapping();
+        mapping.put(DummyInput.START, new HashSet<>(Arrays.asList(new InputMapping(released, 1f),
+                new InputMapping(pressed, 1f))));
+        CompiledJInputControllerConfiguration<DummyInput> compiled = new JInputControllerConfiguration<>(mapping,
+                Collections.emptySet()).compile(DummyInput.class);
+        long[] words = new long[1];
+
+        compiled.evaluate(words);
+
+        Assert.assertEquals(2, compiled.getComponentCount());
+        Assert.assertEquals(1L << DummyInput.START.ordinal(), words[0]);
+    }
+
+    /**
+     * Creates a mapping where none of the inputs are mapped.
+     * 
+     * @return mutable mapping
+     */
+    private Map<DummyInput, Set<InputMapping>> createMapping() {
+        Map<DummyInput, Set<InputMapping>> result = new EnumMap<>(DummyInput.class);
+        for (DummyInput input : DummyInput.values()) {
+            result.put(input, Collections.emptySet());
+        }
+        return result;
+    }
+}
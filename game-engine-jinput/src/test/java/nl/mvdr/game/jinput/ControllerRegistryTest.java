@@ -0,0 +1,229 @@
+package nl.mvdr.game.jinput;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.java.games.input.Controller;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link ControllerRegistry}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class ControllerRegistryTest {
+    /** Controllers to be returned by the next scan. */
+    private AtomicReference<Controller[]> devices;
+    /** Registry under test. */
+    private ControllerRegistry registry;
+
+    /** Sets up the test fixture. */
+    @Before
+    public void setUp() {
+        devices = new AtomicReference<>(new Controller[0]);
+        registry = new ControllerRegistry(() -> devices.get(), 1, TimeUnit.HOURS);
+    }
+
+    /** Tears down the test fixture. */
+    @After
+    public void tearDown() {
+        registry.close();
+    }
+
+    /**
+     * Tests the initial scan.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testInitialScan() throws Exception {
+        DummyController controller = new DummyController(new DummyEventComponent("Button 0"));
+        devices.set(new Controller[] { controller });
+        Assert.assertEquals(0L, registry.getSnapshot().getVersion());
+        Assert.assertTrue(registry.getSnapshot().getControllers().isEmpty());
+
+        ControllerSnapshot snapshot = registry.start().awaitSnapshot(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(1L, snapshot.getVersion());
+        Assert.assertEquals(Collections.singletonList(controller), snapshot.getControllers());
+        Assert.assertSame(snapshot, registry.getSnapshot());
+    }
+
+    /**
+     * Tests that a rescan only publishes a new snapshot when devices are plugged in or removed.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testRescan() throws Exception {
+        BlockingQueue<ControllerSnapshot> published = new LinkedBlockingQueue<>();
+        registry.addListener(published::add);
+        DummyController first = new DummyController(new DummyEventComponent("Button 0"));
+        devices.set(new Controller[] { first });
+        registry.start();
+        ControllerSnapshot initial = published.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(initial);
+
+        // The same device, enumerated again: no change.
+        devices.set(new Controller[] { new DummyController(new DummyEventComponent("Button 0")) });
+        registry.requestRescan();
+        // Plugging in a second pad.
+        DummyController second = new DummyController(new DummyEventComponent("Button 0"));
+        devices.set(new Controller[] { first, second });
+        registry.requestRescan();
+
+        ControllerSnapshot plugged = published.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(plugged);
+        Assert.assertEquals(2L, plugged.getVersion());
+        Assert.assertEquals(2, plugged.getControllers().size());
+        Assert.assertTrue(published.isEmpty());
+
+        // Removing it again.
+        devices.set(new Controller[] { first });
+        registry.requestRescan();
+
+        ControllerSnapshot removed = published.poll(5, TimeUnit.SECONDS);
+        Assert.assertNotNull(removed);
+        Assert.assertEquals(3L, removed.getVersion());
+        Assert.assertEquals(Collections.singletonList(first), removed.getControllers());
+    }
+
+    /**
+     * Tests that a failing scan does not prevent the initial snapshot from being awaited.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testFailingScan() throws Exception {
+        try (ControllerRegistry failing = new ControllerRegistry(() -> {
+            throw new IllegalStateException("Native plugin unavailable");
+        }, 1, TimeUnit.HOURS)) {
+            ControllerSnapshot snapshot = failing.start().awaitSnapshot(5, TimeUnit.SECONDS);
+
+            Assert.assertEquals(0L, snapshot.getVersion());
+            Assert.assertTrue(snapshot.getControllers().isEmpty());
+        }
+    }
+
+    /** Tests rebinding a configuration to a new snapshot, in which the device is represented by a new instance. */
+    @Test
+    public void testRebind() {
+        DummyEventComponent oldButton = new DummyEventComponent("Button 0");
+        DummyController oldController = new DummyController(oldButton);
+        Map<DummyInput, Set<InputMapping>> mapping = new EnumMap<>(DummyInput.class);
+        mapping.put(DummyInput.A, Collections.singleton(new InputMapping(oldButton, 1f)));
+        mapping.put(DummyInput.B, Collections.emptySet());
+        JInputControllerConfiguration<DummyInput> configuration = new JInputControllerConfiguration<>(mapping,
+                Collections.singleton(oldController));
+        DummyEventComponent newButton = new DummyEventComponent("Button 0");
+        DummyController newController = new DummyController(newButton);
+
+        JInputControllerConfiguration<DummyInput> rebound = configuration
+            .rebind(new ControllerSnapshot(2L, new Controller[] { newController }));
+
+        Assert.assertEquals(Collections.singleton(newController), rebound.getControllers());
+        InputMapping reboundMapping = rebound.getMapping().get(DummyInput.A).iterator().next();
+        Assert.assertSame(newButton, reboundMapping.getComponent());
+        Assert.assertEquals(1f, reboundMapping.getPressedValue(), 0f);
+        Assert.assertTrue(rebound.getMapping().get(DummyInput.B).isEmpty());
+    }
+
+    /**
+     * Tests rebinding configurations to a new snapshot containing two identical devices, which JInput reports with the
+     * same name, port type and port number.
+     */
+    @Test
+    public void testRebindIdenticalDevices() {
+        DummyEventComponent oldButton0 = new DummyEventComponent("Button 0");
+        DummyEventComponent oldButton1 = new DummyEventComponent("Button 0");
+        DummyController oldController0 = new DummyController(oldButton0);
+        DummyController oldController1 = new DummyController(oldButton1);
+        ControllerSnapshot oldSnapshot = new ControllerSnapshot(1L,
+                new Controller[] { oldController0, oldController1 });
+        Map<DummyInput, Set<InputMapping>> mapping = new EnumMap<>(DummyInput.class);
+        mapping.put(DummyInput.A, Collections.singleton(new InputMapping(oldButton1, 1f)));
+        JInputControllerConfiguration<DummyInput> configuration = new JInputControllerConfiguration<>(mapping,
+                Collections.singleton(oldController1));
+        DummyEventComponent newButton0 = new DummyEventComponent("Button 0");
+        DummyEventComponent newButton1 = new DummyEventComponent("Button 0");
+        DummyController newController0 = new DummyController(newButton0);
+        DummyController newController1 = new DummyController(newButton1);
+        ControllerSnapshot newSnapshot = new ControllerSnapshot(2L,
+                new Controller[] { newController0, newController1 });
+
+        Assert.assertTrue(oldSnapshot.hasSameDevices(new Controller[] { newController0, newController1 }));
+        Assert.assertFalse(oldSnapshot.hasSameDevices(new Controller[] { newController0 }));
+        Assert.assertSame(newController0, newSnapshot.findSameDevice(oldController0).get());
+        Assert.assertSame(newController1, newSnapshot.findSameDevice(oldController1).get());
+
+        JInputControllerConfiguration<DummyInput> rebound = configuration.rebind(newSnapshot);
+
+        Assert.assertEquals(Collections.singleton(newController1), rebound.getControllers());
+        Assert.assertSame(newButton1, rebound.getMapping().get(DummyInput.A).iterator().next().getComponent());
+    }
+
+    /**
+     * Tests rebinding configurations after the first of two identical devices has been unplugged. The remaining device
+     * cannot be told apart from the unplugged one, so both bindings are dropped rather than moving the first player's
+     * binding to the second player's device.
+     */
+    @Test
+    public void testRebindUnpluggedIdenticalDevice() {
+        DummyEventComponent oldButton0 = new DummyEventComponent("Button 0");
+        DummyEventComponent oldButton1 = new DummyEventComponent("Button 0");
+        DummyController oldController0 = new DummyController(oldButton0);
+        DummyController oldController1 = new DummyController(oldButton1);
+        ControllerSnapshot oldSnapshot = new ControllerSnapshot(1L,
+                new Controller[] { oldController0, oldController1 });
+        Map<DummyInput, Set<InputMapping>> mapping0 = new EnumMap<>(DummyInput.class);
+        mapping0.put(DummyInput.A, Collections.singleton(new InputMapping(oldButton0, 1f)));
+        JInputControllerConfiguration<DummyInput> configuration0 = new JInputControllerConfiguration<>(mapping0,
+                Collections.singleton(oldController0));
+        Map<DummyInput, Set<InputMapping>> mapping1 = new EnumMap<>(DummyInput.class);
+        mapping1.put(DummyInput.A, Collections.singleton(new InputMapping(oldButton1, 1f)));
+        JInputControllerConfiguration<DummyInput> configuration1 = new JInputControllerConfiguration<>(mapping1,
+                Collections.singleton(oldController1));
+        // The second device remains, but is now the first (and only) one.
+        DummyController newController = new DummyController(new DummyEventComponent("Button 0"));
+        ControllerSnapshot newSnapshot = new ControllerSnapshot(2L, new Controller[] { newController });
+
+        Assert.assertFalse(oldSnapshot.hasSameDevices(new Controller[] { newController }));
+        Assert.assertFalse(newSnapshot.findSameDevice(oldController0).isPresent());
+        Assert.assertFalse(newSnapshot.findSameDevice(oldController1).isPresent());
+
+        JInputControllerConfiguration<DummyInput> rebound0 = configuration0.rebind(newSnapshot);
+        JInputControllerConfiguration<DummyInput> rebound1 = configuration1.rebind(newSnapshot);
+
+        Assert.assertTrue(rebound0.getControllers().isEmpty());
+        Assert.assertTrue(rebound0.getMapping().get(DummyInput.A).isEmpty());
+        Assert.assertTrue(rebound1.getControllers().isEmpty());
+        Assert.assertTrue(rebound1.getMapping().get(DummyInput.A).isEmpty());
+    }
+
+    /** Tests rebinding a configuration to a snapshot in which the device is no longer available. */
+    @Test
+    public void testRebindRemovedDevice() {
+        DummyEventComponent button = new DummyEventComponent("Button 0");
+        DummyController controller = new DummyController(button);
+        Map<DummyInput, Set<InputMapping>> mapping = new EnumMap<>(DummyInput.class);
+        mapping.put(DummyInput.A, Collections.singleton(new InputMapping(button, 1f)));
+        JInputControllerConfiguration<DummyInput> configuration = new JInputControllerConfiguration<>(mapping,
+                Collections.singleton(controller));
+
+        JInputControllerConfiguration<DummyInput> rebound = configuration
+            .rebind(new ControllerSnapshot(2L, new Controller[0]));
+
+        Assert.assertTrue(rebound.getControllers().isEmpty());
+        Assert.assertTrue(rebound.getMapping().get(DummyInput.A).isEmpty());
+    }
+}
@@ -0,0 +1,58 @@
+package nl.mvdr.game.jinput;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import net.java.games.input.AbstractController;
+import net.java.games.input.Component;
+import net.java.games.input.Controller;
+import net.java.games.input.Event;
+import net.java.games.input.Rumbler;
+
+/**
+ * Dummy implementation of {@link AbstractController}, which produces events for changes made through
+ * {@link #change(DummyEventComponent, float)}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class DummyController extends AbstractController {
+    /** Pending device events. */
+    private final Deque<Object[]> pendingEvents = new ArrayDeque<>();
+
+    /**
+     * Constructor.
+     * 
+     * @param components components
+     */
+    public DummyController(DummyEventComponent... components) {
+        super("Dummy controller", components, new Controller[0], new Rumbler[0]);
+    }
+
+    /**
+     * Changes the value of a component, and produces a corresponding event on the next poll.
+     * 
+     * @param component component
+     * @param value new value
+     */
+    public void change(DummyEventComponent component, float value) {
+        component.setValue(value);
+        pendingEvents.addLast(new Object[] { component, Float.valueOf(value) });
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Type getType() {
+        return Type.GAMEPAD;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean getNextDeviceEvent(Event event) {
+        boolean result = !pendingEvents.isEmpty();
+        if (result) {
+            Object[] pendingEvent = pendingEvents.removeFirst();
+            event.set((Component) pendingEvent[0], ((Float) pendingEvent[1]).floatValue(), System.nanoTime());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,42 @@
+package nl.mvdr.game.jinput;
+
+import lombok.Getter;
+import lombok.Setter;
+import net.java.games.input.AbstractComponent;
+import net.java.games.input.Component.Identifier.Button;
+
+/**
+ * Dummy implementation of {@link AbstractComponent}, for use with {@link DummyController}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class DummyEventComponent extends AbstractComponent {
+    /** Current value of this component. */
+    @Setter
+    private volatile float value;
+    /** Number of times this component has been polled directly. Only incremented by the polling thread. */
+    @Getter
+    private volatile int pollCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param name name for this component
+     */
+    public DummyEventComponent(String name) {
+        super(name, new Button(name));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isRelative() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected float poll() {
+        pollCount++;
+        return value;
+    }
+}
@@ -0,0 +1,216 @@
+package nl.mvdr.game.jinput;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.java.games.input.Controller;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link JInputCaptureController}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class JInputCaptureControllerTest {
+    /** First button. */
+    private DummyEventComponent button0;
+    /** Second button. */
+    private DummyEventComponent button1;
+    /** Controller. */
+    private DummyController controller;
+    /** Number of times the controllers were looked up. */
+    private AtomicInteger lookupCount;
+    /** Number of times the callback was invoked. */
+    private AtomicInteger callbackCount;
+    /** Capture controller under test. */
+    private JInputCaptureController captureController;
+    /** Executor on which captures run. */
+    private ExecutorService executor;
+
+    /** Sets up the test fixture. */
+    @Before
+    public void setUp() {
+        button0 = new DummyEventComponent("Button 0");
+        button1 = new DummyEventComponent("Button 1");
+        controller = new DummyController(button0, button1);
+        lookupCount = new AtomicInteger();
+        callbackCount = new AtomicInteger();
+        captureController = new JInputCaptureController(callbackCount::incrementAndGet, () -> {
+            lookupCount.incrementAndGet();
+            return new Controller[] { controller };
+        });
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    /** Tears down the test fixture. */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tests capturing a single press.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testCapture() throws Exception {
+        Future<Optional<ControllerAndInputMapping>> future = captureController.submit(executor);
+        Thread.sleep(20);
+        Assert.assertFalse(future.isDone());
+
+        button1.setValue(1f);
+        Thread.sleep(20);
+        // still waiting for the button to be released
+        Assert.assertFalse(future.isDone());
+        button1.setValue(0f);
+
+        Optional<ControllerAndInputMapping> result = future.get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(result.isPresent());
+        Assert.assertSame(controller, result.get().getController());
+        Assert.assertSame(button1, result.get().getMapping().getComponent());
+        Assert.assertEquals(1, callbackCount.get());
+    }
+
+    /**
+     * Tests capturing several bindings in sequence, without looking up the controllers again.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testCaptureSequence() throws Exception {
+        Future<List<ControllerAndInputMapping>> future = executor.submit(() -> captureController.captureSequence(2));
+
+        press(button0);
+        press(button1);
+
+        List<ControllerAndInputMapping> result = future.get(1, TimeUnit.SECONDS);
+        Assert.assertEquals(2, result.size());
+        Assert.assertSame(button0, result.get(0).getMapping().getComponent());
+        Assert.assertSame(button1, result.get(1).getMapping().getComponent());
+        Assert.assertEquals(1, lookupCount.get());
+        Assert.assertEquals(2, callbackCount.get());
+    }
+
+    /**
+     * Tests that cancelling the future stops the capture, without interrupting the thread.
+     * 
+     * @throws InterruptedException unexpected exception
+     * @throws ExecutionException unexpected exception
+     * @throws TimeoutException unexpected exception
+     */
+    @Test
+    public void testCancel() throws InterruptedException, ExecutionException, TimeoutException {
+        Future<Optional<ControllerAndInputMapping>> future = captureController.submit(executor);
+        Thread.sleep(20);
+
+        Assert.assertTrue(future.cancel(false));
+
+        // The executor's thread becomes available again once the capture has stopped.
+        Assert.assertEquals(Integer.valueOf(1), executor.submit(() -> callbackCount.get()).get(1, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that cancelling a future before its capture has started does not affect subsequent captures.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testCancelBeforeStart() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        // keep the executor busy, so that the capture cannot start yet
+        executor.execute(() -> awaitQuietly(latch));
+        Future<Optional<ControllerAndInputMapping>> cancelledFuture = captureController.submit(executor);
+        Assert.assertTrue(cancelledFuture.cancel(false));
+        latch.countDown();
+
+        assertNextCaptureSucceeds();
+    }
+
+    /**
+     * Tests that cancelling a future after its capture has finished does not affect subsequent captures.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testCancelAfterCompletion() throws Exception {
+        Future<Optional<ControllerAndInputMapping>> future = captureController.submit(executor);
+        press(button0);
+        Assert.assertTrue(future.get(1, TimeUnit.SECONDS).isPresent());
+
+        Assert.assertFalse(future.cancel(true));
+
+        assertNextCaptureSucceeds();
+    }
+
+    /**
+     * Tests that calling {@link JInputCaptureController#cancel()} while no capture is running does not affect
+     * subsequent captures.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testCancelWhileIdle() throws Exception {
+        captureController.cancel();
+
+        assertNextCaptureSucceeds();
+    }
+
+    /**
+     * Runs a capture by calling {@link JInputCaptureController#call()} and checks that it picks up a button press.
+     * 
+     * @throws Exception unexpected exception
+     */
+    private void assertNextCaptureSucceeds() throws Exception {
+        Future<Optional<ControllerAndInputMapping>> future = executor.submit(captureController);
+        press(button1);
+
+        Optional<ControllerAndInputMapping> result = future.get(1, TimeUnit.SECONDS);
+        Assert.assertTrue(result.isPresent());
+        Assert.assertSame(button1, result.get().getMapping().getComponent());
+    }
+
+    /**
+     * Waits for the given latch, ignoring interruption.
+     * 
+     * @param latch latch
+     */
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Simulates the user pressing and releasing the given button. The button is held until it has been polled while
+     * pressed, so that the press is not missed if the capture is slow to start.
+     * 
+     * @param button button
+     * @throws InterruptedException unexpected exception
+     */
+    private static void press(DummyEventComponent button) throws InterruptedException {
+        Thread.sleep(20);
+        button.setValue(1f);
+        // A poll which was already in progress may still have read the old value, so wait for the next one as well.
+        int pollCount = button.getPollCount() + 2;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (button.getPollCount() < pollCount && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        button.setValue(0f);
+    }
+}
@@ -8,6 +8,8 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import lombok.extern.slf4j.Slf4j;
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier.Button;
 import nl.mvdr.game.jinput.DummyInput;
 import nl.mvdr.game.input.InputState;
 import nl.mvdr.game.jinput.InputMapping;
@@ -42,4 +44,22 @@ public class JInputControllerTest {
             Assert.assertFalse(state.isPressed(input));
         }
     }
+    
+    /** Tests the getInputState method, where one of the inputs is pressed. */
+    @Test
+    public void testInputPressed() {
+        Map<DummyInput, Set<InputMapping>> mapping = Stream.of(DummyInput.values())
+            .collect(Collectors.toMap(Function.identity(), input -> Collections.emptySet()));
+        Component component = new DummyComponent(new Button("dummy button"), false, false, 0, 1f, "Dummy");
+        mapping.put(DummyInput.SELECT, Collections.singleton(new InputMapping(component, 1f)));
+        JInputControllerConfiguration<DummyInput> configuration = new JInputControllerConfiguration<>(mapping, Collections.emptySet());
+        JInputController<DummyInput> inputController = new JInputController<>(DummyInput.class, configuration);
+
+        InputState<DummyInput> state = inputController.getInputState();
+
+        log.info("State: " + state);
+        for (DummyInput input: DummyInput.values()) {
+            Assert.assertEquals(input == DummyInput.SELECT, state.isPressed(input));
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package nl.mvdr.game.jinput;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import net.java.games.input.Controller;
+import nl.mvdr.game.input.InputState;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link JInputEventController}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class JInputEventControllerTest {
+    /** Button mapped to {@link DummyInput#A}. */
+    private DummyEventComponent buttonA;
+    /** Second button, also mapped to {@link DummyInput#A}. */
+    private DummyEventComponent alternativeButtonA;
+    /** Button mapped to {@link DummyInput#START}. */
+    private DummyEventComponent buttonStart;
+    /** Button which is not mapped. */
+    private DummyEventComponent unmappedButton;
+    /** Controller. */
+    private DummyController controller;
+    /** Input controller under test. */
+    private JInputEventController<DummyInput> inputController;
+
+    /** Sets up the test fixture. */
+    @Before
+    public void setUp() {
+        buttonA = new DummyEventComponent("A");
+        alternativeButtonA = new DummyEventComponent("A2");
+        buttonStart = new DummyEventComponent("Start");
+        unmappedButton = new DummyEventComponent("Unmapped");
+        controller = new DummyController(buttonA, alternativeButtonA, buttonStart, unmappedButton);
+
+        Map<DummyInput, Set<InputMapping>> mapping = Stream.of(DummyInput.values())
+            .collect(Collectors.toMap(Function.identity(), input -> new HashSet<>()));
+        mapping.get(DummyInput.A).add(new InputMapping(buttonA, 1f));
+        mapping.get(DummyInput.A).add(new InputMapping(alternativeButtonA, 1f));
+        mapping.get(DummyInput.START).add(new InputMapping(buttonStart, 1f));
+        JInputControllerConfiguration<DummyInput> configuration = new JInputControllerConfiguration<>(mapping,
+                Collections.<Controller>singleton(controller));
+        inputController = new JInputEventController<>(DummyInput.class, configuration);
+    }
+
+    /** Tests that the initial state is read from the components. */
+    @Test
+    public void testInitialState() {
+        buttonStart.setValue(1f);
+
+        InputState<DummyInput> state = inputController.getInputState();
+
+        for (DummyInput input : DummyInput.values()) {
+            Assert.assertEquals(input == DummyInput.START, state.isPressed(input));
+        }
+    }
+
+    /** Tests that events are applied to the input state. */
+    @Test
+    public void testEvents() {
+        inputController.getInputState();
+
+        controller.change(buttonStart, 1f);
+        Assert.assertTrue(inputController.getInputState().isPressed(DummyInput.START));
+        Assert.assertTrue(inputController.getInputState().isPressed(DummyInput.START));
+        controller.change(buttonStart, 0f);
+        Assert.assertFalse(inputController.getInputState().isPressed(DummyInput.START));
+    }
+
+    /** Tests that components are not read once the state has been initialised. */
+    @Test
+    public void testNoComponentScans() {
+        inputController.getInputState();
+        int pollCount = buttonA.getPollCount();
+
+        controller.change(unmappedButton, 1f);
+        for (int i = 0; i != 100; i++) {
+            inputController.getInputState();
+        }
+
+        Assert.assertEquals(pollCount, buttonA.getPollCount());
+    }
+
+    /** Tests that a press and release between two calls is reported once. */
+    @Test
+    public void testTap() {
+        inputController.getInputState();
+
+        controller.change(buttonA, 1f);
+        controller.change(buttonA, 0f);
+
+        Assert.assertTrue(inputController.getInputState().isPressed(DummyInput.A));
+        Assert.assertFalse(inputController.getInputState().isPressed(DummyInput.A));
+    }
+
+    /** Tests that an input mapped to two components is only released once both are released. */
+    @Test
+    public void testMultipleComponents() {
+        inputController.getInputState();
+
+        controller.change(buttonA, 1f);
+        controller.change(alternativeButtonA, 1f);
+        controller.change(buttonA, 0f);
+        inputController.getInputState();
+
+        Assert.assertTrue(inputController.getInputState().isPressed(DummyInput.A));
+        controller.change(alternativeButtonA, 0f);
+        Assert.assertFalse(inputController.getInputState().isPressed(DummyInput.A));
+    }
+}
@@ -0,0 +1,177 @@
+package nl.mvdr.game.jinput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link JInputSampler}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class JInputSamplerTest {
+    /** Button mapped to {@link DummyInput#A} for player 0. */
+    private final MutableComponent buttonA = new MutableComponent("A");
+    /** Button mapped to {@link DummyInput#B} for player 1. */
+    private final MutableComponent buttonB = new MutableComponent("B");
+
+    /** Tests that a tap between two reads is latched, and reported exactly once. */
+    @Test
+    public void testTapIsLatched() {
+        JInputSampler<DummyInput> sampler = createSampler(null);
+        InputController<DummyInput> controller = sampler.createInputController(0);
+
+        buttonA.setPollData(1f);
+        sampler.sample();
+        buttonA.setPollData(0f);
+        sampler.sample();
+
+        Assert.assertTrue(controller.getInputState().isPressed(DummyInput.A));
+        Assert.assertFalse(controller.getInputState().isPressed(DummyInput.A));
+    }
+
+    /** Tests that a held input is reported on every read, even without samples in between. */
+    @Test
+    public void testHeldInput() {
+        JInputSampler<DummyInput> sampler = createSampler(null);
+        InputController<DummyInput> controller = sampler.createInputController(0);
+
+        buttonA.setPollData(1f);
+        sampler.sample();
+
+        Assert.assertTrue(controller.getInputState().isPressed(DummyInput.A));
+        Assert.assertTrue(controller.getInputState().isPressed(DummyInput.A));
+    }
+
+    /** Tests that each player only sees their own inputs. */
+    @Test
+    public void testPlayers() {
+        JInputSampler<DummyInput> sampler = createSampler(null);
+
+        buttonB.setPollData(1f);
+        sampler.sample();
+
+        InputState<DummyInput> player0 = sampler.createInputController(0).getInputState();
+        InputState<DummyInput> player1 = sampler.createInputController(1).getInputState();
+        Assert.assertFalse(player0.isPressed(DummyInput.B));
+        Assert.assertTrue(player1.isPressed(DummyInput.B));
+    }
+
+    /** Tests that transitions are timestamped and reported to the listener. */
+    @Test
+    public void testTransitions() {
+        List<String> transitions = new ArrayList<>();
+        JInputSampler<DummyInput> sampler = createSampler(
+                (player, input, pressed, timestamp) -> transitions.add(player + " " + input + " " + pressed));
+
+        long before = System.nanoTime();
+        buttonA.setPollData(1f);
+        sampler.sample();
+        sampler.sample();
+        buttonA.setPollData(0f);
+        sampler.sample();
+
+        Assert.assertEquals(Arrays.asList("0 A true", "0 A false"), transitions);
+        Assert.assertTrue(before <= sampler.getTransitionTime(0, DummyInput.A));
+        Assert.assertEquals(0L, sampler.getTransitionTime(0, DummyInput.B));
+        Assert.assertEquals(3, sampler.getSampleCount());
+    }
+
+    /**
+     * Tests that a tap is latched by the sampler thread.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testSamplerThread() throws InterruptedException {
+        JInputSampler<DummyInput> sampler = createSampler(null);
+        InputController<DummyInput> controller = sampler.createInputController(0);
+        sampler.start();
+        try {
+            buttonA.setPollData(1f);
+            Thread.sleep(50);
+            buttonA.setPollData(0f);
+            Thread.sleep(50);
+
+            Assert.assertTrue(sampler.isRunning());
+            Assert.assertTrue(10 < sampler.getSampleCount());
+            Assert.assertTrue(controller.getInputState().isPressed(DummyInput.A));
+            Assert.assertFalse(controller.getInputState().isPressed(DummyInput.A));
+        } finally {
+            sampler.stop();
+        }
+    }
+
+    /**
+     * Tests restarting the sampler right after stopping it: only one sampler thread remains, and it keeps running.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testRestart() throws InterruptedException {
+        JInputSampler<DummyInput> sampler = createSampler(null);
+        long threadsBefore = countSamplerThreads();
+        sampler.start();
+        sampler.stop();
+        sampler.start();
+        try {
+            Thread.sleep(50);
+
+            Assert.assertTrue(sampler.isRunning());
+            Assert.assertTrue(countSamplerThreads() <= threadsBefore + 1);
+        } finally {
+            sampler.stop();
+        }
+    }
+
+    /** Tests creating an input controller for a nonexistent player. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPlayer() {
+        createSampler(null).createInputController(2);
+    }
+
+    /**
+     * Creates a sampler for two players: player 0 uses {@link #buttonA}, player 1 uses {@link #buttonB}.
+     * 
+     * @param listener transition listener; may be null
+     * @return sampler
+     */
+    private JInputSampler<DummyInput> createSampler(InputTransitionListener<DummyInput> listener) {
+        return new JInputSampler<>(DummyInput.class, Arrays.asList(createConfiguration(DummyInput.A, buttonA),
+                createConfiguration(DummyInput.B, buttonB)), 1_000, listener);
+    }
+
+    /**
+     * Creates a configuration where a single input is mapped.
+     * 
+     * @param input input
+     * @param component component the input is mapped to
+     * @return configuration
+     */
+    private static JInputControllerConfiguration<DummyInput> createConfiguration(DummyInput input,
+            MutableComponent component) {
+        Map<DummyInput, Set<InputMapping>> mapping = Stream.of(DummyInput.values())
+            .collect(Collectors.toMap(Function.identity(), i -> Collections.emptySet()));
+        mapping.put(input, Collections.singleton(new InputMapping(component, 1f)));
+        return new JInputControllerConfiguration<>(mapping, Collections.emptySet());
+    }
+
+    /** @return number of live sampler threads */
+    private static long countSamplerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> "JInput sampler".equals(thread.getName()) && thread.isAlive())
+            .count();
+    }
+}
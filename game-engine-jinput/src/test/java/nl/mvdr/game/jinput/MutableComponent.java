@@ -0,0 +1,53 @@
+package nl.mvdr.game.jinput;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import net.java.games.input.Component;
+import net.java.games.input.Component.Identifier.Button;
+
+/**
+ * Implementation of {@link Component} whose poll data can be changed, to simulate the user pressing a button.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Getter
+@ToString(of = { "name", "pollData" })
+public class MutableComponent implements Component {
+    /** Indentifier for this component. */
+    private final Identifier identifier;
+    /** Name for this component. */
+    private final String name;
+    /** Current poll data for this component. */
+    @Setter
+    private volatile float pollData;
+
+    /**
+     * Constructor.
+     * 
+     * @param name name for this component
+     */
+    public MutableComponent(String name) {
+        super();
+        this.identifier = new Button(name);
+        this.name = name;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isRelative() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isAnalog() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public float getDeadZone() {
+        return 0f;
+    }
+}
@@ -0,0 +1,127 @@
+package nl.mvdr.game.ecs;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Pair of {@link EntityTable}s which lets a {@link nl.mvdr.game.engine.GameEngine} compute the next state from the
+ * previous one, without allocating or cloning any per-entity objects.
+ * 
+ * The front table holds the previous state and should be treated as read-only. An update starts with
+ * {@link #beginUpdate(EntityTable, long)}, which takes the table and version of the state the engine was given, checks
+ * that they are the current ones, copies the front table into the back table (a bulk array copy of each column) and
+ * returns the back table. Once all systems have written the next state to the back table, {@link #commit()} swaps the
+ * tables. A typical engine looks as follows:
+ * 
+ * <pre>
+ * public EntityState computeNextState(EntityState previousState, List&lt;InputState&lt;Input&gt;&gt; inputStates) {
+ *     EntityTable previous = previousState.getTable();
+ *     EntityTable next = tables.beginUpdate(previous, previousState.getVersion());
+ *     // ... read from previous, write to next ...
+ *     tables.commit();
+ *     return new EntityState(tables.getFront(), tables.getVersion());
+ * }
+ * </pre>
+ * 
+ * Note that the tables are recycled: a game state referring to a table is only valid until the second commit after it
+ * was created. Only the latest state can be used to compute the next one; since the tables alternate, the table alone
+ * does not tell whether a state is the latest one, which is why the state should carry the version as well. This
+ * makes double buffering incompatible with engines which compute from older states, such as
+ * {@link nl.mvdr.game.rollback.RollbackGameEngine} (which resimulates from a confirmed state) and
+ * {@link nl.mvdr.game.snapshot.SnapshottingGameEngine} (which can rewind); {@link #beginUpdate(EntityTable, long)}
+ * rejects such states rather than silently computing from the wrong table. Likewise, renderers which keep states
+ * around (such as an {@link nl.mvdr.game.gui.AsyncRenderer}) should render from a copy.
+ * 
+ * Instances are not thread-safe.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "front", "version", "updating" })
+public class DoubleBufferedEntityTable {
+    /** Table holding the current state. */
+    private EntityTable front;
+    /** Table to which the next state is written. */
+    private EntityTable back;
+    /** Number of commits so far. */
+    private long version;
+    /** Whether an update is in progress. */
+    private boolean updating;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity maximum number of entities
+     * @param floatColumnCount number of float components per entity
+     * @param intColumnCount number of int components per entity
+     */
+    public DoubleBufferedEntityTable(int capacity, int floatColumnCount, int intColumnCount) {
+        this(new EntityTable(capacity, floatColumnCount, intColumnCount));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param initial table containing the initial state; becomes the front table
+     */
+    public DoubleBufferedEntityTable(@NonNull EntityTable initial) {
+        super();
+        this.front = initial;
+        this.back = new EntityTable(initial.getCapacity(), initial.getFloatColumnCount(),
+                initial.getIntColumnCount());
+    }
+
+    /** @return table holding the current state; should not be modified, except to set up the initial state */
+    public EntityTable getFront() {
+        return front;
+    }
+
+    /** @return number of commits so far */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Starts computing the next state.
+     * 
+     * @param source table of the state from which the next state is computed; must be the front table
+     * @param sourceVersion version of the state from which the next state is computed, as returned by
+     *            {@link #getVersion()} when that state was created; must be the current version
+     * @return table to which the next state should be written; initially a copy of the front table
+     * @throws IllegalArgumentException if the source is not the latest state, for instance because it belongs to an
+     *             older state
+     * @throws IllegalStateException if an update is already in progress
+     */
+    public EntityTable beginUpdate(@NonNull EntityTable source, long sourceVersion) {
+        if (source != front || sourceVersion != version) {
+            throw new IllegalArgumentException("Only the latest state (version " + version
+                    + ") can be updated; the given state is outdated: version " + sourceVersion + ", " + source);
+        }
+        if (updating) {
+            throw new IllegalStateException("Update already in progress.");
+        }
+        updating = true;
+        back.copyFrom(front);
+        return back;
+    }
+
+    /**
+     * Publishes the next state: the back table becomes the front table.
+     * 
+     * @throws IllegalStateException if no update is in progress
+     */
+    public void commit() {
+        if (!updating) {
+            throw new IllegalStateException("No update in progress.");
+        }
+        updating = false;
+        EntityTable table = front;
+        front = back;
+        back = table;
+        version++;
+    }
+
+    /** Abandons the update in progress, if any. The front table remains unchanged. */
+    public void rollback() {
+        updating = false;
+    }
+}
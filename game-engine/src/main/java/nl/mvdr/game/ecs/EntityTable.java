@@ -0,0 +1,283 @@
+package nl.mvdr.game.ecs;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Storage for the components of a fixed maximum number of entities, laid out as a struct of arrays.
+ * 
+ * Each component is a column: a primitive {@code float[]} or {@code int[]} with one element per live entity. The
+ * columns are dense: the live entities occupy indices {@code 0} up to {@link #size()}, without gaps, so that a system
+ * can process all entities by iterating over one or more columns sequentially. For example:
+ * 
+ * <pre>
+ * float[] x = table.floatColumn(X);
+ * float[] dx = table.floatColumn(DX);
+ * for (int i = 0; i != table.size(); i++) {
+ *     x[i] += dx[i];
+ * }
+ * </pre>
+ * 
+ * Entities are identified by an id in the range {@code [0, capacity)}, which stays the same for the entity's lifetime.
+ * The mapping from ids to dense indices is a sparse set: removing an entity moves the last entity into the gap, so an
+ * entity's index may change whenever another entity is removed. Ids of removed entities are reused.
+ * 
+ * Apart from construction, none of the operations allocate memory. Instances are not thread-safe.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "size", "capacity" })
+public class EntityTable {
+    /** Maximum number of entities. */
+    private final int capacity;
+    /** Float columns, indexed by column and then by dense index. */
+    private final float[][] floatColumns;
+    /** Int columns, indexed by column and then by dense index. */
+    private final int[][] intColumns;
+    /**
+     * Entity ids, indexed by dense index. Indices up to {@link #size} contain the live entities; the remaining indices
+     * contain the ids which are available for new entities.
+     */
+    private final int[] dense;
+    /** Dense index of each entity id. */
+    private final int[] sparse;
+
+    /** Number of live entities. */
+    private int size;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity maximum number of entities
+     * @param floatColumnCount number of float components per entity
+     * @param intColumnCount number of int components per entity
+     */
+    public EntityTable(int capacity, int floatColumnCount, int intColumnCount) {
+        super();
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, was: " + capacity);
+        }
+        if (floatColumnCount < 0 || intColumnCount < 0) {
+            throw new IllegalArgumentException("Column counts must not be negative, were: " + floatColumnCount
+                    + ", " + intColumnCount);
+        }
+        this.capacity = capacity;
+        this.floatColumns = new float[floatColumnCount][capacity];
+        this.intColumns = new int[intColumnCount][capacity];
+        this.dense = new int[capacity];
+        this.sparse = new int[capacity];
+        for (int i = 0; i != capacity; i++) {
+            dense[i] = i;
+            sparse[i] = i;
+        }
+    }
+
+    /**
+     * Creates a copy of the given table's layout and contents.
+     * 
+     * @param other table to be copied
+     */
+    public EntityTable(@NonNull EntityTable other) {
+        this(other.capacity, other.floatColumns.length, other.intColumns.length);
+        copyFrom(other);
+    }
+
+    /**
+     * Creates a new entity. All of its components are initially zero.
+     * 
+     * @return id of the new entity
+     * @throws IllegalStateException if the table is full
+     */
+    public int create() {
+        if (size == capacity) {
+            throw new IllegalStateException("Entity table is full, capacity: " + capacity);
+        }
+        int index = size;
+        for (float[] column : floatColumns) {
+            column[index] = 0f;
+        }
+        for (int[] column : intColumns) {
+            column[index] = 0;
+        }
+        size++;
+        return dense[index];
+    }
+
+    /**
+     * Removes the given entity. The last entity in the table takes its place, so that the columns stay dense.
+     * 
+     * @param entity id of a live entity
+     * @throws IllegalArgumentException if the entity is not live
+     */
+    public void remove(int entity) {
+        int index = indexOf(entity);
+        int last = size - 1;
+        if (index != last) {
+            for (float[] column : floatColumns) {
+                column[index] = column[last];
+            }
+            for (int[] column : intColumns) {
+                column[index] = column[last];
+            }
+            int lastEntity = dense[last];
+            dense[index] = lastEntity;
+            sparse[lastEntity] = index;
+            dense[last] = entity;
+            sparse[entity] = last;
+        }
+        size = last;
+    }
+
+    /** Removes all entities. */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Checks whether the given entity is live.
+     * 
+     * @param entity entity id
+     * @return whether the entity exists in this table
+     */
+    public boolean contains(int entity) {
+        return 0 <= entity && entity < capacity && sparse[entity] < size;
+    }
+
+    /**
+     * Looks up the dense index of the given entity, which can be used to access its components in the columns. The
+     * index is only valid until the next entity is removed.
+     * 
+     * @param entity id of a live entity
+     * @return index in the columns
+     * @throws IllegalArgumentException if the entity is not live
+     */
+    public int indexOf(int entity) {
+        if (!contains(entity)) {
+            throw new IllegalArgumentException("No such entity: " + entity);
+        }
+        return sparse[entity];
+    }
+
+    /**
+     * Looks up the entity at the given dense index.
+     * 
+     * @param index index in the columns, in the range {@code [0, size())}
+     * @return entity id
+     */
+    public int entityAt(int index) {
+        if (index < 0 || size <= index) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return dense[index];
+    }
+
+    /**
+     * Returns the given float column. Only the elements up to {@link #size()} are meaningful. The array is owned by
+     * this table; changes to it are changes to the table.
+     * 
+     * @param column column number
+     * @return column
+     */
+    public float[] floatColumn(int column) {
+        return floatColumns[column];
+    }
+
+    /**
+     * Returns the given int column. Only the elements up to {@link #size()} are meaningful. The array is owned by this
+     * table; changes to it are changes to the table.
+     * 
+     * @param column column number
+     * @return column
+     */
+    public int[] intColumn(int column) {
+        return intColumns[column];
+    }
+
+    /**
+     * Returns a float component of an entity.
+     * 
+     * @param entity id of a live entity
+     * @param column column number
+     * @return value
+     */
+    public float getFloat(int entity, int column) {
+        return floatColumns[column][indexOf(entity)];
+    }
+
+    /**
+     * Sets a float component of an entity.
+     * 
+     * @param entity id of a live entity
+     * @param column column number
+     * @param value new value
+     */
+    public void setFloat(int entity, int column, float value) {
+        floatColumns[column][indexOf(entity)] = value;
+    }
+
+    /**
+     * Returns an int component of an entity.
+     * 
+     * @param entity id of a live entity
+     * @param column column number
+     * @return value
+     */
+    public int getInt(int entity, int column) {
+        return intColumns[column][indexOf(entity)];
+    }
+
+    /**
+     * Sets an int component of an entity.
+     * 
+     * @param entity id of a live entity
+     * @param column column number
+     * @param value new value
+     */
+    public void setInt(int entity, int column, int value) {
+        intColumns[column][indexOf(entity)] = value;
+    }
+
+    /**
+     * Replaces the contents of this table with those of the given table, which must have the same layout. Only the live
+     * part of each column is copied.
+     * 
+     * @param other table with the same capacity and columns
+     */
+    public void copyFrom(@NonNull EntityTable other) {
+        if (other.capacity != capacity || other.floatColumns.length != floatColumns.length
+                || other.intColumns.length != intColumns.length) {
+            throw new IllegalArgumentException("Table layouts differ: " + this + ", " + other);
+        }
+        if (other != this) {
+            for (int i = 0; i != floatColumns.length; i++) {
+                System.arraycopy(other.floatColumns[i], 0, floatColumns[i], 0, other.size);
+            }
+            for (int i = 0; i != intColumns.length; i++) {
+                System.arraycopy(other.intColumns[i], 0, intColumns[i], 0, other.size);
+            }
+            System.arraycopy(other.dense, 0, dense, 0, capacity);
+            System.arraycopy(other.sparse, 0, sparse, 0, capacity);
+            size = other.size;
+        }
+    }
+
+    /** @return number of live entities */
+    public int size() {
+        return size;
+    }
+
+    /** @return maximum number of entities */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** @return number of float components per entity */
+    public int getFloatColumnCount() {
+        return floatColumns.length;
+    }
+
+    /** @return number of int components per entity */
+    public int getIntColumnCount() {
+        return intColumns.length;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains struct-of-arrays storage for game entities, for game states containing large numbers of entities.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.game.ecs;
@@ -0,0 +1,90 @@
+package nl.mvdr.game.engine;
+
+import lombok.ToString;
+
+/**
+ * Base class for pacing strategies, which takes care of measuring jitter.
+ * 
+ * Measurements are updated by the waiting thread (typically the game loop), and may be read from any thread.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "waitCount", "maxJitter" })
+public abstract class AbstractPacingStrategy implements PacingStrategy {
+    /** Number of completed waits. */
+    private volatile long waitCount;
+    /** Sum of all measured jitter values, in nanoseconds. */
+    private volatile double jitterSum;
+    /** Sum of the squares of all measured jitter values. */
+    private volatile double jitterSquareSum;
+    /** Maximum measured jitter value, in nanoseconds. */
+    private volatile long maxJitter;
+    
+    /** {@inheritDoc} */
+    @Override
+    public final void waitUntil(long deadline) throws InterruptedException {
+        pause(deadline);
+        
+        long jitter = System.nanoTime() - deadline;
+        // Only a single thread writes these values, so there is no need for atomic updates.
+        waitCount++;
+        jitterSum += jitter;
+        jitterSquareSum += (double) jitter * jitter;
+        if (maxJitter < jitter) {
+            maxJitter = jitter;
+        }
+    }
+    
+    /**
+     * Waits until the given moment.
+     * 
+     * @param deadline moment until which to wait, in terms of {@link System#nanoTime()}; when this method returns
+     *            normally, {@code System.nanoTime()} must be at least this value
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    protected abstract void pause(long deadline) throws InterruptedException;
+    
+    /**
+     * Checks whether the current thread has been interrupted, and if so, clears the interrupted status.
+     * 
+     * @throws InterruptedException if the current thread has been interrupted
+     */
+    protected static void checkInterrupted() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public long getWaitCount() {
+        return waitCount;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public double getMeanJitter() {
+        long count = waitCount;
+        return count == 0 ? 0 : jitterSum / count;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public double getJitterStandardDeviation() {
+        long count = waitCount;
+        double result;
+        if (count == 0) {
+            result = 0;
+        } else {
+            double mean = jitterSum / count;
+            result = Math.sqrt(Math.max(0, jitterSquareSum / count - mean * mean));
+        }
+        return result;
+    }
+    
+    /** {@inheritDoc} */
+    @Override
+    public long getMaxJitter() {
+        return maxJitter;
+    }
+}
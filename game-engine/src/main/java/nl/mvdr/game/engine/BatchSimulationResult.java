@@ -0,0 +1,31 @@
+package nl.mvdr.game.engine;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Outcome of a single game in a batch run by {@link BatchSimulationRunner}.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter
+@ToString
+public class BatchSimulationResult<S extends GameState> {
+    /** Index of the game within the batch. */
+    private final int gameIndex;
+    /** Simulation result; null if the simulation failed. */
+    private final SimulationResult<S> result;
+    /** Exception which caused the simulation to fail; null if the simulation succeeded. */
+    private final RuntimeException failure;
+
+    /** @return whether the simulation completed successfully */
+    public boolean isSuccessful() {
+        return failure == null;
+    }
+}
@@ -0,0 +1,138 @@
+package nl.mvdr.game.engine;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Runs many independent games as fast as possible, spread over all cores.
+ * 
+ * Each game is simulated by its own {@link HeadlessGameRunner}, with its own game engine and input controllers, as
+ * created by the given factories. Games are distributed over a work-stealing {@link ForkJoinPool}, so that games of
+ * different lengths still keep all cores busy.
+ * 
+ * Results are handed to a consumer as soon as each game finishes, rather than being collected until the whole batch is
+ * done. A game which throws an exception does not affect the other games; its failure is reported to the consumer
+ * instead.
+ * 
+ * @param <S> game state type
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ToString
+public class BatchSimulationRunner<S extends GameState, T extends Enum<T>> {
+    /** Creates a game engine for each game. */
+    @NonNull
+    private final Supplier<GameEngine<S, T>> gameEngineFactory;
+    /** Creates the input controllers for the game with the given index. */
+    @NonNull
+    private final IntFunction<List<InputController<T>>> inputControllerFactory;
+    /** Maximum number of updates to simulate for each game. */
+    private final long maxTicks;
+    /** Pool on which the games are run. */
+    @NonNull
+    private final ForkJoinPool pool;
+
+    /**
+     * Convenience constructor, which runs the games on the common fork/join pool.
+     * 
+     * @param gameEngineFactory creates a game engine for each game
+     * @param inputControllerFactory creates the input controllers for the game with the given index
+     * @param maxTicks maximum number of updates to simulate for each game
+     */
+    public BatchSimulationRunner(Supplier<GameEngine<S, T>> gameEngineFactory,
+            IntFunction<List<InputController<T>>> inputControllerFactory, long maxTicks) {
+        this(gameEngineFactory, inputControllerFactory, maxTicks, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Runs the given number of games. Blocks until all games have finished.
+     * 
+     * @param gameCount number of games
+     * @param consumer consumer for the results; called from the pool's threads, as soon as each game has finished, so
+     *            it must be thread-safe
+     */
+    public void run(int gameCount, @NonNull Consumer<BatchSimulationResult<S>> consumer) {
+        if (gameCount < 0) {
+            throw new IllegalArgumentException("Game count must not be negative, was: " + gameCount);
+        }
+        log.info("Starting batch of {} games on {} threads.", Integer.valueOf(gameCount),
+                Integer.valueOf(pool.getParallelism()));
+        long startTime = System.nanoTime();
+        pool.invoke(new SimulationTask(0, gameCount, consumer));
+        log.info("Finished batch of {} games in {} ms.", Integer.valueOf(gameCount),
+                Long.valueOf((System.nanoTime() - startTime) / 1_000_000L));
+    }
+
+    /**
+     * Runs a single game.
+     * 
+     * @param gameIndex index of the game
+     * @return result
+     */
+    private BatchSimulationResult<S> runGame(int gameIndex) {
+        BatchSimulationResult<S> result;
+        try {
+            HeadlessGameRunner<S, T> runner = new HeadlessGameRunner<>(inputControllerFactory.apply(gameIndex),
+                    gameEngineFactory.get(), maxTicks);
+            result = new BatchSimulationResult<>(gameIndex, runner.run(), null);
+        } catch (RuntimeException e) {
+            log.warn("Simulation of game " + gameIndex + " failed.", e);
+            result = new BatchSimulationResult<>(gameIndex, null, e);
+        }
+        return result;
+    }
+
+    /** Task which runs a range of games, splitting it up so that idle threads can steal part of the work. */
+    @ToString(of = { "from", "to" })
+    private class SimulationTask extends RecursiveAction {
+        /** Serial version UID. */
+        private static final long serialVersionUID = 1L;
+
+        /** Index of the first game in the range (inclusive). */
+        private final int from;
+        /** Index of the last game in the range (exclusive). */
+        private final int to;
+        /** Consumer for the results. */
+        private final Consumer<BatchSimulationResult<S>> consumer;
+
+        /**
+         * Constructor.
+         * 
+         * @param from index of the first game in the range (inclusive)
+         * @param to index of the last game in the range (exclusive)
+         * @param consumer consumer for the results
+         */
+        private SimulationTask(int from, int to, Consumer<BatchSimulationResult<S>> consumer) {
+            super();
+            this.from = from;
+            this.to = to;
+            this.consumer = consumer;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                consumer.accept(runGame(from));
+            } else if (from < to) {
+                // Every game is a substantial amount of work, so split all the way down to single games.
+                int middle = (from + to) >>> 1;
+                invokeAll(new SimulationTask(from, middle, consumer), new SimulationTask(middle, to, consumer));
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package nl.mvdr.game.engine;
+
+/**
+ * Pacing strategy which busy-spins until the deadline.
+ * 
+ * Offers the lowest possible jitter, but keeps a CPU core fully occupied. Intended for benchmarks and latency
+ * measurements, not for regular use.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class BusySpinPacingStrategy extends AbstractPacingStrategy {
+    /** {@inheritDoc} */
+    @Override
+    protected void pause(long deadline) throws InterruptedException {
+        while (System.nanoTime() - deadline < 0) {
+            checkInterrupted();
+        }
+    }
+}
@@ -27,7 +27,9 @@ public interface GameEngine<S extends GameState, T extends Enum<T>> {
      * @param previousState
      *            previous game state
      * @param inputStates
-     *            input states for all players; the length of this list must match the number of players in the game
+     *            input states for all players; the length of this list must match the number of players in the game.
+     *            This list is unmodifiable and may be reused by the caller for subsequent updates, so implementations
+     *            should not keep a reference to it.
      * @return new game state
      */
     S computeNextState(S previousState, List<InputState<T>> inputStates);
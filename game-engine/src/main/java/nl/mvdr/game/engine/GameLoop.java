@@ -1,56 +1,163 @@
 package nl.mvdr.game.engine;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
 
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.gui.ChangeDetector;
 import nl.mvdr.game.gui.GameRenderer;
 import nl.mvdr.game.input.InputController;
-import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.metrics.GameLoopMetrics;
 import nl.mvdr.game.state.GameState;
 
 /**
  * Offers functionality for starting and stopping the game loop.
  * 
+ * By default each game loop runs on a dedicated thread. To run many game loops on a small, shared pool of threads
+ * instead, start them using a {@link GameLoopScheduler}.
+ * 
+ * By default the game state is rendered on the game loop thread itself. To keep a slow renderer from delaying the
+ * updates, wrap it in an {@link nl.mvdr.game.gui.AsyncRenderer}, which renders on a separate thread.
+ * 
+ * The game state is rendered on every iteration, unless a {@link ChangeDetector} is passed in: in that case, renders
+ * are skipped while the state does not change.
+ * 
+ * The update rate and the behaviour when the game cannot keep up are determined by the loop's {@link TickPolicy}.
+ * 
+ * The time taken by each phase of a frame is recorded in the loop's metrics ({@code getMetrics()}), which can be
+ * published over JMX.
+ * 
  * @param <S> game state type
  * @param <T> input type
  * 
  * @author Martijn van de Rijdt
  */
 @Slf4j
-@RequiredArgsConstructor
-@ToString
+@ToString(of = { "inputControllers", "gameEngine", "gameRenderer", "pacingStrategy", "running", "paused" })
 public class GameLoop<S extends GameState, T extends Enum<T>> {
-    /** Update rate for the game state. */
-    private static final double GAME_HERTZ = 60.0;
-    /** How much time each frame should take for our target update rate, in nanoseconds. */
-    public static final double TIME_BETWEEN_UPDATES = 1_000_000_000 / GAME_HERTZ;
-     /** At the very most we will update the game this many times before a new render. **/
-    private static final int MAX_UPDATES_BEFORE_RENDER = 5;
-    /** Target frame rate for rendering the game. May be lower than the update rate. */
-    private static final double TARGET_FPS = GAME_HERTZ;
-    /** Target time between renders, in nanoseconds. */
-    private static final double TARGET_TIME_BETWEEN_RENDERS = 1_000_000_000 / TARGET_FPS;
+    /** How much time each frame should take for the default update rate of 60 Hz, in nanoseconds. */
+    public static final double TIME_BETWEEN_UPDATES = 1_000_000_000 / 60.0;
+    /** How much time each frame should take with the default tick policy, in whole nanoseconds. */
+    static final long TIME_BETWEEN_UPDATES_NANOS = TickPolicy.DEFAULT.getTimeBetweenUpdates();
     
     /** Input controllers. */
-    @NonNull
     private final List<InputController<T>> inputControllers;
     /** Game engine. */
-    @NonNull
     private final GameEngine<S, T> gameEngine;
     /** Game renderer. */
-    @NonNull
     private final GameRenderer<S> gameRenderer;
+    /** Strategy for waiting until the next update or render is due. */
+    private final PacingStrategy pacingStrategy;
+    /** Performs the actual updates. */
+    private final GameUpdater<S, T> updater;
+    /** Determines whether the game state needs to be rendered; null to render on every iteration. */
+    private final ChangeDetector changeDetector;
+    /** Update rate and overload behaviour. */
+    @Getter
+    private final TickPolicy tickPolicy;
+    /** How much time each frame should take, in nanoseconds. */
+    private final long timeBetweenUpdates;
+    /** Instrumentation. */
+    @Getter
+    private final GameLoopMetrics metrics = new GameLoopMetrics();
 
     /** Indicates whether the game should be running. */
     @Getter
-    private boolean running;
+    private volatile boolean running;
     /** Indicates whether the game is paused. */
-    private boolean paused;
+    private volatile boolean paused;
+    
+    // The following fields are only accessed from the game loop thread (or, when scheduled, from one scheduler thread
+    // at a time).
+    
+    /** Current game state. */
+    private S state;
+    /** The moment the game state was last updated, in terms of {@link System#nanoTime()}. */
+    private long lastUpdateTime;
+    /** The moment the game was last rendered, in terms of {@link System#nanoTime()}. */
+    private long lastRenderTime;
+    /** Number of frames processed in the current second. */
+    private int framesThisSecond;
+    /** The current second, in terms of {@link System#nanoTime()}. */
+    private long lastSecond;
+    /** Total number of updates. */
+    private long totalUpdateCount;
+    /** Whether the loop is currently overloaded, and applying the tick policy's overload strategy. */
+    private boolean overloaded;
+    /** Number of consecutive iterations in which the loop fell behind. */
+    private int behindStreak;
+    /** Number of consecutive iterations in which the loop kept up. */
+    private int healthyStreak;
+    /** Game time discarded during the current overload, in nanoseconds. */
+    private long droppedTime;
+    /** Whether the game was paused during the previous iteration. */
+    private boolean pausedBefore;
+    
+    /**
+     * Convenience constructor, which uses a {@link HybridPacingStrategy}.
+     * 
+     * @param inputControllers input controllers
+     * @param gameEngine game engine
+     * @param gameRenderer game renderer
+     */
+    public GameLoop(List<InputController<T>> inputControllers, GameEngine<S, T> gameEngine,
+            GameRenderer<S> gameRenderer) {
+        this(inputControllers, gameEngine, gameRenderer, new HybridPacingStrategy());
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param inputControllers input controllers
+     * @param gameEngine game engine
+     * @param gameRenderer game renderer
+     * @param pacingStrategy strategy for waiting until the next update or render is due
+     */
+    public GameLoop(List<InputController<T>> inputControllers, GameEngine<S, T> gameEngine,
+            GameRenderer<S> gameRenderer, PacingStrategy pacingStrategy) {
+        this(inputControllers, gameEngine, gameRenderer, pacingStrategy, null);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param inputControllers input controllers
+     * @param gameEngine game engine
+     * @param gameRenderer game renderer
+     * @param pacingStrategy strategy for waiting until the next update or render is due
+     * @param changeDetector determines whether the game state needs to be rendered; null to render on every iteration
+     */
+    public GameLoop(List<InputController<T>> inputControllers, GameEngine<S, T> gameEngine,
+            GameRenderer<S> gameRenderer, PacingStrategy pacingStrategy, ChangeDetector changeDetector) {
+        this(inputControllers, gameEngine, gameRenderer, pacingStrategy, changeDetector, TickPolicy.DEFAULT);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param inputControllers input controllers
+     * @param gameEngine game engine
+     * @param gameRenderer game renderer
+     * @param pacingStrategy strategy for waiting until the next update or render is due
+     * @param changeDetector determines whether the game state needs to be rendered; null to render on every iteration
+     * @param tickPolicy update rate and overload behaviour
+     */
+    public GameLoop(@NonNull List<InputController<T>> inputControllers, @NonNull GameEngine<S, T> gameEngine,
+            @NonNull GameRenderer<S> gameRenderer, @NonNull PacingStrategy pacingStrategy,
+            ChangeDetector changeDetector, @NonNull TickPolicy tickPolicy) {
+        super();
+        this.inputControllers = inputControllers;
+        this.gameEngine = gameEngine;
+        this.gameRenderer = gameRenderer;
+        this.pacingStrategy = pacingStrategy;
+        this.changeDetector = changeDetector;
+        this.tickPolicy = tickPolicy;
+        this.timeBetweenUpdates = tickPolicy.getTimeBetweenUpdates();
+        this.updater = new GameUpdater<>(inputControllers, gameEngine, metrics);
+    }
     
     /** Starts the game loop. */
     public void start() {
@@ -60,92 +167,256 @@ public class GameLoop<S extends GameState, T extends Enum<T>> {
         new Thread(this::gameLoop, "Game loop").start();
     }
 
+    /**
+     * Starts the game loop on the given scheduler, rather than on a dedicated thread. Stopping and pausing the loop
+     * work the same as for a loop started using {@link #start()}.
+     * 
+     * @param scheduler scheduler
+     */
+    public void start(@NonNull GameLoopScheduler scheduler) {
+        running = true;
+        paused = false;
+
+        scheduler.schedule(this);
+    }
+
     /** Game loop. Should be run on a dedicated thread. */
     // based on: Game Loops! by Eli Delventhal (http://www.java-gaming.org/index.php?topic=24220.0)
     private void gameLoop() {
         log.info("Starting game loop.");
         
-        // The moment the game state was last updated.
-        double lastUpdateTime = System.nanoTime();
-        // The moment the game was last rendered.
-        double lastRenderTime = System.nanoTime();
-
-        // Number of frames processed in the current second.
-        int framesThisSecond = 0;
-        // Start of the current second.
-        int lastSecondTime = (int) (lastUpdateTime / 1_000_000_000);
-        
-        // Total frame counter.
-        int totalUpdateCount = 0;
-
-        S state = gameEngine.initGameState();
-
-        gameRenderer.render(state);
+        init(System.nanoTime());
 
         log.info("Starting main game loop.");
 
         try {
-            while (running && !state.isGameOver()) {
-                double now = System.nanoTime();
-                int updateCount = 0;
-
-                if (!paused) {
-                    // Do as many game updates as we need to, potentially playing catchup.
-                    while (TIME_BETWEEN_UPDATES < now - lastUpdateTime && updateCount < MAX_UPDATES_BEFORE_RENDER) {
-                        List<InputState<T>> inputStates = retrieveInputStates(totalUpdateCount);
-                        
-                        state = gameEngine.computeNextState(state, inputStates);
-
-                        lastUpdateTime += TIME_BETWEEN_UPDATES;
-                        updateCount++;
-                        totalUpdateCount++;
-                    }
-
-                    // Render.
-                    gameRenderer.render(state);
-                    framesThisSecond++;
-                    lastRenderTime = now;
-
-                    // Log the number of frames.
-                    int thisSecond = (int) (lastUpdateTime / 1_000_000_000);
-                    if (lastSecondTime < thisSecond) {
-                        log.info("New second: {}, frames in previous second: {}, total update count: {}.", thisSecond, framesThisSecond, totalUpdateCount);
-                        framesThisSecond = 0;
-                        lastSecondTime = thisSecond;
-                    }
-
-                    // Yield until it has been at least the target time between renders. This saves the CPU from
-                    // hogging.
-                    while (now - lastRenderTime < TARGET_TIME_BETWEEN_RENDERS
-                            && now - lastUpdateTime < TIME_BETWEEN_UPDATES) {
-                        Thread.yield();
-
-                        // Stop the app from consuming all CPU.
-                        Thread.sleep(1);
-
-                        now = System.nanoTime();
-                    }
-                }
+            while (!isFinished()) {
+                iterate(System.nanoTime());
             }
         } catch (RuntimeException | InterruptedException e) {
             // In case of InterruptedException: no need to re-interrupt the thread, it will terminate immediately.
             log.error("Fatal exception encountered in game loop.", e);
         }
+        finish();
+    }
+
+    /** @return whether the game loop should stop: either it has been stopped, or the game is over */
+    // default visibility for the scheduler
+    boolean isFinished() {
+        return !running || state.isGameOver();
+    }
+
+    /** Marks the game loop as stopped and logs a summary. */
+    // default visibility for the scheduler
+    void finish() {
         running = false;
         log.info("Finished main game loop. Final game state: {}", state);
+        log.info("Pacing: {} waits, mean jitter: {} ns, max jitter: {} ns.", pacingStrategy.getWaitCount(),
+                pacingStrategy.getMeanJitter(), pacingStrategy.getMaxJitter());
+        metrics.logSummary();
+    }
+    
+    /**
+     * Initialises the game state and renders it.
+     * 
+     * @param now current time, in terms of {@link System#nanoTime()}
+     */
+    // default visibility for testing purposes
+    void init(long now) {
+        lastUpdateTime = now;
+        lastRenderTime = now;
+        framesThisSecond = 0;
+        lastSecond = now / TimeUnit.SECONDS.toNanos(1);
+        totalUpdateCount = 0L;
+        overloaded = false;
+        behindStreak = 0;
+        healthyStreak = 0;
+        droppedTime = 0L;
+        pausedBefore = false;
+
+        state = gameEngine.initGameState();
+
+        if (changeDetector != null) {
+            changeDetector.reset();
+            changeDetector.shouldRender(state, now);
+        }
+        gameRenderer.render(state);
+    }
+    
+    /**
+     * Performs a single iteration of the game loop: as many updates as necessary, a render, and a wait until the next
+     * iteration is due. Does not allocate any memory, except for the frame count which is logged once per second (and
+     * unless the game engine, renderer or input controllers allocate memory themselves).
+     * 
+     * @param now current time, in terms of {@link System#nanoTime()}
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    // default visibility for testing purposes
+    void iterate(long now) throws InterruptedException {
+        if (!checkPaused(now)) {
+            // Wait until it is time for the next update or render. This saves the CPU from hogging.
+            long deadline = tick(now);
+            long waitStartTime = System.nanoTime();
+            if (waitStartTime - deadline < 0) {
+                pacingStrategy.waitUntil(deadline);
+                metrics.recordPacing(System.nanoTime() - waitStartTime);
+            }
+        } else {
+            // Stop the app from consuming all CPU while paused.
+            pacingStrategy.waitUntil(now + timeBetweenUpdates);
+        }
+    }
+
+    /**
+     * Checks whether the game is paused. If the game has just been unpaused, the update and render times are moved
+     * forward to the given time, so that the time spent paused is not mistaken for a backlog of updates.
+     * 
+     * @param now current time, in terms of {@link System#nanoTime()}
+     * @return whether the game is paused
+     */
+    // default visibility for the scheduler
+    boolean checkPaused(long now) {
+        boolean result = paused;
+        if (pausedBefore && !result) {
+            lastUpdateTime = now;
+            lastRenderTime = now;
+        }
+        pausedBefore = result;
+        return result;
+    }
+
+    /**
+     * Performs the work of a single iteration of the game loop, without waiting: as many updates as necessary and a
+     * render. Should only be called while the loop is not paused, after {@link #checkPaused(long)}.
+     * 
+     * @param now current time, in terms of {@link System#nanoTime()}
+     * @return the moment the next iteration is due, in terms of {@link System#nanoTime()}
+     */
+    // default visibility for the scheduler
+    long tick(long now) {
+        int updateCount = 0;
+
+        // Do as many game updates as we need to, potentially playing catchup.
+        int maxUpdates = overloaded && tickPolicy.getOverloadStrategy() == OverloadStrategy.DILATE_TIME ? 1
+                : tickPolicy.getMaxUpdatesBeforeRender();
+        while (timeBetweenUpdates < now - lastUpdateTime && updateCount < maxUpdates) {
+            state = update(state);
+
+            lastUpdateTime += timeBetweenUpdates;
+            updateCount++;
+            totalUpdateCount++;
+        }
+        if (1 < updateCount) {
+            metrics.recordCatchUpUpdates(updateCount - 1);
+        }
+        applyTickPolicy(now, updateCount == maxUpdates && timeBetweenUpdates < now - lastUpdateTime);
+
+        // Render, unless nothing has changed.
+        long missedRenders = (now - lastRenderTime) / timeBetweenUpdates - 1;
+        if (0 < missedRenders) {
+            metrics.recordDroppedRenders(missedRenders);
+        }
+        if (changeDetector == null || changeDetector.shouldRender(state, now)) {
+            long renderStartTime = System.nanoTime();
+            gameRenderer.render(state);
+            metrics.recordRender(System.nanoTime() - renderStartTime);
+            framesThisSecond++;
+        } else {
+            metrics.recordSkippedRender();
+        }
+        lastRenderTime = now;
+
+        // Log the number of frames.
+        long thisSecond = lastUpdateTime / TimeUnit.SECONDS.toNanos(1);
+        if (lastSecond < thisSecond) {
+            if (log.isInfoEnabled()) {
+                log.info("New second: {}, frames in previous second: {}, total update count: {}.",
+                        Long.valueOf(thisSecond), Integer.valueOf(framesThisSecond),
+                        Long.valueOf(totalUpdateCount));
+            }
+            framesThisSecond = 0;
+            lastSecond = thisSecond;
+        }
+
+        return Math.min(lastRenderTime + timeBetweenUpdates, lastUpdateTime + timeBetweenUpdates) + 1;
+    }
+
+    /**
+     * Keeps track of whether the loop is keeping up, and applies the tick policy's overload strategy if necessary.
+     * 
+     * @param now current time, in terms of {@link System#nanoTime()}
+     * @param behind whether the loop has fallen behind in the current iteration: another update was already due, but
+     *            the maximum number of updates before a render had been reached
+     */
+    private void applyTickPolicy(long now, boolean behind) {
+        if (behind) {
+            behindStreak++;
+            healthyStreak = 0;
+        } else {
+            healthyStreak++;
+            behindStreak = 0;
+        }
+
+        OverloadStrategy strategy = tickPolicy.getOverloadStrategy();
+        int threshold = tickPolicy.getSpiralThreshold();
+        if (!overloaded && threshold <= behindStreak) {
+            overloaded = true;
+            behindStreak = 0;
+            droppedTime = 0L;
+            fireTickPolicyEvent(TickPolicyEvent.Type.OVERLOAD_DETECTED, now, 0L);
+            if (strategy == OverloadStrategy.DROP_BACKLOG) {
+                long dropped = dropBacklog(now);
+                fireTickPolicyEvent(TickPolicyEvent.Type.BACKLOG_DROPPED, now, dropped);
+            } else if (strategy == OverloadStrategy.DILATE_TIME) {
+                dropBacklog(now);
+            }
+        } else if (overloaded && behind && strategy == OverloadStrategy.DILATE_TIME) {
+            // Simulation time runs slower than wall-clock time, rather than catching up.
+            dropBacklog(now);
+        } else if (overloaded && threshold <= behindStreak && strategy == OverloadStrategy.DROP_BACKLOG) {
+            behindStreak = 0;
+            long dropped = dropBacklog(now);
+            fireTickPolicyEvent(TickPolicyEvent.Type.BACKLOG_DROPPED, now, dropped);
+        } else if (overloaded && threshold <= healthyStreak) {
+            overloaded = false;
+            fireTickPolicyEvent(TickPolicyEvent.Type.RECOVERED, now, droppedTime);
+        }
+    }
+
+    /**
+     * Discards all whole updates from the backlog.
+     * 
+     * @param now current time, in terms of {@link System#nanoTime()}
+     * @return discarded game time, in nanoseconds
+     */
+    private long dropBacklog(long now) {
+        long result = (now - lastUpdateTime) / timeBetweenUpdates * timeBetweenUpdates;
+        lastUpdateTime += result;
+        droppedTime += result;
+        return result;
+    }
+
+    /**
+     * Reports a tick policy decision to the listener.
+     * 
+     * @param type type of decision
+     * @param now current time, in terms of {@link System#nanoTime()}
+     * @param dropped discarded game time, in nanoseconds
+     */
+    private void fireTickPolicyEvent(TickPolicyEvent.Type type, long now, long dropped) {
+        tickPolicy.getListener().onTickPolicyEvent(
+                new TickPolicyEvent(type, tickPolicy.getOverloadStrategy(), now - lastUpdateTime, dropped));
     }
 
     /**
-     * Retrieves the current inputs for all players.
+     * Performs a single update of the game state.
      * 
-     * @param updateIndex index of the current frame / update
-     * @return inputs
+     * @param state current game state
+     * @return next game state
      */
-    private List<InputState<T>> retrieveInputStates(int updateIndex) {
-        // Get the input states.
-        return inputControllers.stream()
-            .map(InputController::getInputState)
-            .collect(Collectors.toList());
+    // default visibility for benchmarks
+    S update(S state) {
+        return updater.update(state);
     }
 
     /** Stops the game loop. */
@@ -0,0 +1,201 @@
+package nl.mvdr.game.engine;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.metrics.LatencyHistogram;
+import nl.mvdr.game.metrics.LatencySnapshot;
+
+/**
+ * Runs many game loops on a small, shared pool of threads, instead of on one dedicated thread per loop. Meant for
+ * servers hosting a large number of concurrent games (rooms). Loops are started on the scheduler using
+ * {@link GameLoop#start(GameLoopScheduler)}, and stopped and paused through their regular API.
+ * 
+ * Each iteration of a loop is a separate task on a deadline-ordered {@link ScheduledThreadPoolExecutor}. Once an
+ * iteration finishes, the loop's next iteration is scheduled for the moment it is due. Since a loop never has more than
+ * one iteration pending, its iterations run strictly in order, though not necessarily on the same thread. A loop which
+ * throws an exception is stopped without affecting the other loops.
+ * 
+ * Each loop keeps its own metrics ({@code GameLoop.getMetrics()}); for scheduled loops, the pacing times are the times
+ * between the end of an iteration and the start of the next. In addition, the scheduler measures how late iterations
+ * start compared to their deadlines, which indicates whether the pool is large enough.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "executor", "loops" })
+public class GameLoopScheduler implements Closeable {
+    /** Executor on which the iterations are run. */
+    private final ScheduledThreadPoolExecutor executor;
+    /** Loops which are currently running on this scheduler. */
+    private final Set<GameLoop<?, ?>> loops = ConcurrentHashMap.newKeySet();
+    /** How late iterations started, compared to their deadlines. */
+    private final LatencyHistogram lateness = new LatencyHistogram("lateness");
+    /** Total number of iterations. */
+    private final LongAdder iterationCount = new LongAdder();
+
+    /** Convenience constructor, which uses one thread per available processor. */
+    public GameLoopScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param threadCount number of scheduler threads
+     */
+    public GameLoopScheduler(int threadCount) {
+        super();
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive, was: " + threadCount);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "Game loop scheduler " + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ScheduledThreadPoolExecutor(threadCount, threadFactory);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts running the given loop on this scheduler. Called by {@link GameLoop#start(GameLoopScheduler)}.
+     * 
+     * @param loop game loop, which has been marked as running
+     */
+    void schedule(GameLoop<?, ?> loop) {
+        if (!loops.add(loop)) {
+            throw new IllegalStateException("Game loop already running on this scheduler: " + loop);
+        }
+        try {
+            executor.execute(new ScheduledIteration(loop));
+        } catch (RejectedExecutionException e) {
+            loops.remove(loop);
+            loop.stop();
+            throw new IllegalStateException("Scheduler has been closed.", e);
+        }
+    }
+
+    /** @return game loops currently running on this scheduler */
+    public List<GameLoop<?, ?>> getLoops() {
+        return Collections.unmodifiableList(new ArrayList<>(loops));
+    }
+
+    /** @return number of game loops currently running on this scheduler */
+    public int getLoopCount() {
+        return loops.size();
+    }
+
+    /** @return how late iterations started, compared to their deadlines, in nanoseconds */
+    public LatencySnapshot getLateness() {
+        return lateness.snapshot();
+    }
+
+    /** @return total number of iterations run on this scheduler */
+    public long getIterationCount() {
+        return iterationCount.sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Stops all loops and shuts down the scheduler threads. Iterations which are currently running are finished first.
+     */
+    @Override
+    public void close() {
+        loops.forEach(GameLoop::stop);
+        executor.shutdown();
+    }
+
+    /**
+     * Waits until all scheduler threads have terminated, after {@link #close()}.
+     * 
+     * @param timeout maximum time to wait
+     * @param unit time unit for the timeout
+     * @return true if the threads terminated, false if the timeout elapsed first
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /** Task which performs a single iteration of a game loop, and schedules the next one. */
+    @ToString(of = "loop")
+    private class ScheduledIteration implements Runnable {
+        /** Game loop. */
+        private final GameLoop<?, ?> loop;
+        /** Whether the loop has been initialised. */
+        private boolean initialised;
+        /** The moment this iteration is due, in terms of {@link System#nanoTime()}. */
+        private long deadline;
+        /** The moment the previous iteration finished, in terms of {@link System#nanoTime()}. */
+        private long waitStartTime;
+
+        /**
+         * Constructor.
+         * 
+         * @param loop game loop
+         */
+        private ScheduledIteration(GameLoop<?, ?> loop) {
+            super();
+            this.loop = loop;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void run() {
+            boolean finished;
+            try {
+                long now = System.nanoTime();
+                if (!initialised) {
+                    log.info("Starting scheduled game loop: {}", loop);
+                    loop.init(now);
+                    initialised = true;
+                    deadline = now + loop.getTickPolicy().getTimeBetweenUpdates();
+                } else if (loop.checkPaused(now)) {
+                    deadline = now + loop.getTickPolicy().getTimeBetweenUpdates();
+                } else {
+                    lateness.record(Math.max(0L, now - deadline));
+                    loop.getMetrics().recordPacing(now - waitStartTime);
+                    deadline = loop.tick(now);
+                }
+                iterationCount.increment();
+                finished = loop.isFinished();
+            } catch (RuntimeException e) {
+                log.error("Fatal exception encountered in game loop.", e);
+                finished = true;
+            }
+
+            if (finished) {
+                stop();
+            } else {
+                waitStartTime = System.nanoTime();
+                try {
+                    executor.schedule(this, deadline - waitStartTime, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // Scheduler has been closed.
+                    stop();
+                }
+            }
+        }
+
+        /** Removes the loop from the scheduler. */
+        private void stop() {
+            loops.remove(loop);
+            loop.finish();
+        }
+    }
+}
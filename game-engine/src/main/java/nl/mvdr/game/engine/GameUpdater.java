@@ -0,0 +1,100 @@
+package nl.mvdr.game.engine;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.ToString;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.metrics.GameLoopMetrics;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Performs single updates of the game state: retrieves the inputs for all players and computes the next state.
+ * 
+ * Shared by the different ways of driving a game engine, such as {@link GameLoop} and {@link HeadlessGameRunner}.
+ * 
+ * Updates do not allocate any memory themselves: the list of input states passed to the game engine is reused for
+ * every update. Instances are not thread-safe.
+ * 
+ * @param <S> game state type
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "inputControllers", "gameEngine" })
+class GameUpdater<S extends GameState, T extends Enum<T>> {
+    /** Input controllers. */
+    private final InputController<T>[] inputControllers;
+    /** Game engine. */
+    private final GameEngine<S, T> gameEngine;
+    /** Metrics in which to record the time taken by each phase of the update; null if not instrumented. */
+    private final GameLoopMetrics metrics;
+    /** Input states for all players. Overwritten on every update. */
+    private final InputState<T>[] inputStates;
+    /** Unmodifiable view of {@link #inputStates}, which is passed to the game engine. */
+    private final List<InputState<T>> inputStateList;
+    
+    /**
+     * Constructor, for an updater without instrumentation.
+     * 
+     * @param inputControllers input controllers
+     * @param gameEngine game engine
+     */
+    GameUpdater(List<InputController<T>> inputControllers, GameEngine<S, T> gameEngine) {
+        this(inputControllers, gameEngine, null);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param inputControllers input controllers
+     * @param gameEngine game engine
+     * @param metrics metrics in which to record the time taken by each phase of the update; null if not instrumented
+     */
+    @SuppressWarnings("unchecked")
+    GameUpdater(@NonNull List<InputController<T>> inputControllers, @NonNull GameEngine<S, T> gameEngine,
+            GameLoopMetrics metrics) {
+        super();
+        this.inputControllers = inputControllers.toArray(new InputController[inputControllers.size()]);
+        this.gameEngine = gameEngine;
+        this.metrics = metrics;
+        this.inputStates = new InputState[inputControllers.size()];
+        this.inputStateList = Collections.unmodifiableList(Arrays.asList(inputStates));
+    }
+    
+    /**
+     * Performs a single update of the game state.
+     * 
+     * @param state current game state
+     * @return next game state
+     */
+    S update(S state) {
+        S result;
+        if (metrics == null) {
+            result = gameEngine.computeNextState(state, retrieveInputStates());
+        } else {
+            long startTime = System.nanoTime();
+            List<InputState<T>> inputStates = retrieveInputStates();
+            long inputTime = System.nanoTime();
+            result = gameEngine.computeNextState(state, inputStates);
+            metrics.recordInputPolling(inputTime - startTime);
+            metrics.recordUpdate(System.nanoTime() - inputTime);
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the current inputs for all players.
+     * 
+     * @return inputs; the same list instance is returned every time
+     */
+    private List<InputState<T>> retrieveInputStates() {
+        for (int i = 0; i != inputControllers.length; i++) {
+            inputStates[i] = inputControllers[i].getInputState();
+        }
+        return inputStateList;
+    }
+}
@@ -0,0 +1,126 @@
+package nl.mvdr.game.engine;
+
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.gui.GameRenderer;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Runs a game without a user interface and independently of the wall clock: updates are computed as fast as the CPU
+ * allows, rather than at {@link GameLoop}'s fixed update rate.
+ * 
+ * Intended for tests, bot evaluations and balancing runs. The input controllers are polled once per update, exactly as
+ * in the game loop, so they must produce inputs without relying on real time having passed (for instance, scripted or
+ * AI-driven controllers, or a replay).
+ * 
+ * The simulation stops as soon as the game is over or the given tick budget has been used up. Optionally, every Nth
+ * state is rendered.
+ * 
+ * Instances are not thread-safe. To run multiple simulations at the same time, use a separate instance (with its own
+ * input controllers) for each of them.
+ * 
+ * @param <S> game state type
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(exclude = "updater")
+public class HeadlessGameRunner<S extends GameState, T extends Enum<T>> {
+    /** Game engine. */
+    private final GameEngine<S, T> gameEngine;
+    /** Game renderer. */
+    private final GameRenderer<S> gameRenderer;
+    /** Number of updates between renders; 0 means that nothing is rendered. */
+    private final int renderInterval;
+    /** Maximum number of updates to simulate. */
+    private final long maxTicks;
+    /** Performs the actual updates. */
+    private final GameUpdater<S, T> updater;
+    
+    /**
+     * Convenience constructor, for a simulation where nothing is rendered.
+     * 
+     * @param inputControllers input controllers
+     * @param gameEngine game engine
+     * @param maxTicks maximum number of updates to simulate; use {@link Long#MAX_VALUE} to simulate until the game is
+     *            over
+     */
+    public HeadlessGameRunner(List<InputController<T>> inputControllers, GameEngine<S, T> gameEngine, long maxTicks) {
+        this(inputControllers, gameEngine, state -> {}, 0, maxTicks);
+    }
+    
+    /**
+     * Constructor.
+     * 
+     * @param inputControllers input controllers
+     * @param gameEngine game engine
+     * @param gameRenderer game renderer
+     * @param renderInterval number of updates between renders; for instance, 60 means that every 60th state is
+     *            rendered; 0 means that nothing is rendered at all. Note that the initial and final states are always
+     *            rendered, unless this value is 0.
+     * @param maxTicks maximum number of updates to simulate; use {@link Long#MAX_VALUE} to simulate until the game is
+     *            over
+     */
+    public HeadlessGameRunner(@NonNull List<InputController<T>> inputControllers, @NonNull GameEngine<S, T> gameEngine,
+            @NonNull GameRenderer<S> gameRenderer, int renderInterval, long maxTicks) {
+        super();
+        if (renderInterval < 0) {
+            throw new IllegalArgumentException("Render interval must not be negative, was: " + renderInterval);
+        }
+        if (maxTicks < 0) {
+            throw new IllegalArgumentException("Maximum number of ticks must not be negative, was: " + maxTicks);
+        }
+        this.gameEngine = gameEngine;
+        this.gameRenderer = gameRenderer;
+        this.renderInterval = renderInterval;
+        this.maxTicks = maxTicks;
+        this.updater = new GameUpdater<>(inputControllers, gameEngine);
+    }
+    
+    /**
+     * Runs the simulation, on the current thread.
+     * 
+     * @return simulation result
+     */
+    public SimulationResult<S> run() {
+        log.debug("Starting simulation.");
+        long startTime = System.nanoTime();
+        
+        S state = gameEngine.initGameState();
+        long tickCount = 0;
+        long renderCount = 0;
+        boolean rendered = false;
+        
+        if (renderInterval != 0) {
+            gameRenderer.render(state);
+            renderCount++;
+            rendered = true;
+        }
+        
+        while (!state.isGameOver() && tickCount < maxTicks) {
+            state = updater.update(state);
+            tickCount++;
+            
+            rendered = renderInterval != 0 && tickCount % renderInterval == 0;
+            if (rendered) {
+                gameRenderer.render(state);
+                renderCount++;
+            }
+        }
+        
+        if (renderInterval != 0 && !rendered) {
+            // Always render the final state.
+            gameRenderer.render(state);
+            renderCount++;
+        }
+        
+        SimulationResult<S> result = new SimulationResult<>(state, tickCount, renderCount, System.nanoTime() - startTime);
+        log.debug("Finished simulation: {}", result);
+        return result;
+    }
+}
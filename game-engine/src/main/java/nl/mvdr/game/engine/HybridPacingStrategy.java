@@ -0,0 +1,70 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.ToString;
+
+/**
+ * Pacing strategy which parks the waiting thread for most of the time, then spins for the last little bit.
+ * 
+ * The spin threshold is calibrated continuously: it is based on how much each park operation overshoots the requested
+ * time on the current system. This gives nearly the precision of {@link BusySpinPacingStrategy}, while the CPU is
+ * mostly idle.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(callSuper = true, of = "spinThreshold")
+public class HybridPacingStrategy extends AbstractPacingStrategy {
+    /** Lower bound for the spin threshold, in nanoseconds. */
+    private static final long MIN_SPIN_THRESHOLD = TimeUnit.MICROSECONDS.toNanos(50);
+    /** Upper bound for the spin threshold, in nanoseconds. */
+    private static final long MAX_SPIN_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(2);
+    /** Initial value for the spin threshold, before any calibration has taken place. */
+    private static final long INITIAL_SPIN_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(1);
+    /** Weight of each new overshoot measurement in the moving average. */
+    private static final double SMOOTHING_FACTOR = 0.1;
+    /** Safety margin: the spin threshold is this many times the average overshoot. */
+    private static final double SAFETY_FACTOR = 2.0;
+
+    /** Exponential moving average of the amount by which park operations overshoot, in nanoseconds. */
+    private double averageOvershoot = INITIAL_SPIN_THRESHOLD / SAFETY_FACTOR;
+    /** If the remaining time is below this threshold, the thread spins instead of parking. In nanoseconds. */
+    private volatile long spinThreshold = INITIAL_SPIN_THRESHOLD;
+
+    /** {@inheritDoc} */
+    @Override
+    protected void pause(long deadline) throws InterruptedException {
+        long now = System.nanoTime();
+        long remaining = deadline - now;
+        while (spinThreshold < remaining) {
+            long parkTime = remaining - spinThreshold;
+            LockSupport.parkNanos(this, parkTime);
+            checkInterrupted();
+            long before = now;
+            now = System.nanoTime();
+            calibrate(now - before - parkTime);
+            remaining = deadline - now;
+        }
+        while (System.nanoTime() - deadline < 0) {
+            checkInterrupted();
+        }
+    }
+
+    /**
+     * Updates the spin threshold based on a new measurement.
+     * 
+     * @param overshoot amount of time by which a park operation overshot the requested time, in nanoseconds; may be
+     *            negative in case of a spurious wakeup
+     */
+    private void calibrate(long overshoot) {
+        averageOvershoot += SMOOTHING_FACTOR * (Math.max(0, overshoot) - averageOvershoot);
+        long threshold = (long) (SAFETY_FACTOR * averageOvershoot);
+        spinThreshold = Math.min(MAX_SPIN_THRESHOLD, Math.max(MIN_SPIN_THRESHOLD, threshold));
+    }
+
+    /** @return current spin threshold, in nanoseconds */
+    public long getSpinThreshold() {
+        return spinThreshold;
+    }
+}
@@ -0,0 +1,30 @@
+package nl.mvdr.game.engine;
+
+/**
+ * What the game loop does once it has detected that it cannot keep up with its update rate (a "spiral of death"). See
+ * {@link TickPolicy}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public enum OverloadStrategy {
+    /**
+     * Keep catching up, at most the configured number of updates per render. Game time stays in sync with wall-clock
+     * time as far as possible, at the cost of bursts of updates. This is the default.
+     */
+    CATCH_UP,
+    /**
+     * Slow down simulation time: perform a single update per render, and discard any further backlog. The game runs in
+     * slow motion, but smoothly, until the updates are fast enough again.
+     */
+    DILATE_TIME,
+    /**
+     * Discard the entire backlog at once, so that game time jumps ahead to wall-clock time, and continue normally. This
+     * is repeated whenever the loop falls behind again.
+     */
+    DROP_BACKLOG,
+    /**
+     * Keep catching up, relying on the {@link TickPolicyListener} to shed optional work (for instance by lowering the
+     * level of detail) until the loop has recovered.
+     */
+    SHED_LOAD
+}
@@ -0,0 +1,31 @@
+package nl.mvdr.game.engine;
+
+/**
+ * Strategy for waiting until the next frame is due. Used by the {@link GameLoop} to pace updates and renders.
+ * 
+ * Implementations measure their own jitter: how late they return, compared to the requested deadline.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public interface PacingStrategy {
+    /**
+     * Waits until the given moment.
+     * 
+     * @param deadline moment until which to wait, in terms of {@link System#nanoTime()}; when this method returns
+     *            normally, {@code System.nanoTime()} is at least this value
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    void waitUntil(long deadline) throws InterruptedException;
+    
+    /** @return number of times {@link #waitUntil(long)} has returned */
+    long getWaitCount();
+    
+    /** @return average amount of time by which the deadline was overshot, in nanoseconds */
+    double getMeanJitter();
+    
+    /** @return standard deviation of the amount of time by which the deadline was overshot, in nanoseconds */
+    double getJitterStandardDeviation();
+    
+    /** @return maximum amount of time by which the deadline was overshot, in nanoseconds */
+    long getMaxJitter();
+}
@@ -0,0 +1,34 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Result of a simulation run by {@link HeadlessGameRunner}.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public class SimulationResult<S extends GameState> {
+    /** Game state at the end of the simulation. */
+    private final S finalState;
+    /** Number of updates (ticks) which were simulated. */
+    private final long tickCount;
+    /** Number of states which were rendered. */
+    private final long renderCount;
+    /** Wall-clock time the simulation took, in nanoseconds. */
+    private final long elapsedNanos;
+    
+    /** @return simulation speed, in ticks per second of wall-clock time */
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0 : tickCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
@@ -0,0 +1,24 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Low-power pacing strategy, which parks the waiting thread until the deadline.
+ * 
+ * Does not use any CPU time while waiting, at the cost of overshooting the deadline by the operating system's timer
+ * slack (typically somewhere between 50 microseconds and a few milliseconds).
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SleepPacingStrategy extends AbstractPacingStrategy {
+    /** {@inheritDoc} */
+    @Override
+    protected void pause(long deadline) throws InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        while (0 < remaining) {
+            LockSupport.parkNanos(this, remaining);
+            checkInterrupted();
+            remaining = deadline - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helper methods for the dedicated threads used alongside the game loop, such as render and input sampler threads.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public final class Threads {
+    /** Private constructor, to prevent instantiation. */
+    private Threads() {
+        super();
+    }
+
+    /**
+     * Waits for the given thread to terminate, for at most the given time. If the current thread is interrupted while
+     * waiting, it keeps waiting; its interrupt status is restored afterwards.
+     * 
+     * Callers should not hold any locks the given thread might need while waiting, since that thread could then never
+     * terminate.
+     * 
+     * @param thread thread; may be null
+     * @param timeout maximum time to wait
+     * @param unit unit of the timeout
+     * @return whether the thread has terminated (or is null)
+     */
+    public static boolean awaitTermination(Thread thread, long timeout, TimeUnit unit) {
+        boolean interrupted = false;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long remaining = unit.toNanos(timeout);
+        while (thread != null && thread.isAlive() && 0 < remaining) {
+            try {
+                TimeUnit.NANOSECONDS.timedJoin(thread, remaining);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            remaining = deadline - System.nanoTime();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return thread == null || !thread.isAlive();
+    }
+}
@@ -0,0 +1,110 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuration of the timing of a {@link GameLoop}: how often the game is updated, how far the loop may go to catch up
+ * when it falls behind, and what it does when it cannot keep up at all.
+ * 
+ * The loop is considered to be in a "spiral of death" once it has needed more than the maximum number of updates before
+ * a render for a number of consecutive iterations (the spiral threshold). It then applies its
+ * {@link OverloadStrategy}, until it has been able to keep up for the same number of consecutive iterations. Each of
+ * these decisions is reported to the listener.
+ * 
+ * Instances are immutable.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@Getter
+@ToString(exclude = "listener")
+public class TickPolicy {
+    /** Default policy: 60 updates per second, catching up at most 5 updates per render, and logging all decisions. */
+    public static final TickPolicy DEFAULT = new TickPolicy(60, 5, 10, OverloadStrategy.CATCH_UP);
+
+    /** Number of updates per second. The game is also rendered at most this many times per second. */
+    private final int updateRate;
+    /** Maximum number of updates performed before a render, when catching up. */
+    private final int maxUpdatesBeforeRender;
+    /** Number of consecutive iterations after which the loop is considered overloaded, or recovered. */
+    private final int spiralThreshold;
+    /** What to do when overloaded. */
+    private final OverloadStrategy overloadStrategy;
+    /** Listener for decisions. */
+    private final TickPolicyListener listener;
+    /** Time between updates, in nanoseconds. */
+    private final long timeBetweenUpdates;
+
+    /**
+     * Convenience constructor, which logs all decisions.
+     * 
+     * @param updateRate number of updates per second
+     * @param maxUpdatesBeforeRender maximum number of updates performed before a render, when catching up
+     * @param spiralThreshold number of consecutive iterations after which the loop is considered overloaded, or
+     *            recovered
+     * @param overloadStrategy what to do when overloaded
+     */
+    public TickPolicy(int updateRate, int maxUpdatesBeforeRender, int spiralThreshold,
+            OverloadStrategy overloadStrategy) {
+        this(updateRate, maxUpdatesBeforeRender, spiralThreshold, overloadStrategy, TickPolicy::log);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param updateRate number of updates per second
+     * @param maxUpdatesBeforeRender maximum number of updates performed before a render, when catching up
+     * @param spiralThreshold number of consecutive iterations after which the loop is considered overloaded, or
+     *            recovered
+     * @param overloadStrategy what to do when overloaded
+     * @param listener listener for decisions; called on the game loop thread
+     */
+    public TickPolicy(int updateRate, int maxUpdatesBeforeRender, int spiralThreshold,
+            @NonNull OverloadStrategy overloadStrategy, @NonNull TickPolicyListener listener) {
+        super();
+        if (updateRate <= 0) {
+            throw new IllegalArgumentException("Update rate must be positive, was: " + updateRate);
+        }
+        if (maxUpdatesBeforeRender <= 0) {
+            throw new IllegalArgumentException("Maximum updates before render must be positive, was: "
+                    + maxUpdatesBeforeRender);
+        }
+        if (spiralThreshold <= 0) {
+            throw new IllegalArgumentException("Spiral threshold must be positive, was: " + spiralThreshold);
+        }
+        this.updateRate = updateRate;
+        this.maxUpdatesBeforeRender = maxUpdatesBeforeRender;
+        this.spiralThreshold = spiralThreshold;
+        this.overloadStrategy = overloadStrategy;
+        this.listener = listener;
+        this.timeBetweenUpdates = TimeUnit.SECONDS.toNanos(1) / updateRate;
+    }
+
+    /**
+     * Creates a copy of this policy with a different listener.
+     * 
+     * @param newListener listener for decisions
+     * @return new policy
+     */
+    public TickPolicy withListener(TickPolicyListener newListener) {
+        return new TickPolicy(updateRate, maxUpdatesBeforeRender, spiralThreshold, overloadStrategy, newListener);
+    }
+
+    /**
+     * Logs the given event.
+     * 
+     * @param event event
+     */
+    private static void log(TickPolicyEvent event) {
+        if (event.getType() == TickPolicyEvent.Type.RECOVERED) {
+            log.info("Game loop recovered: {}", event);
+        } else {
+            log.warn("Game loop cannot keep up: {}", event);
+        }
+    }
+}
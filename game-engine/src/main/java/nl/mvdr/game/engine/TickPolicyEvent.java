@@ -0,0 +1,37 @@
+package nl.mvdr.game.engine;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Decision made by the game loop based on its {@link TickPolicy}. All durations are in nanoseconds.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public class TickPolicyEvent {
+    /** Type of decision. */
+    public enum Type {
+        /** The game loop has consistently been unable to keep up, and now applies its overload strategy. */
+        OVERLOAD_DETECTED,
+        /** The backlog of updates was discarded (with {@link OverloadStrategy#DROP_BACKLOG}). */
+        BACKLOG_DROPPED,
+        /** The game loop has consistently been able to keep up again, and is back to normal. */
+        RECOVERED
+    }
+
+    /** Type of decision. */
+    private final Type type;
+    /** Overload strategy of the game loop. */
+    private final OverloadStrategy strategy;
+    /** Game time the loop was behind on wall-clock time when the decision was made. */
+    private final long backlog;
+    /**
+     * Game time which was discarded: for {@link Type#BACKLOG_DROPPED} the amount discarded by this decision, for
+     * {@link Type#RECOVERED} the total amount discarded during the overload.
+     */
+    private final long droppedTime;
+}
@@ -0,0 +1,17 @@
+package nl.mvdr.game.engine;
+
+/**
+ * Listener for the decisions made by the game loop based on its {@link TickPolicy}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@FunctionalInterface
+public interface TickPolicyListener {
+    /**
+     * Called on the game loop thread whenever the game loop becomes overloaded, drops backlog or recovers. Should
+     * return quickly.
+     * 
+     * @param event event
+     */
+    void onTickPolicyEvent(TickPolicyEvent event);
+}
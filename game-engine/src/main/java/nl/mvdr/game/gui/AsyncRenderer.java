@@ -0,0 +1,157 @@
+package nl.mvdr.game.gui;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.engine.Threads;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Game renderer which decouples rendering from the game loop.
+ *
+ * Calls to {@link #render(GameState)} merely publish the new game state through a lock-free, single-slot handoff and
+ * return immediately. A dedicated render thread always draws the latest published state using the delegate renderer.
+ * A slow delegate renderer therefore never delays the game loop; instead, intermediate states are skipped.
+ *
+ * Game states are handed from one thread to another, so they should be immutable.
+ *
+ * @param <S> game state type
+ *
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@RequiredArgsConstructor
+@ToString(of = "delegate")
+public class AsyncRenderer<S extends GameState> implements GameRenderer<S> {
+    /** Maximum time to wait for the previous render thread when restarting, in seconds. */
+    private static final long TERMINATION_TIMEOUT = 5L;
+
+    /** Renderer which does the actual rendering, on the render thread. */
+    @NonNull
+    private final GameRenderer<S> delegate;
+
+    /** Latest published game state which has not been picked up by the render thread yet. */
+    private final AtomicReference<S> slot = new AtomicReference<>();
+    /** Number of states which have been rendered. */
+    private final AtomicLong renderedFrames = new AtomicLong();
+    /** Number of published states which were replaced by a newer state before they could be rendered. */
+    private final AtomicLong droppedFrames = new AtomicLong();
+    /** Number of published states which were the same as the previously published state. */
+    private final AtomicLong duplicateFrames = new AtomicLong();
+
+    /** The last published state. Only accessed from the thread calling {@link #render(GameState)}. */
+    private S lastPublishedState;
+    /** Render thread; null if not started. */
+    private volatile Thread renderThread;
+    /** Indicates whether the render thread should be running. */
+    private volatile boolean running;
+
+    /**
+     * Starts the render thread. If the render thread has been stopped before, this waits until the previous render
+     * thread has finished rendering its last state, so that it cannot stop the new render thread on its way out.
+     *
+     * @throws IllegalStateException if the render thread is already running, or if the previous render thread does
+     *             not finish in time
+     */
+    public void start() {
+        Thread previous;
+        synchronized (this) {
+            if (running) {
+                throw new IllegalStateException("Render thread already started.");
+            }
+            previous = renderThread;
+        }
+        // Wait without holding the lock, so that other threads can still call stop() meanwhile.
+        if (!Threads.awaitTermination(previous, TERMINATION_TIMEOUT, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Previous render thread did not finish: " + previous);
+        }
+        synchronized (this) {
+            if (running || renderThread != previous) {
+                throw new IllegalStateException("Render thread already started.");
+            }
+            running = true;
+            renderThread = new Thread(this::renderLoop, "Render loop");
+            renderThread.setDaemon(true);
+            renderThread.start();
+        }
+    }
+
+    /** Stops the render thread. The state currently being rendered, if any, is finished first. */
+    public synchronized void stop() {
+        running = false;
+        Thread thread = renderThread;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Publishes the given state to the render thread. Never blocks.
+     */
+    @Override
+    public void render(@NonNull S gameState) {
+        if (gameState == lastPublishedState) {
+            // Nothing new to draw.
+            duplicateFrames.incrementAndGet();
+        } else {
+            lastPublishedState = gameState;
+            if (slot.getAndSet(gameState) != null) {
+                droppedFrames.incrementAndGet();
+            }
+            Thread thread = renderThread;
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+        }
+    }
+
+    /** Render loop. Runs on the dedicated render thread. */
+    private void renderLoop() {
+        log.info("Starting render loop.");
+        try {
+            while (running) {
+                S state = slot.getAndSet(null);
+                if (state == null) {
+                    // Wait for the next state to be published. Spurious wakeups are harmless.
+                    LockSupport.park(this);
+                } else {
+                    delegate.render(state);
+                    renderedFrames.incrementAndGet();
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Fatal exception encountered in render loop.", e);
+        }
+        running = false;
+        log.info("Finished render loop. Rendered: {}, dropped: {}, duplicates: {}.", renderedFrames, droppedFrames,
+                duplicateFrames);
+    }
+
+    /** @return whether the render thread is running */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** @return number of states which have been rendered */
+    public long getRenderedFrames() {
+        return renderedFrames.get();
+    }
+
+    /** @return number of published states which were replaced by a newer state before they could be rendered */
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /** @return number of published states which were the same as the previously published state, and were skipped */
+    public long getDuplicateFrames() {
+        return duplicateFrames.get();
+    }
+}
@@ -0,0 +1,102 @@
+package nl.mvdr.game.gui;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+import lombok.ToString;
+import nl.mvdr.game.state.GameState;
+import nl.mvdr.game.state.VersionedGameState;
+
+/**
+ * Determines whether a game state needs to be rendered, or whether rendering can be skipped because the state has not
+ * changed since the last render.
+ * 
+ * Game states which implement {@link VersionedGameState} are compared by version. Other game states are compared by
+ * reference, which is appropriate for immutable states: the game engine returns a new instance when anything changes.
+ * 
+ * To make sure the screen is refreshed now and then regardless (for instance to recover from a window being
+ * obscured), a state is always rendered once the keep-alive interval has passed since the last render.
+ * 
+ * Instances are stateful and not thread-safe; each renderer or game loop needs its own.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "keepAliveInterval", "skippedRenders" })
+public class ChangeDetector {
+    /** Maximum time between renders, in nanoseconds. */
+    private final long keepAliveInterval;
+
+    /** Last rendered state; null if nothing has been rendered yet. */
+    private GameState lastState;
+    /** Version of {@link #lastState}, if it is versioned. */
+    private long lastVersion;
+    /** Time of the last render, in terms of {@link System#nanoTime()}. */
+    private long lastRenderTime;
+    /** Number of skipped renders. */
+    private long skippedRenders;
+
+    /** Convenience constructor, for a change detector without a keep-alive interval. */
+    public ChangeDetector() {
+        this(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param keepAliveInterval maximum time between renders, even if the state does not change
+     * @param unit unit of the keep-alive interval
+     */
+    public ChangeDetector(long keepAliveInterval, @NonNull TimeUnit unit) {
+        super();
+        if (keepAliveInterval <= 0L) {
+            throw new IllegalArgumentException("Keep-alive interval must be positive, was: " + keepAliveInterval);
+        }
+        this.keepAliveInterval = unit.toNanos(keepAliveInterval);
+    }
+
+    /**
+     * Determines whether the given state needs to be rendered. If so, it is remembered as the last rendered state;
+     * otherwise the render is counted as skipped.
+     * 
+     * @param state game state
+     * @param now current time, in terms of {@link System#nanoTime()}
+     * @return whether the state should be rendered
+     */
+    public boolean shouldRender(@NonNull GameState state, long now) {
+        boolean result = lastState == null || hasChanged(state) || keepAliveInterval <= now - lastRenderTime;
+        if (result) {
+            lastState = state;
+            lastVersion = state instanceof VersionedGameState ? ((VersionedGameState) state).getVersion() : 0L;
+            lastRenderTime = now;
+        } else {
+            skippedRenders++;
+        }
+        return result;
+    }
+
+    /**
+     * Determines whether the given state differs from the last rendered state.
+     * 
+     * @param state game state
+     * @return whether the state has changed
+     */
+    private boolean hasChanged(GameState state) {
+        boolean result;
+        if (state instanceof VersionedGameState && lastState instanceof VersionedGameState) {
+            result = ((VersionedGameState) state).getVersion() != lastVersion;
+        } else {
+            result = state != lastState;
+        }
+        return result;
+    }
+
+    /** Forgets the last rendered state, so that the next state is always rendered. */
+    public void reset() {
+        lastState = null;
+    }
+
+    /** @return number of skipped renders */
+    public long getSkippedRenders() {
+        return skippedRenders;
+    }
+}
@@ -9,6 +9,9 @@ import nl.mvdr.game.state.GameState;
 /**
  * Game renderer which merely defers to a number of other renderers.
  * 
+ * Optionally, a {@link ChangeDetector} can be passed in, in which case the other renderers are only invoked when the
+ * game state has changed.
+ * 
  * @param <S> game state type
  * 
  * @author Martijn van de Rijdt
@@ -17,10 +20,23 @@ import nl.mvdr.game.state.GameState;
 public class CompositeRenderer<S extends GameState> implements GameRenderer<S> {
     /** Renderers. */
     private final List<GameRenderer<S>> renderers;
+    /** Determines whether the game state needs to be rendered; null to render every state. */
+    private final ChangeDetector changeDetector;
+
+    /**
+     * Constructor, for a renderer which renders every state.
+     * 
+     * @param renderers renderers
+     */
+    public CompositeRenderer(List<GameRenderer<S>> renderers) {
+        this(renderers, null);
+    }
     
     /** {@inheritDoc} */
     @Override
     public void render(@NonNull S gameState) {
-        renderers.forEach(renderer -> renderer.render(gameState));
+        if (changeDetector == null || changeDetector.shouldRender(gameState, System.nanoTime())) {
+            renderers.forEach(renderer -> renderer.render(gameState));
+        }
     }
 }
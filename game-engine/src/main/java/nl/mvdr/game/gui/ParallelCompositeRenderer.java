@@ -0,0 +1,195 @@
+package nl.mvdr.game.gui;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Game renderer which defers to a number of other renderers, running them concurrently.
+ *
+ * Every call to {@link #render(GameState)} dispatches the same game state to all child renderers on the given executor.
+ * The call only returns once all of the regular child renderers have finished, so that each frame is complete before
+ * the next one starts. Fire-and-forget renderers on the other hand are never waited for; if such a renderer is still
+ * busy with a previous frame, it simply skips the current one.
+ *
+ * Exceptions thrown by a child renderer are isolated: they are reported to the error handler (by default, they are
+ * logged) and do not affect the other renderers.
+ *
+ * Since the game state is handed to multiple threads at the same time, it should be immutable.
+ *
+ * @param <S> game state type
+ *
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "renderers", "fireAndForgetRenderers" })
+public class ParallelCompositeRenderer<S extends GameState> implements GameRenderer<S> {
+    /** Renderers which need to finish before the next frame. */
+    private final List<GameRenderer<S>> renderers;
+    /** Renderers which are never waited for. */
+    private final List<FireAndForgetRenderer> fireAndForgetRenderers;
+    /** Executor on which the child renderers are run. */
+    private final Executor executor;
+    /** Handler for exceptions thrown by child renderers. */
+    private final BiConsumer<GameRenderer<S>, RuntimeException> errorHandler;
+    /** Number of exceptions thrown by child renderers. */
+    private final AtomicLong errorCount = new AtomicLong();
+
+    /**
+     * Convenience constructor, for when there are no fire-and-forget renderers.
+     *
+     * @param renderers renderers
+     * @param executor executor on which the renderers are run
+     */
+    public ParallelCompositeRenderer(List<GameRenderer<S>> renderers, Executor executor) {
+        this(renderers, Collections.emptyList(), executor);
+    }
+
+    /**
+     * Convenience constructor, which logs any exceptions thrown by the child renderers.
+     *
+     * @param renderers renderers which need to finish before the next frame
+     * @param fireAndForgetRenderers renderers which are never waited for
+     * @param executor executor on which the renderers are run
+     */
+    public ParallelCompositeRenderer(List<GameRenderer<S>> renderers, List<GameRenderer<S>> fireAndForgetRenderers,
+            Executor executor) {
+        this(renderers, fireAndForgetRenderers, executor,
+                (renderer, exception) -> log.error("Exception encountered in renderer " + renderer, exception));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param renderers renderers which need to finish before the next frame
+     * @param fireAndForgetRenderers renderers which are never waited for
+     * @param executor executor on which the renderers are run
+     * @param errorHandler handler for exceptions thrown by child renderers; may be invoked from any thread
+     */
+    public ParallelCompositeRenderer(@NonNull List<GameRenderer<S>> renderers,
+            @NonNull List<GameRenderer<S>> fireAndForgetRenderers, @NonNull Executor executor,
+            @NonNull BiConsumer<GameRenderer<S>, RuntimeException> errorHandler) {
+        super();
+        this.renderers = Collections.unmodifiableList(renderers);
+        this.fireAndForgetRenderers = fireAndForgetRenderers.stream()
+            .map(FireAndForgetRenderer::new)
+            .collect(Collectors.toList());
+        this.executor = executor;
+        this.errorHandler = errorHandler;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void render(@NonNull S gameState) {
+        fireAndForgetRenderers.forEach(renderer -> renderer.dispatch(gameState));
+
+        if (!renderers.isEmpty()) {
+            // Run all but the first renderer on the executor; the current thread would only be waiting anyway.
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[renderers.size() - 1];
+            for (int i = 1; i < renderers.size(); i++) {
+                GameRenderer<S> renderer = renderers.get(i);
+                try {
+                    futures[i - 1] = CompletableFuture.runAsync(() -> renderSafely(renderer, gameState), executor);
+                } catch (RejectedExecutionException e) {
+                    reportError(renderer, e);
+                    futures[i - 1] = CompletableFuture.completedFuture(null);
+                }
+            }
+            renderSafely(renderers.get(0), gameState);
+            CompletableFuture.allOf(futures).join();
+        }
+    }
+
+    /**
+     * Renders the given state using the given renderer, reporting any exceptions to the error handler.
+     *
+     * @param renderer renderer
+     * @param gameState game state
+     */
+    private void renderSafely(GameRenderer<S> renderer, S gameState) {
+        try {
+            renderer.render(gameState);
+        } catch (RuntimeException e) {
+            reportError(renderer, e);
+        }
+    }
+
+    /**
+     * Reports an exception thrown by the given child renderer.
+     *
+     * @param renderer renderer
+     * @param exception exception
+     */
+    private void reportError(GameRenderer<S> renderer, RuntimeException exception) {
+        errorCount.incrementAndGet();
+        errorHandler.accept(renderer, exception);
+    }
+
+    /** @return number of exceptions thrown by child renderers so far */
+    public long getErrorCount() {
+        return errorCount.get();
+    }
+
+    /** @return total number of frames skipped by fire-and-forget renderers because they were still busy */
+    public long getSkippedFrames() {
+        return fireAndForgetRenderers.stream()
+            .mapToLong(renderer -> renderer.skippedFrames.get())
+            .sum();
+    }
+
+    /** Wrapper for a fire-and-forget renderer, which keeps track of whether it is still busy. */
+    @ToString(of = "renderer")
+    private class FireAndForgetRenderer {
+        /** Wrapped renderer. */
+        private final GameRenderer<S> renderer;
+        /** Whether the renderer is currently busy rendering a frame. */
+        private final AtomicBoolean busy = new AtomicBoolean();
+        /** Number of frames which were skipped because the renderer was still busy. */
+        private final AtomicLong skippedFrames = new AtomicLong();
+
+        /**
+         * Constructor.
+         *
+         * @param renderer wrapped renderer
+         */
+        private FireAndForgetRenderer(GameRenderer<S> renderer) {
+            super();
+            this.renderer = renderer;
+        }
+
+        /**
+         * Hands the given state to the renderer, unless it is still busy with the previous one.
+         *
+         * @param gameState game state
+         */
+        private void dispatch(S gameState) {
+            if (busy.compareAndSet(false, true)) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            renderSafely(renderer, gameState);
+                        } finally {
+                            busy.set(false);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    busy.set(false);
+                    reportError(renderer, e);
+                }
+            } else {
+                skippedFrames.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package nl.mvdr.game.input;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import lombok.NonNull;
+
+/**
+ * Serializable implementation of {@link InputState}, which stores the pressed inputs as a bitmask.
+ *
+ * Bit {@code i} of the bitmask corresponds to the input with ordinal {@code i}. Inputs with ordinals 0 to 63 are stored
+ * in a single {@code long}; only enum types with more than 64 constants need an additional array.
+ *
+ * Instances are immutable and are obtained through the static factory methods, which hand out cached instances where
+ * possible. Polling the same input state over and over again therefore does not allocate new objects.
+ *
+ * Instances are equal to an {@link InputStateImpl} containing the same pressed inputs, and have the same hash code.
+ *
+ * @param <S> enum type containing all possible inputs from the user
+ *
+ * @author Martijn van de Rijdt
+ */
+public final class BitmaskInputState<S extends Enum<S>> implements InputState<S> {
+    /** Generated serial version UID. */
+    private static final long serialVersionUID = 1L;
+    /** Number of bits in a single word. */
+    private static final int BITS_PER_WORD = Long.SIZE;
+    /** Base 2 logarithm of the maximum number of cached instances per enum type. */
+    private static final int CACHE_BITS = 10;
+
+    /** Cached type information for each of the enum types. */
+    private static final ClassValue<TypeInfo> TYPE_INFO = new ClassValue<TypeInfo>() {
+        /** {@inheritDoc} */
+        @Override
+        protected TypeInfo computeValue(Class<?> type) {
+            return new TypeInfo(type);
+        }
+    };
+
+    /** Actual enum type for input values. */
+    private final Class<S> inputType;
+    /** Bitmask for the inputs with ordinals 0 to 63. */
+    private final long bits;
+    /** Bitmasks for the inputs with ordinals 64 and up; null if the enum type contains at most 64 constants. */
+    private final long[] highBits;
+    /** Cached hash code; 0 if not computed yet. */
+    private transient int hash;
+
+    /**
+     * Constructor.
+     *
+     * @param inputType enum type
+     * @param bits bitmask for the inputs with ordinals 0 to 63
+     * @param highBits bitmasks for the inputs with ordinals 64 and up; null if not applicable
+     */
+    private BitmaskInputState(Class<S> inputType, long bits, long[] highBits) {
+        super();
+        this.inputType = inputType;
+        this.bits = bits;
+        this.highBits = highBits;
+    }
+
+    /**
+     * Returns an input state for the given bitmask.
+     *
+     * For enum types with more than 64 constants, the inputs with ordinals 64 and up are not pressed.
+     *
+     * @param inputType enum type
+     * @param bits bitmask, where bit {@code i} indicates whether the input with ordinal {@code i} is pressed
+     * @param <S> enum type containing all possible inputs from the user
+     * @return input state; may be a cached instance
+     */
+    public static <S extends Enum<S>> BitmaskInputState<S> valueOf(@NonNull Class<S> inputType, long bits) {
+        TypeInfo typeInfo = TYPE_INFO.get(inputType);
+        long validBits = bits & typeInfo.firstWordMask;
+
+        int index = typeInfo.cacheIndex(validBits);
+        @SuppressWarnings("unchecked")
+        BitmaskInputState<S> result = (BitmaskInputState<S>) typeInfo.cache[index];
+        if (result == null || result.bits != validBits || !result.isHighBitsEmpty()) {
+            long[] highBits = typeInfo.wordCount == 1 ? null : new long[typeInfo.wordCount - 1];
+            result = new BitmaskInputState<>(inputType, validBits, highBits);
+            // Benign race: instances are immutable and safely published through their final fields.
+            typeInfo.cache[index] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns an input state for the given bitmask.
+     *
+     * The given array is not retained, so callers are free to reuse it.
+     *
+     * @param inputType enum type
+     * @param words bitmask, where bit {@code i % 64} of {@code words[i / 64]} indicates whether the input with ordinal
+     *            {@code i} is pressed; missing words are considered to be zero
+     * @param <S> enum type containing all possible inputs from the user
+     * @return input state; may be a cached instance
+     */
+    public static <S extends Enum<S>> BitmaskInputState<S> valueOf(@NonNull Class<S> inputType, @NonNull long[] words) {
+        TypeInfo typeInfo = TYPE_INFO.get(inputType);
+
+        BitmaskInputState<S> result;
+        if (typeInfo.wordCount == 1) {
+            result = valueOf(inputType, words.length == 0 ? 0L : words[0]);
+        } else {
+            long validBits = words.length == 0 ? 0L : words[0];
+
+            long hashBits = validBits;
+            for (int i = 1; i < typeInfo.wordCount && i < words.length; i++) {
+                hashBits ^= Long.rotateLeft(words[i] & typeInfo.wordMask(i), i);
+            }
+            int index = typeInfo.cacheIndex(hashBits);
+
+            @SuppressWarnings("unchecked")
+            BitmaskInputState<S> cached = (BitmaskInputState<S>) typeInfo.cache[index];
+            if (cached != null && cached.matches(words, typeInfo)) {
+                result = cached;
+            } else {
+                long[] highBits = new long[typeInfo.wordCount - 1];
+                for (int i = 1; i < typeInfo.wordCount && i < words.length; i++) {
+                    highBits[i - 1] = words[i] & typeInfo.wordMask(i);
+                }
+                result = new BitmaskInputState<>(inputType, validBits, highBits);
+                typeInfo.cache[index] = result;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns an input state containing the given pressed inputs.
+     *
+     * @param inputType enum type
+     * @param pressedInputs pressed inputs
+     * @param <S> enum type containing all possible inputs from the user
+     * @return input state; may be a cached instance
+     */
+    public static <S extends Enum<S>> BitmaskInputState<S> of(@NonNull Class<S> inputType,
+            @NonNull Collection<S> pressedInputs) {
+        long[] words = new long[wordCount(inputType)];
+        pressedInputs.forEach(input -> words[input.ordinal() / BITS_PER_WORD] |= 1L << input.ordinal());
+        return valueOf(inputType, words);
+    }
+
+    /**
+     * Returns an input state equal to the given one.
+     *
+     * @param inputType enum type
+     * @param inputState input state
+     * @param <S> enum type containing all possible inputs from the user
+     * @return the given input state if it already is a bitmask input state of the given type; otherwise an equivalent
+     *         (possibly cached) instance
+     */
+    public static <S extends Enum<S>> BitmaskInputState<S> copyOf(@NonNull Class<S> inputType,
+            @NonNull InputState<S> inputState) {
+        BitmaskInputState<S> result;
+        if (inputState instanceof BitmaskInputState && ((BitmaskInputState<S>) inputState).inputType == inputType) {
+            result = (BitmaskInputState<S>) inputState;
+        } else {
+            TypeInfo typeInfo = TYPE_INFO.get(inputType);
+            if (typeInfo.wordCount == 1) {
+                long bits = 0L;
+                for (Enum<?> input : typeInfo.constants) {
+                    if (inputState.isPressed(inputType.cast(input))) {
+                        bits |= 1L << input.ordinal();
+                    }
+                }
+                result = valueOf(inputType, bits);
+            } else {
+                long[] words = new long[typeInfo.wordCount];
+                for (Enum<?> input : typeInfo.constants) {
+                    if (inputState.isPressed(inputType.cast(input))) {
+                        words[input.ordinal() / BITS_PER_WORD] |= 1L << input.ordinal();
+                    }
+                }
+                result = valueOf(inputType, words);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of 64-bit words needed to represent an input state of the given type.
+     *
+     * @param inputType enum type
+     * @return number of words; at least 1
+     */
+    public static int wordCount(@NonNull Class<? extends Enum<?>> inputType) {
+        return TYPE_INFO.get(inputType).wordCount;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isPressed(@NonNull S input) {
+        int ordinal = input.ordinal();
+        boolean result;
+        if (ordinal < BITS_PER_WORD) {
+            result = (bits & 1L << ordinal) != 0L;
+        } else {
+            result = (highBits[ordinal / BITS_PER_WORD - 1] & 1L << ordinal) != 0L;
+        }
+        return result;
+    }
+
+    /** @return bitmask for the inputs with ordinals 0 to 63 */
+    public long getBits() {
+        return bits;
+    }
+
+    /**
+     * Returns a single word of the bitmask.
+     *
+     * @param index word index; word {@code i} contains the inputs with ordinals {@code 64 * i} to {@code 64 * i + 63}
+     * @return bitmask word
+     */
+    public long getWord(int index) {
+        long result;
+        if (index == 0) {
+            result = bits;
+        } else if (highBits == null) {
+            throw new IndexOutOfBoundsException("Word index out of bounds: " + index);
+        } else {
+            result = highBits[index - 1];
+        }
+        return result;
+    }
+
+    /** @return the actual enum type for input values */
+    public Class<S> getInputType() {
+        return inputType;
+    }
+
+    /** @return whether any of the inputs with ordinals 64 and up are pressed */
+    private boolean isHighBitsEmpty() {
+        boolean result = true;
+        if (highBits != null) {
+            for (int i = 0; result && i < highBits.length; i++) {
+                result = highBits[i] == 0L;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether this instance matches the given bitmask.
+     *
+     * @param words bitmask
+     * @param typeInfo type info for this instance's input type
+     * @return whether this instance represents the same inputs
+     */
+    private boolean matches(long[] words, TypeInfo typeInfo) {
+        boolean result = bits == (words.length == 0 ? 0L : words[0] & typeInfo.firstWordMask);
+        for (int i = 1; result && i < typeInfo.wordCount; i++) {
+            long word = i < words.length ? words[i] & typeInfo.wordMask(i) : 0L;
+            result = highBits[i - 1] == word;
+        }
+        return result;
+    }
+
+    /** @return the pressed inputs, as a set */
+    private Set<S> toSet() {
+        S[] constants = inputType.getEnumConstants();
+        return IntStream.range(0, constants.length)
+            .mapToObj(i -> constants[i])
+            .filter(this::isPressed)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Instances are also considered equal to an {@link InputStateImpl} containing the same pressed inputs.
+     */
+    @Override
+    public boolean equals(Object o) {
+        boolean result;
+        if (o == this) {
+            result = true;
+        } else if (o instanceof BitmaskInputState) {
+            BitmaskInputState<?> other = (BitmaskInputState<?>) o;
+            result = inputType == other.inputType && bits == other.bits && Arrays.equals(highBits, other.highBits);
+        } else if (o instanceof InputStateImpl) {
+            result = toSet().equals(((InputStateImpl<?>) o).getPressedInputs());
+        } else {
+            result = false;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Consistent with {@link InputStateImpl#hashCode()}.
+     */
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            TypeInfo typeInfo = TYPE_INFO.get(inputType);
+            for (Enum<?> input : typeInfo.constants) {
+                if (isPressed(inputType.cast(input))) {
+                    result += input.hashCode();
+                }
+            }
+            hash = result;
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "BitmaskInputState(pressedInputs=" + toSet() + ")";
+    }
+
+    /**
+     * Replaces deserialized instances with cached ones.
+     *
+     * @return equivalent instance
+     */
+    private Object readResolve() {
+        Object result;
+        if (highBits == null) {
+            result = valueOf(inputType, bits);
+        } else {
+            long[] words = new long[highBits.length + 1];
+            words[0] = bits;
+            System.arraycopy(highBits, 0, words, 1, highBits.length);
+            result = valueOf(inputType, words);
+        }
+        return result;
+    }
+
+    /** Cached information on a single enum type. */
+    private static class TypeInfo {
+        /** Enum constants. */
+        private final Enum<?>[] constants;
+        /** Number of 64-bit words needed to represent all of the constants. */
+        private final int wordCount;
+        /** Mask containing the valid bits in the first word. */
+        private final long firstWordMask;
+        /** Whether the cache contains a slot for every possible input state. */
+        private final boolean perfectCache;
+        /** Cached instances; entries may be null. */
+        private final BitmaskInputState<?>[] cache;
+
+        /**
+         * Constructor.
+         *
+         * @param type enum type
+         */
+        private TypeInfo(Class<?> type) {
+            super();
+            if (!type.isEnum()) {
+                throw new IllegalArgumentException("Not an enum type: " + type);
+            }
+            this.constants = (Enum<?>[]) type.getEnumConstants();
+            this.wordCount = Math.max(1, (constants.length + BITS_PER_WORD - 1) / BITS_PER_WORD);
+            this.firstWordMask = wordMask(0);
+
+            // For small enum types every possible input state gets its own cache slot.
+            this.perfectCache = constants.length <= CACHE_BITS;
+            this.cache = new BitmaskInputState<?>[1 << Math.min(constants.length, CACHE_BITS)];
+        }
+
+        /**
+         * Returns the mask containing the valid bits in the given word.
+         *
+         * @param index word index
+         * @return mask
+         */
+        private long wordMask(int index) {
+            int remaining = constants.length - index * BITS_PER_WORD;
+            return BITS_PER_WORD <= remaining ? -1L : (1L << remaining) - 1L;
+        }
+
+        /**
+         * Determines the cache slot for the given bitmask.
+         *
+         * @param value bitmask, or for enum types with more than 64 constants: a hash of the bitmask
+         * @return index in {@link #cache}
+         */
+        private int cacheIndex(long value) {
+            long result = value;
+            if (!perfectCache) {
+                // spread the higher bits downward, as in java.util.HashMap
+                result ^= result >>> 32;
+                result ^= result >>> 16;
+                result ^= result >>> CACHE_BITS;
+            }
+            return (int) result & (cache.length - 1);
+        }
+    }
+}
@@ -2,7 +2,9 @@ package nl.mvdr.game.input;
 
 import java.util.Set;
 
-import lombok.EqualsAndHashCode;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 
@@ -14,12 +16,13 @@ import lombok.ToString;
  * @author Martijn van de Rijdt
  */
 @RequiredArgsConstructor
-@EqualsAndHashCode
 @ToString
 public class InputStateImpl<S extends Enum<S>> implements InputState<S> {
     /** Generated serial version UID. */
     private static final long serialVersionUID = 1L;
     /** Pressed inputs. */
+    @Getter(AccessLevel.PACKAGE)
+    @NonNull
     private final Set<S> pressedInputs;
     
     /** {@inheritDoc} */
@@ -27,4 +30,34 @@ public class InputStateImpl<S extends Enum<S>> implements InputState<S> {
     public boolean isPressed(S input) {
         return pressedInputs.contains(input);
     }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Instances are also considered equal to a {@link BitmaskInputState} containing the same pressed inputs.
+     */
+    @Override
+    public boolean equals(Object o) {
+        boolean result;
+        if (o == this) {
+            result = true;
+        } else if (o instanceof InputStateImpl) {
+            result = pressedInputs.equals(((InputStateImpl<?>) o).pressedInputs);
+        } else if (o instanceof BitmaskInputState) {
+            result = o.equals(this);
+        } else {
+            result = false;
+        }
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Consistent with {@link BitmaskInputState#hashCode()}.
+     */
+    @Override
+    public int hashCode() {
+        return pressedInputs.hashCode();
+    }
 }
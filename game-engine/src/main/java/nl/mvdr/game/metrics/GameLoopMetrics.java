@@ -0,0 +1,246 @@
+package nl.mvdr.game.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Instrumentation for the game loop: latency histograms for each phase of a frame, and counters for catch-up updates
+ * and dropped renders.
+ * 
+ * Recording is lock-free and allocation-free, so it can be done on every frame. The metrics can be published as an
+ * MXBean (see {@link #register(String)}) and logged periodically (see {@link #startLogging(long, TimeUnit)}).
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = "objectName")
+public class GameLoopMetrics implements GameLoopMetricsMXBean {
+    /** JMX domain for the MXBeans. */
+    private static final String DOMAIN = "nl.mvdr.game";
+
+    /** Input polling times. */
+    private final LatencyHistogram inputPolling = new LatencyHistogram("input");
+    /** Update times. */
+    private final LatencyHistogram update = new LatencyHistogram("update");
+    /** Render times. */
+    private final LatencyHistogram render = new LatencyHistogram("render");
+    /** Pacing times. */
+    private final LatencyHistogram pacing = new LatencyHistogram("pacing");
+    /** Number of catch-up updates. */
+    private final LongAdder catchUpUpdateCount = new LongAdder();
+    /** Number of dropped renders. */
+    private final LongAdder droppedRenderCount = new LongAdder();
+    /** Number of renders skipped because the game state had not changed. */
+    private final LongAdder skippedRenderCount = new LongAdder();
+
+    /** Name under which this MXBean is registered; null if not registered. */
+    private ObjectName objectName;
+    /** Executor for periodic logging; null if not logging. */
+    private ScheduledExecutorService loggingExecutor;
+
+    /**
+     * Records the time it took to retrieve the input states for an update.
+     * 
+     * @param nanos duration, in nanoseconds
+     */
+    public void recordInputPolling(long nanos) {
+        inputPolling.record(nanos);
+    }
+
+    /**
+     * Records the time it took to compute the next game state.
+     * 
+     * @param nanos duration, in nanoseconds
+     */
+    public void recordUpdate(long nanos) {
+        update.record(nanos);
+    }
+
+    /**
+     * Records the time it took to render the game state.
+     * 
+     * @param nanos duration, in nanoseconds
+     */
+    public void recordRender(long nanos) {
+        render.record(nanos);
+    }
+
+    /**
+     * Records the time spent waiting for the next update or render.
+     * 
+     * @param nanos duration, in nanoseconds
+     */
+    public void recordPacing(long nanos) {
+        pacing.record(nanos);
+    }
+
+    /**
+     * Records catch-up updates.
+     * 
+     * @param count number of updates performed in addition to the regular one
+     */
+    public void recordCatchUpUpdates(long count) {
+        catchUpUpdateCount.add(count);
+    }
+
+    /**
+     * Records dropped renders.
+     * 
+     * @param count number of renders skipped
+     */
+    public void recordDroppedRenders(long count) {
+        droppedRenderCount.add(count);
+    }
+
+    /** Records a render which was skipped because the game state had not changed. */
+    public void recordSkippedRender() {
+        skippedRenderCount.increment();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public LatencySnapshot getInputPolling() {
+        return inputPolling.snapshot();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public LatencySnapshot getUpdate() {
+        return update.snapshot();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public LatencySnapshot getRender() {
+        return render.snapshot();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public LatencySnapshot getPacing() {
+        return pacing.snapshot();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getCatchUpUpdateCount() {
+        return catchUpUpdateCount.sum();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getDroppedRenderCount() {
+        return droppedRenderCount.sum();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long getSkippedRenderCount() {
+        return skippedRenderCount.sum();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void reset() {
+        inputPolling.reset();
+        update.reset();
+        render.reset();
+        pacing.reset();
+        catchUpUpdateCount.reset();
+        droppedRenderCount.reset();
+        skippedRenderCount.reset();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server, as {@code nl.mvdr.game:type=GameLoop,name=<name>}.
+     * 
+     * @param name name for the game loop
+     * @throws JMException if registration fails, for instance because the name is already in use
+     */
+    public synchronized void register(@NonNull String name) throws JMException {
+        if (objectName != null) {
+            throw new IllegalStateException("Already registered as " + objectName);
+        }
+        ObjectName newObjectName = ObjectName.getInstance(DOMAIN + ":type=GameLoop,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, newObjectName);
+        objectName = newObjectName;
+        log.info("Registered game loop metrics as {}.", objectName);
+    }
+
+    /**
+     * Unregisters these metrics from the platform MBean server. Does nothing if they are not registered.
+     * 
+     * @throws JMException if unregistration fails
+     */
+    public synchronized void unregister() throws JMException {
+        if (objectName != null) {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.unregisterMBean(objectName);
+            objectName = null;
+        }
+    }
+
+    /** @return name under which these metrics are registered; null if not registered */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Starts logging a summary of the metrics periodically, on a daemon thread.
+     * 
+     * @param period time between summaries
+     * @param unit time unit for the period
+     */
+    public synchronized void startLogging(long period, @NonNull TimeUnit unit) {
+        if (loggingExecutor != null) {
+            throw new IllegalStateException("Already logging.");
+        }
+        loggingExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Game loop metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loggingExecutor.scheduleAtFixedRate(this::logSummary, period, period, unit);
+    }
+
+    /** Stops logging summaries periodically. Does nothing if not logging. */
+    public synchronized void stopLogging() {
+        if (loggingExecutor != null) {
+            loggingExecutor.shutdown();
+            loggingExecutor = null;
+        }
+    }
+
+    /** Logs a summary of the metrics. */
+    public void logSummary() {
+        if (log.isInfoEnabled()) {
+            log.info("Game loop metrics (ns): {}; {}; {}; {}; catch-up updates: {}, dropped renders: {}, "
+                    + "skipped renders: {}.", summarise(inputPolling), summarise(update), summarise(render),
+                    summarise(pacing), Long.valueOf(getCatchUpUpdateCount()), Long.valueOf(getDroppedRenderCount()),
+                    Long.valueOf(getSkippedRenderCount()));
+        }
+    }
+
+    /**
+     * Summarises a single histogram.
+     * 
+     * @param histogram histogram
+     * @return summary
+     */
+    private static String summarise(LatencyHistogram histogram) {
+        LatencySnapshot snapshot = histogram.snapshot();
+        return histogram.getName() + " p50=" + snapshot.getP50() + " p99=" + snapshot.getP99() + " p99.9="
+                + snapshot.getP999() + " max=" + snapshot.getMax();
+    }
+}
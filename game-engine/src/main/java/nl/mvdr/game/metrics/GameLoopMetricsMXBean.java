@@ -0,0 +1,32 @@
+package nl.mvdr.game.metrics;
+
+/**
+ * Management interface for {@link GameLoopMetrics}. All durations are in nanoseconds.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public interface GameLoopMetricsMXBean {
+    /** @return time spent retrieving the input states, per update */
+    LatencySnapshot getInputPolling();
+
+    /** @return time spent computing the next game state, per update */
+    LatencySnapshot getUpdate();
+
+    /** @return time spent rendering, per render */
+    LatencySnapshot getRender();
+
+    /** @return time spent waiting for the next update or render */
+    LatencySnapshot getPacing();
+
+    /** @return number of updates which were performed to catch up, in addition to the regular one before a render */
+    long getCatchUpUpdateCount();
+
+    /** @return number of renders which were skipped because the game loop fell behind */
+    long getDroppedRenderCount();
+
+    /** @return number of renders which were skipped because the game state had not changed */
+    long getSkippedRenderCount();
+
+    /** Clears all metrics. */
+    void reset();
+}
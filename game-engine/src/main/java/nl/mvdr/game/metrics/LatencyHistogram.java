@@ -0,0 +1,152 @@
+package nl.mvdr.game.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.ToString;
+
+/**
+ * Histogram of durations, in nanoseconds.
+ * 
+ * Buckets are log-linear: each power of two is divided into {@value #SUB_BUCKET_COUNT} equally sized buckets, which
+ * bounds the relative error of any reported percentile to about 6% over the entire range of long values.
+ * 
+ * Recording a value is lock-free and does not allocate, so it is safe to do on every update from the game loop while
+ * other threads take snapshots.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = "name")
+public class LatencyHistogram {
+    /** Base 2 logarithm of {@link #SUB_BUCKET_COUNT}. */
+    private static final int SUB_BUCKET_BITS = 4;
+    /** Number of buckets per power of two. */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /** Total number of buckets. */
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    /** Name of the histogram. */
+    private final String name;
+    /** Number of recorded values per bucket. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    /** Sum of all recorded values. */
+    private final LongAdder sum = new LongAdder();
+    /** Maximum recorded value. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Constructor.
+     * 
+     * @param name name of the histogram
+     */
+    public LatencyHistogram(String name) {
+        super();
+        this.name = name;
+    }
+
+    /** @return name of the histogram */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records a single duration. Negative values are recorded as zero.
+     * 
+     * @param nanos duration, in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(nanos, 0L);
+        counts.incrementAndGet(bucketIndex(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Determines the index of the bucket for the given value.
+     * 
+     * @param value non-negative value
+     * @return bucket index
+     */
+    // default visibility for testing purposes
+    static int bucketIndex(long value) {
+        int result;
+        if (value < SUB_BUCKET_COUNT) {
+            result = (int) value;
+        } else {
+            int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+            result = (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+        }
+        return result;
+    }
+
+    /**
+     * Determines the highest value which falls into the given bucket.
+     * 
+     * @param index bucket index
+     * @return highest value in the bucket
+     */
+    // default visibility for testing purposes
+    static long bucketUpperBound(int index) {
+        long result;
+        if (index < SUB_BUCKET_COUNT) {
+            result = index;
+        } else {
+            int exponent = index / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+            long subBucket = index % SUB_BUCKET_COUNT;
+            long lowerBound = (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+            result = lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+        }
+        return result;
+    }
+
+    /**
+     * Summarises the values recorded so far. Values which are recorded concurrently may or may not be included.
+     * 
+     * @return snapshot
+     */
+    public LatencySnapshot snapshot() {
+        long[] snapshotCounts = new long[BUCKET_COUNT];
+        long count = 0L;
+        for (int i = 0; i != BUCKET_COUNT; i++) {
+            snapshotCounts[i] = counts.get(i);
+            count += snapshotCounts[i];
+        }
+        long maxValue = max.get();
+        return new LatencySnapshot(count, count == 0L ? 0L : sum.sum() / count,
+                percentile(snapshotCounts, count, 0.5, maxValue), percentile(snapshotCounts, count, 0.99, maxValue),
+                percentile(snapshotCounts, count, 0.999, maxValue), maxValue);
+    }
+
+    /**
+     * Computes a percentile.
+     * 
+     * @param snapshotCounts counts per bucket
+     * @param count total count
+     * @param fraction percentile, as a fraction between 0 and 1
+     * @param maxValue maximum recorded value
+     * @return upper bound of the bucket containing the percentile, or the maximum if that is lower
+     */
+    private static long percentile(long[] snapshotCounts, long count, double fraction, long maxValue) {
+        long result = 0L;
+        long threshold = Math.max(1L, (long) Math.ceil(count * fraction));
+        long seen = 0L;
+        for (int i = 0; i != snapshotCounts.length && seen < threshold; i++) {
+            seen += snapshotCounts[i];
+            if (threshold <= seen) {
+                result = Math.min(bucketUpperBound(i), maxValue);
+            }
+        }
+        return result;
+    }
+
+    /** Clears all recorded values. Values which are recorded concurrently may or may not be cleared. */
+    public void reset() {
+        for (int i = 0; i != BUCKET_COUNT; i++) {
+            counts.set(i, 0L);
+        }
+        sum.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,30 @@
+package nl.mvdr.game.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * Summary of the contents of a {@link LatencyHistogram} at a given moment. All durations are in nanoseconds.
+ * 
+ * Percentiles are accurate to within the histogram's bucket resolution (about 6%).
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+public class LatencySnapshot {
+    /** Number of recorded values. */
+    private final long count;
+    /** Mean of the recorded values. */
+    private final long mean;
+    /** Median. */
+    private final long p50;
+    /** 99th percentile. */
+    private final long p99;
+    /** 99.9th percentile. */
+    private final long p999;
+    /** Maximum recorded value. */
+    private final long max;
+}
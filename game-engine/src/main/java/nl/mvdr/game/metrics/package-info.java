@@ -0,0 +1,6 @@
+/**
+ * Contains instrumentation for the game loop.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.game.metrics;
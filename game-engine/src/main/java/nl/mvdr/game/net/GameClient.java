@@ -0,0 +1,158 @@
+package nl.mvdr.game.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.security.SecureRandom;
+import java.util.Optional;
+
+import lombok.NonNull;
+import lombok.ToString;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.snapshot.GameStateCodec;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Client for a game hosted by a {@link GameHost}: sends the local player's input to the host, and receives the
+ * authoritative game states.
+ * 
+ * All operations are non-blocking. States which arrive after a newer one are ignored. Instances are not thread-safe.
+ * 
+ * Each client is a separate session, identified by a random session id (see {@link HostProtocol}). A client which
+ * restarts or reconnects for the same player should simply be created anew; the host lets the new session take over
+ * once the old one has gone silent.
+ * 
+ * @param <S> game state type
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "player", "frame" })
+public class GameClient<S extends GameState, T extends Enum<T>> implements Closeable {
+    /** Actual enum type for input values. */
+    private final Class<T> inputType;
+    /** Codec for the game states. */
+    private final GameStateCodec<S> codec;
+    /** Index of the local player. */
+    private final int player;
+    /** Channel, connected to the host. */
+    private final DatagramChannel channel;
+    /** Buffer for sent packets. */
+    private final ByteBuffer sendBuffer;
+    /** Buffer for received packets. */
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(HostProtocol.MAX_PACKET_SIZE);
+    /** Session id, chosen at random. */
+    private final long session;
+
+    /** Sequence number of the latest sent input packet; 0 at the start of the session. */
+    private long sequence;
+    /** Frame number of the latest received state; -1 if none. */
+    private long frame = -1L;
+    /** Host timestamp of the latest received state. */
+    private long hostTime;
+    /** Local time at which the latest state was received. */
+    private long receivedTime;
+
+    /**
+     * Constructor.
+     * 
+     * @param inputType actual enum type for input values
+     * @param codec codec for the game states
+     * @param player index of the local player
+     * @param host address of the host
+     * @throws IOException if the socket could not be opened
+     */
+    public GameClient(@NonNull Class<T> inputType, @NonNull GameStateCodec<S> codec, int player,
+            @NonNull SocketAddress host) throws IOException {
+        super();
+        this.inputType = inputType;
+        this.codec = codec;
+        this.player = player;
+        this.session = new SecureRandom().nextLong();
+        this.sendBuffer = ByteBuffer
+            .allocate(HostProtocol.INPUT_HEADER_SIZE + BitmaskInputState.wordCount(inputType) * Long.BYTES);
+        this.channel = DatagramChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.connect(host);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends the given input to the host. Never blocks; if the packet cannot be sent immediately, it is dropped.
+     * 
+     * @param inputState input state
+     * @throws UncheckedIOException if sending failed
+     */
+    public void sendInput(@NonNull InputState<T> inputState) {
+        BitmaskInputState<T> bitmask = BitmaskInputState.copyOf(inputType, inputState);
+        int wordCount = BitmaskInputState.wordCount(inputType);
+        sequence++;
+        sendBuffer.clear();
+        sendBuffer.put(HostProtocol.INPUT);
+        sendBuffer.put((byte) player);
+        sendBuffer.putLong(session);
+        sendBuffer.putLong(sequence);
+        sendBuffer.putLong(hostTime);
+        sendBuffer.putLong(frame < 0L ? 0L : System.nanoTime() - receivedTime);
+        sendBuffer.put((byte) wordCount);
+        for (int i = 0; i != wordCount; i++) {
+            sendBuffer.putLong(bitmask.getWord(i));
+        }
+        sendBuffer.flip();
+        try {
+            channel.write(sendBuffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to send input.", e);
+        }
+    }
+
+    /**
+     * Processes all states which have been received so far. Never blocks.
+     * 
+     * @return the newest received state, if a state newer than any previously returned one has arrived
+     * @throws UncheckedIOException if receiving failed
+     */
+    public Optional<S> receive() {
+        Optional<S> result = Optional.empty();
+        try {
+            while (channel.receive(receiveBuffer) != null) {
+                long now = System.nanoTime();
+                receiveBuffer.flip();
+                if (HostProtocol.STATE_HEADER_SIZE <= receiveBuffer.remaining()
+                        && receiveBuffer.get() == HostProtocol.STATE) {
+                    long packetFrame = receiveBuffer.getLong();
+                    long packetHostTime = receiveBuffer.getLong();
+                    if (frame < packetFrame) {
+                        frame = packetFrame;
+                        hostTime = packetHostTime;
+                        receivedTime = now;
+                        result = Optional.of(codec.read(receiveBuffer));
+                    }
+                }
+                receiveBuffer.clear();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to receive state.", e);
+        }
+        return result;
+    }
+
+    /** @return frame number of the latest received state; -1 if none */
+    public long getFrame() {
+        return frame;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,511 @@
+package nl.mvdr.game.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.gui.GameRenderer;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.metrics.LatencyHistogram;
+import nl.mvdr.game.metrics.LatencySnapshot;
+import nl.mvdr.game.snapshot.GameStateCodec;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Host for a server-authoritative game with remote players, without a user interface of its own.
+ * 
+ * Remote players connect using a {@link GameClient}, which sends their input over UDP (see {@link HostProtocol}). Each
+ * remote player is represented on the host by an input controller (see {@link #createInputController(int)}), which
+ * returns the player's most recent input without ever blocking, so that delayed or lost packets never stall the game.
+ * Each player is bound to the client session which sent the first input for that player. Input from other sessions is
+ * rejected while that session is active; once it has been silent for a while, the next session to send input for the
+ * player takes over, so that a restarted client can reconnect.
+ * The host itself is the game renderer: every rendered state is sent back to all connected players. A typical setup
+ * passes these controllers and the host to a {@link nl.mvdr.game.engine.GameLoop} or
+ * {@link nl.mvdr.game.engine.HeadlessGameRunner}.
+ * 
+ * For every player, the host keeps track of the round-trip time and the jitter (the smoothed variation in round-trip
+ * time, as defined in RFC 3550).
+ * 
+ * Packets are received by a dedicated thread, started through {@link #start()}, as soon as they arrive. This way the
+ * round-trip times are measured at the moment of arrival, rather than when the game loop happens to poll its input,
+ * which would inflate every sample by up to one tick. Rendering may happen on any thread; statistics may be read from
+ * any thread.
+ * 
+ * @param <S> game state type
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "localAddress", "playerCount" })
+public class GameHost<S extends GameState, T extends Enum<T>> implements GameRenderer<S>, Closeable {
+    /** Default time after which a silent session may be taken over by a new one, in nanoseconds. */
+    private static final long DEFAULT_SESSION_TIMEOUT = TimeUnit.SECONDS.toNanos(2);
+
+    /** Actual enum type for input values. */
+    private final Class<T> inputType;
+    /** Codec for the game states. */
+    private final GameStateCodec<S> codec;
+    /** Number of players. */
+    private final int playerCount;
+    /** Time after which a silent session may be taken over by a new one, in nanoseconds. */
+    private final long sessionTimeout;
+    /** Channel. */
+    private final DatagramChannel channel;
+    /** Selector, for waiting on incoming packets. */
+    private final Selector selector;
+    /** Address the host is listening on. */
+    private final SocketAddress localAddress;
+    /** Remote players. */
+    private final List<RemotePlayer> players;
+    /** Buffer for received packets. Only accessed from the receiving thread. */
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(HostProtocol.MAX_PACKET_SIZE);
+    /** Buffer for a received input bitmask. Only accessed from the receiving thread. */
+    private final long[] words;
+    /** Buffer for sent packets. Only accessed from the rendering thread. */
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(HostProtocol.MAX_PACKET_SIZE);
+    /** Input state for a player who has not sent any input yet. */
+    private final BitmaskInputState<T> noInput;
+
+    /** Number of rendered frames. Only accessed from the rendering thread. */
+    private long frameCount;
+    /** Receiving thread; null if not started. */
+    private Thread receiveThread;
+    /** Indicates whether the receiving thread should be running. */
+    private volatile boolean running;
+
+    /**
+     * Constructor. Binds the socket, but does not receive any input until {@link #start()} is called.
+     * 
+     * @param inputType actual enum type for input values
+     * @param codec codec for the game states
+     * @param playerCount number of remote players
+     * @param address address to listen on; use port 0 for an arbitrary free port
+     * @throws IOException if the socket could not be bound
+     */
+    public GameHost(@NonNull Class<T> inputType, @NonNull GameStateCodec<S> codec, int playerCount,
+            @NonNull InetSocketAddress address) throws IOException {
+        this(inputType, codec, playerCount, address, DEFAULT_SESSION_TIMEOUT);
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param inputType actual enum type for input values
+     * @param codec codec for the game states
+     * @param playerCount number of remote players
+     * @param address address to listen on; use port 0 for an arbitrary free port
+     * @param sessionTimeout time after which a silent session may be taken over by a new one, in nanoseconds
+     * @throws IOException if the socket could not be bound
+     */
+    // default visibility for testing purposes
+    GameHost(@NonNull Class<T> inputType, @NonNull GameStateCodec<S> codec, int playerCount,
+            @NonNull InetSocketAddress address, long sessionTimeout) throws IOException {
+        super();
+        if (playerCount <= 0 || Byte.MAX_VALUE < playerCount) {
+            throw new IllegalArgumentException("Invalid player count: " + playerCount);
+        }
+        this.inputType = inputType;
+        this.codec = codec;
+        this.playerCount = playerCount;
+        this.sessionTimeout = sessionTimeout;
+        this.words = new long[BitmaskInputState.wordCount(inputType)];
+        this.noInput = BitmaskInputState.valueOf(inputType, new long[words.length]);
+        this.players = new ArrayList<>(playerCount);
+        for (int i = 0; i != playerCount; i++) {
+            players.add(new RemotePlayer(i));
+        }
+        this.selector = Selector.open();
+        try {
+            this.channel = DatagramChannel.open();
+        } catch (IOException | RuntimeException e) {
+            selector.close();
+            throw e;
+        }
+        try {
+            channel.configureBlocking(false);
+            channel.bind(address);
+            channel.register(selector, SelectionKey.OP_READ);
+            this.localAddress = channel.getLocalAddress();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            selector.close();
+            throw e;
+        }
+        log.info("Hosting game for {} players on {}.", Integer.valueOf(playerCount), localAddress);
+    }
+
+    /**
+     * Creates an input controller for the given remote player.
+     * 
+     * @param player index of the player
+     * @return input controller
+     */
+    public NetworkInputController<T> createInputController(int player) {
+        checkPlayer(player);
+        return new NetworkInputController<>(this, player);
+    }
+
+    /**
+     * Checks that the given player index is valid.
+     * 
+     * @param player player index
+     */
+    private void checkPlayer(int player) {
+        if (player < 0 || playerCount <= player) {
+            throw new IllegalArgumentException("Invalid player index: " + player);
+        }
+    }
+
+    /** Starts the receiving thread. */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Game host already started.");
+        }
+        running = true;
+        receiveThread = new Thread(this::receiveLoop, "Game host");
+        receiveThread.setDaemon(true);
+        receiveThread.start();
+    }
+
+    /** Receive loop. Runs on the dedicated receiving thread. */
+    private void receiveLoop() {
+        try {
+            while (running) {
+                selector.select();
+                selector.selectedKeys().clear();
+                receive();
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                log.error("Fatal exception encountered in game host.", e);
+            }
+        }
+        log.info("Game host stopped receiving input.");
+    }
+
+    /**
+     * Processes all packets which have been received so far. Never blocks.
+     * 
+     * @throws IOException if receiving failed
+     */
+    private void receive() throws IOException {
+        SocketAddress sender = receivePacket();
+        while (sender != null) {
+            processPacket(sender, System.nanoTime());
+            sender = receivePacket();
+        }
+    }
+
+    /**
+     * Receives the next packet into {@link #receiveBuffer}, if any.
+     * 
+     * @return address of the sender, or null if no packet was available
+     * @throws IOException if receiving failed
+     */
+    private SocketAddress receivePacket() throws IOException {
+        receiveBuffer.clear();
+        SocketAddress result = channel.receive(receiveBuffer);
+        receiveBuffer.flip();
+        return result;
+    }
+
+    /**
+     * Processes the input packet in {@link #receiveBuffer}. Invalid packets are ignored.
+     * 
+     * @param sender address of the sender
+     * @param now time at which the packet was received
+     */
+    private void processPacket(SocketAddress sender, long now) {
+        if (HostProtocol.INPUT_HEADER_SIZE <= receiveBuffer.remaining() && receiveBuffer.get() == HostProtocol.INPUT) {
+            int player = receiveBuffer.get();
+            long session = receiveBuffer.getLong();
+            long sequence = receiveBuffer.getLong();
+            long echoedTime = receiveBuffer.getLong();
+            long holdTime = receiveBuffer.getLong();
+            int wordCount = receiveBuffer.get();
+            if (0 <= player && player < playerCount && wordCount == words.length
+                    && wordCount * Long.BYTES <= receiveBuffer.remaining()) {
+                for (int i = 0; i != wordCount; i++) {
+                    words[i] = receiveBuffer.getLong();
+                }
+                players.get(player).update(sender, session, sequence, BitmaskInputState.valueOf(inputType, words),
+                        echoedTime, holdTime, now);
+            } else {
+                log.debug("Ignoring invalid input packet from {}.", sender);
+            }
+        } else {
+            log.debug("Ignoring invalid packet from {}.", sender);
+        }
+    }
+
+    /**
+     * Retrieves the most recent input of the given player.
+     * 
+     * @param player index of the player
+     * @return input state; no inputs pressed if the player has not sent anything yet
+     */
+    InputState<T> getInputState(int player) {
+        BitmaskInputState<T> result = players.get(player).inputState;
+        return result == null ? noInput : result;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Sends the given state to all players who have sent input so far. Never blocks; if a packet cannot be sent
+     * immediately, it is dropped.
+     * 
+     * @throws UncheckedIOException if sending failed
+     * @throws IllegalStateException if the encoded state does not fit in a single datagram
+     */
+    @Override
+    public void render(@NonNull S gameState) {
+        sendBuffer.clear();
+        sendBuffer.put(HostProtocol.STATE);
+        sendBuffer.putLong(frameCount);
+        int timestampPosition = sendBuffer.position();
+        sendBuffer.putLong(0L);
+        try {
+            codec.write(gameState, sendBuffer);
+        } catch (BufferOverflowException e) {
+            throw new IllegalStateException("Encoded state does not fit in a datagram.", e);
+        }
+        sendBuffer.flip();
+        frameCount++;
+
+        for (RemotePlayer player : players) {
+            SocketAddress address = player.address;
+            if (address != null) {
+                sendBuffer.putLong(timestampPosition, System.nanoTime());
+                sendBuffer.rewind();
+                try {
+                    if (channel.send(sendBuffer, address) == 0) {
+                        player.droppedStates++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Unable to send state to " + address, e);
+                }
+            }
+        }
+    }
+
+    /** @return address the host is listening on */
+    public SocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    /**
+     * Determines whether the given player has sent any input yet.
+     * 
+     * @param player index of the player
+     * @return whether the player is connected
+     */
+    public boolean isConnected(int player) {
+        checkPlayer(player);
+        return players.get(player).address != null;
+    }
+
+    /**
+     * Retrieves the round-trip times measured for the given player.
+     * 
+     * @param player index of the player
+     * @return round-trip times
+     */
+    public LatencySnapshot getRoundTripTimes(int player) {
+        checkPlayer(player);
+        return players.get(player).roundTripTimes.snapshot();
+    }
+
+    /**
+     * Retrieves the jitter measured for the given player.
+     * 
+     * @param player index of the player
+     * @return smoothed variation in round-trip time, in nanoseconds
+     */
+    public long getJitter(int player) {
+        checkPlayer(player);
+        return players.get(player).jitter;
+    }
+
+    /**
+     * Retrieves the number of input packets from the given player which were discarded because they arrived after a
+     * newer one.
+     * 
+     * @param player index of the player
+     * @return number of discarded packets
+     */
+    public long getDiscardedInputs(int player) {
+        checkPlayer(player);
+        return players.get(player).discardedInputs;
+    }
+
+    /**
+     * Retrieves the number of input packets for the given player which were rejected because they were sent by
+     * another session than the player's active one.
+     * 
+     * @param player index of the player
+     * @return number of rejected packets
+     */
+    public long getRejectedInputs(int player) {
+        checkPlayer(player);
+        return players.get(player).rejectedInputs;
+    }
+
+    /**
+     * Retrieves the number of states which could not be sent to the given player immediately, and were dropped.
+     * 
+     * @param player index of the player
+     * @return number of dropped states
+     */
+    public long getDroppedStates(int player) {
+        checkPlayer(player);
+        return players.get(player).droppedStates;
+    }
+
+    /** Stops the receiving thread and closes the socket. */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = receiveThread;
+        }
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            channel.close();
+        } finally {
+            selector.close();
+        }
+    }
+
+    /** State of a remote player. */
+    @ToString(of = { "index", "address" })
+    private class RemotePlayer {
+        /** Index of the player. */
+        private final int index;
+        /** Round-trip times. */
+        private final LatencyHistogram roundTripTimes;
+
+        /** Address the player's latest packet was sent from; null if the player has not sent anything yet. */
+        private volatile SocketAddress address;
+        /** Most recent input state; null if the player has not sent anything yet. */
+        private volatile BitmaskInputState<T> inputState;
+        /** Id of the player's active session; only meaningful once the player has sent anything. */
+        private long session;
+        /** Time at which the most recent input packet of the active session was received. */
+        private long receivedTime;
+        /** Sequence number of the most recent input packet in the active session. */
+        private long sequence = -1L;
+        /** Host timestamp echoed in the most recent input packet. */
+        private long echoedTime;
+        /** Most recent round-trip time. */
+        private long roundTripTime = -1L;
+        /** Smoothed variation in round-trip time, in nanoseconds. */
+        private volatile long jitter;
+        /** Number of input packets which arrived after a newer one. */
+        private volatile long discardedInputs;
+        /** Number of input packets which were sent by another session than the active one. */
+        private volatile long rejectedInputs;
+        /** Number of states which could not be sent immediately. */
+        private volatile long droppedStates;
+
+        /**
+         * Constructor.
+         * 
+         * @param index index of the player
+         */
+        private RemotePlayer(int index) {
+            super();
+            this.index = index;
+            this.roundTripTimes = new LatencyHistogram("Round trip, player " + index);
+        }
+
+        /**
+         * Processes an input packet from this player. Only called from the receiving thread.
+         * 
+         * @param sender address of the sender
+         * @param packetSession session id of the packet
+         * @param packetSequence sequence number of the packet
+         * @param packetInput input state
+         * @param packetEchoedTime host timestamp echoed by the player; 0 if none
+         * @param holdTime time the player held on to the echoed timestamp before sending this packet
+         * @param now current time
+         */
+        private void update(SocketAddress sender, long packetSession, long packetSequence,
+                BitmaskInputState<T> packetInput, long packetEchoedTime, long holdTime, long now) {
+            if (address == null) {
+                log.info("Player {} connected from {}.", Integer.valueOf(index), sender);
+                startSession(packetSession);
+            } else if (packetSession != session && sessionTimeout <= now - receivedTime) {
+                log.info("Player {} reconnected from {}.", Integer.valueOf(index), sender);
+                startSession(packetSession);
+            }
+
+            if (packetSession != session) {
+                rejectedInputs++;
+            } else if (packetSequence <= sequence) {
+                discardedInputs++;
+            } else {
+                receivedTime = now;
+                sequence = packetSequence;
+                address = sender;
+                inputState = packetInput;
+                if (packetEchoedTime != 0L && packetEchoedTime != echoedTime) {
+                    // Only measure each state packet once, since later input packets echo the same timestamp.
+                    echoedTime = packetEchoedTime;
+                    recordRoundTrip(now - packetEchoedTime - holdTime);
+                }
+            }
+        }
+
+        /**
+         * Binds this player to a new session. The sequence numbers and round-trip measurements start over, since they
+         * are relative to the session.
+         * 
+         * @param newSession id of the new session
+         */
+        private void startSession(long newSession) {
+            session = newSession;
+            sequence = -1L;
+            echoedTime = 0L;
+            roundTripTime = -1L;
+        }
+
+        /**
+         * Records a round-trip time, and updates the jitter estimate.
+         * 
+         * @param nanos round-trip time
+         */
+        private void recordRoundTrip(long nanos) {
+            roundTripTimes.record(nanos);
+            if (0L <= roundTripTime) {
+                jitter += (Math.abs(nanos - roundTripTime) - jitter) / 16;
+            }
+            roundTripTime = nanos;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package nl.mvdr.game.net;
+
+/**
+ * Constants describing the datagram protocol between a {@link GameHost} and its {@link GameClient}s.
+ * 
+ * All values are big-endian. Clients send input packets, consisting of:
+ * <ul>
+ * <li>packet type ({@code byte}), always {@link #INPUT},</li>
+ * <li>player index ({@code byte}),</li>
+ * <li>session id ({@code long}), chosen at random by the client when it starts,</li>
+ * <li>sequence number ({@code long}), starting at 1 for each session and increasing with every packet sent,</li>
+ * <li>host timestamp of the latest received state packet ({@code long}), or 0 if none,</li>
+ * <li>time between receiving that state packet and sending this input packet, in nanoseconds ({@code long}),</li>
+ * <li>number of words in the input bitmask ({@code byte}), followed by the bitmask ({@code long}s).</li>
+ * </ul>
+ * 
+ * The host sends state packets, consisting of:
+ * <ul>
+ * <li>packet type ({@code byte}), always {@link #STATE},</li>
+ * <li>frame number ({@code long}), increasing with every rendered state,</li>
+ * <li>host timestamp ({@code long}), from {@link System#nanoTime()},</li>
+ * <li>the state, as encoded by a {@link nl.mvdr.game.snapshot.GameStateCodec}.</li>
+ * </ul>
+ * 
+ * Packets may be lost, duplicated or reordered; receivers ignore packets which are older than the latest one they
+ * processed. The host binds each player to the session of the first input packet it receives for that player, and
+ * ignores packets from other sessions until that session has been silent for a while. This lets a restarted client
+ * take over its player again, without letting another sender take over a player which is still active.
+ * 
+ * @author Martijn van de Rijdt
+ */
+final class HostProtocol {
+    /** Packet type of an input packet. */
+    static final byte INPUT = 1;
+    /** Packet type of a state packet. */
+    static final byte STATE = 2;
+    /** Size of an input packet without its bitmask, in bytes. */
+    static final int INPUT_HEADER_SIZE = 1 + 1 + 4 * Long.BYTES + 1;
+    /** Size of a state packet without its state, in bytes. */
+    static final int STATE_HEADER_SIZE = 1 + 2 * Long.BYTES;
+    /** Maximum size of a datagram, in bytes. */
+    static final int MAX_PACKET_SIZE = 65_507;
+
+    /** Private constructor, to prevent instantiation. */
+    private HostProtocol() {
+        super();
+    }
+}
@@ -0,0 +1,42 @@
+package nl.mvdr.game.net;
+
+import lombok.ToString;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+
+/**
+ * Input controller for a remote player connected to a {@link GameHost}. Obtain instances through
+ * {@link GameHost#createInputController(int)}.
+ * 
+ * Returns the most recent input received from the player, without blocking. If the player's packets are delayed, the
+ * previous input is simply repeated. Input is only received once the host has been started.
+ * 
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = "player")
+public class NetworkInputController<T extends Enum<T>> implements InputController<T> {
+    /** Host. */
+    private final GameHost<?, T> host;
+    /** Index of the remote player. */
+    private final int player;
+
+    /**
+     * Constructor.
+     * 
+     * @param host host
+     * @param player index of the remote player
+     */
+    NetworkInputController(GameHost<?, T> host, int player) {
+        super();
+        this.host = host;
+        this.player = player;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputState<T> getInputState() {
+        return host.getInputState(player);
+    }
+}
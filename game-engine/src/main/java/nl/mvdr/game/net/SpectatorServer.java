@@ -0,0 +1,414 @@
+package nl.mvdr.game.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.gui.GameRenderer;
+import nl.mvdr.game.snapshot.DeltaEncoder;
+import nl.mvdr.game.snapshot.GameStateCodec;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Game renderer which broadcasts every rendered state to any number of spectators over TCP.
+ * 
+ * Each spectator receives a delta-compressed state stream, which can be decoded using a
+ * {@link nl.mvdr.game.snapshot.DeltaDecoder}. Every frame is encoded once, on the rendering thread, and the encoded bytes
+ * are shared by all spectators. All networking is done by a single thread using a non-blocking selector.
+ * 
+ * Rendering never blocks. Each spectator has a bounded backlog of frames; if a spectator cannot keep up, its backlog is
+ * discarded and it skips ahead to the next keyframe, which is then produced as soon as possible. Spectators joining
+ * halfway also start at the next keyframe.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "localAddress", "maxBacklog" })
+public class SpectatorServer<S extends GameState> implements GameRenderer<S>, Closeable {
+    /** Encoder for the frames. Only accessed from the rendering thread. */
+    private final DeltaEncoder<S> encoder;
+    /** Buffer for encoding a single frame. Only accessed from the rendering thread. */
+    private final ByteBuffer encodeBuffer;
+    /** Stream header, sent to every spectator when they connect. */
+    private final ByteBuffer header;
+    /** Maximum number of frames queued for a single spectator. */
+    private final int maxBacklog;
+    /** Frames which have been rendered, but not yet handed to the spectators. */
+    private final BlockingQueue<Frame> handoff;
+    /** Selector. */
+    private final Selector selector;
+    /** Channel accepting new spectators. */
+    private final ServerSocketChannel serverChannel;
+    /** Address the server is listening on. */
+    private final SocketAddress localAddress;
+    /** Connected spectators. Only accessed from the network thread. */
+    private final List<Spectator> spectators = new ArrayList<>();
+    /** Total number of frames skipped by spectators. */
+    private final AtomicLong skippedFrames = new AtomicLong();
+    /** Indicates whether the next frame needs to be a keyframe. */
+    private final AtomicBoolean keyframeRequested = new AtomicBoolean();
+
+    /** Number of rendered frames. Only accessed from the rendering thread. */
+    private long frameCount;
+    /** Number of connected spectators. */
+    private volatile int spectatorCount;
+    /** Network thread; null if not started. */
+    private Thread networkThread;
+    /** Indicates whether the network thread should be running. */
+    private volatile boolean running;
+
+    /**
+     * Constructor. Binds the server socket, but does not accept spectators until {@link #start()} is called.
+     * 
+     * @param codec codec for the game states
+     * @param maxStateSize maximum size of an encoded state, in bytes
+     * @param keyframeInterval maximum number of frames between two keyframes
+     * @param address address to listen on; use port 0 for an arbitrary free port
+     * @param maxBacklog maximum number of frames queued for a single spectator
+     * @throws IOException if the server socket could not be bound
+     */
+    public SpectatorServer(GameStateCodec<S> codec, int maxStateSize, int keyframeInterval,
+            @NonNull InetSocketAddress address, int maxBacklog) throws IOException {
+        super();
+        if (maxBacklog <= 0) {
+            throw new IllegalArgumentException("Maximum backlog must be positive, was: " + maxBacklog);
+        }
+        this.encoder = new DeltaEncoder<>(codec, maxStateSize, keyframeInterval);
+        this.encodeBuffer = ByteBuffer.allocate(encoder.getMaxFrameSize());
+        ByteBuffer headerBytes = ByteBuffer.allocate(16);
+        encoder.writeHeader(headerBytes);
+        headerBytes.flip();
+        this.header = headerBytes.asReadOnlyBuffer();
+        this.maxBacklog = maxBacklog;
+        this.handoff = new ArrayBlockingQueue<>(maxBacklog);
+        this.selector = Selector.open();
+        try {
+            this.serverChannel = ServerSocketChannel.open();
+            serverChannel.configureBlocking(false);
+            serverChannel.bind(address);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+            this.localAddress = serverChannel.getLocalAddress();
+        } catch (IOException | RuntimeException e) {
+            selector.close();
+            throw e;
+        }
+    }
+
+    /** Starts the network thread. */
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("Spectator server already started.");
+        }
+        running = true;
+        networkThread = new Thread(this::networkLoop, "Spectator server");
+        networkThread.setDaemon(true);
+        networkThread.start();
+        log.info("Accepting spectators on {}.", localAddress);
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Encodes the given state and hands it to the network thread. Never blocks.
+     */
+    @Override
+    public void render(@NonNull S gameState) {
+        if (keyframeRequested.get()) {
+            keyframeRequested.set(false);
+            encoder.requestKeyframe();
+        }
+        encodeBuffer.clear();
+        boolean keyframe = encoder.encode(frameCount, gameState, encodeBuffer);
+        frameCount++;
+        encodeBuffer.flip();
+        ByteBuffer bytes = ByteBuffer.allocate(encodeBuffer.remaining());
+        bytes.put(encodeBuffer).flip();
+
+        if (handoff.offer(new Frame(bytes.asReadOnlyBuffer(), keyframe))) {
+            selector.wakeup();
+        } else {
+            // The network thread is not keeping up at all; the frame is lost for every spectator.
+            skippedFrames.addAndGet(spectatorCount);
+            encoder.requestKeyframe();
+        }
+    }
+
+    /** Network loop. Runs on the dedicated network thread. */
+    private void networkLoop() {
+        try {
+            while (running) {
+                selector.select();
+                distributeFrames();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) {
+                        accept();
+                    } else if (key.isValid()) {
+                        handle(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (running) {
+                log.error("Fatal exception encountered in spectator server.", e);
+            }
+        }
+        spectators.forEach(Spectator::close);
+        spectators.clear();
+        spectatorCount = 0;
+        log.info("Spectator server stopped. Skipped frames: {}.", skippedFrames);
+    }
+
+    /**
+     * Accepts a new spectator.
+     * 
+     * @throws IOException if the server socket failed
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        if (channel != null) {
+            channel.configureBlocking(false);
+            Spectator spectator = new Spectator(channel, header, maxBacklog, skippedFrames, keyframeRequested);
+            spectator.key = channel.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE, spectator);
+            spectators.add(spectator);
+            keyframeRequested.set(true);
+            spectatorCount = spectators.size();
+            log.info("Spectator connected: {}", channel.getRemoteAddress());
+        }
+    }
+
+    /** Hands all pending frames to the spectators. */
+    private void distributeFrames() {
+        Frame frame = handoff.poll();
+        while (frame != null) {
+            for (Spectator spectator : spectators) {
+                spectator.enqueue(frame);
+            }
+            frame = handoff.poll();
+        }
+    }
+
+    /**
+     * Handles a ready spectator channel.
+     * 
+     * @param key selection key
+     */
+    private void handle(SelectionKey key) {
+        Spectator spectator = (Spectator) key.attachment();
+        try {
+            if (key.isReadable()) {
+                spectator.read();
+            }
+            if (key.isValid() && key.isWritable()) {
+                spectator.write();
+            }
+        } catch (IOException e) {
+            log.info("Spectator disconnected: {}", e.toString());
+            spectator.close();
+        }
+        if (!spectator.channel.isOpen()) {
+            spectators.remove(spectator);
+            spectatorCount = spectators.size();
+        }
+    }
+
+    /** @return address the server is listening on */
+    public SocketAddress getLocalAddress() {
+        return localAddress;
+    }
+
+    /** @return number of connected spectators */
+    public int getSpectatorCount() {
+        return spectatorCount;
+    }
+
+    /** @return total number of frames skipped by spectators because they could not keep up */
+    public long getSkippedFrames() {
+        return skippedFrames.get();
+    }
+
+    /** Stops the network thread and disconnects all spectators. */
+    @Override
+    public void close() throws IOException {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = networkThread;
+        }
+        selector.wakeup();
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            serverChannel.close();
+        } finally {
+            selector.close();
+        }
+    }
+
+    /** Encoded frame, shared by all spectators. */
+    @ToString(of = "keyframe")
+    private static class Frame {
+        /** Encoded bytes; read-only. Each spectator works on a duplicate, so that the bytes themselves are shared. */
+        private final ByteBuffer bytes;
+        /** Whether the frame is a keyframe. */
+        private final boolean keyframe;
+
+        /**
+         * Constructor.
+         * 
+         * @param bytes encoded bytes
+         * @param keyframe whether the frame is a keyframe
+         */
+        private Frame(ByteBuffer bytes, boolean keyframe) {
+            super();
+            this.bytes = bytes;
+            this.keyframe = keyframe;
+        }
+    }
+
+    /** Connected spectator. Only accessed from the network thread. */
+    @ToString(of = "channel")
+    private static class Spectator {
+        /** Channel. */
+        private final SocketChannel channel;
+        /** Maximum number of frames queued for this spectator. */
+        private final int maxBacklog;
+        /** Total number of frames skipped by spectators; shared with the server. */
+        private final AtomicLong skippedFrames;
+        /** Indicates whether the next frame needs to be a keyframe; shared with the server. */
+        private final AtomicBoolean keyframeRequested;
+        /** Buffers still to be written, in order. The first one may have been partially written already. */
+        private final Deque<ByteBuffer> backlog = new ArrayDeque<>();
+        /** Buffer for reading (and discarding) anything the spectator sends. */
+        private final ByteBuffer readBuffer = ByteBuffer.allocate(256);
+        /** This spectator's view of the stream header, until it has been written. */
+        private final ByteBuffer headerBuffer;
+        /** Selection key. */
+        private SelectionKey key;
+        /** Whether the spectator is waiting for a keyframe, because it joined or skipped frames. */
+        private boolean awaitingKeyframe = true;
+
+        /**
+         * Constructor.
+         * 
+         * @param channel channel
+         * @param header stream header, to be sent before any frames
+         * @param maxBacklog maximum number of frames queued for this spectator
+         * @param skippedFrames total number of frames skipped by spectators
+         * @param keyframeRequested indicates whether the next frame needs to be a keyframe
+         */
+        private Spectator(SocketChannel channel, ByteBuffer header, int maxBacklog, AtomicLong skippedFrames,
+                AtomicBoolean keyframeRequested) {
+            super();
+            this.channel = channel;
+            this.headerBuffer = header.duplicate();
+            this.maxBacklog = maxBacklog;
+            this.skippedFrames = skippedFrames;
+            this.keyframeRequested = keyframeRequested;
+            this.backlog.add(headerBuffer);
+        }
+
+        /**
+         * Queues the given frame. If the backlog is full, the spectator skips ahead to the next keyframe.
+         * 
+         * @param frame frame
+         */
+        private void enqueue(Frame frame) {
+            if (maxBacklog <= backlog.size()) {
+                skip();
+            }
+            if (awaitingKeyframe && !frame.keyframe) {
+                skippedFrames.incrementAndGet();
+            } else {
+                awaitingKeyframe = false;
+                backlog.addLast(frame.bytes.duplicate());
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+
+        /** Discards the backlog, except for a partially written frame or the header, and waits for a keyframe. */
+        private void skip() {
+            ByteBuffer first = backlog.pollFirst();
+            boolean keepFirst = first == headerBuffer || first != null && first.position() != 0;
+            skippedFrames.addAndGet(backlog.size() + (keepFirst || first == null ? 0 : 1));
+            backlog.clear();
+            if (keepFirst) {
+                backlog.add(first);
+            }
+            awaitingKeyframe = true;
+            keyframeRequested.set(true);
+        }
+
+        /**
+         * Writes as much of the backlog as the channel accepts.
+         * 
+         * @throws IOException if writing failed
+         */
+        private void write() throws IOException {
+            boolean done = false;
+            while (!done && !backlog.isEmpty()) {
+                ByteBuffer buffer = backlog.peekFirst();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    done = true;
+                } else {
+                    backlog.removeFirst();
+                }
+            }
+            if (backlog.isEmpty()) {
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        }
+
+        /**
+         * Reads and discards anything the spectator sent, in order to detect disconnects.
+         * 
+         * @throws IOException if reading failed
+         */
+        private void read() throws IOException {
+            readBuffer.clear();
+            if (channel.read(readBuffer) < 0) {
+                log.info("Spectator disconnected.");
+                close();
+            }
+        }
+
+        /** Closes the channel. */
+        private void close() {
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("Unable to close spectator channel.", e);
+            }
+        }
+    }
+}
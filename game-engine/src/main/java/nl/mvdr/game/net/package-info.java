@@ -0,0 +1,6 @@
+/**
+ * Contains network support: broadcasting the game to spectators, and hosting games for remote players.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.game.net;
@@ -0,0 +1,189 @@
+package nl.mvdr.game.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+
+/**
+ * Input controller which records all input states of another input controller to a file, so that they can be replayed
+ * later using a {@link ReplayInputController}.
+ * 
+ * Input states are written as bitmasks, with run-length encoding of unchanged ticks (see {@link ReplayFormat}), through
+ * a memory-mapped file. Recording a tick therefore usually comes down to incrementing a counter in memory; the
+ * operating system takes care of writing it to disk. Since the recording is always kept in a readable state, a
+ * recording can also be replayed if the game crashed before {@link #close()} was called.
+ * 
+ * Each player's input controller needs its own recorder and file. Instances are not thread-safe;
+ * {@link #getInputState()} is meant to be called from the game loop.
+ * 
+ * @param <S> enum type containing all possible inputs from the user
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "delegate", "file", "tickCount" })
+public class RecordingInputController<S extends Enum<S>> implements InputController<S>, Closeable {
+    /** Size of each memory-mapped region of the file, in bytes. */
+    private static final int REGION_SIZE = 1 << 16;
+
+    /** Actual enum type for input values. */
+    private final Class<S> inputType;
+    /** Input controller whose input states are recorded. */
+    private final InputController<S> delegate;
+    /** File being written. */
+    private final Path file;
+    /** Channel for the file. */
+    private final FileChannel channel;
+    /** Number of words in each bitmask. */
+    private final int wordCount;
+    /** Size of a single run, in bytes. */
+    private final int runSize;
+
+    /** Currently mapped region of the file. */
+    private MappedByteBuffer region;
+    /** Offset of {@link #region} within the file. */
+    private long regionOffset;
+    /** Offset of the current run within {@link #region}; -1 if no run has been started yet. */
+    private int runPosition = -1;
+    /** Number of ticks in the current run. */
+    private int runLength;
+    /** Input state of the current run. */
+    private BitmaskInputState<S> runState;
+    /** Total number of recorded ticks. */
+    private long tickCount;
+    /** Whether this recorder has been closed. */
+    private boolean closed;
+
+    /**
+     * Constructor. Any existing file is overwritten.
+     * 
+     * @param inputType actual enum type for input values
+     * @param delegate input controller whose input states are to be recorded
+     * @param file file to write the recording to
+     * @throws IOException if the file could not be opened
+     */
+    public RecordingInputController(@NonNull Class<S> inputType, @NonNull InputController<S> delegate,
+            @NonNull Path file) throws IOException {
+        super();
+        this.inputType = inputType;
+        this.delegate = delegate;
+        this.file = file;
+        this.wordCount = BitmaskInputState.wordCount(inputType);
+        this.runSize = ReplayFormat.runSize(wordCount);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            map(0L);
+            region.putInt(ReplayFormat.MAGIC);
+            region.putInt(ReplayFormat.VERSION);
+            region.putInt(inputType.getEnumConstants().length);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps the region of the file starting at the given offset.
+     * 
+     * @param offset offset within the file
+     * @throws IOException if the region could not be mapped
+     */
+    private void map(long offset) throws IOException {
+        region = channel.map(MapMode.READ_WRITE, offset, REGION_SIZE);
+        regionOffset = offset;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Retrieves the input state from the underlying input controller and records it.
+     * 
+     * @throws UncheckedIOException if writing to the file failed
+     */
+    @Override
+    public InputState<S> getInputState() {
+        InputState<S> result = delegate.getInputState();
+        record(BitmaskInputState.copyOf(inputType, result));
+        return result;
+    }
+
+    /**
+     * Records the given input state.
+     * 
+     * @param state input state
+     * @throws UncheckedIOException if writing to the file failed
+     */
+    private void record(BitmaskInputState<S> state) {
+        if (closed) {
+            throw new IllegalStateException("Recorder has already been closed: " + file);
+        }
+
+        if (runPosition < 0 || runLength == Integer.MAX_VALUE || !state.equals(runState)) {
+            startRun(state);
+        }
+        runLength++;
+        // Kept up to date on every tick, so that the file remains readable if the recorder is never closed.
+        region.putInt(runPosition, runLength);
+        tickCount++;
+    }
+
+    /**
+     * Starts a new run.
+     * 
+     * @param state input state for the run
+     * @throws UncheckedIOException if writing to the file failed
+     */
+    private void startRun(BitmaskInputState<S> state) {
+        if (region.remaining() < runSize) {
+            try {
+                map(regionOffset + region.position());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to extend recording: " + file, e);
+            }
+        }
+        runPosition = region.position();
+        region.putInt(0);
+        for (int i = 0; i != wordCount; i++) {
+            region.putLong(state.getWord(i));
+        }
+        runState = state;
+        runLength = 0;
+    }
+
+    /** @return total number of recorded ticks */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * Flushes the recording to disk and truncates the file to the actual size of the recording.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                region.force();
+                channel.truncate(regionOffset + region.position());
+            } finally {
+                channel.close();
+            }
+            log.info("Recorded {} ticks to {}.", Long.valueOf(tickCount), file);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package nl.mvdr.game.replay;
+
+/**
+ * Constants describing the binary format of input recordings.
+ * 
+ * A recording contains the inputs of a single player. It starts with a header, consisting of the following big-endian
+ * values:
+ * <ul>
+ * <li>magic number ({@code int}), always {@link #MAGIC},</li>
+ * <li>format version ({@code int}), always {@link #VERSION},</li>
+ * <li>number of constants in the input enum type ({@code int}).</li>
+ * </ul>
+ * 
+ * The header is followed by a sequence of runs. Each run consists of the number of consecutive ticks the input state
+ * remained unchanged ({@code int}), followed by the input state as a bitmask ({@code long}s, see
+ * {@link nl.mvdr.game.input.BitmaskInputState#wordCount(Class)}). A run length of zero, or the end of the file, marks
+ * the end of the recording.
+ * 
+ * @author Martijn van de Rijdt
+ */
+final class ReplayFormat {
+    /** Magic number at the start of every recording: "GIRC". */
+    static final int MAGIC = 0x47495243;
+    /** Version of the format. */
+    static final int VERSION = 1;
+    /** Size of the header, in bytes. */
+    static final int HEADER_SIZE = 3 * Integer.BYTES;
+
+    /** Private constructor, to prevent instantiation. */
+    private ReplayFormat() {
+        super();
+    }
+
+    /**
+     * Computes the size of a single run.
+     * 
+     * @param wordCount number of words in the bitmask
+     * @return size of a run, in bytes
+     */
+    static int runSize(int wordCount) {
+        return Integer.BYTES + wordCount * Long.BYTES;
+    }
+}
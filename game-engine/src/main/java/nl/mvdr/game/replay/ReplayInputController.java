@@ -0,0 +1,133 @@
+package nl.mvdr.game.replay;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lombok.NonNull;
+import lombok.ToString;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+
+/**
+ * Input controller which replays input states recorded by a {@link RecordingInputController}, one tick per call to
+ * {@link #getInputState()}.
+ * 
+ * The recording is memory-mapped rather than read up front, so that even very long recordings load instantly. Once the
+ * end of the recording has been reached, no inputs are pressed.
+ * 
+ * Instances are not thread-safe; {@link #getInputState()} is meant to be called from the game loop.
+ * 
+ * @param <S> enum type containing all possible inputs from the user
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "file", "tickCount" })
+public class ReplayInputController<S extends Enum<S>> implements InputController<S> {
+    /** Actual enum type for input values. */
+    private final Class<S> inputType;
+    /** File being replayed. */
+    private final Path file;
+    /** Contents of the file. */
+    private final MappedByteBuffer buffer;
+    /** Bitmask of the current run. Reused for every run. */
+    private final long[] words;
+    /** Input state to be returned once the recording has finished. */
+    private final BitmaskInputState<S> emptyState;
+
+    /** Input state of the current run. */
+    private BitmaskInputState<S> runState;
+    /** Number of remaining ticks in the current run. */
+    private int remainingRunLength;
+    /** Whether the end of the recording has been reached. */
+    private boolean finished;
+    /** Number of ticks replayed so far. */
+    private long tickCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param inputType actual enum type for input values
+     * @param file recording, as written by {@link RecordingInputController}
+     * @throws IOException if the file could not be read, or is not a valid recording for the given input type
+     */
+    public ReplayInputController(@NonNull Class<S> inputType, @NonNull Path file) throws IOException {
+        super();
+        this.inputType = inputType;
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (Integer.MAX_VALUE < channel.size()) {
+                throw new IOException("Recording too large: " + file);
+            }
+            // The mapping remains valid after the channel has been closed.
+            this.buffer = channel.map(MapMode.READ_ONLY, 0L, channel.size());
+        }
+        if (buffer.remaining() < ReplayFormat.HEADER_SIZE || buffer.getInt() != ReplayFormat.MAGIC) {
+            throw new IOException("Not an input recording: " + file);
+        }
+        int version = buffer.getInt();
+        if (version != ReplayFormat.VERSION) {
+            throw new IOException("Unsupported recording version " + version + ": " + file);
+        }
+        int constantCount = buffer.getInt();
+        if (constantCount != inputType.getEnumConstants().length) {
+            throw new IOException("Recording " + file + " contains " + constantCount + " inputs, expected "
+                    + inputType.getEnumConstants().length + " for " + inputType.getName());
+        }
+        this.words = new long[BitmaskInputState.wordCount(inputType)];
+        this.emptyState = BitmaskInputState.valueOf(inputType, 0L);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputState<S> getInputState() {
+        if (remainingRunLength == 0 && !finished) {
+            readRun();
+        }
+
+        BitmaskInputState<S> result;
+        if (finished) {
+            result = emptyState;
+        } else {
+            remainingRunLength--;
+            tickCount++;
+            result = runState;
+        }
+        return result;
+    }
+
+    /** Reads the next run from the recording. */
+    private void readRun() {
+        if (buffer.remaining() < ReplayFormat.runSize(words.length)) {
+            finished = true;
+        } else {
+            remainingRunLength = buffer.getInt();
+            if (remainingRunLength <= 0) {
+                // Unused space at the end of a recording which was not closed properly.
+                finished = true;
+            } else {
+                for (int i = 0; i != words.length; i++) {
+                    words[i] = buffer.getLong();
+                }
+                runState = BitmaskInputState.valueOf(inputType, words);
+            }
+        }
+    }
+
+    /** @return whether all recorded ticks have been replayed */
+    public boolean isFinished() {
+        if (remainingRunLength == 0 && !finished) {
+            readRun();
+        }
+        return finished;
+    }
+
+    /** @return number of ticks replayed so far */
+    public long getTickCount() {
+        return tickCount;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * Contains support for recording and replaying user input.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.game.replay;
@@ -0,0 +1,30 @@
+package nl.mvdr.game.rollback;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport for exchanging the inputs of local players with remote peers.
+ * 
+ * Implementations need not guarantee that inputs are delivered in order, but should deliver every input eventually.
+ * Delivering the same input more than once is harmless.
+ * 
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+public interface InputTransport<T extends Enum<T>> {
+    /**
+     * Sends the input of a local player to all remote peers. Must not block.
+     * 
+     * @param input input
+     */
+    void send(RemoteInput<T> input);
+
+    /**
+     * Hands all inputs which have been received from remote peers since the previous call to the given consumer. Must
+     * not block.
+     * 
+     * @param consumer consumer for the received inputs; called on the current thread
+     */
+    void receive(Consumer<RemoteInput<T>> consumer);
+}
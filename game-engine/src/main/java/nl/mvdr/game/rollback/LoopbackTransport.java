@@ -0,0 +1,112 @@
+package nl.mvdr.game.rollback;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * In-process input transport, which connects two peers and simulates network latency.
+ * 
+ * Latency is expressed in frames rather than in wall-clock time, which keeps tests deterministic: an input sent by one
+ * peer only becomes available to the other peer after the given number of calls to {@link #receive(Consumer)}.
+ * 
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = "latency")
+public class LoopbackTransport<T extends Enum<T>> implements InputTransport<T> {
+    /** Number of calls to {@link #receive(Consumer)} before a sent input is delivered. */
+    private final int latency;
+    /** Inputs which have been sent to this endpoint, but have not been delivered yet. Guarded by this. */
+    private final Deque<PendingInput<T>> pending = new ArrayDeque<>();
+    /** Number of calls to {@link #receive(Consumer)} so far. Guarded by this. */
+    private long receiveCount;
+    /** The other endpoint. */
+    private LoopbackTransport<T> peer;
+
+    /**
+     * Constructor.
+     * 
+     * @param latency number of frames before a sent input is delivered to the other peer
+     */
+    private LoopbackTransport(int latency) {
+        super();
+        if (latency < 0) {
+            throw new IllegalArgumentException("Latency must not be negative, was: " + latency);
+        }
+        this.latency = latency;
+    }
+
+    /**
+     * Creates a new endpoint, which is connected to a second endpoint. Use {@link #getPeer()} to obtain the latter.
+     * 
+     * @param latency number of frames before a sent input is delivered to the other peer; 0 means that an input is
+     *            available on the next call to {@link #receive(Consumer)}
+     * @param <T> input type
+     * @return new endpoint
+     */
+    public static <T extends Enum<T>> LoopbackTransport<T> create(int latency) {
+        LoopbackTransport<T> result = new LoopbackTransport<>(latency);
+        LoopbackTransport<T> peer = new LoopbackTransport<>(latency);
+        result.peer = peer;
+        peer.peer = result;
+        return result;
+    }
+
+    /** @return the other endpoint */
+    public LoopbackTransport<T> getPeer() {
+        return peer;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void send(@NonNull RemoteInput<T> input) {
+        peer.enqueue(input);
+    }
+
+    /**
+     * Adds an input sent by the other endpoint.
+     * 
+     * @param input input
+     */
+    private synchronized void enqueue(RemoteInput<T> input) {
+        pending.addLast(new PendingInput<>(receiveCount + latency, input));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized void receive(@NonNull Consumer<RemoteInput<T>> consumer) {
+        while (!pending.isEmpty() && pending.peekFirst().deliveryTime <= receiveCount) {
+            consumer.accept(pending.removeFirst().input);
+        }
+        receiveCount++;
+    }
+
+    /**
+     * Input which is in transit.
+     * 
+     * @param <T> input type
+     */
+    private static class PendingInput<T extends Enum<T>> {
+        /** Value of {@link LoopbackTransport#receiveCount} at which the input is delivered. */
+        private final long deliveryTime;
+        /** Input. */
+        private final RemoteInput<T> input;
+
+        /**
+         * Constructor.
+         * 
+         * @param deliveryTime value of {@link LoopbackTransport#receiveCount} at which the input is delivered
+         * @param input input
+         */
+        private PendingInput(long deliveryTime, RemoteInput<T> input) {
+            super();
+            this.deliveryTime = deliveryTime;
+            this.input = input;
+        }
+    }
+}
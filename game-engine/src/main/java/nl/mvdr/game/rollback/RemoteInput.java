@@ -0,0 +1,29 @@
+package nl.mvdr.game.rollback;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import nl.mvdr.game.input.BitmaskInputState;
+
+/**
+ * Input of a single player for a single tick, as exchanged between peers by an {@link InputTransport}.
+ * 
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class RemoteInput<T extends Enum<T>> {
+    /** Tick (update number) the input applies to. */
+    private final long tick;
+    /** Index of the player. */
+    private final int player;
+    /** Input state. */
+    @NonNull
+    private final BitmaskInputState<T> inputState;
+}
@@ -0,0 +1,44 @@
+package nl.mvdr.game.rollback;
+
+import lombok.ToString;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Input controller for a remote player in a rollback session. Obtain instances through
+ * {@link RollbackGameEngine#createRemoteInputController(int)}.
+ * 
+ * Returns the remote player's input for the upcoming tick: the actual input if it has already been received, or a
+ * prediction otherwise. Should a prediction turn out to be wrong, the {@link RollbackGameEngine} corrects the game
+ * state.
+ * 
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = "player")
+public class RemoteInputController<T extends Enum<T>> implements InputController<T> {
+    /** Rollback engine. */
+    private final RollbackGameEngine<? extends GameState, T> engine;
+    /** Index of the remote player. */
+    private final int player;
+
+    /**
+     * Constructor.
+     * 
+     * @param engine rollback engine
+     * @param player index of the remote player
+     */
+    RemoteInputController(RollbackGameEngine<? extends GameState, T> engine, int player) {
+        super();
+        this.engine = engine;
+        this.player = player;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputState<T> getInputState() {
+        return engine.getRemoteInput(player);
+    }
+}
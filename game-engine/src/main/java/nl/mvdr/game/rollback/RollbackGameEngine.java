@@ -0,0 +1,375 @@
+package nl.mvdr.game.rollback;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.engine.GameEngine;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Game engine which adds rollback-based multiplayer to another game engine.
+ * 
+ * Local players' inputs are applied immediately and sent to the remote peers through an {@link InputTransport}. Remote
+ * players' inputs are predicted to be the same as their last received input. Once a remote input arrives which
+ * contradicts the prediction that was used, the game is rewound to that tick and resimulated up to the current tick,
+ * within the same update. This relies on the underlying engine's
+ * {@link GameEngine#computeNextState(GameState, List)} being a pure function of its arguments.
+ * 
+ * To keep rollbacks bounded, a ring of recent states is kept. If a remote peer falls behind more than the maximum
+ * rollback distance, the game stalls: updates do not advance the game until that peer's inputs arrive.
+ * 
+ * Use this engine in the game loop with the local players' regular input controllers, and with
+ * {@link #createRemoteInputController(int)} for the remote players. Every peer uses the same player indices. Instances
+ * are not thread-safe; they are meant to be used from the game loop.
+ * 
+ * @param <S> game state type
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "delegate", "transport", "currentTick" })
+public class RollbackGameEngine<S extends GameState, T extends Enum<T>> implements GameEngine<S, T> {
+    /** Underlying game engine. */
+    private final GameEngine<S, T> delegate;
+    /** Actual enum type for input values. */
+    private final Class<T> inputType;
+    /** Transport to the remote peers. */
+    private final InputTransport<T> transport;
+    /** Total number of players. */
+    private final int playerCount;
+    /** For each player: whether that player is local. */
+    private final boolean[] localPlayers;
+    /** Maximum number of ticks the game can be rewound. */
+    private final int maxRollbackTicks;
+    /** Size of the ring buffers of states and used inputs. */
+    private final int capacity;
+    /**
+     * Size of the ring buffers of confirmed inputs. These need more room than the states: a remote peer may run up to
+     * the maximum rollback ahead of the inputs it has received from this peer, which in turn may run up to the maximum
+     * rollback ahead of the first unconfirmed remote tick.
+     */
+    private final int inputCapacity;
+    /** Handles received remote inputs. */
+    private final Consumer<RemoteInput<T>> receiver = this::inputReceived;
+
+    /** Ring buffer of game states; the state at the start of tick t is stored at index t % capacity. */
+    private final S[] states;
+    /** Ring buffer of the inputs used to simulate each tick, per player. */
+    private final BitmaskInputState<T>[][] usedInputs;
+    /** Ring buffer of confirmed inputs, per player; the input for tick t is stored at index t % inputCapacity. */
+    private final BitmaskInputState<T>[][] confirmedInputs;
+    /** Ticks the entries in {@link #confirmedInputs} belong to; -1 for no entry. */
+    private final long[][] confirmedTicks;
+    /** For each player: the last tick up to which all inputs have been confirmed; -1 for none. */
+    private final long[] confirmedThrough;
+    /** For each player: the input for the tick in {@link #confirmedThrough}; used as a prediction for later ticks. */
+    private final BitmaskInputState<T>[] lastConfirmedInputs;
+    /** Received inputs which did not fit in {@link #confirmedInputs} yet; these are retried on every update. */
+    private final Deque<RemoteInput<T>> deferredInputs = new ArrayDeque<>();
+
+    /** Number of ticks which have been simulated. */
+    private long currentTick;
+    /** Earliest tick which needs to be resimulated; {@link Long#MAX_VALUE} if none. */
+    private long rollbackTick = Long.MAX_VALUE;
+    /** Number of rollbacks performed. */
+    private long rollbackCount;
+    /** Number of ticks which were resimulated. */
+    private long resimulatedTicks;
+    /** Number of updates during which the game stalled, waiting for remote inputs. */
+    private long stallCount;
+
+    /**
+     * Constructor.
+     * 
+     * @param delegate underlying game engine
+     * @param inputType actual enum type for input values
+     * @param playerCount total number of players, both local and remote
+     * @param localPlayers indices of the local players
+     * @param transport transport to the remote peers
+     * @param maxRollbackTicks maximum number of ticks the game can be rewound
+     */
+    @SuppressWarnings("unchecked")
+    public RollbackGameEngine(@NonNull GameEngine<S, T> delegate, @NonNull Class<T> inputType, int playerCount,
+            @NonNull Collection<Integer> localPlayers, @NonNull InputTransport<T> transport, int maxRollbackTicks) {
+        super();
+        if (maxRollbackTicks < 1) {
+            throw new IllegalArgumentException("Maximum rollback must be positive, was: " + maxRollbackTicks);
+        }
+        this.delegate = delegate;
+        this.inputType = inputType;
+        this.transport = transport;
+        this.playerCount = playerCount;
+        this.localPlayers = new boolean[playerCount];
+        for (Integer player : localPlayers) {
+            this.localPlayers[player.intValue()] = true;
+        }
+        this.maxRollbackTicks = maxRollbackTicks;
+        this.capacity = maxRollbackTicks + 2;
+        this.inputCapacity = 2 * maxRollbackTicks + 2;
+        this.states = (S[]) new GameState[capacity];
+        this.usedInputs = new BitmaskInputState[capacity][playerCount];
+        this.confirmedInputs = new BitmaskInputState[inputCapacity][playerCount];
+        this.confirmedTicks = new long[inputCapacity][playerCount];
+        this.confirmedThrough = new long[playerCount];
+        this.lastConfirmedInputs = new BitmaskInputState[playerCount];
+    }
+
+    /**
+     * Creates an input controller for the given remote player.
+     * 
+     * @param player index of a remote player
+     * @return input controller
+     */
+    public RemoteInputController<T> createRemoteInputController(int player) {
+        checkRemotePlayer(player);
+        return new RemoteInputController<>(this, player);
+    }
+
+    /**
+     * Checks that the given index belongs to a remote player.
+     * 
+     * @param player player index
+     */
+    private void checkRemotePlayer(int player) {
+        if (player < 0 || playerCount <= player || localPlayers[player]) {
+            throw new IllegalArgumentException("Not a remote player: " + player);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public S initGameState() {
+        currentTick = 0L;
+        rollbackTick = Long.MAX_VALUE;
+        for (long[] ticks : confirmedTicks) {
+            Arrays.fill(ticks, -1L);
+        }
+        Arrays.fill(confirmedThrough, -1L);
+        deferredInputs.clear();
+        Arrays.fill(lastConfirmedInputs, BitmaskInputState.valueOf(inputType, 0L));
+        states[0] = delegate.initGameState();
+        return states[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * The previous state is expected to be the state returned by the previous call to this method (or by
+     * {@link #initGameState()}); this engine keeps track of the state itself, since it may have to be corrected. The
+     * input states of remote players are ignored, in favour of the received or predicted inputs.
+     */
+    @Override
+    public S computeNextState(S previousState, @NonNull List<InputState<T>> inputStates) {
+        if (inputStates.size() != playerCount) {
+            throw new IllegalArgumentException("Expected inputs for " + playerCount + " players, got "
+                    + inputStates.size());
+        }
+        receive();
+        rollback();
+
+        if (maxRollbackTicks <= currentTick - getFirstUnconfirmedRemoteTick()) {
+            // Too far ahead of a remote peer; wait for its inputs.
+            stallCount++;
+            log.debug("Stalling at tick {}, waiting for remote inputs.", Long.valueOf(currentTick));
+        } else {
+            for (int player = 0; player != playerCount; player++) {
+                if (localPlayers[player]) {
+                    BitmaskInputState<T> input = BitmaskInputState.copyOf(inputType, inputStates.get(player));
+                    confirm(currentTick, player, input);
+                    transport.send(new RemoteInput<>(currentTick, player, input));
+                }
+            }
+            simulate(currentTick);
+            currentTick++;
+        }
+        return states[index(currentTick)];
+    }
+
+    /**
+     * Retrieves the input to be used for the current tick for the given remote player.
+     * 
+     * @param player index of a remote player
+     * @return received input, or predicted input if it has not been received yet; note that any inputs which arrive
+     *         before the next update are still taken into account during that update
+     */
+    InputState<T> getRemoteInput(int player) {
+        checkRemotePlayer(player);
+        return getInput(currentTick, player);
+    }
+
+    /** Handles the inputs received from the remote peers, including any deferred inputs which fit by now. */
+    private void receive() {
+        transport.receive(receiver);
+        int deferred;
+        do {
+            // Confirming an input may make room for other deferred inputs, so keep going while progress is made.
+            deferred = deferredInputs.size();
+            for (int i = 0; i != deferred; i++) {
+                inputReceived(deferredInputs.removeFirst());
+            }
+        } while (deferredInputs.size() < deferred);
+    }
+
+    /**
+     * Handles an input received from a remote peer.
+     * 
+     * @param input input
+     */
+    private void inputReceived(RemoteInput<T> input) {
+        long tick = input.getTick();
+        int player = input.getPlayer();
+        if (player < 0 || playerCount <= player || localPlayers[player]) {
+            log.warn("Ignoring input for unexpected player: {}", input);
+        } else if (tick <= confirmedThrough[player]) {
+            // Duplicate.
+        } else if (getFirstUnconfirmedRemoteTick() + inputCapacity <= tick) {
+            // Storing this input would overwrite one which is still needed; retry once earlier inputs have arrived.
+            log.debug("Deferring input too far in the future: {}, current tick: {}", input, Long.valueOf(currentTick));
+            deferredInputs.addLast(input);
+        } else {
+            if (tick < currentTick && !input.getInputState().equals(usedInputs[index(tick)][player])) {
+                // Misprediction.
+                rollbackTick = Math.min(rollbackTick, tick);
+            }
+            confirm(tick, player, input.getInputState());
+        }
+    }
+
+    /**
+     * Stores a confirmed input.
+     * 
+     * @param tick tick
+     * @param player player index
+     * @param input input
+     */
+    private void confirm(long tick, int player, BitmaskInputState<T> input) {
+        int index = inputIndex(tick);
+        confirmedInputs[index][player] = input;
+        confirmedTicks[index][player] = tick;
+        while (confirmedTicks[inputIndex(confirmedThrough[player] + 1)][player] == confirmedThrough[player] + 1) {
+            confirmedThrough[player]++;
+            lastConfirmedInputs[player] = confirmedInputs[inputIndex(confirmedThrough[player])][player];
+        }
+    }
+
+    /** Resimulates all ticks from {@link #rollbackTick} onwards, if necessary. */
+    private void rollback() {
+        if (rollbackTick < currentTick) {
+            log.debug("Rolling back from tick {} to tick {}.", Long.valueOf(currentTick), Long.valueOf(rollbackTick));
+            rollbackCount++;
+            for (long tick = rollbackTick; tick != currentTick; tick++) {
+                simulate(tick);
+                resimulatedTicks++;
+            }
+        }
+        rollbackTick = Long.MAX_VALUE;
+    }
+
+    /**
+     * Computes the state following the given tick, using the best known inputs.
+     * 
+     * @param tick tick
+     */
+    private void simulate(long tick) {
+        int index = index(tick);
+        for (int player = 0; player != playerCount; player++) {
+            usedInputs[index][player] = getInput(tick, player);
+        }
+        List<InputState<T>> inputs = Arrays.asList(usedInputs[index].clone());
+        states[index(tick + 1)] = delegate.computeNextState(states[index], inputs);
+    }
+
+    /**
+     * Determines the input of the given player for the given tick.
+     * 
+     * @param tick tick
+     * @param player player index
+     * @return confirmed input, or predicted input if the input has not been confirmed yet
+     */
+    private BitmaskInputState<T> getInput(long tick, int player) {
+        BitmaskInputState<T> result;
+        int index = inputIndex(tick);
+        if (confirmedTicks[index][player] == tick) {
+            result = confirmedInputs[index][player];
+        } else {
+            // Predict that the player is still pressing the same inputs.
+            result = lastConfirmedInputs[player];
+        }
+        return result;
+    }
+
+    /** @return the earliest tick for which not all remote inputs have been received */
+    private long getFirstUnconfirmedRemoteTick() {
+        long result = currentTick;
+        for (int player = 0; player != playerCount; player++) {
+            if (!localPlayers[player]) {
+                result = Math.min(result, confirmedThrough[player] + 1);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the index in the ring buffers of states and used inputs for the given tick.
+     * 
+     * @param tick tick
+     * @return index
+     */
+    private int index(long tick) {
+        return (int) (tick % capacity);
+    }
+
+    /**
+     * Computes the index in the ring buffers of confirmed inputs for the given tick.
+     * 
+     * @param tick tick
+     * @return index
+     */
+    private int inputIndex(long tick) {
+        return (int) (tick % inputCapacity);
+    }
+
+    /** @return number of ticks which have been simulated */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /** @return the last tick for which all players' inputs are known; -1 if there is none */
+    public long getConfirmedTick() {
+        long result = currentTick - 1;
+        for (long tick : confirmedThrough) {
+            result = Math.min(result, tick);
+        }
+        return result;
+    }
+
+    /** @return game state after the last tick for which all players' inputs are known; this state is final */
+    public S getConfirmedState() {
+        return states[index(getConfirmedTick() + 1)];
+    }
+
+    /** @return number of rollbacks performed */
+    public long getRollbackCount() {
+        return rollbackCount;
+    }
+
+    /** @return number of ticks which were resimulated due to rollbacks */
+    public long getResimulatedTicks() {
+        return resimulatedTicks;
+    }
+
+    /** @return number of updates during which the game stalled, waiting for remote inputs */
+    public long getStallCount() {
+        return stallCount;
+    }
+}
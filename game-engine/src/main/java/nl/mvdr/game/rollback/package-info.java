@@ -0,0 +1,7 @@
+/**
+ * Contains rollback-based multiplayer support: remote players' inputs are predicted, and the game is resimulated when a
+ * prediction turns out to be wrong.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.game.rollback;
@@ -0,0 +1,250 @@
+package nl.mvdr.game.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import lombok.NonNull;
+import lombok.ToString;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Decodes a delta-compressed stream of game states, as written by a {@link DeltaEncoder}.
+ * 
+ * The decoder can be used in two ways. A decoder for a complete stream (for instance a memory-mapped replay archive)
+ * iterates over the frames using {@link #hasNext()} and {@link #next()}, and can {@link #seek(long)} to any tick by
+ * starting at the nearest preceding keyframe. Keyframes are indexed as the stream is scanned, so that subsequent seeks
+ * are cheap. A decoder for a live stream (for instance a spectator feed) is fed individual frames as they arrive,
+ * through {@link #decode(ByteBuffer)}.
+ * 
+ * Instances are not thread-safe.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "tick", "length" })
+public class DeltaDecoder<S extends GameState> {
+    /** Size of the stream header, in bytes. */
+    public static final int HEADER_SIZE = DeltaFormat.HEADER_SIZE;
+
+    /** Codec for the game states. */
+    private final GameStateCodec<S> codec;
+    /** Complete stream, positioned at the next frame; null for a live stream. */
+    private final ByteBuffer stream;
+    /** Positions of the keyframes in {@link #stream} which have been scanned so far, by tick number. */
+    private final NavigableMap<Long, Integer> keyframes = new TreeMap<>();
+
+    /** Encoded state of the latest decoded frame; any bytes after {@link #length} are zero. */
+    private byte[] state = new byte[64];
+    /** Length of the encoded state; -1 if no keyframe has been decoded yet. */
+    private int length = -1;
+    /** Tick number of the latest decoded frame; -1 if none. */
+    private long tick = -1L;
+    /** Position in {@link #stream} up to which the keyframes have been indexed. */
+    private int indexedPosition;
+
+    /**
+     * Constructor for a live stream, whose frames are passed to {@link #decode(ByteBuffer)} as they arrive. The stream
+     * header should be read separately, using {@link #readHeader(ByteBuffer)}.
+     * 
+     * @param codec codec for the game states
+     */
+    public DeltaDecoder(@NonNull GameStateCodec<S> codec) {
+        super();
+        this.codec = codec;
+        this.stream = null;
+    }
+
+    /**
+     * Constructor for a complete stream.
+     * 
+     * @param codec codec for the game states
+     * @param stream complete stream, including the header, from its position up to its limit; not modified by the
+     *            decoder
+     * @throws IllegalArgumentException if the stream header is invalid
+     */
+    public DeltaDecoder(@NonNull GameStateCodec<S> codec, @NonNull ByteBuffer stream) {
+        super();
+        this.codec = codec;
+        this.stream = stream.slice();
+        readHeader(this.stream);
+        this.indexedPosition = this.stream.position();
+    }
+
+    /**
+     * Reads and validates a stream header.
+     * 
+     * @param buffer buffer to read from
+     * @return keyframe interval of the stream
+     * @throws IllegalArgumentException if the header is invalid
+     */
+    public static int readHeader(@NonNull ByteBuffer buffer) {
+        if (buffer.remaining() < DeltaFormat.HEADER_SIZE) {
+            throw new IllegalArgumentException("Stream too short to contain a header.");
+        }
+        int magic = buffer.getInt();
+        if (magic != DeltaFormat.MAGIC) {
+            throw new IllegalArgumentException("Not a state stream, unexpected magic number: "
+                    + Integer.toHexString(magic));
+        }
+        int version = buffer.getInt();
+        if (version != DeltaFormat.VERSION) {
+            throw new IllegalArgumentException("Unsupported stream version: " + version);
+        }
+        return buffer.getInt();
+    }
+
+    /**
+     * Decodes the frame at the buffer's position, advancing the buffer past it.
+     * 
+     * @param buffer buffer containing at least one complete frame
+     * @return decoded state
+     * @throws IllegalStateException if the frame is a delta, but no keyframe has been decoded yet
+     * @throws IllegalArgumentException if the frame type is invalid
+     */
+    public S decode(@NonNull ByteBuffer buffer) {
+        byte type = buffer.get();
+        long frameTick = buffer.getLong();
+        int payloadLength = buffer.getInt();
+        if (type == DeltaFormat.KEYFRAME) {
+            resize(payloadLength);
+            buffer.get(state, 0, payloadLength);
+        } else if (type == DeltaFormat.DELTA) {
+            if (length < 0) {
+                throw new IllegalStateException("Delta for tick " + frameTick + " without a preceding keyframe.");
+            }
+            int end = buffer.position() + payloadLength;
+            resize(buffer.getInt());
+            int i = 0;
+            while (buffer.position() != end) {
+                i += DeltaFormat.getVarInt(buffer);
+                int changed = DeltaFormat.getVarInt(buffer);
+                for (int j = 0; j != changed; j++) {
+                    state[i] ^= buffer.get();
+                    i++;
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("Invalid frame type " + type + " for tick " + frameTick);
+        }
+        tick = frameTick;
+        return codec.read(ByteBuffer.wrap(state, 0, length));
+    }
+
+    /**
+     * Changes the length of the encoded state, keeping any bytes after it zeroed.
+     * 
+     * @param newLength new length
+     */
+    private void resize(int newLength) {
+        if (state.length < newLength) {
+            state = Arrays.copyOf(state, Math.max(newLength, 2 * state.length));
+        } else if (newLength < length) {
+            Arrays.fill(state, newLength, length, (byte) 0);
+        }
+        length = newLength;
+    }
+
+    /**
+     * Determines whether the buffer contains a complete frame, starting at its position. This is useful when receiving
+     * a live stream in chunks. Does not modify the buffer.
+     * 
+     * @param buffer buffer
+     * @return length of the frame in bytes, or -1 if the buffer does not contain a complete frame
+     */
+    public static int completeFrameLength(@NonNull ByteBuffer buffer) {
+        int result = -1;
+        if (DeltaFormat.FRAME_HEADER_SIZE <= buffer.remaining()) {
+            int frameLength = DeltaFormat.FRAME_HEADER_SIZE + buffer.getInt(buffer.position() + 1 + Long.BYTES);
+            if (frameLength <= buffer.remaining()) {
+                result = frameLength;
+            }
+        }
+        return result;
+    }
+
+    /** @return whether the complete stream contains another complete frame */
+    public boolean hasNext() {
+        return stream != null && 0 < completeFrameLength(stream);
+    }
+
+    /**
+     * Decodes the next frame of the complete stream.
+     * 
+     * @return decoded state
+     * @throws NoSuchElementException if there are no more frames
+     */
+    public S next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more frames in the stream.");
+        }
+        if (indexedPosition == stream.position()) {
+            indexFrame();
+        }
+        return decode(stream);
+    }
+
+    /**
+     * Positions the complete stream at the state for the given tick: decoding starts at the nearest preceding keyframe,
+     * unless the current position is closer.
+     * 
+     * @param targetTick tick number
+     * @return state of the latest frame with a tick number not after the given one; empty if the stream does not
+     *         contain a keyframe before the given tick
+     */
+    public Optional<S> seek(long targetTick) {
+        if (stream == null) {
+            throw new IllegalStateException("Seeking is only supported for complete streams.");
+        }
+        int resumePosition = stream.position();
+        indexUpTo(targetTick);
+
+        Optional<S> result = Optional.empty();
+        Map.Entry<Long, Integer> keyframe = keyframes.floorEntry(Long.valueOf(targetTick));
+        if (keyframe != null) {
+            if (0 <= length && keyframe.getKey().longValue() <= tick && tick <= targetTick) {
+                // Continuing from the current position is cheaper than starting at the keyframe.
+                stream.position(resumePosition);
+                result = Optional.of(codec.read(ByteBuffer.wrap(state, 0, length)));
+            } else {
+                stream.position(keyframe.getValue().intValue());
+            }
+            while (hasNext() && stream.getLong(stream.position() + 1) <= targetTick) {
+                result = Optional.of(decode(stream));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Scans the stream for keyframes, up to and including the given tick.
+     * 
+     * @param targetTick tick number
+     */
+    private void indexUpTo(long targetTick) {
+        stream.position(indexedPosition);
+        while (hasNext() && stream.getLong(stream.position() + 1) <= targetTick) {
+            indexFrame();
+            stream.position(indexedPosition);
+        }
+    }
+
+    /** Indexes the frame at the stream's current position, and marks it as indexed. Does not move the stream. */
+    private void indexFrame() {
+        int position = stream.position();
+        if (stream.get(position) == DeltaFormat.KEYFRAME) {
+            keyframes.put(Long.valueOf(stream.getLong(position + 1)), Integer.valueOf(position));
+        }
+        indexedPosition = position + DeltaFormat.FRAME_HEADER_SIZE + stream.getInt(position + 1 + Long.BYTES);
+    }
+
+    /** @return tick number of the latest decoded frame; -1 if none */
+    public long getTick() {
+        return tick;
+    }
+}
@@ -0,0 +1,172 @@
+package nl.mvdr.game.snapshot;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import lombok.NonNull;
+import lombok.ToString;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Encodes a sequence of game states as a delta-compressed stream (see {@link DeltaFormat}), to be decoded by a
+ * {@link DeltaDecoder}.
+ * 
+ * Every state is encoded using a {@link GameStateCodec}, and compared byte by byte with the previous state's encoding.
+ * Usually only a few bytes change between ticks, so only the changed bytes are written, as a delta. Periodically, and
+ * whenever a delta would not be smaller than the state itself, a full keyframe is written instead, so that decoding can
+ * start at any keyframe.
+ * 
+ * Encoding a frame does not allocate. Instances are not thread-safe.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "keyframeInterval", "maxStateSize" })
+public class DeltaEncoder<S extends GameState> {
+    /** Codec for the game states. */
+    private final GameStateCodec<S> codec;
+    /** Maximum number of frames between two keyframes. */
+    private final int keyframeInterval;
+    /** Maximum size of an encoded state, in bytes. */
+    private final int maxStateSize;
+    /** Payload of a delta frame, while it is being encoded. */
+    private final ByteBuffer delta;
+
+    /** Encoded current state. */
+    private ByteBuffer current;
+    /** Encoded previous state; any bytes after {@link #previousLength} are zero. */
+    private ByteBuffer previous;
+    /** Length of the state in {@link #current} before it was last overwritten. */
+    private int currentLength;
+    /** Length of the state in {@link #previous}; -1 if the next frame needs to be a keyframe. */
+    private int previousLength = -1;
+    /** Number of frames since the last keyframe, including the keyframe itself. */
+    private int framesSinceKeyframe;
+
+    /**
+     * Constructor.
+     * 
+     * @param codec codec for the game states
+     * @param maxStateSize maximum size of an encoded state, in bytes
+     * @param keyframeInterval maximum number of frames between two keyframes
+     */
+    public DeltaEncoder(@NonNull GameStateCodec<S> codec, int maxStateSize, int keyframeInterval) {
+        super();
+        if (maxStateSize <= 0) {
+            throw new IllegalArgumentException("Maximum state size must be positive, was: " + maxStateSize);
+        }
+        if (keyframeInterval <= 0) {
+            throw new IllegalArgumentException("Keyframe interval must be positive, was: " + keyframeInterval);
+        }
+        this.codec = codec;
+        this.maxStateSize = maxStateSize;
+        this.keyframeInterval = keyframeInterval;
+        this.current = ByteBuffer.allocate(maxStateSize);
+        this.previous = ByteBuffer.allocate(maxStateSize);
+        this.delta = ByteBuffer.allocate(Integer.BYTES + maxStateSize);
+    }
+
+    /** @return maximum size of a single frame, in bytes */
+    public int getMaxFrameSize() {
+        return DeltaFormat.FRAME_HEADER_SIZE + maxStateSize;
+    }
+
+    /**
+     * Writes the stream header.
+     * 
+     * @param out buffer to write to
+     */
+    public void writeHeader(@NonNull ByteBuffer out) {
+        out.putInt(DeltaFormat.MAGIC);
+        out.putInt(DeltaFormat.VERSION);
+        out.putInt(keyframeInterval);
+    }
+
+    /** Makes sure that the next frame is a keyframe, for instance because a new receiver has joined the stream. */
+    public void requestKeyframe() {
+        previousLength = -1;
+    }
+
+    /**
+     * Encodes the given state as the next frame.
+     * 
+     * @param tick tick number of the state
+     * @param state game state
+     * @param out buffer to write the frame to; must have at least {@link #getMaxFrameSize()} bytes remaining
+     * @return whether the frame is a keyframe
+     * @throws IllegalStateException if the encoded state exceeds the maximum state size
+     */
+    public boolean encode(long tick, @NonNull S state, @NonNull ByteBuffer out) {
+        current.clear();
+        try {
+            codec.write(state, current);
+        } catch (BufferOverflowException e) {
+            throw new IllegalStateException("Encoded state for tick " + tick + " exceeds the maximum size of "
+                    + maxStateSize + " bytes.", e);
+        }
+        int length = current.position();
+        if (length < currentLength) {
+            Arrays.fill(current.array(), length, currentLength, (byte) 0);
+        }
+
+        boolean result = previousLength < 0 || keyframeInterval <= framesSinceKeyframe || !encodeDelta(length);
+        if (result) {
+            out.put(DeltaFormat.KEYFRAME).putLong(tick).putInt(length);
+            out.put(current.array(), 0, length);
+            framesSinceKeyframe = 1;
+        } else {
+            out.put(DeltaFormat.DELTA).putLong(tick).putInt(delta.remaining());
+            out.put(delta);
+            framesSinceKeyframe++;
+        }
+
+        ByteBuffer swap = previous;
+        previous = current;
+        current = swap;
+        currentLength = previousLength < 0 ? maxStateSize : previousLength;
+        previousLength = length;
+        return result;
+    }
+
+    /**
+     * Encodes the difference between the current and the previous state into {@link #delta}.
+     * 
+     * @param length length of the current state
+     * @return whether the delta is smaller than the state itself
+     */
+    private boolean encodeDelta(int length) {
+        byte[] currentBytes = current.array();
+        byte[] previousBytes = previous.array();
+        delta.clear();
+        delta.putInt(length);
+
+        boolean result = true;
+        int i = 0;
+        while (result && i != length) {
+            int unchangedStart = i;
+            while (i != length && currentBytes[i] == previousBytes[i]) {
+                i++;
+            }
+            int changedStart = i;
+            while (i != length && currentBytes[i] != previousBytes[i]) {
+                i++;
+            }
+            int changed = i - changedStart;
+            if (changed == 0) {
+                // Only unchanged bytes left.
+            } else if (delta.remaining() < 2 * 5 + changed) {
+                result = false;
+            } else {
+                DeltaFormat.putVarInt(delta, changedStart - unchangedStart);
+                DeltaFormat.putVarInt(delta, changed);
+                for (int j = changedStart; j != i; j++) {
+                    delta.put((byte) (currentBytes[j] ^ previousBytes[j]));
+                }
+            }
+        }
+        delta.flip();
+        return result && delta.remaining() < length;
+    }
+}
@@ -0,0 +1,80 @@
+package nl.mvdr.game.snapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and helpers describing the binary format of delta-compressed state streams.
+ * 
+ * A stream starts with a header, consisting of the following big-endian values:
+ * <ul>
+ * <li>magic number ({@code int}), always {@link #MAGIC},</li>
+ * <li>format version ({@code int}), always {@link #VERSION},</li>
+ * <li>keyframe interval ({@code int}): maximum number of frames between two keyframes.</li>
+ * </ul>
+ * 
+ * The header is followed by a sequence of frames. Each frame consists of its type ({@code byte}, either
+ * {@link #KEYFRAME} or {@link #DELTA}), its tick number ({@code long}) and the length of its payload in bytes
+ * ({@code int}), followed by the payload:
+ * <ul>
+ * <li>the payload of a keyframe is the state, as encoded by a {@link GameStateCodec};</li>
+ * <li>the payload of a delta starts with the length of the encoded state ({@code int}). It is followed by a sequence of
+ * pairs of a number of unchanged bytes and a number of changed bytes (both as unsigned variable-length integers), each
+ * pair followed by the changed bytes, XOR-ed with the previous frame's encoded state. Any bytes after the last pair are
+ * unchanged. The previous state is considered to be padded with zeroes if it is shorter than the new one.</li>
+ * </ul>
+ * 
+ * @author Martijn van de Rijdt
+ */
+final class DeltaFormat {
+    /** Magic number at the start of every stream: "GDST". */
+    static final int MAGIC = 0x47445354;
+    /** Version of the format. */
+    static final int VERSION = 1;
+    /** Size of the header, in bytes. */
+    static final int HEADER_SIZE = 3 * Integer.BYTES;
+    /** Frame type of a keyframe. */
+    static final byte KEYFRAME = 1;
+    /** Frame type of a delta. */
+    static final byte DELTA = 2;
+    /** Size of a frame's type, tick number and payload length, in bytes. */
+    static final int FRAME_HEADER_SIZE = 1 + Long.BYTES + Integer.BYTES;
+
+    /** Private constructor, to prevent instantiation. */
+    private DeltaFormat() {
+        super();
+    }
+
+    /**
+     * Writes an unsigned variable-length integer: seven bits per byte, least significant bits first, with the high bit
+     * set on all but the last byte.
+     * 
+     * @param buffer buffer to write to
+     * @param value non-negative value
+     */
+    static void putVarInt(ByteBuffer buffer, int value) {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            buffer.put((byte) (remaining & 0x7F | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Reads an unsigned variable-length integer, as written by {@link #putVarInt(ByteBuffer, int)}.
+     * 
+     * @param buffer buffer to read from
+     * @return value
+     */
+    static int getVarInt(ByteBuffer buffer) {
+        int result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+package nl.mvdr.game.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.gui.GameRenderer;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Game renderer which writes every rendered state to a channel as a delta-compressed stream (see {@link DeltaEncoder}),
+ * for instance to a file for a replay archive or to a socket for a spectator feed. It can be combined with other
+ * renderers using a {@link nl.mvdr.game.gui.CompositeRenderer}.
+ * 
+ * Frames are numbered by the order in which they are rendered, starting at 0.
+ * 
+ * Instances are not thread-safe; {@link #render(GameState)} is meant to be called from the game loop.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "encoder", "frameCount", "keyframeCount", "bytesWritten" })
+public class DeltaStreamRenderer<S extends GameState> implements GameRenderer<S>, Closeable {
+    /** Encoder. */
+    private final DeltaEncoder<S> encoder;
+    /** Channel to write the stream to. */
+    private final WritableByteChannel channel;
+    /** Buffer for a single frame. Reused for every frame. */
+    private final ByteBuffer frame;
+
+    /** Number of written frames. */
+    private long frameCount;
+    /** Number of written keyframes. */
+    private long keyframeCount;
+    /** Number of bytes written, including the header. */
+    private long bytesWritten;
+
+    /**
+     * Constructor. Writes the stream header.
+     * 
+     * @param codec codec for the game states
+     * @param maxStateSize maximum size of an encoded state, in bytes
+     * @param keyframeInterval maximum number of frames between two keyframes
+     * @param channel channel to write the stream to
+     * @throws IOException if the header could not be written
+     */
+    public DeltaStreamRenderer(GameStateCodec<S> codec, int maxStateSize, int keyframeInterval,
+            @NonNull WritableByteChannel channel) throws IOException {
+        super();
+        this.encoder = new DeltaEncoder<>(codec, maxStateSize, keyframeInterval);
+        this.channel = channel;
+        this.frame = ByteBuffer.allocate(Math.max(encoder.getMaxFrameSize(), DeltaFormat.HEADER_SIZE));
+        encoder.writeHeader(frame);
+        write();
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws UncheckedIOException if writing to the channel failed
+     */
+    @Override
+    public void render(@NonNull S gameState) {
+        frame.clear();
+        if (encoder.encode(frameCount, gameState, frame)) {
+            keyframeCount++;
+        }
+        frameCount++;
+        try {
+            write();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write frame " + (frameCount - 1), e);
+        }
+    }
+
+    /**
+     * Writes the contents of {@link #frame} to the channel.
+     * 
+     * @throws IOException if writing failed
+     */
+    private void write() throws IOException {
+        frame.flip();
+        while (frame.hasRemaining()) {
+            bytesWritten += channel.write(frame);
+        }
+    }
+
+    /** @return number of written frames */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /** @return number of written keyframes */
+    public long getKeyframeCount() {
+        return keyframeCount;
+    }
+
+    /** @return number of bytes written, including the header */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        log.info("Wrote {} frames ({} keyframes, {} bytes).", Long.valueOf(frameCount), Long.valueOf(keyframeCount),
+                Long.valueOf(bytesWritten));
+    }
+}
@@ -0,0 +1,38 @@
+package nl.mvdr.game.snapshot;
+
+import java.nio.ByteBuffer;
+
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Binary encoding of a game state. Games which want to support snapshots (for rewinding, instant replays, crash dumps
+ * and the like) provide an implementation of this interface for their game state type.
+ * 
+ * Encodings should be compact and must have a bounded size, since snapshots are stored in fixed-size slots.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+public interface GameStateCodec<S extends GameState> {
+    /**
+     * Writes the given state to the buffer, starting at the buffer's position. The buffer's position is advanced past
+     * the written bytes.
+     * 
+     * Implementations should not allocate, since this method is called on every update.
+     * 
+     * @param state game state
+     * @param buffer buffer to write to; usually a direct buffer which is reused for subsequent snapshots
+     * @throws java.nio.BufferOverflowException if the encoding does not fit in the buffer
+     */
+    void write(S state, ByteBuffer buffer);
+
+    /**
+     * Reads a state from the buffer, starting at the buffer's position. The buffer's limit is set to the end of the
+     * encoded state.
+     * 
+     * @param buffer buffer to read from
+     * @return game state
+     */
+    S read(ByteBuffer buffer);
+}
@@ -0,0 +1,258 @@
+package nl.mvdr.game.snapshot;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Optional;
+
+import lombok.NonNull;
+import lombok.ToString;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Fixed-size ring buffer containing binary snapshots of the game states of the last couple of ticks.
+ * 
+ * The snapshots are stored off-heap, in a single direct byte buffer which is divided into fixed-size slots. The slot for
+ * a tick is determined by the tick number, so that capturing and restoring are constant-time operations. Capturing a
+ * snapshot does not allocate.
+ * 
+ * Capturing a tick which is not newer than the latest captured tick (for instance after rewinding) discards all newer
+ * snapshots, since they are no longer part of the game's history.
+ * 
+ * Instances are not thread-safe.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "capacity", "slotSize", "latestTick" })
+public class SnapshotRingBuffer<S extends GameState> {
+    /** Tick value for an empty slot. */
+    private static final long EMPTY = -1L;
+
+    /** Codec for the game states. */
+    private final GameStateCodec<S> codec;
+    /** Number of slots. */
+    private final int capacity;
+    /** Size of each slot, in bytes. */
+    private final int slotSize;
+    /** For each slot: a view of the slot's part of the off-heap buffer. */
+    private final ByteBuffer[] slots;
+    /** For each slot: the tick of the snapshot it contains, or {@link #EMPTY}. */
+    private final long[] ticks;
+    /** For each slot: length of the snapshot it contains, in bytes. */
+    private final int[] lengths;
+
+    /** Latest captured tick; {@link #EMPTY} if nothing has been captured yet. */
+    private long latestTick = EMPTY;
+
+    /**
+     * Constructor.
+     * 
+     * @param codec codec for the game states
+     * @param capacity number of ticks to be retained
+     * @param slotSize maximum size of an encoded game state, in bytes
+     */
+    public SnapshotRingBuffer(@NonNull GameStateCodec<S> codec, int capacity, int slotSize) {
+        super();
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, was: " + capacity);
+        }
+        if (slotSize <= 0) {
+            throw new IllegalArgumentException("Slot size must be positive, was: " + slotSize);
+        }
+        if ((long) capacity * slotSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Total size too large: " + capacity + " * " + slotSize);
+        }
+        this.codec = codec;
+        this.capacity = capacity;
+        this.slotSize = slotSize;
+        ByteBuffer buffer = ByteBuffer.allocateDirect(capacity * slotSize);
+        this.slots = new ByteBuffer[capacity];
+        for (int i = 0; i != capacity; i++) {
+            buffer.limit((i + 1) * slotSize);
+            buffer.position(i * slotSize);
+            slots[i] = buffer.slice();
+        }
+        this.ticks = new long[capacity];
+        Arrays.fill(ticks, EMPTY);
+        this.lengths = new int[capacity];
+    }
+
+    /**
+     * Captures a snapshot of the given state.
+     * 
+     * @param tick tick number of the state; must not be negative
+     * @param state game state
+     * @throws IllegalStateException if the encoded state does not fit in a slot
+     */
+    public void capture(long tick, @NonNull S state) {
+        if (tick < 0L) {
+            throw new IllegalArgumentException("Tick must not be negative, was: " + tick);
+        }
+        if (tick <= latestTick) {
+            discardAfter(tick);
+        }
+
+        int index = slotIndex(tick);
+        ByteBuffer slot = slots[index];
+        slot.clear();
+        ticks[index] = EMPTY;
+        try {
+            codec.write(state, slot);
+        } catch (BufferOverflowException e) {
+            throw new IllegalStateException("Snapshot for tick " + tick + " exceeds the slot size of " + slotSize
+                    + " bytes.", e);
+        }
+        lengths[index] = slot.position();
+        ticks[index] = tick;
+        latestTick = tick;
+    }
+
+    /**
+     * Discards all snapshots of ticks after the given one.
+     * 
+     * @param tick tick number
+     */
+    private void discardAfter(long tick) {
+        for (int i = 0; i != capacity; i++) {
+            if (tick < ticks[i]) {
+                ticks[i] = EMPTY;
+            }
+        }
+        latestTick = EMPTY;
+        for (long t : ticks) {
+            latestTick = Math.max(latestTick, t);
+        }
+    }
+
+    /**
+     * Determines the slot for the given tick.
+     * 
+     * @param tick tick number
+     * @return slot index
+     */
+    private int slotIndex(long tick) {
+        return (int) (tick % capacity);
+    }
+
+    /**
+     * Determines whether the snapshot for the given tick is still available.
+     * 
+     * @param tick tick number
+     * @return whether the snapshot is available
+     */
+    public boolean contains(long tick) {
+        return 0L <= tick && ticks[slotIndex(tick)] == tick;
+    }
+
+    /**
+     * Restores the game state from the snapshot for the given tick.
+     * 
+     * @param tick tick number
+     * @return restored state; empty if the snapshot is no longer available
+     */
+    public Optional<S> restore(long tick) {
+        Optional<S> result;
+        if (contains(tick)) {
+            result = Optional.of(codec.read(view(tick)));
+        } else {
+            result = Optional.empty();
+        }
+        return result;
+    }
+
+    /**
+     * Copies the encoded snapshot for the given tick to the target buffer.
+     * 
+     * @param tick tick number; the snapshot must be available
+     * @param target buffer to copy to; its position is advanced past the copied bytes
+     * @return length of the snapshot, in bytes
+     * @throws IllegalArgumentException if the snapshot is not available
+     */
+    public int copySnapshot(long tick, @NonNull ByteBuffer target) {
+        if (!contains(tick)) {
+            throw new IllegalArgumentException("Snapshot not available for tick " + tick);
+        }
+        ByteBuffer view = view(tick);
+        int result = view.remaining();
+        target.put(view);
+        return result;
+    }
+
+    /**
+     * Prepares the slot for the given tick for reading.
+     * 
+     * @param tick tick number; the snapshot must be available
+     * @return slot, with its position and limit set to the snapshot
+     */
+    private ByteBuffer view(long tick) {
+        int index = slotIndex(tick);
+        ByteBuffer result = slots[index];
+        result.clear();
+        result.limit(lengths[index]);
+        return result;
+    }
+
+    /** @return latest captured tick; -1 if no snapshots are available */
+    public long getLatestTick() {
+        return latestTick;
+    }
+
+    /** @return oldest tick for which a snapshot is available; -1 if no snapshots are available */
+    public long getOldestTick() {
+        long result = EMPTY;
+        for (long tick : ticks) {
+            if (tick != EMPTY && (result == EMPTY || tick < result)) {
+                result = tick;
+            }
+        }
+        return result;
+    }
+
+    /** @return maximum number of retained ticks */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes all available snapshots to the given channel, for instance as a crash dump. The snapshots are written in
+     * order of their ticks; each consists of the tick number (a long), the snapshot's length in bytes (an int) and the
+     * encoded state.
+     * 
+     * @param channel channel to write to
+     * @return number of written snapshots
+     * @throws IOException if writing failed
+     */
+    public int writeTo(@NonNull WritableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        int result = 0;
+        long oldestTick = getOldestTick();
+        for (long tick = oldestTick; oldestTick != EMPTY && tick <= latestTick; tick++) {
+            if (contains(tick)) {
+                ByteBuffer view = view(tick);
+                header.clear();
+                header.putLong(tick).putInt(view.remaining()).flip();
+                writeFully(channel, header);
+                writeFully(channel, view);
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the remaining contents of the buffer to the channel.
+     * 
+     * @param channel channel
+     * @param buffer buffer
+     * @throws IOException if writing failed
+     */
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package nl.mvdr.game.snapshot;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import nl.mvdr.game.engine.GameEngine;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Game engine which captures a snapshot of every game state computed by another engine, into a
+ * {@link SnapshotRingBuffer}.
+ * 
+ * This makes it possible to rewind the game: after a call to {@link #requestRewind(long)}, the next update restores the
+ * requested tick's state instead of computing a new one, and the game continues from there.
+ * 
+ * The snapshots themselves are only to be accessed from the game loop thread, or after the game loop has stopped (for
+ * instance to write a crash dump). Rewinds may be requested from any thread.
+ * 
+ * @param <S> game state type
+ * @param <T> input type
+ * 
+ * @author Martijn van de Rijdt
+ */
+@Slf4j
+@ToString(of = { "delegate", "snapshots" })
+public class SnapshottingGameEngine<S extends GameState, T extends Enum<T>> implements GameEngine<S, T> {
+    /** Value of {@link #pendingRewind} if no rewind has been requested. */
+    private static final long NO_REWIND = -1L;
+
+    /** Engine which computes the actual game states. */
+    private final GameEngine<S, T> delegate;
+    /** Snapshots of the most recent game states. */
+    private final SnapshotRingBuffer<S> snapshots;
+    /** Tick to be restored on the next update; {@link #NO_REWIND} if none. */
+    private final AtomicLong pendingRewind = new AtomicLong(NO_REWIND);
+
+    /** Tick number of the latest game state. */
+    private volatile long currentTick;
+
+    /**
+     * Convenience constructor.
+     * 
+     * @param delegate engine which computes the actual game states
+     * @param codec codec for the game states
+     * @param capacity number of ticks to be retained
+     * @param slotSize maximum size of an encoded game state, in bytes
+     */
+    public SnapshottingGameEngine(GameEngine<S, T> delegate, GameStateCodec<S> codec, int capacity, int slotSize) {
+        this(delegate, new SnapshotRingBuffer<>(codec, capacity, slotSize));
+    }
+
+    /**
+     * Constructor.
+     * 
+     * @param delegate engine which computes the actual game states
+     * @param snapshots ring buffer for the snapshots
+     */
+    public SnapshottingGameEngine(@NonNull GameEngine<S, T> delegate, @NonNull SnapshotRingBuffer<S> snapshots) {
+        super();
+        this.delegate = delegate;
+        this.snapshots = snapshots;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public S initGameState() {
+        S result = delegate.initGameState();
+        currentTick = 0L;
+        snapshots.capture(0L, result);
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public S computeNextState(S previousState, List<InputState<T>> inputStates) {
+        S result = null;
+
+        long rewindTick = pendingRewind.getAndSet(NO_REWIND);
+        if (rewindTick != NO_REWIND) {
+            Optional<S> restored = snapshots.restore(rewindTick);
+            if (restored.isPresent()) {
+                log.info("Rewinding from tick {} to tick {}.", Long.valueOf(currentTick), Long.valueOf(rewindTick));
+                currentTick = rewindTick;
+                result = restored.get();
+            } else {
+                log.warn("Unable to rewind to tick {}: snapshot no longer available.", Long.valueOf(rewindTick));
+            }
+        }
+
+        if (result == null) {
+            result = delegate.computeNextState(previousState, inputStates);
+            long tick = currentTick + 1;
+            snapshots.capture(tick, result);
+            currentTick = tick;
+        }
+        return result;
+    }
+
+    /**
+     * Requests the game to be rewound to the given tick, on the next update. If the tick's snapshot is no longer
+     * available by then, the request is ignored.
+     * 
+     * @param tick tick number
+     */
+    public void requestRewind(long tick) {
+        if (tick < 0L) {
+            throw new IllegalArgumentException("Tick must not be negative, was: " + tick);
+        }
+        pendingRewind.set(tick);
+    }
+
+    /** @return tick number of the latest game state */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /** @return snapshots of the most recent game states */
+    public SnapshotRingBuffer<S> getSnapshots() {
+        return snapshots;
+    }
+}
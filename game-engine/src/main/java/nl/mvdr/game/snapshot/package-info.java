@@ -0,0 +1,6 @@
+/**
+ * Contains support for capturing and restoring binary snapshots of the game state.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.game.snapshot;
@@ -0,0 +1,271 @@
+package nl.mvdr.game.spatial;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Base class for spatial indices, which stores the entities' bounding boxes and implements the queries which can be
+ * expressed in terms of {@link #queryRange(float, float, float, float, IntConsumer)}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+abstract class AbstractSpatialIndex implements SpatialIndex {
+    /** Maximum number of entities; entity ids are in the range {@code [0, capacity)}. */
+    final int capacity;
+    /** Minimum x coordinate of each entity's bounding box, indexed by entity id. */
+    final float[] minX;
+    /** Minimum y coordinate of each entity's bounding box, indexed by entity id. */
+    final float[] minY;
+    /** Maximum x coordinate of each entity's bounding box, indexed by entity id. */
+    final float[] maxX;
+    /** Maximum y coordinate of each entity's bounding box, indexed by entity id. */
+    final float[] maxY;
+    /** Whether each entity is in the index, indexed by entity id. */
+    private final boolean[] present;
+    /** Reusable state for nearest queries. */
+    private final NearestVisitor nearestVisitor = new NearestVisitor();
+    /** Reusable state for pair queries. */
+    private final PairVisitor pairVisitor = new PairVisitor();
+
+    /** Number of entities in the index. */
+    private int size;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity maximum number of entities
+     */
+    AbstractSpatialIndex(int capacity) {
+        super();
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive, was: " + capacity);
+        }
+        this.capacity = capacity;
+        this.minX = new float[capacity];
+        this.minY = new float[capacity];
+        this.maxX = new float[capacity];
+        this.maxY = new float[capacity];
+        this.present = new boolean[capacity];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void insert(int id, float newMinX, float newMinY, float newMaxX, float newMaxY) {
+        if (id < 0 || capacity <= id) {
+            throw new IllegalArgumentException("Entity id out of range: " + id + ", capacity: " + capacity);
+        }
+        if (present[id]) {
+            throw new IllegalArgumentException("Entity already in index: " + id);
+        }
+        setBox(id, newMinX, newMinY, newMaxX, newMaxY);
+        present[id] = true;
+        size++;
+        onInsert(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void update(int id, float newMinX, float newMinY, float newMaxX, float newMaxY) {
+        checkPresent(id);
+        setBox(id, newMinX, newMinY, newMaxX, newMaxY);
+        onUpdate(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void remove(int id) {
+        checkPresent(id);
+        present[id] = false;
+        size--;
+        onRemove(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void clear() {
+        Arrays.fill(present, false);
+        size = 0;
+        onClear();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean contains(int id) {
+        return 0 <= id && id < capacity && present[id];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int queryNearest(float x, float y, float maxDistance) {
+        nearestVisitor.x = x;
+        nearestVisitor.y = y;
+        nearestVisitor.best = -1;
+        nearestVisitor.bestDistanceSquared = maxDistance * maxDistance;
+        queryRange(x - maxDistance, y - maxDistance, x + maxDistance, y + maxDistance, nearestVisitor);
+        return nearestVisitor.best;
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * This implementation performs a range query for each entity.
+     */
+    @Override
+    public void queryPairs(PairConsumer consumer) {
+        pairVisitor.consumer = consumer;
+        for (int id = 0; id != capacity; id++) {
+            if (present[id]) {
+                pairVisitor.first = id;
+                queryRange(minX[id], minY[id], maxX[id], maxY[id], pairVisitor);
+            }
+        }
+        pairVisitor.consumer = null;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public SpatialSnapshot snapshot() {
+        int[] ids = new int[size];
+        int count = 0;
+        for (int id = 0; id != capacity; id++) {
+            if (present[id]) {
+                ids[count] = id;
+                count++;
+            }
+        }
+        return new SpatialSnapshot(ids, minX, minY, maxX, maxY);
+    }
+
+    /**
+     * Called after an entity has been added.
+     * 
+     * @param id entity id; its bounding box has been stored already
+     */
+    abstract void onInsert(int id);
+
+    /**
+     * Called after an entity has been moved.
+     * 
+     * @param id entity id; its new bounding box has been stored already
+     */
+    abstract void onUpdate(int id);
+
+    /**
+     * Called after an entity has been removed.
+     * 
+     * @param id entity id
+     */
+    abstract void onRemove(int id);
+
+    /** Called after all entities have been removed. */
+    abstract void onClear();
+
+    /**
+     * Checks whether the bounding box of the given entity overlaps the given box.
+     * 
+     * @param id entity id
+     * @param queryMinX minimum x coordinate of the query box
+     * @param queryMinY minimum y coordinate of the query box
+     * @param queryMaxX maximum x coordinate of the query box
+     * @param queryMaxY maximum y coordinate of the query box
+     * @return whether the boxes overlap
+     */
+    final boolean overlaps(int id, float queryMinX, float queryMinY, float queryMaxX, float queryMaxY) {
+        return minX[id] <= queryMaxX && queryMinX <= maxX[id] && minY[id] <= queryMaxY && queryMinY <= maxY[id];
+    }
+
+    /**
+     * Computes the squared distance between a point and a box.
+     * 
+     * @param x x coordinate of the point
+     * @param y y coordinate of the point
+     * @param boxMinX minimum x coordinate of the box
+     * @param boxMinY minimum y coordinate of the box
+     * @param boxMaxX maximum x coordinate of the box
+     * @param boxMaxY maximum y coordinate of the box
+     * @return squared distance; 0 if the point lies within the box
+     */
+    static float distanceSquared(float x, float y, float boxMinX, float boxMinY, float boxMaxX, float boxMaxY) {
+        float dx = Math.max(0f, Math.max(boxMinX - x, x - boxMaxX));
+        float dy = Math.max(0f, Math.max(boxMinY - y, y - boxMaxY));
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Stores the bounding box of an entity.
+     * 
+     * @param id entity id
+     * @param newMinX minimum x coordinate
+     * @param newMinY minimum y coordinate
+     * @param newMaxX maximum x coordinate
+     * @param newMaxY maximum y coordinate
+     */
+    private void setBox(int id, float newMinX, float newMinY, float newMaxX, float newMaxY) {
+        // Note that these comparisons are false for NaN as well.
+        if (!(newMinX <= newMaxX && newMinY <= newMaxY)) {
+            throw new IllegalArgumentException("Invalid bounding box: (" + newMinX + ", " + newMinY + ") - ("
+                    + newMaxX + ", " + newMaxY + ")");
+        }
+        minX[id] = newMinX;
+        minY[id] = newMinY;
+        maxX[id] = newMaxX;
+        maxY[id] = newMaxY;
+    }
+
+    /**
+     * Checks that the given entity is in the index.
+     * 
+     * @param id entity id
+     * @throws IllegalArgumentException if the entity is not in the index
+     */
+    private void checkPresent(int id) {
+        if (!contains(id)) {
+            throw new IllegalArgumentException("No such entity: " + id);
+        }
+    }
+
+    /** Range query callback which keeps track of the entity closest to a point. */
+    private class NearestVisitor implements IntConsumer {
+        /** X coordinate of the point. */
+        private float x;
+        /** Y coordinate of the point. */
+        private float y;
+        /** Closest entity so far; -1 if none. */
+        private int best;
+        /** Squared distance to the closest entity so far, or the maximum distance if none. */
+        private float bestDistanceSquared;
+
+        /** {@inheritDoc} */
+        @Override
+        public void accept(int id) {
+            float distanceSquared = distanceSquared(x, y, minX[id], minY[id], maxX[id], maxY[id]);
+            if (distanceSquared < bestDistanceSquared
+                    || distanceSquared == bestDistanceSquared && (best < 0 || id < best)) {
+                best = id;
+                bestDistanceSquared = distanceSquared;
+            }
+        }
+    }
+
+    /** Range query callback which reports each pair once, by only reporting entities with a higher id. */
+    private static class PairVisitor implements IntConsumer {
+        /** Entity whose box is being queried. */
+        private int first;
+        /** Consumer for the pairs. */
+        private PairConsumer consumer;
+
+        /** {@inheritDoc} */
+        @Override
+        public void accept(int id) {
+            if (first < id) {
+                consumer.accept(first, id);
+            }
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package nl.mvdr.game.spatial;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import lombok.ToString;
+
+/**
+ * Spatial index based on a loose quadtree over a square game world.
+ * 
+ * The nodes of a loose quadtree have bounds which are twice the size of the regular quadtree cell: each node's loose
+ * bounds extend by half its cell size on every side. An entity is stored in the deepest node whose cell contains the
+ * centre of the entity's bounding box and whose size is at least that of the entity; the entity is then guaranteed to
+ * lie within the node's loose bounds. As a result, each entity is stored in exactly one node, which is determined by
+ * its own position and size only, so moving an entity never requires restructuring the tree.
+ * 
+ * The tree is complete up to the maximum depth and stored in flat arrays, with the entities of each node in an
+ * intrusive linked list, so that updates do not allocate any memory. Each node keeps track of the number of entities in its
+ * subtree, so that queries can skip empty branches. Entities which lie outside the world, or are larger than the world,
+ * are stored in the root node.
+ * 
+ * Works well for entities of widely varying sizes and for worlds with large empty areas.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "originX", "originY", "worldSize", "maxDepth" })
+public class LooseQuadtree extends AbstractSpatialIndex {
+    /** Highest supported maximum depth. */
+    private static final int MAX_SUPPORTED_DEPTH = 12;
+
+    /** Minimum x coordinate of the world. */
+    private final double originX;
+    /** Minimum y coordinate of the world. */
+    private final double originY;
+    /** Width and height of the world. */
+    private final double worldSize;
+    /** Depth of the deepest nodes; the root node has depth 0. */
+    private final int maxDepth;
+    /** Index of the first node at each depth. */
+    private final int[] levelOffsets;
+    /** First entity in each node; -1 if the node contains no entities itself. */
+    private final int[] nodeHeads;
+    /** Number of entities in each node's subtree, including the node itself. */
+    private final int[] subtreeCounts;
+    /** Next entity in the same node, indexed by entity id; -1 for the last entity in a node. */
+    private final int[] next;
+    /** Previous entity in the same node, indexed by entity id; -1 for the first entity in a node. */
+    private final int[] previous;
+    /** Node containing each entity, indexed by entity id. */
+    private final int[] nodes;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity maximum number of entities
+     * @param originX minimum x coordinate of the world
+     * @param originY minimum y coordinate of the world
+     * @param worldSize width and height of the world
+     * @param maxDepth depth of the deepest nodes, at most 12; the deepest nodes have a cell size of
+     *            {@code worldSize / 2^maxDepth}
+     */
+    public LooseQuadtree(int capacity, float originX, float originY, float worldSize, int maxDepth) {
+        super(capacity);
+        if (!(0f < worldSize)) {
+            throw new IllegalArgumentException("World size must be positive, was: " + worldSize);
+        }
+        if (maxDepth < 0 || MAX_SUPPORTED_DEPTH < maxDepth) {
+            throw new IllegalArgumentException("Maximum depth must be between 0 and " + MAX_SUPPORTED_DEPTH
+                    + ", was: " + maxDepth);
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.worldSize = worldSize;
+        this.maxDepth = maxDepth;
+        this.levelOffsets = new int[maxDepth + 2];
+        for (int level = 0; level <= maxDepth; level++) {
+            levelOffsets[level + 1] = levelOffsets[level] + (1 << 2 * level);
+        }
+        this.nodeHeads = new int[levelOffsets[maxDepth + 1]];
+        this.subtreeCounts = new int[nodeHeads.length];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.nodes = new int[capacity];
+        Arrays.fill(nodeHeads, -1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onInsert(int id) {
+        link(id, nodeFor(id));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onUpdate(int id) {
+        int node = nodeFor(id);
+        if (node != nodes[id]) {
+            unlink(id);
+            link(id, node);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onRemove(int id) {
+        unlink(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onClear() {
+        Arrays.fill(nodeHeads, -1);
+        Arrays.fill(subtreeCounts, 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void queryRange(float queryMinX, float queryMinY, float queryMaxX, float queryMaxY, IntConsumer consumer) {
+        visit(0, 0, 0, queryMinX, queryMinY, queryMaxX, queryMaxY, consumer);
+    }
+
+    /**
+     * Reports the entities in the given node and its subtree which overlap the query box.
+     * 
+     * @param level depth of the node
+     * @param column column of the node, at its depth
+     * @param row row of the node, at its depth
+     * @param queryMinX minimum x coordinate of the query box
+     * @param queryMinY minimum y coordinate of the query box
+     * @param queryMaxX maximum x coordinate of the query box
+     * @param queryMaxY maximum y coordinate of the query box
+     * @param consumer receives the id of each overlapping entity
+     */
+    private void visit(int level, int column, int row, float queryMinX, float queryMinY, float queryMaxX,
+            float queryMaxY, IntConsumer consumer) {
+        int node = nodeIndex(level, column, row);
+        if (subtreeCounts[node] != 0 && (level == 0 || looseBoundsOverlap(level, column, row, queryMinX, queryMinY,
+                queryMaxX, queryMaxY))) {
+            for (int id = nodeHeads[node]; id != -1; id = next[id]) {
+                if (overlaps(id, queryMinX, queryMinY, queryMaxX, queryMaxY)) {
+                    consumer.accept(id);
+                }
+            }
+            if (level < maxDepth) {
+                int childColumn = column << 1;
+                int childRow = row << 1;
+                visit(level + 1, childColumn, childRow, queryMinX, queryMinY, queryMaxX, queryMaxY, consumer);
+                visit(level + 1, childColumn + 1, childRow, queryMinX, queryMinY, queryMaxX, queryMaxY, consumer);
+                visit(level + 1, childColumn, childRow + 1, queryMinX, queryMinY, queryMaxX, queryMaxY, consumer);
+                visit(level + 1, childColumn + 1, childRow + 1, queryMinX, queryMinY, queryMaxX, queryMaxY,
+                        consumer);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the loose bounds of a node overlap the query box. The root node's loose bounds are unlimited.
+     * 
+     * @param level depth of the node, greater than 0
+     * @param column column of the node, at its depth
+     * @param row row of the node, at its depth
+     * @param queryMinX minimum x coordinate of the query box
+     * @param queryMinY minimum y coordinate of the query box
+     * @param queryMaxX maximum x coordinate of the query box
+     * @param queryMaxY maximum y coordinate of the query box
+     * @return whether the boxes overlap
+     */
+    private boolean looseBoundsOverlap(int level, int column, int row, float queryMinX, float queryMinY,
+            float queryMaxX, float queryMaxY) {
+        double cellSize = cellSize(level);
+        double looseMinX = originX + (column - .5) * cellSize;
+        double looseMinY = originY + (row - .5) * cellSize;
+        double looseMaxX = originX + (column + 1.5) * cellSize;
+        double looseMaxY = originY + (row + 1.5) * cellSize;
+        return looseMinX <= queryMaxX && queryMinX <= looseMaxX && looseMinY <= queryMaxY && queryMinY <= looseMaxY;
+    }
+
+    /**
+     * Determines the node for an entity.
+     * 
+     * @param id entity id
+     * @return node index
+     */
+    private int nodeFor(int id) {
+        // Computed in double precision, where these values are exact for any realistic coordinates.
+        double extent = Math.max((double) maxX[id] - minX[id], (double) maxY[id] - minY[id]);
+        double centreX = ((double) minX[id] + maxX[id]) / 2.0 - originX;
+        double centreY = ((double) minY[id] + maxY[id]) / 2.0 - originY;
+
+        int result;
+        if (0.0 <= centreX && centreX < worldSize && 0.0 <= centreY && centreY < worldSize) {
+            int level = 0;
+            while (level < maxDepth && extent <= cellSize(level + 1)) {
+                level++;
+            }
+            double cellSize = cellSize(level);
+            int count = 1 << level;
+            int column = Math.min(count - 1, (int) (centreX / cellSize));
+            int row = Math.min(count - 1, (int) (centreY / cellSize));
+            result = nodeIndex(level, column, row);
+        } else {
+            // Outside of the world: store in the root node.
+            result = 0;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the index of a node in the flat arrays.
+     * 
+     * @param level depth of the node
+     * @param column column of the node, at its depth
+     * @param row row of the node, at its depth
+     * @return node index
+     */
+    private int nodeIndex(int level, int column, int row) {
+        return levelOffsets[level] + (row << level) + column;
+    }
+
+    /**
+     * Computes the size of the cells at the given depth.
+     * 
+     * @param level depth
+     * @return cell size
+     */
+    private double cellSize(int level) {
+        return worldSize / (1 << level);
+    }
+
+    /**
+     * Adds an entity to the front of a node's list, and updates the subtree counts.
+     * 
+     * @param id entity id
+     * @param node node index
+     */
+    private void link(int id, int node) {
+        int head = nodeHeads[node];
+        next[id] = head;
+        previous[id] = -1;
+        if (head != -1) {
+            previous[head] = id;
+        }
+        nodeHeads[node] = id;
+        nodes[id] = node;
+        updateSubtreeCounts(node, 1);
+    }
+
+    /**
+     * Removes an entity from its node's list, and updates the subtree counts.
+     * 
+     * @param id entity id
+     */
+    private void unlink(int id) {
+        if (previous[id] == -1) {
+            nodeHeads[nodes[id]] = next[id];
+        } else {
+            next[previous[id]] = next[id];
+        }
+        if (next[id] != -1) {
+            previous[next[id]] = previous[id];
+        }
+        updateSubtreeCounts(nodes[id], -1);
+    }
+
+    /**
+     * Adds the given value to the subtree counts of a node and all of its ancestors.
+     * 
+     * @param node node index
+     * @param delta value to be added
+     */
+    private void updateSubtreeCounts(int node, int delta) {
+        int level = 0;
+        while (levelOffsets[level + 1] <= node) {
+            level++;
+        }
+        int column = (node - levelOffsets[level]) & ((1 << level) - 1);
+        int row = (node - levelOffsets[level]) >> level;
+        for (int ancestor = level; 0 <= ancestor; ancestor--) {
+            int shift = level - ancestor;
+            subtreeCounts[nodeIndex(ancestor, column >> shift, row >> shift)] += delta;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package nl.mvdr.game.spatial;
+
+/**
+ * Receives pairs of entities whose bounding boxes overlap.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@FunctionalInterface
+public interface PairConsumer {
+    /**
+     * Receives a pair of overlapping entities.
+     * 
+     * @param first id of one entity
+     * @param second id of the other entity
+     */
+    void accept(int first, int second);
+}
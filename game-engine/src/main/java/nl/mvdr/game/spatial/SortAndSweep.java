@@ -0,0 +1,251 @@
+package nl.mvdr.game.spatial;
+
+import java.util.function.IntConsumer;
+
+import lombok.ToString;
+
+/**
+ * Sort-and-sweep (also known as sweep-and-prune) broad phase: the entities are kept sorted by the minimum x coordinate
+ * of their bounding boxes, and queries sweep along the x axis.
+ * 
+ * Changes are applied lazily, on the next query. Since entities typically move only a little between updates, the
+ * order stays nearly sorted, and is restored using an insertion sort, in close to linear time. When many entities have
+ * been added since the previous query, the order is rebuilt using a heap sort instead. Neither allocates any memory.
+ * 
+ * Works best when the entities are spread out along the x axis. Unlike the other indices, it does not need to know the
+ * size of the game world in advance.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "capacity", "orderSize" })
+public class SortAndSweep extends AbstractSpatialIndex {
+    /** Entity ids, sorted by minimum x coordinate once {@link #dirty} is false. May contain removed entities. */
+    private final int[] order;
+    /** Whether each entity is in {@link #order}, indexed by entity id. */
+    private final boolean[] inOrder;
+    /** Buffer for sort keys, used when rebuilding the order. */
+    private final long[] keys;
+
+    /** Number of elements in {@link #order}. */
+    private int orderSize;
+    /** Number of entities which have been added to the order since it was last sorted. */
+    private int insertedSinceSort;
+    /** Whether the order needs to be sorted before the next query. */
+    private boolean dirty;
+    /** Width of the widest bounding box, as of the last sort. */
+    private float maxWidth;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity maximum number of entities
+     */
+    public SortAndSweep(int capacity) {
+        super(capacity);
+        this.order = new int[capacity];
+        this.inOrder = new boolean[capacity];
+        this.keys = new long[capacity];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onInsert(int id) {
+        if (!inOrder[id]) {
+            inOrder[id] = true;
+            order[orderSize] = id;
+            orderSize++;
+            insertedSinceSort++;
+        }
+        dirty = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onUpdate(int id) {
+        dirty = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onRemove(int id) {
+        // Removed from the order on the next sort.
+        dirty = true;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onClear() {
+        for (int i = 0; i != orderSize; i++) {
+            inOrder[order[i]] = false;
+        }
+        orderSize = 0;
+        insertedSinceSort = 0;
+        dirty = false;
+        maxWidth = 0f;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void queryRange(float queryMinX, float queryMinY, float queryMaxX, float queryMaxY, IntConsumer consumer) {
+        sort();
+        for (int i = firstCandidate(queryMinX); i != orderSize && minX[order[i]] <= queryMaxX; i++) {
+            int id = order[i];
+            if (queryMinX <= maxX[id] && minY[id] <= queryMaxY && queryMinY <= maxY[id]) {
+                consumer.accept(id);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * 
+     * This implementation sweeps through the sorted entities once.
+     */
+    @Override
+    public void queryPairs(PairConsumer consumer) {
+        sort();
+        for (int i = 0; i != orderSize; i++) {
+            int first = order[i];
+            for (int j = i + 1; j != orderSize && minX[order[j]] <= maxX[first]; j++) {
+                int second = order[j];
+                if (minY[second] <= maxY[first] && minY[first] <= maxY[second]) {
+                    consumer.accept(first, second);
+                }
+            }
+        }
+    }
+
+    /** Removes deleted entities from the order and sorts it, unless nothing has changed since the last sort. */
+    private void sort() {
+        if (dirty) {
+            // Compact the order, and determine the widest box.
+            int size = 0;
+            float widest = 0f;
+            for (int i = 0; i != orderSize; i++) {
+                int id = order[i];
+                if (contains(id)) {
+                    order[size] = id;
+                    size++;
+                    widest = Math.max(widest, maxX[id] - minX[id]);
+                } else {
+                    inOrder[id] = false;
+                }
+            }
+            orderSize = size;
+            maxWidth = widest;
+
+            if (orderSize / 8 < insertedSinceSort) {
+                rebuild();
+            } else {
+                insertionSort();
+            }
+            insertedSinceSort = 0;
+            dirty = false;
+        }
+    }
+
+    /** Sorts the order using an insertion sort, which is fast if the order is nearly sorted already. */
+    private void insertionSort() {
+        for (int i = 1; i < orderSize; i++) {
+            int id = order[i];
+            float key = minX[id];
+            int j = i - 1;
+            while (0 <= j && key < minX[order[j]]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = id;
+        }
+    }
+
+    /** Sorts the order from scratch, using a heap sort on the sort keys. */
+    private void rebuild() {
+        for (int i = 0; i != orderSize; i++) {
+            keys[i] = sortKey(minX[order[i]], order[i]);
+        }
+        heapSort(keys, orderSize);
+        for (int i = 0; i != orderSize; i++) {
+            order[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Determines where to start sweeping for boxes which may reach the given x coordinate.
+     * 
+     * @param x x coordinate
+     * @return index in the order of the first box whose minimum x coordinate is at least {@code x - maxWidth}
+     */
+    private int firstCandidate(float x) {
+        float bound = x - maxWidth;
+        int low = 0;
+        int high = orderSize;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (minX[order[middle]] < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Creates a key for sorting entities by coordinate, with ties broken by id. Keys compare (as signed longs) in the
+     * same order as the coordinates; the id can be retrieved by casting the key to an int.
+     * 
+     * @param coordinate coordinate, not NaN
+     * @param id entity id, not negative
+     * @return sort key
+     */
+    static long sortKey(float coordinate, int id) {
+        int bits = Float.floatToIntBits(coordinate);
+        // Flip the magnitude bits of negative values, so that they compare in the right order as ints.
+        int sortableBits = bits < 0 ? bits ^ Integer.MAX_VALUE : bits;
+        return (long) sortableBits << Integer.SIZE | id;
+    }
+
+    /**
+     * Sorts the first elements of the given array in ascending order, in place.
+     * 
+     * @param values values to be sorted
+     * @param length number of elements to be sorted
+     */
+    private static void heapSort(long[] values, int length) {
+        for (int i = length / 2 - 1; 0 <= i; i--) {
+            siftDown(values, i, length);
+        }
+        for (int end = length - 1; 0 < end; end--) {
+            long largest = values[0];
+            values[0] = values[end];
+            values[end] = largest;
+            siftDown(values, 0, end);
+        }
+    }
+
+    /**
+     * Restores the max-heap property for the subtree rooted at the given index.
+     * 
+     * @param values heap
+     * @param root index of the root of the subtree
+     * @param length number of elements in the heap
+     */
+    private static void siftDown(long[] values, int root, int length) {
+        int parent = root;
+        long value = values[parent];
+        int child = 2 * parent + 1;
+        while (child < length) {
+            if (child + 1 < length && values[child] < values[child + 1]) {
+                child++;
+            }
+            if (value < values[child]) {
+                values[parent] = values[child];
+                parent = child;
+                child = 2 * parent + 1;
+            } else {
+                child = length;
+            }
+        }
+        values[parent] = value;
+    }
+}
@@ -0,0 +1,93 @@
+package nl.mvdr.game.spatial;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Spatial index over the axis-aligned bounding boxes of a number of entities, for broad-phase collision detection and
+ * proximity queries.
+ * 
+ * Entities are identified by an id in the range {@code [0, capacity)}, such as those handed out by an
+ * {@link nl.mvdr.game.ecs.EntityTable}. Boxes are inclusive: two boxes which touch are considered to overlap.
+ * 
+ * The index is meant to be kept up to date incrementally: after each update of the game state, call
+ * {@link #update(int, float, float, float, float)} for the entities which have moved. Queries do not allocate any
+ * memory; results are passed to a callback, which must not modify the index. Implementations are not thread-safe; to
+ * share the current contents of the index with another thread, such as a renderer, take a {@link #snapshot()}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public interface SpatialIndex {
+    /**
+     * Adds an entity.
+     * 
+     * @param id entity id, which is not in the index yet
+     * @param minX minimum x coordinate of the entity's bounding box
+     * @param minY minimum y coordinate of the entity's bounding box
+     * @param maxX maximum x coordinate of the entity's bounding box
+     * @param maxY maximum y coordinate of the entity's bounding box
+     */
+    void insert(int id, float minX, float minY, float maxX, float maxY);
+
+    /**
+     * Moves an entity.
+     * 
+     * @param id id of an entity in the index
+     * @param minX new minimum x coordinate of the entity's bounding box
+     * @param minY new minimum y coordinate of the entity's bounding box
+     * @param maxX new maximum x coordinate of the entity's bounding box
+     * @param maxY new maximum y coordinate of the entity's bounding box
+     */
+    void update(int id, float minX, float minY, float maxX, float maxY);
+
+    /**
+     * Removes an entity.
+     * 
+     * @param id id of an entity in the index
+     */
+    void remove(int id);
+
+    /** Removes all entities. */
+    void clear();
+
+    /**
+     * Checks whether the given entity is in the index.
+     * 
+     * @param id entity id
+     * @return whether the index contains the entity
+     */
+    boolean contains(int id);
+
+    /** @return number of entities in the index */
+    int size();
+
+    /**
+     * Finds all entities whose bounding boxes overlap the given box.
+     * 
+     * @param minX minimum x coordinate of the query box
+     * @param minY minimum y coordinate of the query box
+     * @param maxX maximum x coordinate of the query box
+     * @param maxY maximum y coordinate of the query box
+     * @param consumer receives the id of each overlapping entity, once
+     */
+    void queryRange(float minX, float minY, float maxX, float maxY, IntConsumer consumer);
+
+    /**
+     * Finds the entity whose bounding box is closest to the given point.
+     * 
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param maxDistance maximum distance between the point and the entity's bounding box
+     * @return id of the closest entity, or -1 if there is no entity within the maximum distance
+     */
+    int queryNearest(float x, float y, float maxDistance);
+
+    /**
+     * Finds all pairs of entities whose bounding boxes overlap.
+     * 
+     * @param consumer receives each overlapping pair, once
+     */
+    void queryPairs(PairConsumer consumer);
+
+    /** @return immutable copy of the current contents of this index */
+    SpatialSnapshot snapshot();
+}
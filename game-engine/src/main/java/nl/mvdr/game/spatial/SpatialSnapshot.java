@@ -0,0 +1,147 @@
+package nl.mvdr.game.spatial;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import lombok.ToString;
+
+/**
+ * Immutable copy of the contents of a {@link SpatialIndex}, which can safely be shared with other threads, such as a
+ * renderer.
+ * 
+ * The bounding boxes are stored sorted by their minimum x coordinate, and queried by sweeping along the x axis. Queries
+ * do not allocate any memory.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = "ids")
+public final class SpatialSnapshot {
+    /** Entity ids, sorted by minimum x coordinate. */
+    private final int[] ids;
+    /** Minimum x coordinate of each bounding box, in ascending order. */
+    private final float[] minX;
+    /** Minimum y coordinate of each bounding box. */
+    private final float[] minY;
+    /** Maximum x coordinate of each bounding box. */
+    private final float[] maxX;
+    /** Maximum y coordinate of each bounding box. */
+    private final float[] maxY;
+    /** Width of the widest bounding box. */
+    private final float maxWidth;
+
+    /**
+     * Constructor.
+     * 
+     * @param entities ids of the entities to be included; this array is sorted in place
+     * @param allMinX minimum x coordinate of each entity's bounding box, indexed by entity id
+     * @param allMinY minimum y coordinate of each entity's bounding box, indexed by entity id
+     * @param allMaxX maximum x coordinate of each entity's bounding box, indexed by entity id
+     * @param allMaxY maximum y coordinate of each entity's bounding box, indexed by entity id
+     */
+    SpatialSnapshot(int[] entities, float[] allMinX, float[] allMinY, float[] allMaxX, float[] allMaxY) {
+        super();
+        int size = entities.length;
+        long[] keys = new long[size];
+        for (int i = 0; i != size; i++) {
+            keys[i] = SortAndSweep.sortKey(allMinX[entities[i]], entities[i]);
+        }
+        Arrays.sort(keys);
+
+        this.ids = entities;
+        this.minX = new float[size];
+        this.minY = new float[size];
+        this.maxX = new float[size];
+        this.maxY = new float[size];
+        float widest = 0f;
+        for (int i = 0; i != size; i++) {
+            int id = (int) keys[i];
+            ids[i] = id;
+            minX[i] = allMinX[id];
+            minY[i] = allMinY[id];
+            maxX[i] = allMaxX[id];
+            maxY[i] = allMaxY[id];
+            widest = Math.max(widest, maxX[i] - minX[i]);
+        }
+        this.maxWidth = widest;
+    }
+
+    /** @return number of entities */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Finds all entities whose bounding boxes overlap the given box.
+     * 
+     * @param queryMinX minimum x coordinate of the query box
+     * @param queryMinY minimum y coordinate of the query box
+     * @param queryMaxX maximum x coordinate of the query box
+     * @param queryMaxY maximum y coordinate of the query box
+     * @param consumer receives the id of each overlapping entity, once
+     */
+    public void queryRange(float queryMinX, float queryMinY, float queryMaxX, float queryMaxY, IntConsumer consumer) {
+        for (int i = firstCandidate(queryMinX); i != ids.length && minX[i] <= queryMaxX; i++) {
+            if (queryMinX <= maxX[i] && minY[i] <= queryMaxY && queryMinY <= maxY[i]) {
+                consumer.accept(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the entity whose bounding box is closest to the given point.
+     * 
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param maxDistance maximum distance between the point and the entity's bounding box
+     * @return id of the closest entity, or -1 if there is no entity within the maximum distance
+     */
+    public int queryNearest(float x, float y, float maxDistance) {
+        int result = -1;
+        float bestDistanceSquared = maxDistance * maxDistance;
+        for (int i = firstCandidate(x - maxDistance); i != ids.length && minX[i] <= x + maxDistance; i++) {
+            float distanceSquared = AbstractSpatialIndex.distanceSquared(x, y, minX[i], minY[i], maxX[i], maxY[i]);
+            if (distanceSquared < bestDistanceSquared
+                    || distanceSquared == bestDistanceSquared && (result < 0 || ids[i] < result)) {
+                result = ids[i];
+                bestDistanceSquared = distanceSquared;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds all pairs of entities whose bounding boxes overlap.
+     * 
+     * @param consumer receives each overlapping pair, once
+     */
+    public void queryPairs(PairConsumer consumer) {
+        for (int i = 0; i != ids.length; i++) {
+            for (int j = i + 1; j != ids.length && minX[j] <= maxX[i]; j++) {
+                if (minY[j] <= maxY[i] && minY[i] <= maxY[j]) {
+                    consumer.accept(ids[i], ids[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines where to start sweeping for boxes which may reach the given x coordinate.
+     * 
+     * @param x x coordinate
+     * @return index of the first box whose minimum x coordinate is at least {@code x - maxWidth}
+     */
+    private int firstCandidate(float x) {
+        float bound = x - maxWidth;
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (minX[middle] < bound) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,212 @@
+package nl.mvdr.game.spatial;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import lombok.ToString;
+
+/**
+ * Spatial index which divides the game world into a uniform grid of square cells.
+ * 
+ * Each entity is stored in the cell containing the centre of its bounding box, in an intrusive linked list, so that
+ * moving an entity to another cell takes constant time and does not allocate any memory. Range queries visit the cells
+ * overlapping the query box, extended by half the size of the largest entity. Entities outside the grid are stored in
+ * the nearest edge cell.
+ * 
+ * Works best for entities of similar sizes, with the cell size in the order of the typical entity size or query range.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@ToString(of = { "originX", "originY", "cellSize", "columns", "rows" })
+public class UniformGrid extends AbstractSpatialIndex {
+    /** Minimum x coordinate of the grid. */
+    private final float originX;
+    /** Minimum y coordinate of the grid. */
+    private final float originY;
+    /** Width and height of each cell. */
+    private final float cellSize;
+    /** Number of columns. */
+    private final int columns;
+    /** Number of rows. */
+    private final int rows;
+    /** First entity in each cell; -1 if the cell is empty. Indexed by {@code row * columns + column}. */
+    private final int[] cellHeads;
+    /** Next entity in the same cell, indexed by entity id; -1 for the last entity in a cell. */
+    private final int[] next;
+    /** Previous entity in the same cell, indexed by entity id; -1 for the first entity in a cell. */
+    private final int[] previous;
+    /** Cell containing each entity, indexed by entity id. */
+    private final int[] cells;
+
+    // Entity sizes and centres are computed in double precision, where they are exact for any realistic coordinates, so
+    // that rounding errors cannot cause an entity's cell to fall outside of the range of cells visited by a query.
+
+    /** Half the width of the widest entity added since the grid was last cleared. */
+    private double maxHalfWidth;
+    /** Half the height of the tallest entity added since the grid was last cleared. */
+    private double maxHalfHeight;
+
+    /**
+     * Constructor.
+     * 
+     * @param capacity maximum number of entities
+     * @param originX minimum x coordinate of the grid
+     * @param originY minimum y coordinate of the grid
+     * @param cellSize width and height of each cell
+     * @param columns number of columns
+     * @param rows number of rows
+     */
+    public UniformGrid(int capacity, float originX, float originY, float cellSize, int columns, int rows) {
+        super(capacity);
+        if (!(0f < cellSize)) {
+            throw new IllegalArgumentException("Cell size must be positive, was: " + cellSize);
+        }
+        if (columns <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive, were: " + columns + " x " + rows);
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellHeads = new int[Math.multiplyExact(columns, rows)];
+        this.next = new int[capacity];
+        this.previous = new int[capacity];
+        this.cells = new int[capacity];
+        Arrays.fill(cellHeads, -1);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onInsert(int id) {
+        updateExtent(id);
+        link(id, cellOf(id));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onUpdate(int id) {
+        updateExtent(id);
+        int cell = cellOf(id);
+        if (cell != cells[id]) {
+            unlink(id);
+            link(id, cell);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onRemove(int id) {
+        unlink(id);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void onClear() {
+        Arrays.fill(cellHeads, -1);
+        maxHalfWidth = 0.0;
+        maxHalfHeight = 0.0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void queryRange(float queryMinX, float queryMinY, float queryMaxX, float queryMaxY, IntConsumer consumer) {
+        int firstColumn = column(queryMinX - maxHalfWidth);
+        int lastColumn = column(queryMaxX + maxHalfWidth);
+        int firstRow = row(queryMinY - maxHalfHeight);
+        int lastRow = row(queryMaxY + maxHalfHeight);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                for (int id = cellHeads[row * columns + column]; id != -1; id = next[id]) {
+                    if (overlaps(id, queryMinX, queryMinY, queryMaxX, queryMaxY)) {
+                        consumer.accept(id);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps track of the largest entity size.
+     * 
+     * @param id entity id
+     */
+    private void updateExtent(int id) {
+        maxHalfWidth = Math.max(maxHalfWidth, ((double) maxX[id] - minX[id]) / 2.0);
+        maxHalfHeight = Math.max(maxHalfHeight, ((double) maxY[id] - minY[id]) / 2.0);
+    }
+
+    /**
+     * Determines the cell for an entity.
+     * 
+     * @param id entity id
+     * @return index of the cell containing the centre of the entity's bounding box
+     */
+    private int cellOf(int id) {
+        return row(((double) minY[id] + maxY[id]) / 2.0) * columns + column(((double) minX[id] + maxX[id]) / 2.0);
+    }
+
+    /**
+     * Determines the column containing the given x coordinate.
+     * 
+     * @param x x coordinate
+     * @return column, clamped to the grid
+     */
+    private int column(double x) {
+        return clamp((int) Math.floor((x - originX) / cellSize), columns);
+    }
+
+    /**
+     * Determines the row containing the given y coordinate.
+     * 
+     * @param y y coordinate
+     * @return row, clamped to the grid
+     */
+    private int row(double y) {
+        return clamp((int) Math.floor((y - originY) / cellSize), rows);
+    }
+
+    /**
+     * Clamps a value to the range {@code [0, count)}.
+     * 
+     * @param value value
+     * @param count upper bound (exclusive)
+     * @return clamped value
+     */
+    private static int clamp(int value, int count) {
+        return Math.max(0, Math.min(count - 1, value));
+    }
+
+    /**
+     * Adds an entity to the front of a cell's list.
+     * 
+     * @param id entity id
+     * @param cell cell index
+     */
+    private void link(int id, int cell) {
+        int head = cellHeads[cell];
+        next[id] = head;
+        previous[id] = -1;
+        if (head != -1) {
+            previous[head] = id;
+        }
+        cellHeads[cell] = id;
+        cells[id] = cell;
+    }
+
+    /**
+     * Removes an entity from its cell's list.
+     * 
+     * @param id entity id
+     */
+    private void unlink(int id) {
+        if (previous[id] == -1) {
+            cellHeads[cells[id]] = next[id];
+        } else {
+            next[previous[id]] = next[id];
+        }
+        if (next[id] != -1) {
+            previous[next[id]] = previous[id];
+        }
+    }
+}
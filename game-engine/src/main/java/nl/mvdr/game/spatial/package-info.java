@@ -0,0 +1,6 @@
+/**
+ * Contains spatial indices for broad-phase collision detection and proximity queries.
+ * 
+ * @author Martijn van de Rijdt
+ */
+package nl.mvdr.game.spatial;
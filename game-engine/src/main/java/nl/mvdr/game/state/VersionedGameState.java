@@ -0,0 +1,20 @@
+package nl.mvdr.game.state;
+
+/**
+ * Game state which carries a version number, allowing renderers to detect whether anything has changed.
+ * 
+ * Implement this interface if game states are mutated in place, or if new state instances are frequently created
+ * without any visible change (for instance in menus or turn-based screens). See
+ * {@link nl.mvdr.game.gui.ChangeDetector}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public interface VersionedGameState extends GameState {
+    /**
+     * Returns the version of this game state. The version must change whenever anything changes that affects
+     * rendering; two states with the same version are rendered identically.
+     * 
+     * @return version
+     */
+    long getVersion();
+}
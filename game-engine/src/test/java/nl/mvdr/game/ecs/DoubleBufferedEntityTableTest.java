@@ -0,0 +1,114 @@
+package nl.mvdr.game.ecs;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link DoubleBufferedEntityTable}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class DoubleBufferedEntityTableTest {
+    /** Column number of the x coordinate. */
+    private static final int X = 0;
+
+    /** Checks that an update works on a copy, and that the front table only changes on commit. */
+    @Test
+    public void testUpdate() {
+        DoubleBufferedEntityTable tables = new DoubleBufferedEntityTable(4, 1, 0);
+        EntityTable initial = tables.getFront();
+        int entity = initial.create();
+        initial.setFloat(entity, X, 1f);
+
+        EntityTable next = tables.beginUpdate(initial, 0L);
+        next.setFloat(entity, X, next.getFloat(entity, X) + 1f);
+        int created = next.create();
+
+        Assert.assertNotSame(initial, next);
+        Assert.assertEquals(1f, tables.getFront().getFloat(entity, X), 0f);
+        Assert.assertFalse(tables.getFront().contains(created));
+        Assert.assertEquals(0L, tables.getVersion());
+
+        tables.commit();
+
+        Assert.assertSame(next, tables.getFront());
+        Assert.assertEquals(2f, tables.getFront().getFloat(entity, X), 0f);
+        Assert.assertTrue(tables.getFront().contains(created));
+        Assert.assertEquals(1L, tables.getVersion());
+    }
+
+    /** Checks that the tables are recycled. */
+    @Test
+    public void testSwap() {
+        DoubleBufferedEntityTable tables = new DoubleBufferedEntityTable(4, 1, 0);
+        EntityTable first = tables.getFront();
+        first.create();
+
+        tables.beginUpdate(tables.getFront(), tables.getVersion());
+        tables.commit();
+        EntityTable next = tables.beginUpdate(tables.getFront(), tables.getVersion());
+        tables.commit();
+
+        Assert.assertSame(first, next);
+        Assert.assertSame(first, tables.getFront());
+        Assert.assertEquals(1, tables.getFront().size());
+        Assert.assertEquals(2L, tables.getVersion());
+    }
+
+    /** Test case for {@link DoubleBufferedEntityTable#rollback()}. */
+    @Test
+    public void testRollback() {
+        DoubleBufferedEntityTable tables = new DoubleBufferedEntityTable(4, 1, 0);
+        EntityTable front = tables.getFront();
+
+        tables.beginUpdate(tables.getFront(), tables.getVersion()).create();
+        tables.rollback();
+
+        Assert.assertSame(front, tables.getFront());
+        Assert.assertEquals(0, tables.getFront().size());
+        Assert.assertEquals(0, tables.beginUpdate(tables.getFront(), tables.getVersion()).size());
+    }
+
+    /**
+     * Test case for starting an update from a state which is no longer the latest one. The state is two commits old,
+     * so its table is the front table again.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBeginFromOutdatedState() {
+        DoubleBufferedEntityTable tables = new DoubleBufferedEntityTable(4, 1, 0);
+        EntityTable outdated = tables.getFront();
+        tables.beginUpdate(outdated, 0L);
+        tables.commit();
+        tables.beginUpdate(tables.getFront(), 1L);
+        tables.commit();
+        Assert.assertSame(outdated, tables.getFront());
+
+        tables.beginUpdate(outdated, 0L);
+    }
+
+    /** Test case for starting an update from the table of the previous state. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testBeginFromPreviousTable() {
+        DoubleBufferedEntityTable tables = new DoubleBufferedEntityTable(4, 1, 0);
+        EntityTable outdated = tables.getFront();
+        tables.beginUpdate(outdated, 0L);
+        tables.commit();
+
+        tables.beginUpdate(outdated, 1L);
+    }
+
+    /** Test case for starting an update while one is already in progress. */
+    @Test(expected = IllegalStateException.class)
+    public void testBeginTwice() {
+        DoubleBufferedEntityTable tables = new DoubleBufferedEntityTable(4, 1, 0);
+        tables.beginUpdate(tables.getFront(), tables.getVersion());
+
+        tables.beginUpdate(tables.getFront(), tables.getVersion());
+    }
+
+    /** Test case for committing without an update in progress. */
+    @Test(expected = IllegalStateException.class)
+    public void testCommitWithoutUpdate() {
+        new DoubleBufferedEntityTable(4, 1, 0).commit();
+    }
+}
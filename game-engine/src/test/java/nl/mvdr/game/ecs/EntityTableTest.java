@@ -0,0 +1,154 @@
+package nl.mvdr.game.ecs;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link EntityTable}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class EntityTableTest {
+    /** Column number of the x coordinate. */
+    private static final int X = 0;
+    /** Column number of the y coordinate. */
+    private static final int Y = 1;
+    /** Column number of the hit points. */
+    private static final int HP = 0;
+
+    /** Test case for creating entities and setting their components. */
+    @Test
+    public void testCreate() {
+        EntityTable table = new EntityTable(4, 2, 1);
+
+        int first = table.create();
+        int second = table.create();
+        table.setFloat(first, X, 1f);
+        table.setFloat(second, Y, 2f);
+        table.setInt(second, HP, 3);
+
+        Assert.assertEquals(2, table.size());
+        Assert.assertNotEquals(first, second);
+        Assert.assertTrue(table.contains(first));
+        Assert.assertTrue(table.contains(second));
+        Assert.assertEquals(1f, table.getFloat(first, X), 0f);
+        Assert.assertEquals(0f, table.getFloat(first, Y), 0f);
+        Assert.assertEquals(2f, table.getFloat(second, Y), 0f);
+        Assert.assertEquals(3, table.getInt(second, HP));
+        Assert.assertEquals(2f, table.floatColumn(Y)[table.indexOf(second)], 0f);
+    }
+
+    /** Test case for removing an entity: the last entity fills the gap, so the columns stay dense. */
+    @Test
+    public void testRemove() {
+        EntityTable table = new EntityTable(4, 1, 1);
+        int[] entities = new int[3];
+        for (int i = 0; i != entities.length; i++) {
+            entities[i] = table.create();
+            table.setFloat(entities[i], X, i);
+            table.setInt(entities[i], HP, 10 * i);
+        }
+
+        table.remove(entities[0]);
+
+        Assert.assertEquals(2, table.size());
+        Assert.assertFalse(table.contains(entities[0]));
+        Assert.assertEquals(entities[2], table.entityAt(0));
+        Assert.assertEquals(0, table.indexOf(entities[2]));
+        Assert.assertEquals(2f, table.floatColumn(X)[0], 0f);
+        Assert.assertEquals(1f, table.getFloat(entities[1], X), 0f);
+        Assert.assertEquals(20, table.getInt(entities[2], HP));
+    }
+
+    /** Checks that the ids of removed entities are reused, and that new entities start out with zero components. */
+    @Test
+    public void testReuse() {
+        EntityTable table = new EntityTable(2, 1, 0);
+        int first = table.create();
+        int second = table.create();
+        table.setFloat(second, X, 5f);
+        table.remove(second);
+
+        int third = table.create();
+
+        Assert.assertEquals(second, third);
+        Assert.assertEquals(0f, table.getFloat(third, X), 0f);
+        Assert.assertTrue(table.contains(first));
+    }
+
+    /** Checks that ids stay unique under a mix of creations and removals. */
+    @Test
+    public void testChurn() {
+        EntityTable table = new EntityTable(100, 1, 0);
+        Set<Integer> live = new HashSet<>();
+        for (int i = 0; i != 1000; i++) {
+            if (i % 3 == 2 && !live.isEmpty()) {
+                int entity = live.iterator().next();
+                table.remove(entity);
+                live.remove(Integer.valueOf(entity));
+            } else if (table.size() != table.getCapacity()) {
+                int entity = table.create();
+                Assert.assertTrue(live.add(Integer.valueOf(entity)));
+                table.setFloat(entity, X, entity);
+            }
+        }
+
+        Assert.assertEquals(live.size(), table.size());
+        for (int i = 0; i != table.size(); i++) {
+            int entity = table.entityAt(i);
+            Assert.assertTrue(live.contains(Integer.valueOf(entity)));
+            Assert.assertEquals(entity, table.floatColumn(X)[i], 0f);
+        }
+    }
+
+    /** Test case for {@link EntityTable#copyFrom(EntityTable)}. */
+    @Test
+    public void testCopyFrom() {
+        EntityTable table = new EntityTable(4, 1, 1);
+        int first = table.create();
+        int second = table.create();
+        table.setFloat(second, X, 7f);
+        table.remove(first);
+
+        EntityTable copy = new EntityTable(table);
+        table.setFloat(second, X, 8f);
+
+        Assert.assertEquals(1, copy.size());
+        Assert.assertFalse(copy.contains(first));
+        Assert.assertEquals(7f, copy.getFloat(second, X), 0f);
+        Assert.assertEquals(first, copy.create());
+    }
+
+    /** Test case for copying from a table with a different layout. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCopyFromDifferentLayout() {
+        new EntityTable(4, 1, 1).copyFrom(new EntityTable(4, 2, 1));
+    }
+
+    /** Test case for creating an entity in a full table. */
+    @Test(expected = IllegalStateException.class)
+    public void testFull() {
+        EntityTable table = new EntityTable(1, 1, 0);
+        table.create();
+
+        table.create();
+    }
+
+    /** Test case for removing an entity which does not exist. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveNonExistent() {
+        EntityTable table = new EntityTable(2, 1, 0);
+        table.create();
+
+        table.remove(1);
+    }
+
+    /** Test case for an invalid capacity. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        new EntityTable(0, 1, 0);
+    }
+}
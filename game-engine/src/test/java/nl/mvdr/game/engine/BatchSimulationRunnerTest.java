@@ -0,0 +1,93 @@
+package nl.mvdr.game.engine;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.DummyInputController;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.state.DummyGameState;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link BatchSimulationRunner}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class BatchSimulationRunnerTest {
+    /** Tests that every game in the batch is run and reported exactly once. */
+    @Test
+    public void testRun() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        BatchSimulationRunner<DummyGameState, DummyInput> runner = new BatchSimulationRunner<>(DummyGameEngine::new,
+                gameIndex -> Collections.singletonList(new DummyInputController<>()), 1_000, pool);
+        Map<Integer, BatchSimulationResult<DummyGameState>> results = new ConcurrentHashMap<>();
+
+        runner.run(500, result -> Assert.assertNull(results.put(Integer.valueOf(result.getGameIndex()), result)));
+
+        pool.shutdown();
+        Assert.assertEquals(500, results.size());
+        for (BatchSimulationResult<DummyGameState> result : results.values()) {
+            Assert.assertTrue(result.isSuccessful());
+            Assert.assertEquals(1_000, result.getResult().getTickCount());
+        }
+    }
+
+    /** Tests that a failing game does not affect the other games. */
+    @Test
+    public void testFailure() {
+        BatchSimulationRunner<DummyGameState, DummyInput> runner = new BatchSimulationRunner<>(DummyGameEngine::new,
+                gameIndex -> {
+                    if (gameIndex == 3) {
+                        throw new IllegalStateException("Test exception for game " + gameIndex);
+                    }
+                    return Collections.singletonList(new DummyInputController<>());
+                }, 10);
+        Map<Integer, BatchSimulationResult<DummyGameState>> results = new ConcurrentHashMap<>();
+
+        runner.run(10, result -> results.put(Integer.valueOf(result.getGameIndex()), result));
+
+        Assert.assertEquals(10, results.size());
+        Assert.assertFalse(results.get(Integer.valueOf(3)).isSuccessful());
+        Assert.assertNull(results.get(Integer.valueOf(3)).getResult());
+        Assert.assertTrue(results.get(Integer.valueOf(3)).getFailure() instanceof IllegalStateException);
+        Assert.assertTrue(results.get(Integer.valueOf(4)).isSuccessful());
+    }
+
+    /** Tests that each game gets its own engine, and runs until the game is over. */
+    @Test
+    public void testGameOver() {
+        BatchSimulationRunner<DummyGameState, DummyInput> runner = new BatchSimulationRunner<>(
+                () -> new DummyGameEngine() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public DummyGameState computeNextState(DummyGameState previousState,
+                            List<InputState<DummyInput>> inputStates) {
+                        return DummyGameState.GAME_OVER;
+                    }
+                }, gameIndex -> Collections.singletonList(new DummyInputController<>()), Long.MAX_VALUE);
+        Map<Integer, BatchSimulationResult<DummyGameState>> results = new ConcurrentHashMap<>();
+
+        runner.run(20, result -> results.put(Integer.valueOf(result.getGameIndex()), result));
+
+        Assert.assertEquals(20, results.size());
+        for (BatchSimulationResult<DummyGameState> result : results.values()) {
+            Assert.assertEquals(1, result.getResult().getTickCount());
+            Assert.assertSame(DummyGameState.GAME_OVER, result.getResult().getFinalState());
+        }
+    }
+
+    /** Tests running an empty batch. */
+    @Test
+    public void testEmptyBatch() {
+        BatchSimulationRunner<DummyGameState, DummyInput> runner = new BatchSimulationRunner<>(DummyGameEngine::new,
+                gameIndex -> Collections.singletonList(new DummyInputController<>()), 10);
+
+        runner.run(0, result -> Assert.fail());
+    }
+}
@@ -0,0 +1,14 @@
+package nl.mvdr.game.engine;
+
+/**
+ * Test class for {@link BusySpinPacingStrategy}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class BusySpinPacingStrategyTest extends PacingStrategyTest {
+    /** {@inheritDoc} */
+    @Override
+    PacingStrategy createStrategy() {
+        return new BusySpinPacingStrategy();
+    }
+}
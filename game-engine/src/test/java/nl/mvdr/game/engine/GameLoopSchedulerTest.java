@@ -0,0 +1,177 @@
+package nl.mvdr.game.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nl.mvdr.game.gui.DummyRenderer;
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.DummyInputController;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.state.DummyGameState;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link GameLoopScheduler}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class GameLoopSchedulerTest {
+    /**
+     * Runs many game loops on a couple of threads, and checks that all of them are updated, and that no loop is ever
+     * updated by two threads at the same time.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testManyLoops() throws InterruptedException {
+        AtomicBoolean overlap = new AtomicBoolean();
+        List<GameLoop<DummyGameState, DummyInput>> gameLoops = new ArrayList<>();
+        List<AtomicInteger> updateCounts = new ArrayList<>();
+        try (GameLoopScheduler scheduler = new GameLoopScheduler(2)) {
+            for (int i = 0; i != 200; i++) {
+                AtomicInteger updateCount = new AtomicInteger();
+                AtomicBoolean busy = new AtomicBoolean();
+                GameEngine<DummyGameState, DummyInput> engine = new DummyGameEngine() {
+                    /** {@inheritDoc} */
+                    @Override
+                    public DummyGameState computeNextState(DummyGameState previousState,
+                            List<InputState<DummyInput>> inputStates) {
+                        if (!busy.compareAndSet(false, true)) {
+                            overlap.set(true);
+                        }
+                        updateCount.incrementAndGet();
+                        busy.set(false);
+                        return previousState;
+                    }
+                };
+                GameLoop<DummyGameState, DummyInput> gameLoop = new GameLoop<>(
+                        Collections.singletonList(new DummyInputController<>()), engine, new DummyRenderer<>());
+                gameLoop.start(scheduler);
+                gameLoops.add(gameLoop);
+                updateCounts.add(updateCount);
+            }
+            Assert.assertEquals(200, scheduler.getLoopCount());
+
+            Thread.sleep(500);
+
+            gameLoops.forEach(GameLoop::stop);
+            awaitLoopCount(scheduler, 0);
+            Assert.assertTrue(0L < scheduler.getIterationCount());
+            Assert.assertTrue(0L < scheduler.getLateness().getCount());
+        }
+
+        Assert.assertFalse(overlap.get());
+        for (int i = 0; i != gameLoops.size(); i++) {
+            Assert.assertFalse(gameLoops.get(i).isRunning());
+            Assert.assertTrue(0 < updateCounts.get(i).get());
+            Assert.assertEquals(updateCounts.get(i).get(), gameLoops.get(i).getMetrics().getUpdate().getCount());
+        }
+    }
+
+    /**
+     * Checks that a loop which throws an exception is stopped, while the other loops keep running.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testIsolation() throws InterruptedException {
+        try (GameLoopScheduler scheduler = new GameLoopScheduler(1)) {
+            GameLoop<DummyGameState, DummyInput> failingLoop = new GameLoop<>(
+                    Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(), state -> {
+                        throw new IllegalStateException("Renderer failure, thrown on purpose for testing purposes.");
+                    });
+            GameLoop<DummyGameState, DummyInput> healthyLoop = new GameLoop<>(
+                    Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(),
+                    new DummyRenderer<>());
+
+            failingLoop.start(scheduler);
+            healthyLoop.start(scheduler);
+            awaitLoopCount(scheduler, 1);
+            long updates = healthyLoop.getMetrics().getUpdate().getCount();
+            Thread.sleep(100);
+
+            Assert.assertFalse(failingLoop.isRunning());
+            Assert.assertTrue(healthyLoop.isRunning());
+            Assert.assertTrue(updates < healthyLoop.getMetrics().getUpdate().getCount());
+            Assert.assertEquals(Collections.singletonList(healthyLoop), scheduler.getLoops());
+        }
+    }
+
+    /**
+     * Checks that a scheduled loop is not updated while paused.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testPause() throws InterruptedException {
+        try (GameLoopScheduler scheduler = new GameLoopScheduler(1)) {
+            GameLoop<DummyGameState, DummyInput> gameLoop = new GameLoop<>(
+                    Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(),
+                    new DummyRenderer<>());
+            gameLoop.start(scheduler);
+            Thread.sleep(100);
+
+            gameLoop.pause();
+            // give the scheduler time to finish the current iteration
+            Thread.sleep(50);
+            long updates = gameLoop.getMetrics().getUpdate().getCount();
+            Thread.sleep(100);
+            Assert.assertEquals(updates, gameLoop.getMetrics().getUpdate().getCount());
+
+            gameLoop.unpause();
+            Thread.sleep(100);
+            Assert.assertTrue(updates < gameLoop.getMetrics().getUpdate().getCount());
+        }
+    }
+
+    /**
+     * Checks that closing the scheduler stops its loops.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testClose() throws InterruptedException {
+        GameLoopScheduler scheduler = new GameLoopScheduler(1);
+        GameLoop<DummyGameState, DummyInput> gameLoop = new GameLoop<>(
+                Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(), new DummyRenderer<>());
+        gameLoop.start(scheduler);
+
+        scheduler.close();
+
+        Assert.assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertFalse(gameLoop.isRunning());
+        Assert.assertEquals(0, scheduler.getLoopCount());
+    }
+
+    /** Test case for an invalid thread count. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidThreadCount() {
+        new GameLoopScheduler(0);
+    }
+
+    /**
+     * Waits until the given number of loops is running on the scheduler.
+     * 
+     * @param scheduler scheduler
+     * @param count expected number of loops
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    private static void awaitLoopCount(GameLoopScheduler scheduler, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getLoopCount() != count && System.nanoTime() - deadline < 0) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(count, scheduler.getLoopCount());
+    }
+}
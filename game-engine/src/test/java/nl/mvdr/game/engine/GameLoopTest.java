@@ -1,14 +1,23 @@
 package nl.mvdr.game.engine;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import nl.mvdr.game.gui.ChangeDetector;
 import nl.mvdr.game.gui.DummyRenderer;
 import nl.mvdr.game.input.DummyInput;
 import nl.mvdr.game.input.DummyInputController;
 import nl.mvdr.game.input.InputState;
 import nl.mvdr.game.state.DummyGameState;
 
+import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 /**
@@ -127,6 +136,28 @@ public class GameLoopTest {
         Thread.sleep(50);
     }
 
+    /**
+     * Starts the game loop with a low-power pacing strategy, lets it run for a little while, then stops it again.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testSleepPacingStrategy() throws InterruptedException {
+        SleepPacingStrategy pacingStrategy = new SleepPacingStrategy();
+        GameLoop<DummyGameState, DummyInput> gameLoop = new GameLoop<>(
+                Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(), new DummyRenderer<>(),
+                pacingStrategy);
+        
+        gameLoop.start();
+        Thread.sleep(200);
+        gameLoop.stop();
+        // sleep a little longer, to give the game loop thread time to clean up and log that it is finished
+        Thread.sleep(50);
+        
+        Assert.assertTrue(0 < pacingStrategy.getWaitCount());
+    }
+
     /** Tests the constructor with a null value for the input controller. */
     @Test(expected = NullPointerException.class)
     public void testNullController() {
@@ -146,4 +177,303 @@ public class GameLoopTest {
         new GameLoop<>(Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(),
                 null);
     }
+
+    /** Tests the constructor with a null value for the pacing strategy. */
+    @Test(expected = NullPointerException.class)
+    public void testNullPacingStrategy() {
+        new GameLoop<>(Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(),
+                new DummyRenderer<>(), null);
+    }
+
+    /**
+     * Runs the game loop for a short while and checks that its metrics were recorded.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testMetrics() throws InterruptedException {
+        GameLoop<DummyGameState, DummyInput> gameLoop = new GameLoop<>(
+                Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(), new DummyRenderer<>());
+        
+        gameLoop.start();
+        Thread.sleep(500);
+        gameLoop.stop();
+        Thread.sleep(50);
+        
+        Assert.assertTrue(0 < gameLoop.getMetrics().getUpdate().getCount());
+        Assert.assertEquals(gameLoop.getMetrics().getUpdate().getCount(),
+                gameLoop.getMetrics().getInputPolling().getCount());
+        Assert.assertTrue(0 < gameLoop.getMetrics().getRender().getCount());
+        Assert.assertTrue(0 < gameLoop.getMetrics().getPacing().getCount());
+    }
+
+    /**
+     * Checks that renders are skipped while the game state does not change, apart from the keep-alive renders.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testChangeDetection() throws InterruptedException {
+        AtomicInteger renderCount = new AtomicInteger();
+        PacingStrategy pacingStrategy = new NoWaitPacingStrategy();
+        GameLoop<DummyGameState, DummyInput> gameLoop = new GameLoop<>(
+                Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(),
+                state -> renderCount.incrementAndGet(), pacingStrategy, new ChangeDetector(1L, TimeUnit.SECONDS));
+        long now = 0L;
+
+        gameLoop.init(now);
+        // Just over two seconds' worth of iterations, during which the state never changes.
+        for (int i = 0; i != 121; i++) {
+            now += GameLoop.TIME_BETWEEN_UPDATES_NANOS + 1;
+            gameLoop.iterate(now);
+        }
+
+        // The initial render, plus one keep-alive render per second.
+        Assert.assertEquals(3, renderCount.get());
+        Assert.assertEquals(119L, gameLoop.getMetrics().getSkippedRenderCount());
+        Assert.assertEquals(2L, gameLoop.getMetrics().getRender().getCount());
+    }
+
+    /**
+     * Checks that the default catch-up strategy keeps doing the maximum number of updates per render while overloaded,
+     * and that the overload and recovery are reported.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testOverloadCatchUp() throws InterruptedException {
+        List<TickPolicyEvent> events = new ArrayList<>();
+        GameLoop<DummyGameState, DummyInput> gameLoop = createOverloadTestLoop(
+                new TickPolicy(60, 5, 3, OverloadStrategy.CATCH_UP, events::add));
+        long timeBetweenUpdates = gameLoop.getTickPolicy().getTimeBetweenUpdates();
+        long now = 0L;
+        gameLoop.init(now);
+
+        for (int i = 0; i != 3; i++) {
+            now += 10 * timeBetweenUpdates;
+            gameLoop.iterate(now);
+        }
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(TickPolicyEvent.Type.OVERLOAD_DETECTED, events.get(0).getType());
+        Assert.assertEquals(OverloadStrategy.CATCH_UP, events.get(0).getStrategy());
+        Assert.assertEquals(15 * timeBetweenUpdates, events.get(0).getBacklog());
+        Assert.assertEquals(15L, gameLoop.getMetrics().getUpdate().getCount());
+
+        // The loop keeps catching up, at 5 updates per iteration.
+        now += timeBetweenUpdates;
+        gameLoop.iterate(now);
+        Assert.assertEquals(20L, gameLoop.getMetrics().getUpdate().getCount());
+
+        iterateHealthy(gameLoop, now, 6);
+
+        Assert.assertEquals(2, events.size());
+        Assert.assertEquals(TickPolicyEvent.Type.RECOVERED, events.get(1).getType());
+        Assert.assertEquals(0L, events.get(1).getDroppedTime());
+    }
+
+    /**
+     * Checks that the time dilation strategy discards the backlog and performs a single update per render while
+     * overloaded.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testOverloadDilateTime() throws InterruptedException {
+        List<TickPolicyEvent> events = new ArrayList<>();
+        GameLoop<DummyGameState, DummyInput> gameLoop = createOverloadTestLoop(
+                new TickPolicy(60, 5, 3, OverloadStrategy.DILATE_TIME, events::add));
+        long timeBetweenUpdates = gameLoop.getTickPolicy().getTimeBetweenUpdates();
+        long now = 0L;
+        gameLoop.init(now);
+
+        for (int i = 0; i != 3; i++) {
+            now += 10 * timeBetweenUpdates;
+            gameLoop.iterate(now);
+        }
+        Assert.assertEquals(15L, gameLoop.getMetrics().getUpdate().getCount());
+
+        for (int i = 0; i != 10; i++) {
+            now += 10 * timeBetweenUpdates;
+            gameLoop.iterate(now);
+        }
+        // A single update per iteration, with the rest of the time discarded.
+        Assert.assertEquals(25L, gameLoop.getMetrics().getUpdate().getCount());
+        Assert.assertEquals(1, events.size());
+
+        iterateHealthy(gameLoop, now, 3);
+
+        Assert.assertEquals(
+                Arrays.asList(TickPolicyEvent.Type.OVERLOAD_DETECTED, TickPolicyEvent.Type.RECOVERED),
+                Arrays.asList(events.get(0).getType(), events.get(1).getType()));
+        Assert.assertEquals((15 + 10 * 9) * timeBetweenUpdates, events.get(1).getDroppedTime());
+    }
+
+    /**
+     * Checks that the drop backlog strategy discards the backlog whenever the loop has been behind for the spiral
+     * threshold, and otherwise keeps catching up.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testOverloadDropBacklog() throws InterruptedException {
+        List<TickPolicyEvent> events = new ArrayList<>();
+        GameLoop<DummyGameState, DummyInput> gameLoop = createOverloadTestLoop(
+                new TickPolicy(60, 5, 3, OverloadStrategy.DROP_BACKLOG, events::add));
+        long timeBetweenUpdates = gameLoop.getTickPolicy().getTimeBetweenUpdates();
+        long now = 0L;
+        gameLoop.init(now);
+
+        for (int i = 0; i != 6; i++) {
+            now += 10 * timeBetweenUpdates;
+            gameLoop.iterate(now);
+        }
+
+        Assert.assertEquals(30L, gameLoop.getMetrics().getUpdate().getCount());
+        Assert.assertEquals(3, events.size());
+        Assert.assertEquals(TickPolicyEvent.Type.OVERLOAD_DETECTED, events.get(0).getType());
+        Assert.assertEquals(TickPolicyEvent.Type.BACKLOG_DROPPED, events.get(1).getType());
+        Assert.assertEquals(15 * timeBetweenUpdates, events.get(1).getDroppedTime());
+        Assert.assertEquals(TickPolicyEvent.Type.BACKLOG_DROPPED, events.get(2).getType());
+        Assert.assertEquals(15 * timeBetweenUpdates, events.get(2).getDroppedTime());
+
+        iterateHealthy(gameLoop, now, 3);
+
+        Assert.assertEquals(4, events.size());
+        Assert.assertEquals(TickPolicyEvent.Type.RECOVERED, events.get(3).getType());
+        Assert.assertEquals(30 * timeBetweenUpdates, events.get(3).getDroppedTime());
+    }
+
+    /**
+     * Tests that a long pause is not mistaken for a backlog of updates once the game is unpaused, for any overload
+     * strategy.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testUnpauseDoesNotTriggerTickPolicy() throws InterruptedException {
+        for (OverloadStrategy strategy : OverloadStrategy.values()) {
+            List<TickPolicyEvent> events = new ArrayList<>();
+            GameLoop<DummyGameState, DummyInput> gameLoop = createOverloadTestLoop(
+                    new TickPolicy(60, 5, 3, strategy, events::add));
+            long timeBetweenUpdates = gameLoop.getTickPolicy().getTimeBetweenUpdates();
+            long now = 0L;
+            gameLoop.init(now);
+            iterateHealthy(gameLoop, now, 3);
+            now += 3 * (timeBetweenUpdates + 1);
+
+            gameLoop.pause();
+            for (int i = 0; i != 10; i++) {
+                now += TimeUnit.SECONDS.toNanos(1);
+                gameLoop.iterate(now);
+            }
+            gameLoop.unpause();
+            iterateHealthy(gameLoop, now, 10);
+
+            Assert.assertEquals(strategy.toString(), Collections.emptyList(), events);
+            // No catch-up burst: one update per iteration, except for the first one after unpausing.
+            Assert.assertEquals(strategy.toString(), 12L, gameLoop.getMetrics().getUpdate().getCount());
+        }
+    }
+
+    /**
+     * Creates a game loop for the overload tests, which uses simulated time.
+     * 
+     * @param tickPolicy tick policy
+     * @return game loop
+     */
+    private static GameLoop<DummyGameState, DummyInput> createOverloadTestLoop(TickPolicy tickPolicy) {
+        PacingStrategy pacingStrategy = new NoWaitPacingStrategy();
+        return new GameLoop<>(Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(),
+                new DummyRenderer<>(), pacingStrategy, null, tickPolicy);
+    }
+
+    /**
+     * Performs the given number of iterations, each of which is just over one update's worth of time apart.
+     * 
+     * @param gameLoop game loop
+     * @param start simulated time of the previous iteration
+     * @param iterations number of iterations
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    private static void iterateHealthy(GameLoop<DummyGameState, DummyInput> gameLoop, long start, int iterations)
+            throws InterruptedException {
+        long now = start;
+        for (int i = 0; i != iterations; i++) {
+            now += gameLoop.getTickPolicy().getTimeBetweenUpdates() + 1;
+            gameLoop.iterate(now);
+        }
+    }
+
+    /**
+     * Checks that an iteration of the game loop does not allocate any memory, once it is warmed up.
+     * 
+     * @throws InterruptedException
+     *             unexpected exception
+     */
+    @Test
+    public void testIterationDoesNotAllocate() throws InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        Assume.assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+        PacingStrategy pacingStrategy = new NoWaitPacingStrategy();
+        GameLoop<DummyGameState, DummyInput> gameLoop = new GameLoop<>(
+                Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(), new DummyRenderer<>(),
+                pacingStrategy);
+        long threadId = Thread.currentThread().getId();
+        long step = GameLoop.TIME_BETWEEN_UPDATES_NANOS + 1;
+        long now = 0L;
+        gameLoop.init(now);
+        // warm up, so that the loop is JIT-compiled
+        for (int i = 0; i != 100_000; i++) {
+            now += step;
+            gameLoop.iterate(now);
+        }
+        // cost of the measurement itself
+        long calibration = allocationBean.getThreadAllocatedBytes(threadId);
+        long overhead = allocationBean.getThreadAllocatedBytes(threadId) - calibration;
+
+        // The loop logs the frame count once per (simulated) second, which does allocate. Measure windows of 50
+        // iterations which stay within a single second, and take the smallest, to rule out the odd allocation by the
+        // JIT (for instance when a method is recompiled).
+        long minAllocated = Long.MAX_VALUE;
+        for (int window = 0; window != 20; window++) {
+            long second = now / TimeUnit.SECONDS.toNanos(1);
+            while (now / TimeUnit.SECONDS.toNanos(1) == second) {
+                now += step;
+                gameLoop.iterate(now);
+            }
+            // make sure the frame count for the previous second has been logged
+            for (int i = 0; i != 2; i++) {
+                now += step;
+                gameLoop.iterate(now);
+            }
+
+            long before = allocationBean.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i != 50; i++) {
+                now += step;
+                gameLoop.iterate(now);
+            }
+            minAllocated = Math.min(minAllocated, allocationBean.getThreadAllocatedBytes(threadId) - before - overhead);
+        }
+
+        Assert.assertEquals(0L, minAllocated);
+    }
+
+    /** Pacing strategy which does not wait at all, so that simulated time can be used. */
+    private static class NoWaitPacingStrategy extends AbstractPacingStrategy {
+        /** {@inheritDoc} */
+        @Override
+        protected void pause(long deadline) {
+            // do nothing
+        }
+    }
 }
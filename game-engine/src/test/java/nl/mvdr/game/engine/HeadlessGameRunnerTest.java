@@ -0,0 +1,99 @@
+package nl.mvdr.game.engine;
+
+import java.util.Collections;
+import java.util.List;
+
+import nl.mvdr.game.gui.GameRenderer;
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.DummyInputController;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.state.DummyGameState;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link HeadlessGameRunner}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class HeadlessGameRunnerTest {
+    /** Tests that the simulation stops once the tick budget has been used up. */
+    @Test
+    public void testTickBudget() {
+        HeadlessGameRunner<DummyGameState, DummyInput> runner = new HeadlessGameRunner<>(
+                Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(), 10_000);
+        
+        SimulationResult<DummyGameState> result = runner.run();
+        
+        Assert.assertEquals(10_000, result.getTickCount());
+        Assert.assertEquals(0, result.getRenderCount());
+        Assert.assertSame(DummyGameState.GAME_NOT_OVER, result.getFinalState());
+        Assert.assertTrue(0 < result.getTicksPerSecond());
+    }
+    
+    /** Tests that the simulation stops once the game is over. */
+    @Test
+    public void testGameOver() {
+        HeadlessGameRunner<DummyGameState, DummyInput> runner = new HeadlessGameRunner<>(
+                Collections.singletonList(new DummyInputController<>()), new GameOverEngine(100), Long.MAX_VALUE);
+        
+        SimulationResult<DummyGameState> result = runner.run();
+        
+        Assert.assertEquals(100, result.getTickCount());
+        Assert.assertSame(DummyGameState.GAME_OVER, result.getFinalState());
+    }
+    
+    /** Tests that every Nth state is rendered, as well as the initial and final states. */
+    @Test
+    public void testRenderSampling() {
+        long[] renderCount = new long[1];
+        GameRenderer<DummyGameState> renderer = state -> renderCount[0]++;
+        HeadlessGameRunner<DummyGameState, DummyInput> runner = new HeadlessGameRunner<>(
+                Collections.singletonList(new DummyInputController<>()), new DummyGameEngine(), renderer, 10, 95);
+        
+        SimulationResult<DummyGameState> result = runner.run();
+        
+        // initial state, ticks 10, 20, ..., 90, and the final state
+        Assert.assertEquals(11, result.getRenderCount());
+        Assert.assertEquals(11, renderCount[0]);
+    }
+    
+    /** Tests the constructor with a negative render interval. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeRenderInterval() {
+        new HeadlessGameRunner<>(Collections.singletonList(new DummyInputController<DummyInput>()),
+                new DummyGameEngine(), state -> {}, -1, 100);
+    }
+    
+    /** Tests the constructor with a null value for the game engine. */
+    @Test(expected = NullPointerException.class)
+    public void testNullEngine() {
+        new HeadlessGameRunner<DummyGameState, DummyInput>(Collections.singletonList(new DummyInputController<>()),
+                null, 100);
+    }
+    
+    /** Game engine which ends the game after a fixed number of updates. */
+    private static class GameOverEngine extends DummyGameEngine {
+        /** Number of remaining updates until the game is over. */
+        private int remainingUpdates;
+        
+        /**
+         * Constructor.
+         * 
+         * @param updates number of updates until the game is over
+         */
+        private GameOverEngine(int updates) {
+            super();
+            this.remainingUpdates = updates;
+        }
+        
+        /** {@inheritDoc} */
+        @Override
+        public DummyGameState computeNextState(DummyGameState previousState,
+                List<InputState<DummyInput>> inputStates) {
+            remainingUpdates--;
+            return remainingUpdates == 0 ? DummyGameState.GAME_OVER : DummyGameState.GAME_NOT_OVER;
+        }
+    }
+}
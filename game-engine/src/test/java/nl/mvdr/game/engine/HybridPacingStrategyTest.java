@@ -0,0 +1,36 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link HybridPacingStrategy}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class HybridPacingStrategyTest extends PacingStrategyTest {
+    /** {@inheritDoc} */
+    @Override
+    PacingStrategy createStrategy() {
+        return new HybridPacingStrategy();
+    }
+    
+    /**
+     * Tests that the spin threshold stays within bounds after calibration.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testCalibration() throws InterruptedException {
+        HybridPacingStrategy strategy = new HybridPacingStrategy();
+        
+        for (int i = 0; i != 20; i++) {
+            strategy.waitUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        
+        Assert.assertTrue(TimeUnit.MICROSECONDS.toNanos(50) <= strategy.getSpinThreshold());
+        Assert.assertTrue(strategy.getSpinThreshold() <= TimeUnit.MILLISECONDS.toNanos(2));
+    }
+}
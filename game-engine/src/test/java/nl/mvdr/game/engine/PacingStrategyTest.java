@@ -0,0 +1,70 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Base class for the tests of {@link PacingStrategy} implementations.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public abstract class PacingStrategyTest {
+    /**
+     * Creates the pacing strategy under test.
+     * 
+     * @return new pacing strategy
+     */
+    abstract PacingStrategy createStrategy();
+
+    /**
+     * Tests that {@link PacingStrategy#waitUntil(long)} does not return before the deadline.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testWaitUntil() throws InterruptedException {
+        PacingStrategy strategy = createStrategy();
+        
+        for (int i = 0; i != 10; i++) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(2);
+            
+            strategy.waitUntil(deadline);
+            
+            Assert.assertTrue(0 <= System.nanoTime() - deadline);
+        }
+        
+        Assert.assertEquals(10, strategy.getWaitCount());
+        Assert.assertTrue(0 <= strategy.getMeanJitter());
+        Assert.assertTrue(strategy.getMeanJitter() <= strategy.getMaxJitter());
+        Assert.assertTrue(0 <= strategy.getJitterStandardDeviation());
+    }
+    
+    /**
+     * Tests {@link PacingStrategy#waitUntil(long)} with a deadline in the past.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testDeadlineInThePast() throws InterruptedException {
+        PacingStrategy strategy = createStrategy();
+        
+        strategy.waitUntil(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(1));
+        
+        Assert.assertEquals(1, strategy.getWaitCount());
+    }
+    
+    /**
+     * Tests that {@link PacingStrategy#waitUntil(long)} responds to interruption.
+     * 
+     * @throws InterruptedException expected exception
+     */
+    @Test(expected = InterruptedException.class)
+    public void testInterrupted() throws InterruptedException {
+        PacingStrategy strategy = createStrategy();
+        Thread.currentThread().interrupt();
+        
+        strategy.waitUntil(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+    }
+}
@@ -0,0 +1,14 @@
+package nl.mvdr.game.engine;
+
+/**
+ * Test class for {@link SleepPacingStrategy}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SleepPacingStrategyTest extends PacingStrategyTest {
+    /** {@inheritDoc} */
+    @Override
+    PacingStrategy createStrategy() {
+        return new SleepPacingStrategy();
+    }
+}
@@ -0,0 +1,110 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link Threads}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class ThreadsTest {
+    /** Test case for a null thread. */
+    @Test
+    public void testAwaitTerminationNull() {
+        Assert.assertTrue(Threads.awaitTermination(null, 0L, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Test case for a thread which terminates while waiting.
+     * 
+     * @throws InterruptedException unexpected interruption
+     */
+    @Test
+    public void testAwaitTermination() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread thread = startThread(release);
+        Thread releaser = new Thread(() -> {
+            sleepQuietly();
+            release.countDown();
+        });
+        releaser.start();
+
+        Assert.assertTrue(Threads.awaitTermination(thread, 1L, TimeUnit.SECONDS));
+        Assert.assertFalse(thread.isAlive());
+        releaser.join();
+    }
+
+    /**
+     * Test case for a thread which does not terminate in time.
+     * 
+     * @throws InterruptedException unexpected interruption
+     */
+    @Test
+    public void testAwaitTerminationTimeout() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread thread = startThread(release);
+        try {
+            Assert.assertFalse(Threads.awaitTermination(thread, 20L, TimeUnit.MILLISECONDS));
+            Assert.assertTrue(thread.isAlive());
+        } finally {
+            release.countDown();
+        }
+        thread.join();
+    }
+
+    /**
+     * Tests that waiting continues when the current thread is interrupted, and that the interrupt status is restored.
+     * 
+     * @throws InterruptedException unexpected interruption
+     */
+    @Test
+    public void testAwaitTerminationInterrupted() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread thread = startThread(release);
+        Thread current = Thread.currentThread();
+        Thread interrupter = new Thread(() -> {
+            current.interrupt();
+            sleepQuietly();
+            release.countDown();
+        });
+        interrupter.start();
+
+        boolean terminated = Threads.awaitTermination(thread, 1L, TimeUnit.SECONDS);
+
+        // Clears the interrupt status, so that it does not affect the following calls.
+        Assert.assertTrue(Thread.interrupted());
+        Assert.assertTrue(terminated);
+        interrupter.join();
+    }
+
+    /**
+     * Starts a thread which waits for the given latch.
+     * 
+     * @param release latch
+     * @return thread
+     */
+    private static Thread startThread(CountDownLatch release) {
+        Thread result = new Thread(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        result.start();
+        return result;
+    }
+
+    /** Sleeps for a short while, ignoring interruption. */
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(20L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
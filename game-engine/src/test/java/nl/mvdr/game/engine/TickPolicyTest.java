@@ -0,0 +1,63 @@
+package nl.mvdr.game.engine;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link TickPolicy}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class TickPolicyTest {
+    /** Test case for the default policy. */
+    @Test
+    public void testDefault() {
+        TickPolicy policy = TickPolicy.DEFAULT;
+
+        Assert.assertEquals(60, policy.getUpdateRate());
+        Assert.assertEquals(5, policy.getMaxUpdatesBeforeRender());
+        Assert.assertEquals(OverloadStrategy.CATCH_UP, policy.getOverloadStrategy());
+        Assert.assertEquals(TimeUnit.SECONDS.toNanos(1) / 60, policy.getTimeBetweenUpdates());
+        Assert.assertEquals(GameLoop.TIME_BETWEEN_UPDATES_NANOS, policy.getTimeBetweenUpdates());
+    }
+
+    /** Test case for {@link TickPolicy#withListener(TickPolicyListener)}. */
+    @Test
+    public void testWithListener() {
+        TickPolicyListener listener = event -> { };
+
+        TickPolicy policy = new TickPolicy(30, 2, 4, OverloadStrategy.DILATE_TIME).withListener(listener);
+
+        Assert.assertEquals(30, policy.getUpdateRate());
+        Assert.assertEquals(2, policy.getMaxUpdatesBeforeRender());
+        Assert.assertEquals(4, policy.getSpiralThreshold());
+        Assert.assertEquals(OverloadStrategy.DILATE_TIME, policy.getOverloadStrategy());
+        Assert.assertSame(listener, policy.getListener());
+    }
+
+    /** Test case for a non-positive update rate. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidUpdateRate() {
+        new TickPolicy(0, 5, 10, OverloadStrategy.CATCH_UP);
+    }
+
+    /** Test case for a non-positive maximum number of updates before a render. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxUpdatesBeforeRender() {
+        new TickPolicy(60, 0, 10, OverloadStrategy.CATCH_UP);
+    }
+
+    /** Test case for a non-positive spiral threshold. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSpiralThreshold() {
+        new TickPolicy(60, 5, 0, OverloadStrategy.CATCH_UP);
+    }
+
+    /** Test case for a null overload strategy. */
+    @Test(expected = NullPointerException.class)
+    public void testNullStrategy() {
+        new TickPolicy(60, 5, 10, null);
+    }
+}
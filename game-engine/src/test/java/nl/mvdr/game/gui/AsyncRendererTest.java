@@ -0,0 +1,180 @@
+package nl.mvdr.game.gui;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import nl.mvdr.game.state.DummyGameState;
+import nl.mvdr.game.state.GameState;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link AsyncRenderer}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class AsyncRendererTest {
+    /**
+     * Tests that a published state is rendered on the render thread.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testRender() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Thread[] renderThread = new Thread[1];
+        AsyncRenderer<DummyGameState> renderer = new AsyncRenderer<>(state -> {
+            renderThread[0] = Thread.currentThread();
+            latch.countDown();
+        });
+        renderer.start();
+        
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Assert.assertNotSame(Thread.currentThread(), renderThread[0]);
+        renderer.stop();
+    }
+    
+    /** Tests that publishing the same state twice is counted as a duplicate. */
+    @Test
+    public void testDuplicate() {
+        AsyncRenderer<DummyGameState> renderer = new AsyncRenderer<>(new DummyRenderer<>());
+        
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        
+        Assert.assertEquals(1, renderer.getDuplicateFrames());
+        Assert.assertEquals(0, renderer.getDroppedFrames());
+    }
+    
+    /**
+     * Tests that states published while the renderer is busy are dropped, except for the latest one.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testDropped() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DummyRenderer<GameState> lastRendered = new DummyRenderer<>();
+        AsyncRenderer<GameState> renderer = new AsyncRenderer<>(state -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lastRendered.render(state);
+        });
+        renderer.start();
+        
+        // keep the render thread busy with the first state
+        renderer.render(new TestGameState());
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+        // publish a few more; only the last one should be rendered
+        renderer.render(new TestGameState());
+        renderer.render(new TestGameState());
+        GameState last = new TestGameState();
+        renderer.render(last);
+        release.countDown();
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (renderer.getRenderedFrames() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        renderer.stop();
+        
+        Assert.assertEquals(2, renderer.getRenderedFrames());
+        Assert.assertEquals(2, renderer.getDroppedFrames());
+        Assert.assertSame(last, lastRendered.getLastRenderedState());
+    }
+    
+    /**
+     * Tests restarting the renderer while the previous render thread is still busy rendering its last state.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testRestart() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        DummyRenderer<GameState> lastRendered = new DummyRenderer<>();
+        AsyncRenderer<GameState> renderer = new AsyncRenderer<>(state -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lastRendered.render(state);
+        });
+        renderer.start();
+        renderer.render(new TestGameState());
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+        renderer.stop();
+        
+        Thread restarter = new Thread(renderer::start);
+        restarter.start();
+        Thread.sleep(20);
+        // still waiting for the previous render thread
+        Assert.assertTrue(restarter.isAlive());
+        release.countDown();
+        restarter.join(1_000L);
+        Assert.assertFalse(restarter.isAlive());
+        
+        GameState last = new TestGameState();
+        renderer.render(last);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (renderer.getRenderedFrames() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        
+        Assert.assertTrue(renderer.isRunning());
+        Assert.assertSame(last, lastRendered.getLastRenderedState());
+        renderer.stop();
+    }
+    
+    /**
+     * Tests that the render thread stops after an exception.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testException() throws InterruptedException {
+        AsyncRenderer<DummyGameState> renderer = new AsyncRenderer<>(state -> {
+            throw new IllegalStateException("Exception thrown by unit test.");
+        });
+        renderer.start();
+        
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (renderer.isRunning() && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Assert.assertFalse(renderer.isRunning());
+    }
+    
+    /** Tests {@link AsyncRenderer#render(GameState)} when a null value of GameState is passed in. */
+    @Test(expected = NullPointerException.class)
+    public void testNullState() {
+        new AsyncRenderer<DummyGameState>(new DummyRenderer<>()).render(null);
+    }
+    
+    /** Tests the constructor with a null delegate. */
+    @Test(expected = NullPointerException.class)
+    public void testNullDelegate() {
+        new AsyncRenderer<DummyGameState>(null);
+    }
+    
+    /** Game state implementation where every instance is distinct. */
+    private static class TestGameState implements GameState {
+        /** {@inheritDoc} */
+        @Override
+        public boolean isGameOver() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package nl.mvdr.game.gui;
+
+import java.util.concurrent.TimeUnit;
+
+import nl.mvdr.game.state.DummyGameState;
+import nl.mvdr.game.state.VersionedGameState;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link ChangeDetector}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class ChangeDetectorTest {
+    /** Tests change detection by reference. */
+    @Test
+    public void testReference() {
+        ChangeDetector detector = new ChangeDetector();
+
+        Assert.assertTrue(detector.shouldRender(DummyGameState.GAME_NOT_OVER, 0L));
+        Assert.assertFalse(detector.shouldRender(DummyGameState.GAME_NOT_OVER, 1L));
+        Assert.assertTrue(detector.shouldRender(DummyGameState.GAME_OVER, 2L));
+        Assert.assertFalse(detector.shouldRender(DummyGameState.GAME_OVER, Long.MAX_VALUE));
+        Assert.assertEquals(2L, detector.getSkippedRenders());
+    }
+
+    /** Tests change detection by version, for a state which is mutated in place. */
+    @Test
+    public void testVersion() {
+        ChangeDetector detector = new ChangeDetector();
+        MutableGameState state = new MutableGameState();
+
+        Assert.assertTrue(detector.shouldRender(state, 0L));
+        Assert.assertFalse(detector.shouldRender(state, 1L));
+        state.version++;
+        Assert.assertTrue(detector.shouldRender(state, 2L));
+        // A different instance with the same version is rendered identically.
+        MutableGameState copy = new MutableGameState();
+        copy.version = state.version;
+        Assert.assertFalse(detector.shouldRender(copy, 3L));
+    }
+
+    /** Tests the keep-alive interval. */
+    @Test
+    public void testKeepAlive() {
+        ChangeDetector detector = new ChangeDetector(100L, TimeUnit.NANOSECONDS);
+
+        Assert.assertTrue(detector.shouldRender(DummyGameState.GAME_NOT_OVER, 1_000L));
+        Assert.assertFalse(detector.shouldRender(DummyGameState.GAME_NOT_OVER, 1_099L));
+        Assert.assertTrue(detector.shouldRender(DummyGameState.GAME_NOT_OVER, 1_100L));
+        Assert.assertFalse(detector.shouldRender(DummyGameState.GAME_NOT_OVER, 1_150L));
+    }
+
+    /** Tests that the first state after a reset is always rendered. */
+    @Test
+    public void testReset() {
+        ChangeDetector detector = new ChangeDetector();
+        detector.shouldRender(DummyGameState.GAME_NOT_OVER, 0L);
+
+        detector.reset();
+
+        Assert.assertTrue(detector.shouldRender(DummyGameState.GAME_NOT_OVER, 1L));
+    }
+
+    /** Tests the constructor with an invalid keep-alive interval. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidKeepAlive() {
+        new ChangeDetector(0L, TimeUnit.SECONDS);
+    }
+
+    /** Versioned game state which is mutated in place. */
+    private static class MutableGameState implements VersionedGameState {
+        /** Version. */
+        private long version;
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean isGameOver() {
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package nl.mvdr.game.gui;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import nl.mvdr.game.state.DummyGameState;
 
@@ -49,6 +50,20 @@ public class CompositeRendererTest {
         Assert.assertSame(DummyGameState.GAME_NOT_OVER, dummyRenderer1.getLastRenderedState());
     }
     
+    /** Tests that unchanged states are not passed on when a change detector is used. */
+    @Test
+    public void testRenderWithChangeDetector() {
+        AtomicInteger renderCount = new AtomicInteger();
+        List<GameRenderer<DummyGameState>> renderers = Collections.singletonList(state -> renderCount.incrementAndGet());
+        CompositeRenderer<DummyGameState> renderer = new CompositeRenderer<>(renderers, new ChangeDetector());
+        
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        renderer.render(DummyGameState.GAME_OVER);
+        
+        Assert.assertEquals(2, renderCount.get());
+    }
+    
     /** Tests {@link LabelRenderer#render(nl.mvdr.game.state.GameState)} when a null value of GameState is passed in. */
     @Test(expected = NullPointerException.class)
     public void testNullState() {
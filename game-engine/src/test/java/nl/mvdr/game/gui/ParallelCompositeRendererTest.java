@@ -0,0 +1,127 @@
+package nl.mvdr.game.gui;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import nl.mvdr.game.state.DummyGameState;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link ParallelCompositeRenderer}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class ParallelCompositeRendererTest {
+    /** Executor. */
+    private ExecutorService executor;
+    
+    /** Creates the executor. */
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+    
+    /** Shuts down the executor. */
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    /** Tests {@link ParallelCompositeRenderer#render(nl.mvdr.game.state.GameState)}. */
+    @Test
+    public void testRenderEmptyList() {
+        ParallelCompositeRenderer<DummyGameState> renderer = new ParallelCompositeRenderer<>(Collections.emptyList(),
+                executor);
+        
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+    }
+    
+    /** Tests {@link ParallelCompositeRenderer#render(nl.mvdr.game.state.GameState)}. */
+    @Test
+    public void testRenderThreeRenderers() {
+        DummyRenderer<DummyGameState> dummyRenderer0 = new DummyRenderer<>();
+        DummyRenderer<DummyGameState> dummyRenderer1 = new DummyRenderer<>();
+        DummyRenderer<DummyGameState> dummyRenderer2 = new DummyRenderer<>();
+        List<GameRenderer<DummyGameState>> renderers = Arrays.asList(dummyRenderer0, dummyRenderer1, dummyRenderer2);
+        ParallelCompositeRenderer<DummyGameState> renderer = new ParallelCompositeRenderer<>(renderers, executor);
+        
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        
+        // render only returns once all renderers are done
+        Assert.assertSame(DummyGameState.GAME_NOT_OVER, dummyRenderer0.getLastRenderedState());
+        Assert.assertSame(DummyGameState.GAME_NOT_OVER, dummyRenderer1.getLastRenderedState());
+        Assert.assertSame(DummyGameState.GAME_NOT_OVER, dummyRenderer2.getLastRenderedState());
+    }
+    
+    /** Tests that an exception in one renderer does not affect the others. */
+    @Test
+    public void testRendererThrowsException() {
+        DummyRenderer<DummyGameState> dummyRenderer0 = new DummyRenderer<>();
+        GameRenderer<DummyGameState> failingRenderer = state -> {
+            throw new IllegalStateException("Exception thrown by unit test.");
+        };
+        DummyRenderer<DummyGameState> dummyRenderer1 = new DummyRenderer<>();
+        List<GameRenderer<DummyGameState>> renderers = Arrays.asList(dummyRenderer0, failingRenderer, dummyRenderer1);
+        ParallelCompositeRenderer<DummyGameState> renderer = new ParallelCompositeRenderer<>(renderers, executor);
+        
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        
+        Assert.assertSame(DummyGameState.GAME_NOT_OVER, dummyRenderer0.getLastRenderedState());
+        Assert.assertSame(DummyGameState.GAME_NOT_OVER, dummyRenderer1.getLastRenderedState());
+        Assert.assertEquals(1, renderer.getErrorCount());
+    }
+    
+    /**
+     * Tests that a busy fire-and-forget renderer neither blocks the frame nor receives frames while it is busy.
+     * 
+     * @throws InterruptedException unexpected exception
+     */
+    @Test
+    public void testFireAndForget() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GameRenderer<DummyGameState> slowRenderer = state -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        DummyRenderer<DummyGameState> dummyRenderer = new DummyRenderer<>();
+        ParallelCompositeRenderer<DummyGameState> renderer = new ParallelCompositeRenderer<>(
+                Collections.singletonList(dummyRenderer), Collections.singletonList(slowRenderer), executor);
+        
+        renderer.render(DummyGameState.GAME_NOT_OVER);
+        Assert.assertTrue(started.await(1, TimeUnit.SECONDS));
+        renderer.render(DummyGameState.GAME_OVER);
+        
+        Assert.assertSame(DummyGameState.GAME_OVER, dummyRenderer.getLastRenderedState());
+        Assert.assertEquals(1, renderer.getSkippedFrames());
+        release.countDown();
+    }
+    
+    /** Tests {@link ParallelCompositeRenderer#render(nl.mvdr.game.state.GameState)} with a null game state. */
+    @Test(expected = NullPointerException.class)
+    public void testNullState() {
+        ParallelCompositeRenderer<DummyGameState> renderer = new ParallelCompositeRenderer<>(Collections.emptyList(),
+                executor);
+        
+        renderer.render(null);
+    }
+    
+    /** Tests the constructor with a null executor. */
+    @Test(expected = NullPointerException.class)
+    public void testNullExecutor() {
+        new ParallelCompositeRenderer<DummyGameState>(Collections.emptyList(), null);
+    }
+}
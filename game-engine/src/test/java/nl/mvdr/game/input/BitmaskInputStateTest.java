@@ -0,0 +1,168 @@
+package nl.mvdr.game.input;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link BitmaskInputState}.
+ *
+ * @author Martijn van de Rijdt
+ */
+public class BitmaskInputStateTest {
+    /** Tests {@link BitmaskInputState#isPressed(Enum)}. */
+    @Test
+    public void testIsPressed() {
+        BitmaskInputState<DummyInput> state = BitmaskInputState.of(DummyInput.class, EnumSet.of(DummyInput.A, DummyInput.START));
+
+        for (DummyInput input : DummyInput.values()) {
+            Assert.assertEquals(input == DummyInput.A || input == DummyInput.START, state.isPressed(input));
+        }
+    }
+
+    /** Tests {@link BitmaskInputState#valueOf(Class, long)}. */
+    @Test
+    public void testValueOf() {
+        BitmaskInputState<DummyInput> state = BitmaskInputState.valueOf(DummyInput.class, 1L << DummyInput.UP.ordinal());
+
+        Assert.assertTrue(state.isPressed(DummyInput.UP));
+        Assert.assertFalse(state.isPressed(DummyInput.DOWN));
+        Assert.assertEquals(1L << DummyInput.UP.ordinal(), state.getBits());
+    }
+
+    /** Tests that bits which do not correspond to an enum constant are ignored. */
+    @Test
+    public void testValueOfInvalidBits() {
+        BitmaskInputState<DummyInput> state = BitmaskInputState.valueOf(DummyInput.class, -1L);
+
+        Assert.assertEquals((1L << DummyInput.values().length) - 1, state.getBits());
+    }
+
+    /** Tests that the same bitmask results in the same cached instance. */
+    @Test
+    public void testCached() {
+        BitmaskInputState<DummyInput> state0 = BitmaskInputState.valueOf(DummyInput.class, 5L);
+        BitmaskInputState<DummyInput> state1 = BitmaskInputState.valueOf(DummyInput.class, 5L);
+
+        Assert.assertSame(state0, state1);
+    }
+
+    /** Tests that copying a bitmask input state returns the same instance. */
+    @Test
+    public void testCopyOfBitmaskInputState() {
+        BitmaskInputState<DummyInput> state = BitmaskInputState.valueOf(DummyInput.class, 3L);
+
+        Assert.assertSame(state, BitmaskInputState.copyOf(DummyInput.class, state));
+    }
+
+    /** Tests copying another implementation of {@link InputState}. */
+    @Test
+    public void testCopyOfOtherInputState() {
+        InputState<DummyInput> state = input -> input == DummyInput.B;
+
+        BitmaskInputState<DummyInput> copy = BitmaskInputState.copyOf(DummyInput.class, state);
+
+        Assert.assertEquals(1L << DummyInput.B.ordinal(), copy.getBits());
+    }
+
+    /** Tests equals and hashCode in combination with {@link InputStateImpl}. */
+    @Test
+    public void testEqualsInputStateImpl() {
+        BitmaskInputState<DummyInput> bitmaskState = BitmaskInputState.of(DummyInput.class,
+                EnumSet.of(DummyInput.LEFT, DummyInput.B));
+        InputStateImpl<DummyInput> state = new InputStateImpl<>(new HashSet<>(Arrays.asList(DummyInput.LEFT, DummyInput.B)));
+
+        Assert.assertEquals(bitmaskState, state);
+        Assert.assertEquals(state, bitmaskState);
+        Assert.assertEquals(state.hashCode(), bitmaskState.hashCode());
+    }
+
+    /** Tests equals in combination with an {@link InputStateImpl} containing different inputs. */
+    @Test
+    public void testNotEqualsInputStateImpl() {
+        BitmaskInputState<DummyInput> bitmaskState = BitmaskInputState.of(DummyInput.class, EnumSet.of(DummyInput.LEFT));
+        InputStateImpl<DummyInput> state = new InputStateImpl<>(EnumSet.of(DummyInput.RIGHT));
+
+        Assert.assertNotEquals(bitmaskState, state);
+        Assert.assertNotEquals(state, bitmaskState);
+    }
+
+    /** Tests equals and hashCode for an empty input state. */
+    @Test
+    public void testEqualsEmpty() {
+        BitmaskInputState<DummyInput> bitmaskState = BitmaskInputState.valueOf(DummyInput.class, 0L);
+        InputStateImpl<DummyInput> state = new InputStateImpl<>(Collections.<DummyInput>emptySet());
+
+        Assert.assertEquals(bitmaskState, state);
+        Assert.assertEquals(state, bitmaskState);
+        Assert.assertEquals(state.hashCode(), bitmaskState.hashCode());
+    }
+
+    /** Tests an enum type with more than 64 constants. */
+    @Test
+    public void testLargeEnum() {
+        EnumSet<LargeDummyInput> inputs = EnumSet.of(LargeDummyInput.INPUT_1, LargeDummyInput.INPUT_63,
+                LargeDummyInput.INPUT_64, LargeDummyInput.INPUT_69);
+
+        BitmaskInputState<LargeDummyInput> state = BitmaskInputState.of(LargeDummyInput.class, inputs);
+
+        for (LargeDummyInput input : LargeDummyInput.values()) {
+            Assert.assertEquals(inputs.contains(input), state.isPressed(input));
+        }
+        Assert.assertEquals(2, BitmaskInputState.wordCount(LargeDummyInput.class));
+        Assert.assertEquals(1L | 1L << 5, state.getWord(1));
+        Assert.assertEquals(new InputStateImpl<>(inputs), state);
+        Assert.assertEquals(new InputStateImpl<>(inputs).hashCode(), state.hashCode());
+    }
+
+    /** Tests that a large enum's low bitmask does not match a state with high bits pressed. */
+    @Test
+    public void testLargeEnumHighBits() {
+        BitmaskInputState<LargeDummyInput> high = BitmaskInputState.of(LargeDummyInput.class,
+                EnumSet.of(LargeDummyInput.INPUT_64));
+        BitmaskInputState<LargeDummyInput> low = BitmaskInputState.valueOf(LargeDummyInput.class, 0L);
+
+        Assert.assertNotEquals(high, low);
+        Assert.assertFalse(low.isPressed(LargeDummyInput.INPUT_64));
+        Assert.assertTrue(high.isPressed(LargeDummyInput.INPUT_64));
+    }
+
+    /**
+     * Tests serialization and deserialization.
+     *
+     * @throws IOException unexpected exception
+     * @throws ClassNotFoundException unexpected exception
+     */
+    @Test
+    public void testSerialization() throws IOException, ClassNotFoundException {
+        BitmaskInputState<DummyInput> state = BitmaskInputState.of(DummyInput.class, EnumSet.of(DummyInput.SELECT));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(state);
+        }
+        Object result;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            result = input.readObject();
+        }
+
+        Assert.assertSame(state, result);
+    }
+
+    /** Tests {@link BitmaskInputState#toString()}. */
+    @Test
+    public void testToString() {
+        BitmaskInputState<DummyInput> state = BitmaskInputState.of(DummyInput.class, EnumSet.of(DummyInput.A));
+
+        Assert.assertEquals("BitmaskInputState(pressedInputs=[A])", state.toString());
+    }
+}
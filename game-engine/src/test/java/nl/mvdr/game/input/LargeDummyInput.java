@@ -0,0 +1,16 @@
+package nl.mvdr.game.input;
+
+/**
+ * Dummy input values, containing more constants than fit in a single {@code long} bitmask.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public enum LargeDummyInput {
+    INPUT_0, INPUT_1, INPUT_2, INPUT_3, INPUT_4, INPUT_5, INPUT_6, INPUT_7, INPUT_8, INPUT_9, INPUT_10,
+    INPUT_11, INPUT_12, INPUT_13, INPUT_14, INPUT_15, INPUT_16, INPUT_17, INPUT_18, INPUT_19, INPUT_20,
+    INPUT_21, INPUT_22, INPUT_23, INPUT_24, INPUT_25, INPUT_26, INPUT_27, INPUT_28, INPUT_29, INPUT_30,
+    INPUT_31, INPUT_32, INPUT_33, INPUT_34, INPUT_35, INPUT_36, INPUT_37, INPUT_38, INPUT_39, INPUT_40,
+    INPUT_41, INPUT_42, INPUT_43, INPUT_44, INPUT_45, INPUT_46, INPUT_47, INPUT_48, INPUT_49, INPUT_50,
+    INPUT_51, INPUT_52, INPUT_53, INPUT_54, INPUT_55, INPUT_56, INPUT_57, INPUT_58, INPUT_59, INPUT_60,
+    INPUT_61, INPUT_62, INPUT_63, INPUT_64, INPUT_65, INPUT_66, INPUT_67, INPUT_68, INPUT_69
+}
@@ -0,0 +1,101 @@
+package nl.mvdr.game.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link GameLoopMetrics}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class GameLoopMetricsTest {
+    /** Tests recording metrics. */
+    @Test
+    public void testRecord() {
+        GameLoopMetrics metrics = new GameLoopMetrics();
+
+        metrics.recordInputPolling(10);
+        metrics.recordUpdate(20);
+        metrics.recordUpdate(30);
+        metrics.recordRender(40);
+        metrics.recordPacing(50);
+        metrics.recordCatchUpUpdates(2);
+        metrics.recordDroppedRenders(3);
+
+        Assert.assertEquals(1, metrics.getInputPolling().getCount());
+        Assert.assertEquals(2, metrics.getUpdate().getCount());
+        Assert.assertEquals(30, metrics.getUpdate().getMax());
+        Assert.assertEquals(40, metrics.getRender().getMax());
+        Assert.assertEquals(50, metrics.getPacing().getMax());
+        Assert.assertEquals(2, metrics.getCatchUpUpdateCount());
+        Assert.assertEquals(3, metrics.getDroppedRenderCount());
+    }
+
+    /** Tests {@link GameLoopMetrics#reset()}. */
+    @Test
+    public void testReset() {
+        GameLoopMetrics metrics = new GameLoopMetrics();
+        metrics.recordUpdate(20);
+        metrics.recordCatchUpUpdates(2);
+
+        metrics.reset();
+
+        Assert.assertEquals(0, metrics.getUpdate().getCount());
+        Assert.assertEquals(0, metrics.getCatchUpUpdateCount());
+    }
+
+    /**
+     * Tests that the metrics can be read through the platform MBean server.
+     * 
+     * @throws JMException unexpected exception
+     */
+    @Test
+    public void testRegister() throws JMException {
+        GameLoopMetrics metrics = new GameLoopMetrics();
+        metrics.recordRender(1_000);
+        metrics.recordDroppedRenders(1);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        metrics.register("test");
+        try {
+            CompositeData render = (CompositeData) server.getAttribute(metrics.getObjectName(), "Render");
+            Assert.assertEquals(Long.valueOf(1), render.get("count"));
+            Assert.assertEquals(Long.valueOf(1_000), render.get("max"));
+            Assert.assertEquals(Long.valueOf(1), server.getAttribute(metrics.getObjectName(), "DroppedRenderCount"));
+        } finally {
+            metrics.unregister();
+        }
+        Assert.assertNull(metrics.getObjectName());
+    }
+
+    /**
+     * Tests that registering twice fails.
+     * 
+     * @throws JMException unexpected exception
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testRegisterTwice() throws JMException {
+        GameLoopMetrics metrics = new GameLoopMetrics();
+        metrics.register("twice");
+        try {
+            metrics.register("twice");
+        } finally {
+            metrics.unregister();
+        }
+    }
+
+    /** Tests that a summary can be logged. */
+    @Test
+    public void testLogSummary() {
+        GameLoopMetrics metrics = new GameLoopMetrics();
+        metrics.recordUpdate(1_000);
+
+        metrics.logSummary();
+    }
+}
@@ -0,0 +1,104 @@
+package nl.mvdr.game.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link LatencyHistogram}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class LatencyHistogramTest {
+    /** Tests that bucket indices and upper bounds are consistent with each other over the entire range. */
+    @Test
+    public void testBuckets() {
+        int previousIndex = -1;
+        for (long value = 0; 0 <= value && value < Long.MAX_VALUE / 2; value = value * 9 / 8 + 1) {
+            int index = LatencyHistogram.bucketIndex(value);
+            Assert.assertTrue(previousIndex <= index);
+            Assert.assertTrue(value <= LatencyHistogram.bucketUpperBound(index));
+            Assert.assertTrue(index == 0 || LatencyHistogram.bucketUpperBound(index - 1) < value);
+            previousIndex = index;
+        }
+        Assert.assertEquals(Long.MAX_VALUE,
+                LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+    }
+
+    /** Tests the percentiles of a uniform distribution. */
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value * 1_000);
+        }
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        Assert.assertEquals(10_000, snapshot.getCount());
+        Assert.assertEquals(5_000_500, snapshot.getMean());
+        assertApproximately(5_000_000, snapshot.getP50());
+        assertApproximately(9_900_000, snapshot.getP99());
+        assertApproximately(9_990_000, snapshot.getP999());
+        Assert.assertEquals(10_000_000, snapshot.getMax());
+    }
+
+    /** Tests a histogram with a single outlier. */
+    @Test
+    public void testOutlier() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        for (int i = 0; i != 999; i++) {
+            histogram.record(100);
+        }
+        histogram.record(1_000_000);
+
+        LatencySnapshot snapshot = histogram.snapshot();
+
+        Assert.assertEquals(100, snapshot.getP50(), 100 / 16);
+        Assert.assertEquals(100, snapshot.getP99(), 100 / 16);
+        Assert.assertEquals(1_000_000, snapshot.getMax());
+    }
+
+    /** Tests an empty histogram. */
+    @Test
+    public void testEmpty() {
+        LatencySnapshot snapshot = new LatencyHistogram("test").snapshot();
+
+        Assert.assertEquals(0, snapshot.getCount());
+        Assert.assertEquals(0, snapshot.getMean());
+        Assert.assertEquals(0, snapshot.getP99());
+        Assert.assertEquals(0, snapshot.getMax());
+    }
+
+    /** Tests {@link LatencyHistogram#reset()}. */
+    @Test
+    public void testReset() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+        histogram.record(42);
+
+        histogram.reset();
+
+        Assert.assertEquals(0, histogram.snapshot().getCount());
+        Assert.assertEquals(0, histogram.snapshot().getMax());
+    }
+
+    /** Tests that negative values are recorded as zero. */
+    @Test
+    public void testNegative() {
+        LatencyHistogram histogram = new LatencyHistogram("test");
+
+        histogram.record(-5);
+
+        Assert.assertEquals(1, histogram.snapshot().getCount());
+        Assert.assertEquals(0, histogram.snapshot().getMax());
+    }
+
+    /**
+     * Checks that the given value is within the histogram's resolution of the expected value.
+     * 
+     * @param expected expected value
+     * @param actual actual value
+     */
+    private static void assertApproximately(long expected, long actual) {
+        Assert.assertEquals(expected, actual, expected / 16.0);
+    }
+}
@@ -0,0 +1,262 @@
+package nl.mvdr.game.net;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import nl.mvdr.game.engine.HeadlessGameRunner;
+import nl.mvdr.game.engine.SimulationResult;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.snapshot.PositionGameEngine;
+import nl.mvdr.game.snapshot.PositionGameState;
+import nl.mvdr.game.snapshot.PositionGameStateCodec;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link GameHost}, using {@link GameClient}s over the loopback interface.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class GameHostTest {
+    /** Input: moving right. */
+    private static final InputState<DummyInput> RIGHT = BitmaskInputState.of(DummyInput.class,
+            EnumSet.of(DummyInput.RIGHT));
+
+    /** Host under test, for two players. */
+    private GameHost<PositionGameState, DummyInput> host;
+
+    /**
+     * Sets up the test fixture.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Before
+    public void setUp() throws Exception {
+        host = new GameHost<>(DummyInput.class, new PositionGameStateCodec(), 2,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        host.start();
+    }
+
+    /**
+     * Tears down the test fixture.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        host.close();
+    }
+
+    /**
+     * Creates a client.
+     * 
+     * @param player player index
+     * @return client
+     * @throws Exception unexpected exception
+     */
+    private GameClient<PositionGameState, DummyInput> createClient(int player) throws Exception {
+        return new GameClient<>(DummyInput.class, new PositionGameStateCodec(), player, host.getLocalAddress());
+    }
+
+    /**
+     * Tests that a client's input is returned by the corresponding input controller.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testInput() throws Exception {
+        InputController<DummyInput> controller0 = host.createInputController(0);
+        InputController<DummyInput> controller1 = host.createInputController(1);
+        try (GameClient<PositionGameState, DummyInput> client = createClient(1)) {
+            Assert.assertFalse(controller1.getInputState().isPressed(DummyInput.RIGHT));
+
+            client.sendInput(RIGHT);
+
+            waitUntil(() -> controller1.getInputState().isPressed(DummyInput.RIGHT));
+            Assert.assertTrue(host.isConnected(1));
+            Assert.assertFalse(host.isConnected(0));
+            Assert.assertEquals(BitmaskInputState.valueOf(DummyInput.class, 0L), controller0.getInputState());
+        }
+    }
+
+    /**
+     * Tests that rendered states are sent to the clients, and that round trips are measured.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testStatesAndRoundTrip() throws Exception {
+        InputController<DummyInput> controller = host.createInputController(0);
+        try (GameClient<PositionGameState, DummyInput> client = createClient(0)) {
+            client.sendInput(RIGHT);
+            waitUntil(() -> controller.getInputState().isPressed(DummyInput.RIGHT));
+
+            PositionGameState state = new PositionGameState(1L, 2, 3, 4);
+            host.render(state);
+            Optional<PositionGameState> received = Optional.empty();
+            while (!received.isPresent()) {
+                received = client.receive();
+            }
+            Assert.assertEquals(state, received.get());
+            Assert.assertEquals(0L, client.getFrame());
+
+            client.sendInput(RIGHT);
+            waitUntil(() -> {
+                controller.getInputState();
+                return host.getRoundTripTimes(0).getCount() == 1L;
+            });
+            Assert.assertTrue(0L <= host.getRoundTripTimes(0).getMax());
+            Assert.assertEquals(0L, host.getJitter(0));
+        }
+    }
+
+    /**
+     * Tests that input packets which arrive after a newer one are discarded.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testOutdatedInput() throws Exception {
+        InputController<DummyInput> controller = host.createInputController(0);
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.connect(host.getLocalAddress());
+            sendInputPacket(channel, 42L, 3L, 1L << DummyInput.RIGHT.ordinal());
+            waitUntil(() -> controller.getInputState().isPressed(DummyInput.RIGHT));
+
+            // Sequence number 1, which is older than the input received so far.
+            sendInputPacket(channel, 42L, 1L, 0L);
+
+            waitUntil(() -> {
+                controller.getInputState();
+                return host.getDiscardedInputs(0) != 0L;
+            });
+            Assert.assertTrue(controller.getInputState().isPressed(DummyInput.RIGHT));
+            Assert.assertEquals(0L, host.getRejectedInputs(0));
+        }
+    }
+
+    /**
+     * Tests that input from another session is rejected while the player's session is active, even if its sequence
+     * numbers are higher.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testOtherSessionRejected() throws Exception {
+        InputController<DummyInput> controller = host.createInputController(0);
+        try (GameClient<PositionGameState, DummyInput> client = createClient(0);
+                DatagramChannel intruder = DatagramChannel.open()) {
+            client.sendInput(RIGHT);
+            waitUntil(() -> controller.getInputState().isPressed(DummyInput.RIGHT));
+
+            intruder.connect(host.getLocalAddress());
+            sendInputPacket(intruder, 42L, Long.MAX_VALUE, 0L);
+
+            waitUntil(() -> {
+                controller.getInputState();
+                return host.getRejectedInputs(0) != 0L;
+            });
+            Assert.assertTrue(controller.getInputState().isPressed(DummyInput.RIGHT));
+            Assert.assertEquals(0L, host.getDiscardedInputs(0));
+        }
+    }
+
+    /**
+     * Tests that a restarted client takes over its player once the previous session has gone silent, even though its
+     * sequence numbers start over.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testReconnect() throws Exception {
+        try (GameHost<PositionGameState, DummyInput> reconnectHost = new GameHost<>(DummyInput.class,
+                new PositionGameStateCodec(), 1, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                20_000_000L)) {
+            reconnectHost.start();
+            InputController<DummyInput> controller = reconnectHost.createInputController(0);
+            try (GameClient<PositionGameState, DummyInput> client = new GameClient<>(DummyInput.class,
+                    new PositionGameStateCodec(), 0, reconnectHost.getLocalAddress())) {
+                for (int i = 0; i != 3; i++) {
+                    client.sendInput(RIGHT);
+                }
+                waitUntil(() -> controller.getInputState().isPressed(DummyInput.RIGHT));
+            }
+            Thread.sleep(50L);
+
+            try (GameClient<PositionGameState, DummyInput> restarted = new GameClient<>(DummyInput.class,
+                    new PositionGameStateCodec(), 0, reconnectHost.getLocalAddress())) {
+                restarted.sendInput(BitmaskInputState.valueOf(DummyInput.class, 0L));
+
+                waitUntil(() -> !controller.getInputState().isPressed(DummyInput.RIGHT));
+                Assert.assertEquals(0L, reconnectHost.getDiscardedInputs(0));
+                Assert.assertEquals(0L, reconnectHost.getRejectedInputs(0));
+            }
+        }
+    }
+
+    /**
+     * Tests that the game runs without stalling if no input arrives at all.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testNoStallWithoutInput() throws Exception {
+        List<InputController<DummyInput>> controllers = Collections.singletonList(host.createInputController(0));
+        HeadlessGameRunner<PositionGameState, DummyInput> runner = new HeadlessGameRunner<>(controllers,
+                new PositionGameEngine(), host, 1, 1_000L);
+
+        SimulationResult<PositionGameState> result = runner.run();
+
+        Assert.assertEquals(1_000L, result.getTickCount());
+        Assert.assertEquals(new PositionGameState(1_000L, 0, 0, 0), result.getFinalState());
+    }
+
+    /**
+     * Sends a hand-crafted input packet for player 0, with a single-word bitmask.
+     * 
+     * @param channel channel, connected to the host
+     * @param session session id
+     * @param sequence sequence number
+     * @param word input bitmask
+     * @throws Exception unexpected exception
+     */
+    private static void sendInputPacket(DatagramChannel channel, long session, long sequence, long word)
+            throws Exception {
+        ByteBuffer buffer = ByteBuffer.allocate(HostProtocol.INPUT_HEADER_SIZE + Long.BYTES);
+        buffer.put(HostProtocol.INPUT);
+        buffer.put((byte) 0);
+        buffer.putLong(session);
+        buffer.putLong(sequence);
+        buffer.putLong(0L);
+        buffer.putLong(0L);
+        buffer.put((byte) 1);
+        buffer.putLong(word);
+        buffer.flip();
+        channel.write(buffer);
+    }
+
+    /**
+     * Waits until the given condition holds.
+     * 
+     * @param condition condition
+     * @throws InterruptedException if interrupted
+     */
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(1L);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package nl.mvdr.game.net;
+
+import java.nio.ByteBuffer;
+
+import nl.mvdr.game.snapshot.GameStateCodec;
+import nl.mvdr.game.snapshot.PositionGameState;
+import nl.mvdr.game.snapshot.PositionGameStateCodec;
+
+/**
+ * Codec for {@link PositionGameState} which pads the encoding with a large number of bytes, all of which change on
+ * every update. Useful for producing a lot of traffic.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class PaddedGameStateCodec implements GameStateCodec<PositionGameState> {
+    /** Codec for the actual state. */
+    private final PositionGameStateCodec codec = new PositionGameStateCodec();
+    /** Number of padding bytes. */
+    private final int padding;
+
+    /**
+     * Constructor.
+     * 
+     * @param padding number of padding bytes
+     */
+    public PaddedGameStateCodec(int padding) {
+        super();
+        this.padding = padding;
+    }
+
+    /** @return size of an encoded state, in bytes */
+    public int getSize() {
+        return PositionGameStateCodec.SIZE + padding;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(PositionGameState state, ByteBuffer buffer) {
+        codec.write(state, buffer);
+        byte value = (byte) state.getUpdates();
+        for (int i = 0; i != padding; i++) {
+            buffer.put(value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PositionGameState read(ByteBuffer buffer) {
+        PositionGameState result = codec.read(buffer);
+        for (int i = 0; i != padding; i++) {
+            if (buffer.get() != (byte) result.getUpdates()) {
+                throw new IllegalStateException("Invalid padding in " + result);
+            }
+        }
+        return result;
+    }
+}
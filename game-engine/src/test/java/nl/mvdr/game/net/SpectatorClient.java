@@ -0,0 +1,86 @@
+package nl.mvdr.game.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import nl.mvdr.game.snapshot.DeltaDecoder;
+import nl.mvdr.game.snapshot.GameStateCodec;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Simple blocking spectator client, for testing {@link SpectatorServer}.
+ * 
+ * @param <S> game state type
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SpectatorClient<S extends GameState> implements Closeable {
+    /** Channel. */
+    private final SocketChannel channel;
+    /** Decoder. */
+    private final DeltaDecoder<S> decoder;
+    /** Received bytes which have not been decoded yet. */
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+
+    /**
+     * Constructor. Connects to the server and reads the stream header.
+     * 
+     * @param address server address
+     * @param codec codec for the game states
+     * @throws IOException if connecting failed
+     */
+    public SpectatorClient(SocketAddress address, GameStateCodec<S> codec) throws IOException {
+        super();
+        this.channel = SocketChannel.open(address);
+        this.decoder = new DeltaDecoder<>(codec);
+        while (buffer.position() < DeltaDecoder.HEADER_SIZE) {
+            receive();
+        }
+        buffer.flip();
+        DeltaDecoder.readHeader(buffer);
+        buffer.compact();
+    }
+
+    /**
+     * Receives more bytes.
+     * 
+     * @throws IOException if reading failed or the server closed the connection
+     */
+    private void receive() throws IOException {
+        if (channel.read(buffer) < 0) {
+            throw new IOException("Connection closed by server.");
+        }
+    }
+
+    /**
+     * Blocks until the next frame has been received.
+     * 
+     * @return decoded state
+     * @throws IOException if reading failed
+     */
+    public S next() throws IOException {
+        buffer.flip();
+        while (DeltaDecoder.completeFrameLength(buffer) < 0) {
+            buffer.compact();
+            receive();
+            buffer.flip();
+        }
+        S result = decoder.decode(buffer);
+        buffer.compact();
+        return result;
+    }
+
+    /** @return tick number of the latest received frame */
+    public long getTick() {
+        return decoder.getTick();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,170 @@
+package nl.mvdr.game.net;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+
+import nl.mvdr.game.snapshot.PositionGameState;
+import nl.mvdr.game.snapshot.PositionGameStateCodec;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SpectatorServer}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SpectatorServerTest {
+    /** Server under test. */
+    private SpectatorServer<PositionGameState> server;
+
+    /**
+     * Tears down the test fixture.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    /**
+     * Tests broadcasting to multiple spectators.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testBroadcast() throws Exception {
+        server = new SpectatorServer<>(new PositionGameStateCodec(), PositionGameStateCodec.SIZE, 10, loopback(), 64);
+        server.start();
+        try (SpectatorClient<PositionGameState> first = new SpectatorClient<>(server.getLocalAddress(),
+                new PositionGameStateCodec());
+                SpectatorClient<PositionGameState> second = new SpectatorClient<>(server.getLocalAddress(),
+                        new PositionGameStateCodec())) {
+            waitUntil(() -> server.getSpectatorCount() == 2);
+
+            for (int i = 0; i != 25; i++) {
+                server.render(new PositionGameState(i, i, 2 * i, 0));
+            }
+
+            for (int i = 0; i != 25; i++) {
+                Assert.assertEquals(new PositionGameState(i, i, 2 * i, 0), first.next());
+                Assert.assertEquals(new PositionGameState(i, i, 2 * i, 0), second.next());
+            }
+            Assert.assertEquals(0L, server.getSkippedFrames());
+        }
+    }
+
+    /**
+     * Tests that a spectator joining halfway starts at a keyframe.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testJoinHalfway() throws Exception {
+        server = new SpectatorServer<>(new PositionGameStateCodec(), PositionGameStateCodec.SIZE, 1000, loopback(),
+                64);
+        server.start();
+        for (int i = 0; i != 10; i++) {
+            server.render(new PositionGameState(i, i, 0, 0));
+        }
+        try (SpectatorClient<PositionGameState> client = new SpectatorClient<>(server.getLocalAddress(),
+                new PositionGameStateCodec())) {
+            waitUntil(() -> server.getSpectatorCount() == 1);
+
+            server.render(new PositionGameState(10L, 10, 0, 0));
+            server.render(new PositionGameState(11L, 11, 0, 0));
+
+            Assert.assertEquals(new PositionGameState(10L, 10, 0, 0), client.next());
+            Assert.assertEquals(new PositionGameState(11L, 11, 0, 0), client.next());
+        }
+    }
+
+    /**
+     * Tests that a spectator which does not read does not block rendering, and skips frames instead.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 30_000L)
+    public void testSlowSpectator() throws Exception {
+        PaddedGameStateCodec codec = new PaddedGameStateCodec(16 * 1024);
+        server = new SpectatorServer<>(codec, codec.getSize(), 1, loopback(), 4);
+        server.start();
+        int frames = 2_000;
+        try (SpectatorClient<PositionGameState> client = new SpectatorClient<>(server.getLocalAddress(), codec)) {
+            waitUntil(() -> server.getSpectatorCount() == 1);
+
+            // The client does not read anything while the frames are rendered.
+            for (int i = 0; i != frames; i++) {
+                server.render(new PositionGameState(i, i, 0, 0));
+            }
+
+            Assert.assertTrue(0L < server.getSkippedFrames());
+
+            // Frames may be skipped at any point, so keep rendering until the client has caught up.
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            try {
+                Future<?> reader = executor.submit(() -> {
+                    long previousTick = -1L;
+                    while (client.getTick() < frames) {
+                        PositionGameState state = client.next();
+                        Assert.assertTrue(previousTick < client.getTick());
+                        Assert.assertEquals(new PositionGameState(client.getTick(), (int) client.getTick(), 0, 0),
+                                state);
+                        previousTick = client.getTick();
+                    }
+                    return null;
+                });
+                for (int i = frames; !reader.isDone(); i++) {
+                    server.render(new PositionGameState(i, i, 0, 0));
+                    Thread.sleep(1L);
+                }
+                reader.get();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Tests that disconnected spectators are removed.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test(timeout = 10_000L)
+    public void testDisconnect() throws Exception {
+        server = new SpectatorServer<>(new PositionGameStateCodec(), PositionGameStateCodec.SIZE, 10, loopback(), 64);
+        server.start();
+        SpectatorClient<PositionGameState> client = new SpectatorClient<>(server.getLocalAddress(),
+                new PositionGameStateCodec());
+        waitUntil(() -> server.getSpectatorCount() == 1);
+
+        client.close();
+
+        waitUntil(() -> server.getSpectatorCount() == 0);
+    }
+
+    /** @return loopback address with an arbitrary port */
+    private static InetSocketAddress loopback() {
+        return new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+    }
+
+    /**
+     * Waits until the given condition holds.
+     * 
+     * @param condition condition
+     * @throws InterruptedException if interrupted
+     */
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(5L);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package nl.mvdr.game.replay;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.DummyInputController;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link RecordingInputController}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class RecordingInputControllerTest {
+    /** Temporary folder for recordings. */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that the delegate's input state is passed through unchanged.
+     * 
+     * @throws IOException unexpected exception
+     */
+    @Test
+    public void testPassThrough() throws IOException {
+        InputState<DummyInput> state = input -> input == DummyInput.A;
+        InputController<DummyInput> delegate = () -> state;
+        Path file = folder.newFile().toPath();
+
+        try (RecordingInputController<DummyInput> recorder = new RecordingInputController<>(DummyInput.class,
+                delegate, file)) {
+            Assert.assertSame(state, recorder.getInputState());
+            Assert.assertEquals(1, recorder.getTickCount());
+        }
+    }
+
+    /**
+     * Tests that unchanged ticks are run-length encoded.
+     * 
+     * @throws IOException unexpected exception
+     */
+    @Test
+    public void testRunLengthEncoding() throws IOException {
+        Path file = folder.newFile().toPath();
+
+        try (RecordingInputController<DummyInput> recorder = new RecordingInputController<>(DummyInput.class,
+                new DummyInputController<>(), file)) {
+            for (int i = 0; i != 1_000; i++) {
+                recorder.getInputState();
+            }
+        }
+
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(file));
+        Assert.assertEquals(ReplayFormat.HEADER_SIZE + ReplayFormat.runSize(1), contents.remaining());
+        Assert.assertEquals(ReplayFormat.MAGIC, contents.getInt());
+        Assert.assertEquals(ReplayFormat.VERSION, contents.getInt());
+        Assert.assertEquals(DummyInput.values().length, contents.getInt());
+        Assert.assertEquals(1_000, contents.getInt());
+        Assert.assertEquals(0L, contents.getLong());
+    }
+
+    /**
+     * Tests recording more runs than fit into a single mapped region.
+     * 
+     * @throws IOException unexpected exception
+     */
+    @Test
+    public void testLargeRecording() throws IOException {
+        Path file = folder.newFile().toPath();
+        int[] tick = new int[1];
+        InputController<DummyInput> delegate = () -> {
+            int currentTick = tick[0]++;
+            return input -> input == DummyInput.A && currentTick % 2 == 0;
+        };
+
+        try (RecordingInputController<DummyInput> recorder = new RecordingInputController<>(DummyInput.class,
+                delegate, file)) {
+            for (int i = 0; i != 100_000; i++) {
+                recorder.getInputState();
+            }
+        }
+
+        Assert.assertEquals(ReplayFormat.HEADER_SIZE + 100_000L * ReplayFormat.runSize(1), Files.size(file));
+    }
+
+    /**
+     * Tests that recording after closing fails.
+     * 
+     * @throws IOException unexpected exception
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testClosed() throws IOException {
+        RecordingInputController<DummyInput> recorder = new RecordingInputController<>(DummyInput.class,
+                new DummyInputController<>(), folder.newFile().toPath());
+        recorder.close();
+
+        recorder.getInputState();
+    }
+}
@@ -0,0 +1,147 @@
+package nl.mvdr.game.replay;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+import nl.mvdr.game.input.LargeDummyInput;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test class for {@link ReplayInputController}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class ReplayInputControllerTest {
+    /** Temporary folder for recordings. */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that replaying a recording results in the same sequence of input states.
+     * 
+     * @throws IOException unexpected exception
+     */
+    @Test
+    public void testRoundTrip() throws IOException {
+        List<InputState<DummyInput>> states = new ArrayList<>();
+        for (int i = 0; i != 500; i++) {
+            states.add(BitmaskInputState.valueOf(DummyInput.class, i / 7 % 5));
+        }
+        Path file = record(DummyInput.class, states);
+
+        ReplayInputController<DummyInput> replay = new ReplayInputController<>(DummyInput.class, file);
+
+        for (InputState<DummyInput> state : states) {
+            Assert.assertFalse(replay.isFinished());
+            Assert.assertEquals(state, replay.getInputState());
+        }
+        Assert.assertTrue(replay.isFinished());
+        Assert.assertEquals(500, replay.getTickCount());
+        Assert.assertEquals(BitmaskInputState.valueOf(DummyInput.class, 0L), replay.getInputState());
+    }
+
+    /**
+     * Tests replaying a recording for an input type with more than 64 constants.
+     * 
+     * @throws IOException unexpected exception
+     */
+    @Test
+    public void testLargeEnum() throws IOException {
+        List<InputState<LargeDummyInput>> states = new ArrayList<>();
+        states.add(BitmaskInputState.of(LargeDummyInput.class, EnumSet.of(LargeDummyInput.INPUT_69)));
+        states.add(BitmaskInputState.of(LargeDummyInput.class, EnumSet.of(LargeDummyInput.INPUT_1)));
+        Path file = record(LargeDummyInput.class, states);
+
+        ReplayInputController<LargeDummyInput> replay = new ReplayInputController<>(LargeDummyInput.class, file);
+
+        Assert.assertTrue(replay.getInputState().isPressed(LargeDummyInput.INPUT_69));
+        Assert.assertTrue(replay.getInputState().isPressed(LargeDummyInput.INPUT_1));
+        Assert.assertTrue(replay.isFinished());
+    }
+
+    /**
+     * Tests replaying a recording which was never closed.
+     * 
+     * @throws IOException unexpected exception
+     */
+    @Test
+    public void testUnclosedRecording() throws IOException {
+        Path file = folder.newFile().toPath();
+        InputState<DummyInput> state = BitmaskInputState.valueOf(DummyInput.class, 3L);
+        @SuppressWarnings("resource")
+        RecordingInputController<DummyInput> recorder = new RecordingInputController<>(DummyInput.class, () -> state,
+                file);
+        for (int i = 0; i != 10; i++) {
+            recorder.getInputState();
+        }
+
+        ReplayInputController<DummyInput> replay = new ReplayInputController<>(DummyInput.class, file);
+
+        for (int i = 0; i != 10; i++) {
+            Assert.assertEquals(state, replay.getInputState());
+        }
+        Assert.assertTrue(replay.isFinished());
+        recorder.close();
+    }
+
+    /**
+     * Tests replaying a recording for a different input type.
+     * 
+     * @throws IOException expected exception
+     */
+    @Test(expected = IOException.class)
+    public void testWrongInputType() throws IOException {
+        List<InputState<DummyInput>> states = new ArrayList<>();
+        states.add(BitmaskInputState.valueOf(DummyInput.class, 1L));
+        Path file = record(DummyInput.class, states);
+
+        new ReplayInputController<>(LargeDummyInput.class, file);
+    }
+
+    /**
+     * Tests replaying a file which is not a recording.
+     * 
+     * @throws IOException expected exception
+     */
+    @Test(expected = IOException.class)
+    public void testInvalidFile() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, "not a recording".getBytes("UTF-8"));
+
+        new ReplayInputController<>(DummyInput.class, file);
+    }
+
+    /**
+     * Records the given input states.
+     *
+     * @param <S> input type
+     * @param inputType input type
+     * @param states input states
+     * @return file containing the recording
+     * @throws IOException unexpected exception
+     */
+    private <S extends Enum<S>> Path record(Class<S> inputType, List<InputState<S>> states) throws IOException {
+        Path file = folder.newFile().toPath();
+        Iterator<InputState<S>> iterator = states.iterator();
+        InputController<S> delegate = iterator::next;
+        try (RecordingInputController<S> recorder = new RecordingInputController<>(inputType, delegate, file)) {
+            for (int i = 0; i != states.size(); i++) {
+                recorder.getInputState();
+            }
+        }
+        return file;
+    }
+}
@@ -0,0 +1,32 @@
+package nl.mvdr.game.rollback;
+
+import java.util.List;
+
+import nl.mvdr.game.engine.GameEngine;
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.InputState;
+
+/**
+ * Game engine for {@link CounterGameState}, which hashes all inputs into the state's value.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class CounterGameEngine implements GameEngine<CounterGameState, DummyInput> {
+    /** {@inheritDoc} */
+    @Override
+    public CounterGameState initGameState() {
+        return new CounterGameState(17L);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public CounterGameState computeNextState(CounterGameState previousState,
+            List<InputState<DummyInput>> inputStates) {
+        long value = previousState.getValue();
+        for (InputState<DummyInput> inputState : inputStates) {
+            value = value * 31 + BitmaskInputState.copyOf(DummyInput.class, inputState).getBits();
+        }
+        return new CounterGameState(value);
+    }
+}
@@ -0,0 +1,27 @@
+package nl.mvdr.game.rollback;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Game state containing a single value, which depends on the entire history of inputs.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class CounterGameState implements GameState {
+    /** Value. */
+    private final long value;
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isGameOver() {
+        return false;
+    }
+}
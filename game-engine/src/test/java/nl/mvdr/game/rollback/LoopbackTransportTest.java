@@ -0,0 +1,69 @@
+package nl.mvdr.game.rollback;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.DummyInput;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link LoopbackTransport}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class LoopbackTransportTest {
+    /** Tests that inputs are delivered to the other endpoint after the given latency. */
+    @Test
+    public void testLatency() {
+        LoopbackTransport<DummyInput> transport = LoopbackTransport.create(2);
+        RemoteInput<DummyInput> input = new RemoteInput<>(0L, 0, BitmaskInputState.valueOf(DummyInput.class, 1L));
+        List<RemoteInput<DummyInput>> received = new ArrayList<>();
+
+        transport.send(input);
+
+        transport.receive(received::add);
+        Assert.assertTrue(received.isEmpty());
+        transport.getPeer().receive(received::add);
+        Assert.assertTrue(received.isEmpty());
+        transport.getPeer().receive(received::add);
+        Assert.assertTrue(received.isEmpty());
+        transport.getPeer().receive(received::add);
+        Assert.assertEquals(1, received.size());
+        Assert.assertSame(input, received.get(0));
+    }
+
+    /** Tests that inputs are delivered on the next receive, in order, without latency. */
+    @Test
+    public void testNoLatency() {
+        LoopbackTransport<DummyInput> transport = LoopbackTransport.create(0);
+        RemoteInput<DummyInput> input0 = new RemoteInput<>(0L, 1, BitmaskInputState.valueOf(DummyInput.class, 1L));
+        RemoteInput<DummyInput> input1 = new RemoteInput<>(1L, 1, BitmaskInputState.valueOf(DummyInput.class, 2L));
+        List<RemoteInput<DummyInput>> received = new ArrayList<>();
+
+        transport.getPeer().send(input0);
+        transport.getPeer().send(input1);
+        transport.receive(received::add);
+
+        Assert.assertEquals(2, received.size());
+        Assert.assertSame(input0, received.get(0));
+        Assert.assertSame(input1, received.get(1));
+    }
+
+    /** Tests that the endpoints are connected to each other. */
+    @Test
+    public void testPeer() {
+        LoopbackTransport<DummyInput> transport = LoopbackTransport.create(1);
+
+        Assert.assertSame(transport, transport.getPeer().getPeer());
+        Assert.assertNotSame(transport, transport.getPeer());
+    }
+
+    /** Tests creating a transport with a negative latency. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeLatency() {
+        LoopbackTransport.create(-1);
+    }
+}
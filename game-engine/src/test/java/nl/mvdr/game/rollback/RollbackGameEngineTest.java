@@ -0,0 +1,246 @@
+package nl.mvdr.game.rollback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.Collectors;
+
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.InputController;
+import nl.mvdr.game.input.InputState;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link RollbackGameEngine}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class RollbackGameEngineTest {
+    /** Number of updates in each test. */
+    private static final int UPDATES = 300;
+    /** Input of player 0 at the given tick. Changes every few ticks, so that predictions are sometimes wrong. */
+    private static final LongUnaryOperator PLAYER_0 = tick -> tick / 5 % 3;
+    /** Input of player 1 at the given tick. */
+    private static final LongUnaryOperator PLAYER_1 = tick -> tick / 7 % 4 << 2;
+
+    /** Tests that both peers arrive at the same game states as a local game, despite latency. */
+    @Test
+    public void testRollback() {
+        LoopbackTransport<DummyInput> transport = LoopbackTransport.create(3);
+        Peer peer0 = new Peer(transport, 0);
+        Peer peer1 = new Peer(transport.getPeer(), 1);
+
+        for (int i = 0; i != UPDATES; i++) {
+            peer0.update();
+            peer1.update();
+        }
+
+        CounterGameState[] expected = simulateLocally();
+        Assert.assertEquals(UPDATES, peer0.engine.getCurrentTick());
+        Assert.assertEquals(UPDATES, peer1.engine.getCurrentTick());
+        assertConfirmedState(expected, peer0.engine);
+        assertConfirmedState(expected, peer1.engine);
+        Assert.assertTrue(UPDATES - 6 <= peer0.engine.getConfirmedTick());
+        Assert.assertEquals(0, peer0.engine.getStallCount());
+        Assert.assertTrue(0 < peer0.engine.getRollbackCount());
+        Assert.assertTrue(0 < peer1.engine.getResimulatedTicks());
+        // Once the remote inputs have arrived, the current state is correct as well.
+        Assert.assertEquals(expected[UPDATES], peer0.state);
+    }
+
+    /** Tests that a peer stalls when the latency exceeds the maximum rollback, and still arrives at the same states. */
+    @Test
+    public void testStall() {
+        LoopbackTransport<DummyInput> transport = LoopbackTransport.create(12);
+        Peer peer0 = new Peer(transport, 0);
+        Peer peer1 = new Peer(transport.getPeer(), 1);
+
+        for (int i = 0; i != UPDATES; i++) {
+            peer0.update();
+            peer1.update();
+        }
+
+        CounterGameState[] expected = simulateLocally();
+        Assert.assertTrue(0 < peer0.engine.getStallCount());
+        Assert.assertTrue(peer0.engine.getCurrentTick() < UPDATES);
+        assertConfirmedState(expected, peer0.engine);
+        assertConfirmedState(expected, peer1.engine);
+    }
+
+    /** Tests that a perfect prediction does not lead to a rollback. */
+    @Test
+    public void testNoRollbackWhenInputUnchanged() {
+        LoopbackTransport<DummyInput> transport = LoopbackTransport.create(3);
+        Peer peer0 = new Peer(transport, 0, tick -> 1L, tick -> 2L);
+        Peer peer1 = new Peer(transport.getPeer(), 1, tick -> 1L, tick -> 2L);
+
+        for (int i = 0; i != UPDATES; i++) {
+            peer0.update();
+            peer1.update();
+        }
+
+        // Only the very first prediction (nothing pressed) is wrong.
+        Assert.assertEquals(1, peer0.engine.getRollbackCount());
+        Assert.assertEquals(1, peer1.engine.getRollbackCount());
+        Assert.assertEquals(peer0.state, peer1.state);
+    }
+
+    /**
+     * Tests that the peers keep going and arrive at the same states when inputs are delivered out of order. Peer 1
+     * runs ahead, and peer 0 receives its inputs in bursts in reverse order, so inputs for ticks far beyond the first
+     * unconfirmed tick arrive before the inputs for that tick.
+     */
+    @Test
+    public void testOutOfOrderDelivery() {
+        LoopbackTransport<DummyInput> transport = LoopbackTransport.create(0);
+        Peer peer0 = new Peer(new ReversingTransport(transport, 20), 0);
+        Peer peer1 = new Peer(transport.getPeer(), 1);
+
+        for (int i = 0; i != UPDATES; i++) {
+            peer0.update();
+            // Peer 1 runs at twice the update rate, so it gets as far ahead as the maximum rollback allows.
+            peer1.update();
+            peer1.update();
+        }
+
+        CounterGameState[] expected = simulateLocally();
+        Assert.assertTrue(UPDATES / 2 < peer0.engine.getCurrentTick());
+        Assert.assertTrue(peer0.engine.getCurrentTick() - 20 <= peer0.engine.getConfirmedTick());
+        Assert.assertTrue(peer1.engine.getCurrentTick() - 20 <= peer1.engine.getConfirmedTick());
+        assertConfirmedState(expected, peer0.engine);
+        assertConfirmedState(expected, peer1.engine);
+    }
+
+    /** Tests that an input controller cannot be created for a local player. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoteInputControllerForLocalPlayer() {
+        RollbackGameEngine<CounterGameState, DummyInput> engine = new RollbackGameEngine<>(new CounterGameEngine(),
+                DummyInput.class, 2, Collections.singleton(Integer.valueOf(0)), LoopbackTransport.create(0), 8);
+
+        engine.createRemoteInputController(0);
+    }
+
+    /**
+     * Checks the confirmed state of the given engine.
+     * 
+     * @param expected expected states, by tick
+     * @param engine engine
+     */
+    private static void assertConfirmedState(CounterGameState[] expected,
+            RollbackGameEngine<CounterGameState, DummyInput> engine) {
+        Assert.assertEquals(expected[(int) engine.getConfirmedTick() + 1], engine.getConfirmedState());
+    }
+
+    /** @return game states of a game without rollback, by tick */
+    private static CounterGameState[] simulateLocally() {
+        CounterGameEngine engine = new CounterGameEngine();
+        CounterGameState[] result = new CounterGameState[UPDATES + 1];
+        result[0] = engine.initGameState();
+        for (int tick = 0; tick != UPDATES; tick++) {
+            List<InputState<DummyInput>> inputs = Arrays.asList(
+                    BitmaskInputState.valueOf(DummyInput.class, PLAYER_0.applyAsLong(tick)),
+                    BitmaskInputState.valueOf(DummyInput.class, PLAYER_1.applyAsLong(tick)));
+            result[tick + 1] = engine.computeNextState(result[tick], inputs);
+        }
+        return result;
+    }
+
+    /** A single peer in a two-player game, driven the same way as the game loop would. */
+    private static class Peer {
+        /** Rollback engine. */
+        private final RollbackGameEngine<CounterGameState, DummyInput> engine;
+        /** Input controllers, for both players. */
+        private final List<InputController<DummyInput>> inputControllers;
+        /** Current state. */
+        private CounterGameState state;
+
+        /**
+         * Constructor.
+         * 
+         * @param transport transport
+         * @param localPlayer index of the local player
+         */
+        private Peer(InputTransport<DummyInput> transport, int localPlayer) {
+            this(transport, localPlayer, PLAYER_0, PLAYER_1);
+        }
+
+        /**
+         * Constructor.
+         * 
+         * @param transport transport
+         * @param localPlayer index of the local player
+         * @param player0 input of player 0 by tick
+         * @param player1 input of player 1 by tick
+         */
+        private Peer(InputTransport<DummyInput> transport, int localPlayer, LongUnaryOperator player0,
+                LongUnaryOperator player1) {
+            super();
+            this.engine = new RollbackGameEngine<>(new CounterGameEngine(), DummyInput.class, 2,
+                    Collections.singleton(Integer.valueOf(localPlayer)), transport, 8);
+            LongUnaryOperator localInput = localPlayer == 0 ? player0 : player1;
+            // The local input is a function of the tick, so that inputs during stalls are not lost.
+            InputController<DummyInput> localController = () -> BitmaskInputState.valueOf(DummyInput.class,
+                    localInput.applyAsLong(engine.getCurrentTick()));
+            InputController<DummyInput> remoteController = engine.createRemoteInputController(1 - localPlayer);
+            this.inputControllers = localPlayer == 0 ? Arrays.asList(localController, remoteController)
+                    : Arrays.asList(remoteController, localController);
+            this.state = engine.initGameState();
+        }
+
+        /** Performs a single update. */
+        private void update() {
+            List<InputState<DummyInput>> inputs = inputControllers.stream()
+                .map(InputController::getInputState)
+                .collect(Collectors.toList());
+            state = engine.computeNextState(state, inputs);
+        }
+    }
+
+    /** Transport which holds back received inputs for a number of updates, then delivers them in reverse order. */
+    private static class ReversingTransport implements InputTransport<DummyInput> {
+        /** Underlying transport. */
+        private final InputTransport<DummyInput> delegate;
+        /** Number of calls to {@link #receive(Consumer)} between deliveries. */
+        private final int interval;
+        /** Inputs which have been received from the underlying transport, but have not been delivered yet. */
+        private final List<RemoteInput<DummyInput>> held = new ArrayList<>();
+        /** Number of calls to {@link #receive(Consumer)} so far. */
+        private long receiveCount;
+
+        /**
+         * Constructor.
+         * 
+         * @param delegate underlying transport
+         * @param interval number of calls to {@link #receive(Consumer)} between deliveries
+         */
+        private ReversingTransport(InputTransport<DummyInput> delegate, int interval) {
+            super();
+            this.delegate = delegate;
+            this.interval = interval;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void send(RemoteInput<DummyInput> input) {
+            delegate.send(input);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void receive(Consumer<RemoteInput<DummyInput>> consumer) {
+            delegate.receive(held::add);
+            receiveCount++;
+            if (receiveCount % interval == 0) {
+                Collections.reverse(held);
+                held.forEach(consumer);
+                held.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package nl.mvdr.game.snapshot;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link DeltaDecoder}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class DeltaDecoderTest {
+    /** Number of frames in the test stream. */
+    private static final int FRAMES = 50;
+
+    /** Complete stream, with a keyframe interval of 8. */
+    private ByteBuffer stream;
+
+    /** Sets up the test fixture. */
+    @Before
+    public void setUp() {
+        DeltaEncoder<PositionGameState> encoder = new DeltaEncoder<>(new PositionGameStateCodec(),
+                PositionGameStateCodec.SIZE, 8);
+        stream = ByteBuffer.allocate(DeltaFormat.HEADER_SIZE + FRAMES * encoder.getMaxFrameSize());
+        encoder.writeHeader(stream);
+        for (int i = 0; i != FRAMES; i++) {
+            encoder.encode(i, createState(i), stream);
+        }
+        stream.flip();
+    }
+
+    /**
+     * Creates the state for the given tick.
+     * 
+     * @param tick tick number
+     * @return state
+     */
+    private static PositionGameState createState(int tick) {
+        return new PositionGameState(tick, tick * 3, -tick, tick / 10);
+    }
+
+    /** Tests decoding all frames in order. */
+    @Test
+    public void testNext() {
+        DeltaDecoder<PositionGameState> decoder = new DeltaDecoder<>(new PositionGameStateCodec(), stream);
+
+        for (int i = 0; i != FRAMES; i++) {
+            Assert.assertTrue(decoder.hasNext());
+            Assert.assertEquals(createState(i), decoder.next());
+            Assert.assertEquals(i, decoder.getTick());
+        }
+        Assert.assertFalse(decoder.hasNext());
+        // The stream passed in is not modified.
+        Assert.assertEquals(0, stream.position());
+    }
+
+    /** Tests seeking forwards and backwards. */
+    @Test
+    public void testSeek() {
+        DeltaDecoder<PositionGameState> decoder = new DeltaDecoder<>(new PositionGameStateCodec(), stream);
+
+        Assert.assertEquals(Optional.of(createState(37)), decoder.seek(37L));
+        Assert.assertEquals(37L, decoder.getTick());
+        Assert.assertEquals(createState(38), decoder.next());
+        Assert.assertEquals(Optional.of(createState(3)), decoder.seek(3L));
+        Assert.assertEquals(Optional.of(createState(42)), decoder.seek(42L));
+        Assert.assertEquals(Optional.of(createState(0)), decoder.seek(0L));
+        Assert.assertEquals(Optional.of(createState(FRAMES - 1)), decoder.seek(1000L));
+        Assert.assertFalse(decoder.hasNext());
+        Assert.assertFalse(decoder.seek(-1L).isPresent());
+    }
+
+    /** Tests decoding a live stream, frame by frame. */
+    @Test
+    public void testDecodeLive() {
+        DeltaDecoder<PositionGameState> decoder = new DeltaDecoder<>(new PositionGameStateCodec());
+
+        Assert.assertEquals(8, DeltaDecoder.readHeader(stream));
+        for (int i = 0; i != FRAMES; i++) {
+            Assert.assertEquals(createState(i), decoder.decode(stream));
+        }
+        Assert.assertFalse(stream.hasRemaining());
+    }
+
+    /** Tests joining a live stream halfway, at a delta frame. */
+    @Test(expected = IllegalStateException.class)
+    public void testDecodeDeltaWithoutKeyframe() {
+        DeltaDecoder<PositionGameState> decoder = new DeltaDecoder<>(new PositionGameStateCodec());
+        DeltaDecoder.readHeader(stream);
+        new DeltaDecoder<>(new PositionGameStateCodec()).decode(stream);
+
+        decoder.decode(stream);
+    }
+
+    /** Tests that an incomplete frame at the end of the stream is ignored. */
+    @Test
+    public void testTruncatedStream() {
+        stream.limit(stream.limit() - 1);
+        DeltaDecoder<PositionGameState> decoder = new DeltaDecoder<>(new PositionGameStateCodec(), stream);
+
+        Assert.assertEquals(Optional.of(createState(FRAMES - 2)), decoder.seek(FRAMES));
+        Assert.assertFalse(decoder.hasNext());
+    }
+
+    /** Tests reading a stream with an invalid header. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHeader() {
+        stream.putInt(0, 0x12345678);
+
+        new DeltaDecoder<>(new PositionGameStateCodec(), stream);
+    }
+}
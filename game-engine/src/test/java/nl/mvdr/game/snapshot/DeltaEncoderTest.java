@@ -0,0 +1,105 @@
+package nl.mvdr.game.snapshot;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link DeltaEncoder}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class DeltaEncoderTest {
+    /** Encoder under test, with a keyframe interval of 4. */
+    private DeltaEncoder<PositionGameState> encoder;
+    /** Buffer for a frame. */
+    private ByteBuffer frame;
+
+    /** Sets up the test fixture. */
+    @Before
+    public void setUp() {
+        encoder = new DeltaEncoder<>(new PositionGameStateCodec(), PositionGameStateCodec.SIZE, 4);
+        frame = ByteBuffer.allocate(encoder.getMaxFrameSize());
+    }
+
+    /** Tests that the first frame is a keyframe, containing the full state. */
+    @Test
+    public void testFirstFrameIsKeyframe() {
+        boolean keyframe = encoder.encode(0L, new PositionGameState(0L, 1, 2, 3), frame);
+
+        Assert.assertTrue(keyframe);
+        Assert.assertEquals(DeltaFormat.FRAME_HEADER_SIZE + PositionGameStateCodec.SIZE, frame.position());
+    }
+
+    /** Tests that small changes are encoded as small deltas, with periodic keyframes. */
+    @Test
+    public void testDeltasAndKeyframes() {
+        boolean[] keyframes = new boolean[9];
+        int[] sizes = new int[9];
+        for (int i = 0; i != keyframes.length; i++) {
+            frame.clear();
+            keyframes[i] = encoder.encode(i, new PositionGameState(i, i, 0, 0), frame);
+            sizes[i] = frame.position();
+        }
+
+        Assert.assertArrayEquals(new boolean[] { true, false, false, false, true, false, false, false, true },
+                keyframes);
+        // Two changed bytes: the last bytes of the update count and the x coordinate.
+        int deltaSize = DeltaFormat.FRAME_HEADER_SIZE + Integer.BYTES + 2 * 3;
+        Assert.assertEquals(deltaSize, sizes[1]);
+        Assert.assertEquals(DeltaFormat.FRAME_HEADER_SIZE + PositionGameStateCodec.SIZE, sizes[4]);
+    }
+
+    /** Tests that an unchanged state results in an empty delta. */
+    @Test
+    public void testUnchangedState() {
+        PositionGameState state = new PositionGameState(5L, 6, 7, 8);
+        encoder.encode(0L, state, frame);
+        frame.clear();
+
+        boolean keyframe = encoder.encode(1L, state, frame);
+
+        Assert.assertFalse(keyframe);
+        Assert.assertEquals(DeltaFormat.FRAME_HEADER_SIZE + Integer.BYTES, frame.position());
+    }
+
+    /** Tests that a keyframe is written instead of a delta which would be larger than the state itself. */
+    @Test
+    public void testCompleteChange() {
+        encoder.encode(0L, new PositionGameState(0L, 0, 0, 0), frame);
+        frame.clear();
+
+        boolean keyframe = encoder.encode(1L, new PositionGameState(-1L, -1, -1, -1), frame);
+
+        Assert.assertTrue(keyframe);
+    }
+
+    /** Tests requesting a keyframe. */
+    @Test
+    public void testRequestKeyframe() {
+        encoder.encode(0L, new PositionGameState(0L, 0, 0, 0), frame);
+        frame.clear();
+
+        encoder.requestKeyframe();
+
+        Assert.assertTrue(encoder.encode(1L, new PositionGameState(0L, 0, 0, 0), frame));
+    }
+
+    /** Tests variable-length integers. */
+    @Test
+    public void testVarInt() {
+        ByteBuffer buffer = ByteBuffer.allocate(32);
+        int[] values = { 0, 1, 127, 128, 300, 1 << 21, Integer.MAX_VALUE };
+        for (int value : values) {
+            DeltaFormat.putVarInt(buffer, value);
+        }
+        buffer.flip();
+
+        for (int value : values) {
+            Assert.assertEquals(value, DeltaFormat.getVarInt(buffer));
+        }
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+}
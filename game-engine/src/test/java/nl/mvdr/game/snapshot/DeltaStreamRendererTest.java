@@ -0,0 +1,46 @@
+package nl.mvdr.game.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link DeltaStreamRenderer}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class DeltaStreamRendererTest {
+    /**
+     * Tests rendering a sequence of states and decoding the resulting stream.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testRender() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int frames = 100;
+        try (DeltaStreamRenderer<PositionGameState> renderer = new DeltaStreamRenderer<>(new PositionGameStateCodec(),
+                PositionGameStateCodec.SIZE, 30, Channels.newChannel(out))) {
+            for (int i = 0; i != frames; i++) {
+                renderer.render(new PositionGameState(i, i % 7, 0, 0));
+            }
+
+            Assert.assertEquals(frames, renderer.getFrameCount());
+            Assert.assertEquals(4L, renderer.getKeyframeCount());
+            Assert.assertEquals(out.size(), renderer.getBytesWritten());
+            // Considerably smaller than a stream of keyframes only.
+            int keyframeSize = DeltaFormat.FRAME_HEADER_SIZE + PositionGameStateCodec.SIZE;
+            Assert.assertTrue(renderer.getBytesWritten() < frames * keyframeSize * 3 / 4);
+        }
+
+        DeltaDecoder<PositionGameState> decoder = new DeltaDecoder<>(new PositionGameStateCodec(),
+                ByteBuffer.wrap(out.toByteArray()));
+        for (int i = 0; i != frames; i++) {
+            Assert.assertEquals(new PositionGameState(i, i % 7, 0, 0), decoder.next());
+        }
+        Assert.assertFalse(decoder.hasNext());
+    }
+}
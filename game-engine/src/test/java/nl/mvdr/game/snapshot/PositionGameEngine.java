@@ -0,0 +1,46 @@
+package nl.mvdr.game.snapshot;
+
+import java.util.List;
+
+import nl.mvdr.game.engine.GameEngine;
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.InputState;
+
+/**
+ * Game engine for {@link PositionGameState}, for a single player.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class PositionGameEngine implements GameEngine<PositionGameState, DummyInput> {
+    /** {@inheritDoc} */
+    @Override
+    public PositionGameState initGameState() {
+        return new PositionGameState(0L, 0, 0, 0);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PositionGameState computeNextState(PositionGameState previousState,
+            List<InputState<DummyInput>> inputStates) {
+        InputState<DummyInput> input = inputStates.get(0);
+        int x = previousState.getX();
+        int y = previousState.getY();
+        int score = previousState.getScore();
+        if (input.isPressed(DummyInput.LEFT)) {
+            x--;
+        }
+        if (input.isPressed(DummyInput.RIGHT)) {
+            x++;
+        }
+        if (input.isPressed(DummyInput.UP)) {
+            y--;
+        }
+        if (input.isPressed(DummyInput.DOWN)) {
+            y++;
+        }
+        if (input.isPressed(DummyInput.A)) {
+            score++;
+        }
+        return new PositionGameState(previousState.getUpdates() + 1, x, y, score);
+    }
+}
@@ -0,0 +1,33 @@
+package nl.mvdr.game.snapshot;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import nl.mvdr.game.state.GameState;
+
+/**
+ * Game state containing the position of a single player, which moves around based on their input.
+ * 
+ * @author Martijn van de Rijdt
+ */
+@RequiredArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode
+public class PositionGameState implements GameState {
+    /** Number of updates so far. */
+    private final long updates;
+    /** Horizontal position. */
+    private final int x;
+    /** Vertical position. */
+    private final int y;
+    /** Number of times the A button was pressed. */
+    private final int score;
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean isGameOver() {
+        return false;
+    }
+}
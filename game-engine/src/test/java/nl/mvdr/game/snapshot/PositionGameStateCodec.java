@@ -0,0 +1,28 @@
+package nl.mvdr.game.snapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Codec for {@link PositionGameState}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class PositionGameStateCodec implements GameStateCodec<PositionGameState> {
+    /** Size of an encoded state, in bytes. */
+    public static final int SIZE = Long.BYTES + 3 * Integer.BYTES;
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(PositionGameState state, ByteBuffer buffer) {
+        buffer.putLong(state.getUpdates());
+        buffer.putInt(state.getX());
+        buffer.putInt(state.getY());
+        buffer.putInt(state.getScore());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PositionGameState read(ByteBuffer buffer) {
+        return new PositionGameState(buffer.getLong(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+    }
+}
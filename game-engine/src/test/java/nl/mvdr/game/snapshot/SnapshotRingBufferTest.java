@@ -0,0 +1,134 @@
+package nl.mvdr.game.snapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SnapshotRingBuffer}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SnapshotRingBufferTest {
+    /** Tests capturing and restoring a snapshot. */
+    @Test
+    public void testCaptureAndRestore() {
+        SnapshotRingBuffer<PositionGameState> buffer = createBuffer(4);
+        PositionGameState state = new PositionGameState(0L, 3, -5, 7);
+
+        buffer.capture(0L, state);
+
+        Assert.assertTrue(buffer.contains(0L));
+        Assert.assertEquals(Optional.of(state), buffer.restore(0L));
+        // Restoring does not consume the snapshot.
+        Assert.assertEquals(Optional.of(state), buffer.restore(0L));
+        Assert.assertEquals(0L, buffer.getOldestTick());
+        Assert.assertEquals(0L, buffer.getLatestTick());
+    }
+
+    /** Tests that only the most recent ticks are retained. */
+    @Test
+    public void testWrapAround() {
+        SnapshotRingBuffer<PositionGameState> buffer = createBuffer(4);
+
+        for (long tick = 0L; tick != 10L; tick++) {
+            buffer.capture(tick, new PositionGameState(tick, (int) tick, 0, 0));
+        }
+
+        Assert.assertEquals(6L, buffer.getOldestTick());
+        Assert.assertEquals(9L, buffer.getLatestTick());
+        Assert.assertFalse(buffer.contains(5L));
+        Assert.assertFalse(buffer.restore(5L).isPresent());
+        for (long tick = 6L; tick != 10L; tick++) {
+            Assert.assertEquals(Optional.of(new PositionGameState(tick, (int) tick, 0, 0)), buffer.restore(tick));
+        }
+        Assert.assertFalse(buffer.contains(10L));
+        Assert.assertFalse(buffer.contains(-1L));
+    }
+
+    /** Tests that capturing an older tick discards the newer snapshots. */
+    @Test
+    public void testCaptureAfterRewind() {
+        SnapshotRingBuffer<PositionGameState> buffer = createBuffer(8);
+        for (long tick = 0L; tick != 6L; tick++) {
+            buffer.capture(tick, new PositionGameState(tick, 0, 0, 0));
+        }
+
+        buffer.capture(3L, new PositionGameState(3L, 1, 1, 1));
+
+        Assert.assertEquals(3L, buffer.getLatestTick());
+        Assert.assertFalse(buffer.contains(4L));
+        Assert.assertFalse(buffer.contains(5L));
+        Assert.assertEquals(Optional.of(new PositionGameState(3L, 1, 1, 1)), buffer.restore(3L));
+        Assert.assertTrue(buffer.contains(2L));
+    }
+
+    /** Tests capturing a state whose encoding does not fit in a slot. */
+    @Test(expected = IllegalStateException.class)
+    public void testSlotTooSmall() {
+        SnapshotRingBuffer<PositionGameState> buffer = new SnapshotRingBuffer<>(new PositionGameStateCodec(), 4,
+                PositionGameStateCodec.SIZE - 1);
+
+        buffer.capture(0L, new PositionGameState(0L, 0, 0, 0));
+    }
+
+    /** Tests copying a snapshot's encoding. */
+    @Test
+    public void testCopySnapshot() {
+        SnapshotRingBuffer<PositionGameState> buffer = createBuffer(4);
+        buffer.capture(2L, new PositionGameState(2L, 1, 2, 3));
+        ByteBuffer target = ByteBuffer.allocate(64);
+
+        int length = buffer.copySnapshot(2L, target);
+
+        Assert.assertEquals(PositionGameStateCodec.SIZE, length);
+        Assert.assertEquals(PositionGameStateCodec.SIZE, target.position());
+        target.flip();
+        Assert.assertEquals(new PositionGameState(2L, 1, 2, 3), new PositionGameStateCodec().read(target));
+    }
+
+    /**
+     * Tests writing a dump of all snapshots.
+     * 
+     * @throws Exception unexpected exception
+     */
+    @Test
+    public void testWriteTo() throws Exception {
+        SnapshotRingBuffer<PositionGameState> buffer = createBuffer(3);
+        for (long tick = 0L; tick != 5L; tick++) {
+            buffer.capture(tick, new PositionGameState(tick, (int) tick, 0, 0));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int written = buffer.writeTo(Channels.newChannel(out));
+
+        Assert.assertEquals(3, written);
+        ByteBuffer dump = ByteBuffer.wrap(out.toByteArray());
+        for (long tick = 2L; tick != 5L; tick++) {
+            Assert.assertEquals(tick, dump.getLong());
+            Assert.assertEquals(PositionGameStateCodec.SIZE, dump.getInt());
+            Assert.assertEquals(new PositionGameState(tick, (int) tick, 0, 0), new PositionGameStateCodec().read(dump));
+        }
+        Assert.assertFalse(dump.hasRemaining());
+    }
+
+    /** Tests the constructor with an invalid capacity. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCapacity() {
+        createBuffer(0);
+    }
+
+    /**
+     * Creates a ring buffer for {@link PositionGameState}s.
+     * 
+     * @param capacity capacity
+     * @return ring buffer
+     */
+    private static SnapshotRingBuffer<PositionGameState> createBuffer(int capacity) {
+        return new SnapshotRingBuffer<>(new PositionGameStateCodec(), capacity, PositionGameStateCodec.SIZE);
+    }
+}
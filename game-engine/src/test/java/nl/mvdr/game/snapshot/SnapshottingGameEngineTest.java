@@ -0,0 +1,84 @@
+package nl.mvdr.game.snapshot;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import nl.mvdr.game.input.BitmaskInputState;
+import nl.mvdr.game.input.DummyInput;
+import nl.mvdr.game.input.InputState;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SnapshottingGameEngine}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SnapshottingGameEngineTest {
+    /** Inputs: moving right while pressing A. */
+    private static final List<InputState<DummyInput>> INPUTS = Collections
+        .singletonList(BitmaskInputState.of(DummyInput.class, EnumSet.of(DummyInput.RIGHT, DummyInput.A)));
+
+    /** Engine under test. */
+    private SnapshottingGameEngine<PositionGameState, DummyInput> engine;
+
+    /** Sets up the test fixture. */
+    @Before
+    public void setUp() {
+        engine = new SnapshottingGameEngine<>(new PositionGameEngine(), new PositionGameStateCodec(), 16,
+                PositionGameStateCodec.SIZE);
+    }
+
+    /** Tests that every state is captured. */
+    @Test
+    public void testCapture() {
+        PositionGameState state = engine.initGameState();
+        for (int i = 0; i != 5; i++) {
+            state = engine.computeNextState(state, INPUTS);
+        }
+
+        Assert.assertEquals(5L, engine.getCurrentTick());
+        Assert.assertEquals(0L, engine.getSnapshots().getOldestTick());
+        Assert.assertEquals(5L, engine.getSnapshots().getLatestTick());
+        Assert.assertEquals(state, engine.getSnapshots().restore(5L).get());
+        Assert.assertEquals(new PositionGameState(2L, 2, 0, 2), engine.getSnapshots().restore(2L).get());
+    }
+
+    /** Tests rewinding to an earlier tick and continuing from there. */
+    @Test
+    public void testRewind() {
+        PositionGameState state = engine.initGameState();
+        for (int i = 0; i != 5; i++) {
+            state = engine.computeNextState(state, INPUTS);
+        }
+
+        engine.requestRewind(2L);
+        state = engine.computeNextState(state, INPUTS);
+
+        Assert.assertEquals(new PositionGameState(2L, 2, 0, 2), state);
+        Assert.assertEquals(2L, engine.getCurrentTick());
+
+        state = engine.computeNextState(state, INPUTS);
+
+        Assert.assertEquals(new PositionGameState(3L, 3, 0, 3), state);
+        Assert.assertEquals(3L, engine.getCurrentTick());
+        Assert.assertEquals(3L, engine.getSnapshots().getLatestTick());
+        Assert.assertFalse(engine.getSnapshots().contains(4L));
+    }
+
+    /** Tests requesting a rewind to a tick which is no longer available. */
+    @Test
+    public void testRewindUnavailable() {
+        PositionGameState state = engine.initGameState();
+        state = engine.computeNextState(state, INPUTS);
+
+        engine.requestRewind(10L);
+        state = engine.computeNextState(state, INPUTS);
+
+        Assert.assertEquals(new PositionGameState(2L, 2, 0, 2), state);
+        Assert.assertEquals(2L, engine.getCurrentTick());
+    }
+}
@@ -0,0 +1,333 @@
+package nl.mvdr.game.spatial;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Base class for the tests of {@link SpatialIndex} implementations, which compares query results to a brute-force
+ * computation.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public abstract class AbstractSpatialIndexTest {
+    /** Maximum number of entities. */
+    static final int CAPACITY = 500;
+    /** Width and height of the world. */
+    static final float WORLD_SIZE = 1000f;
+
+    /** Minimum x coordinates of the reference boxes, indexed by entity id. */
+    private final float[] minX = new float[CAPACITY];
+    /** Minimum y coordinates of the reference boxes, indexed by entity id. */
+    private final float[] minY = new float[CAPACITY];
+    /** Maximum x coordinates of the reference boxes, indexed by entity id. */
+    private final float[] maxX = new float[CAPACITY];
+    /** Maximum y coordinates of the reference boxes, indexed by entity id. */
+    private final float[] maxY = new float[CAPACITY];
+    /** Entities which are in the index. */
+    private final Set<Integer> live = new HashSet<>();
+
+    /**
+     * Creates the index under test, for a world of {@link #WORLD_SIZE} by {@link #WORLD_SIZE} with its origin at
+     * (0, 0), and room for {@link #CAPACITY} entities.
+     * 
+     * @return new, empty index
+     */
+    abstract SpatialIndex createIndex();
+
+    /** Test case for a few basic queries. */
+    @Test
+    public void testBasicQueries() {
+        SpatialIndex index = createIndex();
+        index.insert(0, 0f, 0f, 10f, 10f);
+        index.insert(1, 5f, 5f, 15f, 15f);
+        index.insert(2, 100f, 100f, 110f, 110f);
+
+        Assert.assertEquals(3, index.size());
+        Assert.assertEquals(setOf(0, 1), queryRange(index, 0f, 0f, 6f, 6f));
+        Assert.assertEquals(setOf(2), queryRange(index, 110f, 110f, 200f, 200f));
+        Assert.assertEquals(setOf(), queryRange(index, 50f, 50f, 60f, 60f));
+        Assert.assertEquals(setOf(pair(0, 1)), queryPairs(index));
+        Assert.assertEquals(2, index.queryNearest(90f, 90f, 100f));
+        Assert.assertEquals(-1, index.queryNearest(50f, 50f, 10f));
+
+        index.update(2, 8f, 8f, 18f, 18f);
+        index.remove(0);
+
+        Assert.assertEquals(2, index.size());
+        Assert.assertFalse(index.contains(0));
+        Assert.assertEquals(setOf(pair(1, 2)), queryPairs(index));
+        Assert.assertEquals(setOf(), queryRange(index, 100f, 100f, 110f, 110f));
+    }
+
+    /** Compares query results with a brute-force computation, while entities are moved, added and removed. */
+    @Test
+    public void testRandomised() {
+        Random random = new Random(42L);
+        SpatialIndex index = createIndex();
+        for (int id = 0; id != CAPACITY / 2; id++) {
+            insert(index, id, random);
+        }
+
+        for (int step = 0; step != 50; step++) {
+            for (int id = 0; id != CAPACITY; id++) {
+                boolean isLive = live.contains(Integer.valueOf(id));
+                int action = random.nextInt(20);
+                if (isLive && action < 8) {
+                    move(index, id, random);
+                } else if (isLive && action == 8) {
+                    index.remove(id);
+                    live.remove(Integer.valueOf(id));
+                } else if (!isLive && action == 9) {
+                    insert(index, id, random);
+                }
+            }
+
+            Assert.assertEquals(live.size(), index.size());
+            for (int query = 0; query != 10; query++) {
+                float x = random.nextFloat() * 1.2f * WORLD_SIZE - .1f * WORLD_SIZE;
+                float y = random.nextFloat() * 1.2f * WORLD_SIZE - .1f * WORLD_SIZE;
+                float size = random.nextFloat() * 100f;
+                Assert.assertEquals(bruteForceRange(x, y, x + size, y + size), queryRange(index, x, y, x + size,
+                        y + size));
+                Assert.assertEquals(bruteForceNearest(x, y, size), index.queryNearest(x, y, size));
+            }
+            Assert.assertEquals(bruteForcePairs(), queryPairs(index));
+        }
+    }
+
+    /** Checks that a snapshot gives the same results as the index, and is not affected by later changes. */
+    @Test
+    public void testSnapshot() {
+        Random random = new Random(7L);
+        SpatialIndex index = createIndex();
+        for (int id = 0; id != CAPACITY; id++) {
+            insert(index, id, random);
+        }
+
+        SpatialSnapshot snapshot = index.snapshot();
+        Set<Long> pairs = queryPairs(index);
+        Set<Integer> range = queryRange(index, 200f, 200f, 400f, 300f);
+        int nearest = index.queryNearest(500f, 500f, 50f);
+        index.clear();
+
+        Assert.assertEquals(0, index.size());
+        Assert.assertEquals(setOf(), queryPairs(index));
+        Assert.assertEquals(CAPACITY, snapshot.size());
+        Assert.assertEquals(pairs, queryPairs(snapshot));
+        Set<Integer> snapshotRange = new HashSet<>();
+        snapshot.queryRange(200f, 200f, 400f, 300f, id -> Assert.assertTrue(snapshotRange.add(Integer.valueOf(id))));
+        Assert.assertEquals(range, snapshotRange);
+        Assert.assertEquals(nearest, snapshot.queryNearest(500f, 500f, 50f));
+    }
+
+    /** Test case for inserting an entity twice. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInsertTwice() {
+        SpatialIndex index = createIndex();
+        index.insert(0, 0f, 0f, 1f, 1f);
+
+        index.insert(0, 0f, 0f, 1f, 1f);
+    }
+
+    /** Test case for an entity id outside of the capacity. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInsertOutOfRange() {
+        createIndex().insert(CAPACITY, 0f, 0f, 1f, 1f);
+    }
+
+    /** Test case for an invalid bounding box. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInsertInvalidBox() {
+        createIndex().insert(0, 1f, 0f, 0f, 1f);
+    }
+
+    /** Test case for updating an entity which is not in the index. */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateNonExistent() {
+        createIndex().update(0, 0f, 0f, 1f, 1f);
+    }
+
+    /**
+     * Inserts an entity with a random bounding box. Most entities are small, but some are large, and some lie outside
+     * of the world.
+     * 
+     * @param index index
+     * @param id entity id
+     * @param random random number generator
+     */
+    private void insert(SpatialIndex index, int id, Random random) {
+        float width = random.nextInt(10) == 0 ? random.nextFloat() * 300f : random.nextFloat() * 20f;
+        float height = random.nextInt(10) == 0 ? random.nextFloat() * 300f : random.nextFloat() * 20f;
+        float x = random.nextFloat() * 1.2f * WORLD_SIZE - .1f * WORLD_SIZE;
+        float y = random.nextFloat() * 1.2f * WORLD_SIZE - .1f * WORLD_SIZE;
+        setBox(id, x, y, width, height);
+        index.insert(id, minX[id], minY[id], maxX[id], maxY[id]);
+        live.add(Integer.valueOf(id));
+    }
+
+    /**
+     * Moves an entity by a small random amount.
+     * 
+     * @param index index
+     * @param id entity id
+     * @param random random number generator
+     */
+    private void move(SpatialIndex index, int id, Random random) {
+        setBox(id, minX[id] + random.nextFloat() * 20f - 10f, minY[id] + random.nextFloat() * 20f - 10f,
+                maxX[id] - minX[id], maxY[id] - minY[id]);
+        index.update(id, minX[id], minY[id], maxX[id], maxY[id]);
+    }
+
+    /**
+     * Stores a reference box.
+     * 
+     * @param id entity id
+     * @param x minimum x coordinate
+     * @param y minimum y coordinate
+     * @param width width
+     * @param height height
+     */
+    private void setBox(int id, float x, float y, float width, float height) {
+        minX[id] = x;
+        minY[id] = y;
+        maxX[id] = x + width;
+        maxY[id] = y + height;
+    }
+
+    /**
+     * Computes the result of a range query by brute force.
+     * 
+     * @param queryMinX minimum x coordinate of the query box
+     * @param queryMinY minimum y coordinate of the query box
+     * @param queryMaxX maximum x coordinate of the query box
+     * @param queryMaxY maximum y coordinate of the query box
+     * @return ids of the overlapping entities
+     */
+    private Set<Integer> bruteForceRange(float queryMinX, float queryMinY, float queryMaxX, float queryMaxY) {
+        Set<Integer> result = new HashSet<>();
+        for (Integer id : live) {
+            int i = id.intValue();
+            if (minX[i] <= queryMaxX && queryMinX <= maxX[i] && minY[i] <= queryMaxY && queryMinY <= maxY[i]) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the result of a nearest query by brute force.
+     * 
+     * @param x x coordinate
+     * @param y y coordinate
+     * @param maxDistance maximum distance
+     * @return id of the closest entity, or -1 if none
+     */
+    private int bruteForceNearest(float x, float y, float maxDistance) {
+        int result = -1;
+        float bestDistanceSquared = maxDistance * maxDistance;
+        for (int id = 0; id != CAPACITY; id++) {
+            if (live.contains(Integer.valueOf(id))) {
+                float distanceSquared = AbstractSpatialIndex.distanceSquared(x, y, minX[id], minY[id], maxX[id],
+                        maxY[id]);
+                if (distanceSquared < bestDistanceSquared || result < 0 && distanceSquared == bestDistanceSquared) {
+                    result = id;
+                    bestDistanceSquared = distanceSquared;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes all overlapping pairs by brute force.
+     * 
+     * @return pairs, encoded using {@link #pair(int, int)}
+     */
+    private Set<Long> bruteForcePairs() {
+        Set<Long> result = new HashSet<>();
+        for (int first = 0; first != CAPACITY; first++) {
+            for (int second = first + 1; second < CAPACITY; second++) {
+                if (live.contains(Integer.valueOf(first)) && live.contains(Integer.valueOf(second))
+                        && minX[first] <= maxX[second] && minX[second] <= maxX[first] && minY[first] <= maxY[second]
+                        && minY[second] <= maxY[first]) {
+                    result.add(pair(first, second));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Performs a range query, checking that no entity is reported twice.
+     * 
+     * @param index index
+     * @param queryMinX minimum x coordinate of the query box
+     * @param queryMinY minimum y coordinate of the query box
+     * @param queryMaxX maximum x coordinate of the query box
+     * @param queryMaxY maximum y coordinate of the query box
+     * @return ids of the overlapping entities
+     */
+    private static Set<Integer> queryRange(SpatialIndex index, float queryMinX, float queryMinY, float queryMaxX,
+            float queryMaxY) {
+        Set<Integer> result = new HashSet<>();
+        index.queryRange(queryMinX, queryMinY, queryMaxX, queryMaxY,
+                id -> Assert.assertTrue("Reported twice: " + id, result.add(Integer.valueOf(id))));
+        return result;
+    }
+
+    /**
+     * Performs a pair query on an index, checking that no pair is reported twice.
+     * 
+     * @param index index
+     * @return pairs, encoded using {@link #pair(int, int)}
+     */
+    private static Set<Long> queryPairs(SpatialIndex index) {
+        Set<Long> result = new HashSet<>();
+        index.queryPairs((first, second) -> Assert.assertTrue("Reported twice: " + first + ", " + second,
+                result.add(pair(first, second))));
+        return result;
+    }
+
+    /**
+     * Performs a pair query on a snapshot, checking that no pair is reported twice.
+     * 
+     * @param snapshot snapshot
+     * @return pairs, encoded using {@link #pair(int, int)}
+     */
+    private static Set<Long> queryPairs(SpatialSnapshot snapshot) {
+        Set<Long> result = new HashSet<>();
+        snapshot.queryPairs((first, second) -> Assert.assertTrue("Reported twice: " + first + ", " + second,
+                result.add(pair(first, second))));
+        return result;
+    }
+
+    /**
+     * Encodes an unordered pair of entities.
+     * 
+     * @param first one entity id
+     * @param second other entity id
+     * @return encoded pair
+     */
+    private static Long pair(int first, int second) {
+        return Long.valueOf((long) Math.min(first, second) << Integer.SIZE | Math.max(first, second));
+    }
+
+    /**
+     * Creates a set of values.
+     * 
+     * @param values values
+     * @return set
+     */
+    @SafeVarargs
+    private static <T> Set<T> setOf(T... values) {
+        Set<T> result = new HashSet<>();
+        for (T value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+}
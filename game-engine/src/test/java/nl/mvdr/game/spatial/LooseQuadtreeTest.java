@@ -0,0 +1,14 @@
+package nl.mvdr.game.spatial;
+
+/**
+ * Test class for {@link LooseQuadtree}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class LooseQuadtreeTest extends AbstractSpatialIndexTest {
+    /** {@inheritDoc} */
+    @Override
+    SpatialIndex createIndex() {
+        return new LooseQuadtree(CAPACITY, 0f, 0f, WORLD_SIZE, 6);
+    }
+}
@@ -0,0 +1,14 @@
+package nl.mvdr.game.spatial;
+
+/**
+ * Test class for {@link SortAndSweep}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class SortAndSweepTest extends AbstractSpatialIndexTest {
+    /** {@inheritDoc} */
+    @Override
+    SpatialIndex createIndex() {
+        return new SortAndSweep(CAPACITY);
+    }
+}
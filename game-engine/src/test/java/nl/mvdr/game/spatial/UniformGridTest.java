@@ -0,0 +1,14 @@
+package nl.mvdr.game.spatial;
+
+/**
+ * Test class for {@link UniformGrid}.
+ * 
+ * @author Martijn van de Rijdt
+ */
+public class UniformGridTest extends AbstractSpatialIndexTest {
+    /** {@inheritDoc} */
+    @Override
+    SpatialIndex createIndex() {
+        return new UniformGrid(CAPACITY, 0f, 0f, 25f, 40, 40);
+    }
+}